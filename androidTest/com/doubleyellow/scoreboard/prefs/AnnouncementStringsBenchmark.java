@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.prefs;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.doubleyellow.scoreboard.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares looking up the texts spoken during a match of 5 games to 11 the way Speak used to, creating Resources for the locale for every piece of text,
+ * with looking them up in AnnouncementStrings.
+ *
+ * Runs on a device or emulator: new Resources() shares the AssetManager of the app and reconfigures it for the locale,
+ * so the locale of the app is restored afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AnnouncementStringsBenchmark
+{
+    private static final String TAG = "SB." + AnnouncementStringsBenchmark.class.getSimpleName();
+
+    private static final int[] iaPerPoint = { R.string.oa_love, R.string.oa_n_all__or__n_equal, R.string.oa_handout, R.string.oa_gameball };
+    private static final int[] iaPerGame  = { R.string.oa_game, R.string.oa_games, R.string.oa_x_games_TO_y, R.string.oa_a_leads_xGamesToy, R.string.oa_time };
+    private static final int   iGames         = 5;
+    private static final int   iPointsPerGame = 20;
+    private static final int   iMatches       = 10;
+
+    @Test
+    public void sameTexts() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Locale  locale  = PreferenceValues.getAnnouncementStrings(context).getLocale();
+
+        Resources res           = context.getResources();
+        Locale    localeRestore = res.getConfiguration().locale;
+        try {
+            for ( int[] iaResIds : new int[][] { iaPerPoint, iaPerGame } ) {
+                for ( int iResId : iaResIds ) {
+                    int iResIdSpecific = PreferenceValues.getSportSpecificSuffixedResId(context, iResId);
+                    String sExpected = PreferenceValues.newResources(res, locale).getString(iResIdSpecific);
+                    assertEquals(sExpected, PreferenceValues.getAnnouncementStrings(context, locale).getSportSpecificString(iResId));
+                }
+            }
+        } finally {
+            PreferenceValues.newResources(res, localeRestore);
+        }
+    }
+
+    @Test
+    public void timePerMatch() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Locale  locale  = PreferenceValues.getAnnouncementStrings(context).getLocale();
+
+        Resources res           = context.getResources();
+        Locale    localeRestore = res.getConfiguration().locale;
+        int iDummy = 0;
+        long lResources;
+        long lStart = System.nanoTime();
+        try {
+            for ( int m = 0; m < iMatches; m++ ) {
+                for ( int g = 0; g < iGames; g++ ) {
+                    for ( int p = 0; p < iPointsPerGame; p++ ) {
+                        for ( int iResId: iaPerPoint ) {
+                            int iResIdSpecific = PreferenceValues.getSportSpecificSuffixedResId(context, iResId);
+                            iDummy += PreferenceValues.newResources(res, locale).getString(iResIdSpecific).length();
+                        }
+                    }
+                    for ( int iResId: iaPerGame ) {
+                        int iResIdSpecific = PreferenceValues.getSportSpecificSuffixedResId(context, iResId);
+                        iDummy += PreferenceValues.newResources(res, locale).getString(iResIdSpecific).length();
+                    }
+                }
+            }
+            lResources = System.nanoTime() - lStart;
+        } finally {
+            PreferenceValues.newResources(res, localeRestore);
+        }
+
+        lStart = System.nanoTime();
+        for ( int m = 0; m < iMatches; m++ ) {
+            for ( int g = 0; g < iGames; g++ ) {
+                for ( int p = 0; p < iPointsPerGame; p++ ) {
+                    for ( int iResId: iaPerPoint ) {
+                        iDummy += PreferenceValues.getAnnouncementStrings(context, locale).getSportSpecificString(iResId).length();
+                    }
+                }
+                for ( int iResId: iaPerGame ) {
+                    iDummy += PreferenceValues.getAnnouncementStrings(context, locale).getSportSpecificString(iResId).length();
+                }
+            }
+        }
+        long lTable = System.nanoTime() - lStart;
+
+        Log.i(TAG, String.format(Locale.US, "Announcement texts per match (%d matches, %s): new resources %d us, table %d us (%d)"
+                , iMatches, locale, lResources / iMatches / 1000, lTable / iMatches / 1000, iDummy));
+    }
+}
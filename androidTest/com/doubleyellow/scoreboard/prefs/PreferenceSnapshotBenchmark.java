@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.prefs;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares reading the preferences used while scoring a point via the PreferenceValues getters with reading them from a PreferenceSnapshot.
+ * Runs on a device or emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PreferenceSnapshotBenchmark
+{
+    private static final String TAG = "SB." + PreferenceSnapshotBenchmark.class.getSimpleName();
+
+    private static final int iPoints = 100;
+
+    @Test
+    public void sameValues() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        PreferenceSnapshot snapshot = PreferenceValues.getSnapshot(context);
+        for ( boolean bIsPresentation : new boolean[] { false, true } ) {
+            assertEquals(PreferenceValues.showMatchDuration(context, bIsPresentation)             , snapshot.showMatchDuration(bIsPresentation));
+            assertEquals(PreferenceValues.showLastGameDuration(context, bIsPresentation)          , snapshot.showLastGameDuration(bIsPresentation));
+            assertEquals(PreferenceValues.showScoringHistoryInMainScreen(context, bIsPresentation), snapshot.showScoringHistoryInMainScreen(bIsPresentation));
+            assertEquals(PreferenceValues.showFieldDivision(context, bIsPresentation)             , snapshot.showFieldDivision(bIsPresentation));
+            assertEquals(PreferenceValues.showBrandLogo(context, bIsPresentation)                 , snapshot.showBrandLogo(bIsPresentation));
+            assertEquals(PreferenceValues.floatingMessageForGameBall(context, bIsPresentation)    , snapshot.floatingMessageForGameBall(bIsPresentation));
+        }
+        assertEquals(PreferenceValues.showPlayerColorOn(context)                   , snapshot.showPlayerColorOn());
+        assertEquals(PreferenceValues.getGameScoresAppearance(context)             , snapshot.getGameScoresAppearance());
+        assertEquals(PreferenceValues.getServeButtonTransparencyNonServer(context) , snapshot.getServeButtonTransparencyNonServer());
+        assertEquals(PreferenceValues.indicateGameBall(context)                    , snapshot.indicateGameBall());
+        assertEquals(PreferenceValues.hideFieldDivisionWhenGameInProgress(context) , snapshot.hideFieldDivisionWhenGameInProgress());
+        assertEquals(PreferenceValues.hideBrandLogoWhenGameInProgress(context)     , snapshot.hideBrandLogoWhenGameInProgress());
+        assertEquals(PreferenceValues.recordRallyEndStatsAfterEachScore(context)   , snapshot.recordRallyEndStatsAfterEachScore());
+        assertEquals(PreferenceValues.autoShowGamePausedDialogAfterXPoints(context), snapshot.autoShowGamePausedDialogAfterXPoints());
+    }
+
+    @Test
+    public void timePerPoint() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+        long lStart = System.nanoTime();
+        int iDummy = 0;
+        for ( int i = 0; i < iPoints; i++ ) {
+            iDummy += PreferenceValues.showMatchDuration(context, false)              ? 1 : 0;
+            iDummy += PreferenceValues.showLastGameDuration(context, false)           ? 1 : 0;
+            iDummy += PreferenceValues.showScoringHistoryInMainScreen(context, false) ? 1 : 0;
+            iDummy += PreferenceValues.showFieldDivision(context, false)              ? 1 : 0;
+            iDummy += PreferenceValues.showBrandLogo(context, false)                  ? 1 : 0;
+            iDummy += PreferenceValues.floatingMessageForGameBall(context, false)     ? 1 : 0;
+            iDummy += PreferenceValues.showPlayerColorOn(context).size();
+            iDummy += PreferenceValues.getGameScoresAppearance(context).ordinal();
+            iDummy += PreferenceValues.getServeButtonTransparencyNonServer(context);
+            iDummy += PreferenceValues.indicateGameBall(context)                      ? 1 : 0;
+            iDummy += PreferenceValues.hideFieldDivisionWhenGameInProgress(context)   ? 1 : 0;
+            iDummy += PreferenceValues.hideBrandLogoWhenGameInProgress(context)       ? 1 : 0;
+            iDummy += PreferenceValues.recordRallyEndStatsAfterEachScore(context).ordinal();
+            iDummy += PreferenceValues.autoShowGamePausedDialogAfterXPoints(context);
+        }
+        long lGetters = System.nanoTime() - lStart;
+
+        lStart = System.nanoTime();
+        for ( int i = 0; i < iPoints; i++ ) {
+            PreferenceSnapshot snapshot = PreferenceValues.getSnapshot(context);
+            iDummy += snapshot.showMatchDuration(false)              ? 1 : 0;
+            iDummy += snapshot.showLastGameDuration(false)           ? 1 : 0;
+            iDummy += snapshot.showScoringHistoryInMainScreen(false) ? 1 : 0;
+            iDummy += snapshot.showFieldDivision(false)              ? 1 : 0;
+            iDummy += snapshot.showBrandLogo(false)                  ? 1 : 0;
+            iDummy += snapshot.floatingMessageForGameBall(false)     ? 1 : 0;
+            iDummy += snapshot.showPlayerColorOn().size();
+            iDummy += snapshot.getGameScoresAppearance().ordinal();
+            iDummy += snapshot.getServeButtonTransparencyNonServer();
+            iDummy += snapshot.indicateGameBall()                    ? 1 : 0;
+            iDummy += snapshot.hideFieldDivisionWhenGameInProgress() ? 1 : 0;
+            iDummy += snapshot.hideBrandLogoWhenGameInProgress()     ? 1 : 0;
+            iDummy += snapshot.recordRallyEndStatsAfterEachScore().ordinal();
+            iDummy += snapshot.autoShowGamePausedDialogAfterXPoints();
+        }
+        long lSnapshot = System.nanoTime() - lStart;
+
+        Log.i(TAG, String.format(Locale.US, "Preference lookups per point (%d points): getters %d ns, snapshot %d ns (%d)"
+                , iPoints, lGetters / iPoints, lSnapshot / iPoints, iDummy));
+    }
+}
@@ -18,19 +18,48 @@
 package com.doubleyellow.scoreboard;
 
 import android.content.Context;
+import android.util.Log;
 
+import com.doubleyellow.scoreboard.archive.MatchIndex;
 import com.doubleyellow.scoreboard.archive.PreviousMatchSelector;
 import com.doubleyellow.scoreboard.match.StaticMatchSelector;
+import com.doubleyellow.scoreboard.model.BrokenEquipment;
+import com.doubleyellow.scoreboard.model.Call;
+import com.doubleyellow.scoreboard.model.ConductType;
+import com.doubleyellow.scoreboard.model.EndMatchManuallyBecause;
 import com.doubleyellow.scoreboard.model.Model;
+import com.doubleyellow.scoreboard.model.ModelClock;
+import com.doubleyellow.scoreboard.model.Player;
+import com.doubleyellow.scoreboard.model.ScoringAction;
 import com.doubleyellow.scoreboard.prefs.PreferenceValues;
 import com.doubleyellow.util.Feature;
 import com.doubleyellow.util.FileUtil;
+import com.doubleyellow.util.ListUtil;
+import com.doubleyellow.util.Params;
+import com.doubleyellow.util.StringUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * Persists the match in progress.
+ *
+ * The complete json of the match is written as snapshot to LAST.<sport>.sb only now and then (e.g. when the activity stops).
+ * In between, each scoring action is appended as a single line to LAST.<sport>.journal.
+ * When the app was killed before it could write a new snapshot, the journal is replayed on top of the snapshot when the match is read back in.
+ * Each record holds the time of the action, so that the replayed action results in the same timings (see ModelClock).
+ */
 public class PersistHelper {
 
+    private static final String TAG = "SB." + PersistHelper.class.getSimpleName();
+
+    /** After this many journal records the journal is compacted into a new json snapshot */
+    private static final int    JOURNAL_COMPACT_AFTER_X_RECORDS = 50;
+    private static final String JOURNAL_HEADER_PREFIX           = "#snapshot:";
+    private static final String JOURNAL_SEPARATOR               = ",";
+
     public static File getLastMatchFile(Context context) {
         File file = new File(PreviousMatchSelector.getArchiveDir(context), "LAST." + Brand.getSport() + ".sb");
         if ( file.exists() == false ) {
@@ -63,6 +92,7 @@ public class PersistHelper {
 
         if ( bForceStore || bAtLeastOneGameFinished || bPossiblyContinueThisMatchAsRecent ) {
             FileUtil.writeTo(fStore, sJson);
+            MatchIndex.put(context, fStore, matchModel);
         }
         return fStore;
     }
@@ -80,6 +110,7 @@ public class PersistHelper {
             //Log.d(TAG, "persist:" + sJson);
             File fLastMatch = PersistHelper.getLastMatchFile(context);
             FileUtil.writeTo(fLastMatch, sJson);
+            startJournal(context, matchModel, sJson);
 
             // save named version only if it has progressed a little already
             // store name only when at least a game has been played so that 'restarting' a named games does not overwrite the stored result
@@ -91,4 +122,161 @@ public class PersistHelper {
             e.printStackTrace();
         }
     }
+
+    //-------------------------------------------
+    // Journal
+    //-------------------------------------------
+
+    /** The model the journal on disk currently holds scoring actions for. Null if no snapshot was written yet for the model in use */
+    private static Model   m_journaledModel          = null;
+    private static int     m_iJournalRecords         = 0;
+    private static boolean m_bJournalReplayInProgress = false;
+
+    public static File getJournalFile(Context context) {
+        return new File(PreviousMatchSelector.getArchiveDir(context), "LAST." + Brand.getSport() + ".journal");
+    }
+
+    /** Invoked for each scoring action: appends a single line to the journal instead of rewriting the complete json of the match */
+    public static void journal(Context context, Model matchModel, ScoringAction action, Object... args) {
+        if ( matchModel == null ) { return; }
+        if ( m_bJournalReplayInProgress ) { return; }
+
+        if ( (matchModel != m_journaledModel) || (m_iJournalRecords >= JOURNAL_COMPACT_AFTER_X_RECORDS) ) {
+            // no snapshot yet for this model, or journal has grown large enough: compact into a new snapshot (also holds the current action)
+            matchModel.setDirty();
+            persist(matchModel, context);
+            return;
+        }
+
+        // time the action was performed: replaying it must result in the same game and scoreline timings
+        StringBuilder sb = new StringBuilder();
+        sb.append(ModelClock.now());
+        sb.append(JOURNAL_SEPARATOR);
+        sb.append(action);
+        if ( args != null ) {
+            for ( Object arg : args ) {
+                sb.append(JOURNAL_SEPARATOR);
+                if ( arg != null ) {
+                    sb.append(arg);
+                }
+            }
+        }
+        sb.append("\n");
+        try {
+            FileUtil.appendTo(getJournalFile(context), sb.toString());
+            m_iJournalRecords++;
+        } catch (IOException e) {
+            e.printStackTrace();
+            m_journaledModel = null; // ensure a full snapshot is written with the next action
+        }
+    }
+
+    /** Invoked after a snapshot has been written: the journal starts over and is only valid for that exact snapshot */
+    private static void startJournal(Context context, Model matchModel, String sJsonSnapshot) {
+        try {
+            FileUtil.writeTo(getJournalFile(context), getJournalHeader(sJsonSnapshot) + "\n");
+            m_journaledModel  = matchModel;
+            m_iJournalRecords = 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+            m_journaledModel  = null;
+        }
+    }
+
+    private static String getJournalHeader(String sJsonSnapshot) {
+        return JOURNAL_HEADER_PREFIX + sJsonSnapshot.length() + ":" + sJsonSnapshot.hashCode();
+    }
+
+    /**
+     * To be invoked right after the model was read from the LAST match file.
+     * Replays scoring actions journaled after that snapshot was written, e.g. because the app was killed before the activity could stop properly.
+     * @return number of scoring actions replayed
+     */
+    public static int replayJournal(Context context, Model matchModel) {
+        File fJournal = getJournalFile(context);
+        if ( (matchModel == null) || (fJournal.exists() == false) ) {
+            return 0;
+        }
+        int iReplayed = 0;
+        try {
+            List<String> lRecords = FileUtil.loadAsListOfStrings(fJournal);
+            if ( ListUtil.isEmpty(lRecords) ) {
+                return 0;
+            }
+            String sJsonSnapshot = FileUtil.readFileAsString(getLastMatchFile(context));
+            if ( lRecords.get(0).equals(getJournalHeader(sJsonSnapshot)) == false ) {
+                Log.w(TAG, "Journal does not belong to the current snapshot. Ignoring it");
+                return 0;
+            }
+            m_bJournalReplayInProgress = true;
+            for ( String sRecord : lRecords.subList(1, lRecords.size()) ) {
+                if ( StringUtil.isEmpty(sRecord) ) { continue; }
+                try {
+                    replay(matchModel, sRecord);
+                    iReplayed++;
+                } catch (Exception e) {
+                    Log.w(TAG, "Could not replay journal record " + sRecord + " : " + e);
+                }
+            }
+            // the journal on disk still holds exactly what was replayed on top of the snapshot: continue appending to it
+            m_journaledModel  = matchModel;
+            m_iJournalRecords = iReplayed;
+            if ( iReplayed > 0 ) {
+                Log.i(TAG, String.format("Replayed %d journaled scoring actions", iReplayed));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            m_bJournalReplayInProgress = false;
+        }
+        return iReplayed;
+    }
+
+    /** @param sRecord time the action was performed, followed by the scoring action and its arguments */
+    private static void replay(Model matchModel, String sRecord) {
+        String[] saRecord = sRecord.split(JOURNAL_SEPARATOR, -1);
+        ModelClock.setReplayTime(Long.parseLong(saRecord[0]));
+        try {
+            replay(matchModel, Arrays.copyOfRange(saRecord, 1, saRecord.length));
+        } finally {
+            ModelClock.setReplayTime(null);
+        }
+    }
+
+    /** @param saArgs scoring action followed by its arguments */
+    private static void replay(Model matchModel, String[] saArgs) {
+        ScoringAction action = ScoringAction.valueOf(saArgs[0]);
+        Object[]      args   = null;
+        switch (action) {
+            case changeScore:
+            case undoLastForScorer:
+            case markNextRallyAsPowerPlayFor:
+            case changeSide:
+                args = new Object[] { Player.valueOf(saArgs[1]) };
+                break;
+            case undoLast:
+            case redoLast:
+                args = new Object[0];
+                break;
+            case recordAppealAndCall:
+                args = new Object[] { Player.valueOf(saArgs[1]), Call.valueOf(saArgs[2]) };
+                break;
+            case recordConduct:
+                args = new Object[] { Player.valueOf(saArgs[1]), Call.valueOf(saArgs[2]), Params.getEnumValueFromString(ConductType.class, saArgs[3]) };
+                break;
+            case recordTimeout:
+                args = new Object[] { Player.valueOf(saArgs[1]), Boolean.parseBoolean(saArgs[2]) };
+                break;
+            case recordBroken:
+                args = new Object[] { Player.valueOf(saArgs[1]), BrokenEquipment.valueOf(saArgs[2]) };
+                break;
+            case endGame:
+                args = new Object[] { Boolean.parseBoolean(saArgs[1]), Boolean.parseBoolean(saArgs[2]) };
+                break;
+            case endMatch:
+                args = new Object[] { Params.getEnumValueFromString(EndMatchManuallyBecause.class, saArgs[1]), Params.getEnumValueFromString(Player.class, saArgs[2]) };
+                break;
+        }
+        matchModel.replay(action, args);
+    }
 }
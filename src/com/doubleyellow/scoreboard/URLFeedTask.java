@@ -18,12 +18,24 @@
 package com.doubleyellow.scoreboard;
 
 import android.content.Context;
+import android.util.Log;
 import com.doubleyellow.android.task.URLTask;
 import com.doubleyellow.android.util.ContentReceiver;
+import com.doubleyellow.android.util.ContentUtil;
 import com.doubleyellow.scoreboard.prefs.PreferenceValues;
+import com.doubleyellow.util.FileUtil;
 import com.doubleyellow.util.StringUtil;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,9 +43,19 @@ import java.util.regex.Pattern;
  * Extending URLTask mainly for
  * - hiding 'caching parameters' purposes (but doing caching nevertheless)
  * - using configurable timeout
+ * - revalidating an outdated cache file with a conditional (gzipped) request before URLTask uses it:
+ *   if the server responds with 304 only the age of the cache file is reset.
+ *   The request has the same headers as URLTask would send, cookies are shared via the default CookieHandler URLTask installs
+ * - optionally handing the outdated cached content to the receiver while revalidating (stale-while-revalidate)
  */
 public class URLFeedTask extends URLTask
 {
+    private static final String TAG = "SB." + URLFeedTask.class.getSimpleName();
+
+    private static final String VALIDATION         = "(<html|<HTML|Undefined index)";
+    private static final String H_ETAG             = "ETag";
+    private static final String H_LAST_MODIFIED    = "Last-Modified";
+    private static final String H_USER_AGENT       = "User-Agent";
     //public static final String SQUORE_BASE_URL = "http://squore.double-yellow.be";
     public static String prefixWithBaseIfRequired(String sURL) {
         if ( sURL == null ) { return null; }
@@ -53,8 +75,207 @@ public class URLFeedTask extends URLTask
         this(ctx, sUrl, PreferenceValues.getFeedReadTimeout(ctx) * 1000);
     }
     private URLFeedTask(Context ctx, String sUrl, int iReadTimeoutMS) {
-        super(ctx, sUrl, sUrl.replace(Brand.getBaseURL(), "").replaceAll("(.)/","$1.").replaceAll("[^a-zA-Z0-9\\.]", "") + ".txt", "(<html|<HTML|Undefined index)");
+        this(ctx, sUrl, sUrl.replace(Brand.getBaseURL(), "").replaceAll("(.)/","$1.").replaceAll("[^a-zA-Z0-9\\.]", "") + ".txt", iReadTimeoutMS);
+    }
+    private URLFeedTask(Context ctx, String sUrl, String sCacheFileName, int iReadTimeoutMS) {
+        super(ctx, sUrl, sCacheFileName, VALIDATION);
         this.iReadTimeoutMS = iReadTimeoutMS;
+        this.m_context      = ctx.getApplicationContext();
+        this.m_sURL         = sUrl;
+        this.m_fCache       = new File(ctx.getCacheDir(), sCacheFileName); // same file as used by URLTask
+        this.m_fValidators  = new File(ctx.getCacheDir(), sCacheFileName + ".validators");
+    }
+
+    private final Context         m_context;
+    private final String          m_sURL;
+    private final File            m_fCache;
+    /** ETag and Last-Modified of the response stored in the cache file */
+    private final File            m_fValidators;
+    private       boolean         m_bCacheFileToOld        = false;
+    private       boolean         m_bCustomUserAgent       = false;
+    private       boolean         m_bNoCustomUserAgent     = false;
+    /** headers as set on URLTask */
+    private final Map<String, String> m_mHeaders           = new LinkedHashMap<>();
+    private       boolean         m_bStaleWhileRevalidate  = false;
+    private       ContentReceiver m_contentReceiver        = null;
+    private       String          m_sStaleContent          = null;
+    private       long            m_lStaleCacheAge         = 0;
+    private volatile boolean      m_bRevalidating          = false;
+    private       boolean         m_bUnchanged             = false;
+
+    /**
+     * If the cache file is outdated, first hand its content to the receiver (as FetchResult.OK), then revalidate.
+     * The receiver is invoked a second time once fetching completes: see isUnchangedSinceRevalidating().
+     */
+    public void setStaleWhileRevalidate(boolean b) {
+        m_bStaleWhileRevalidate = b;
+    }
+    /** true while the receiver is handed content that is being revalidated */
+    public boolean isRevalidating() {
+        return m_bRevalidating;
+    }
+    /** true while the receiver is handed the final content, if it is the same as the content handed to it while revalidating */
+    public boolean isUnchangedSinceRevalidating() {
+        return m_bUnchanged;
+    }
+
+    @Override public void setContentReceiver(ContentReceiver receiver) {
+        super.setContentReceiver(receiver);
+        m_contentReceiver = receiver;
+    }
+    @Override public void setCacheFileToOld(boolean b) {
+        super.setCacheFileToOld(b);
+        m_bCacheFileToOld = b;
+    }
+    @Override public void forceFetch() {
+        super.forceFetch();
+        m_bCacheFileToOld = true;
+    }
+    @Override public void setHeader(String sName, String sValue) {
+        super.setHeader(sName, sValue);
+        m_mHeaders.put(sName, sValue);
+    }
+    @Override public void setNoCustomUserAgent(boolean b) {
+        super.setNoCustomUserAgent(b);
+        m_bNoCustomUserAgent = b;
+    }
+    @Override public void setNrForUserAgent(int i) {
+        super.setNrForUserAgent(i);
+        m_bCustomUserAgent = true; // can not be reproduced here: leave fetching to URLTask
+    }
+
+    @Override protected String doInBackground(String... params) {
+        boolean bPlainGet = (params == null || params.length == 0) && (m_bCustomUserAgent == false);
+        if ( bPlainGet && isCacheOutdated() && ContentUtil.isNetworkAvailable(m_context) ) {
+            if ( m_bStaleWhileRevalidate && m_fCache.exists() ) {
+                try {
+                    m_sStaleContent  = FileUtil.readFileAsString(m_fCache);
+                    m_lStaleCacheAge = System.currentTimeMillis() - m_fCache.lastModified();
+                    publishProgress();
+                } catch (Exception e) {
+                    Log.w(TAG, "Could not read " + m_fCache + " : " + e);
+                }
+            }
+            if ( revalidateCacheFile() ) {
+                // let URLTask use the (now up to date) cache file
+                super.setCacheFileToOld(false);
+            }
+        }
+        return super.doInBackground(params);
+    }
+
+    @Override protected void onProgressUpdate(Void... values) {
+        if ( (m_contentReceiver == null) || (m_sStaleContent == null) || isCancelled() ) { return; }
+        m_bRevalidating = true;
+        try {
+            m_contentReceiver.receive(m_sStaleContent, ContentReceiver.FetchResult.OK, m_lStaleCacheAge, m_sStaleContent, m_sURL);
+        } finally {
+            m_bRevalidating = false;
+        }
+    }
+
+    @Override protected void onPostExecute(String sContent) {
+        m_bUnchanged = (m_sStaleContent != null) && m_sStaleContent.equals(sContent);
+        if ( m_bUnchanged ) {
+            Log.d(TAG, "Content unchanged since it was handed to receiver: " + m_sURL);
+        }
+        try {
+            super.onPostExecute(sContent);
+        } finally {
+            m_bUnchanged = false;
+        }
+    }
+
+    private boolean isCacheOutdated() {
+        if ( m_bCacheFileToOld || (m_fCache.exists() == false) ) { return true; }
+        return System.currentTimeMillis() - m_fCache.lastModified() > getMaximumReuseCacheTimeMS(m_fCache.getName());
+    }
+
+    /**
+     * Sends a request with If-None-Match/If-Modified-Since for the validators stored with the cache file.
+     * Returns true if the cache file is up to date afterwards. If false, URLTask will do the fetching (and the error handling).
+     */
+    private boolean revalidateCacheFile() {
+        HttpURLConnection connection = null;
+        try {
+            Properties validators = m_fCache.exists() && m_fValidators.exists() ? FileUtil.readPropertiesFile(m_fValidators) : new Properties();
+
+            connection = (HttpURLConnection) new URL(m_sURL).openConnection();
+            connection.setConnectTimeout(getReadTimeout());
+            connection.setReadTimeout   (getReadTimeout());
+            for ( Map.Entry<String, String> header : getRequestHeaders().entrySet() ) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if ( validators.containsKey(H_ETAG) ) {
+                connection.setRequestProperty("If-None-Match"    , validators.getProperty(H_ETAG));
+            }
+            if ( validators.containsKey(H_LAST_MODIFIED) ) {
+                connection.setRequestProperty("If-Modified-Since", validators.getProperty(H_LAST_MODIFIED));
+            }
+
+            int iResponseCode = connection.getResponseCode();
+            if ( iResponseCode == HttpURLConnection.HTTP_NOT_MODIFIED ) {
+                Log.d(TAG, "Not modified: " + m_sURL);
+                if ( m_fCache.setLastModified(System.currentTimeMillis()) == false ) {
+                    FileUtil.writeTo(m_fCache, FileUtil.readFileAsString(m_fCache));
+                }
+                return true;
+            }
+            if ( iResponseCode != HttpURLConnection.HTTP_OK ) {
+                return false;
+            }
+
+            InputStream is = connection.getInputStream();
+            if ( "gzip".equalsIgnoreCase(connection.getContentEncoding()) ) {
+                is = new GZIPInputStream(is);
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int iRead;
+            while ( (iRead = is.read(buffer)) != -1 ) {
+                if ( isCancelled() ) {
+                    is.close();
+                    return false;
+                }
+                baos.write(buffer, 0, iRead);
+            }
+            is.close();
+            String sContent = baos.toString("UTF-8");
+            if ( validateContent(m_sURL, sContent, VALIDATION) == false ) {
+                return false;
+            }
+            FileUtil.writeTo(m_fCache, sContent);
+
+            Map<String, String> mValidators = new HashMap<>();
+            String sETag         = connection.getHeaderField(H_ETAG);
+            String sLastModified = connection.getHeaderField(H_LAST_MODIFIED);
+            if ( StringUtil.isNotEmpty(sETag)         ) { mValidators.put(H_ETAG         , sETag); }
+            if ( StringUtil.isNotEmpty(sLastModified) ) { mValidators.put(H_LAST_MODIFIED, sLastModified); }
+            if ( mValidators.isEmpty() ) {
+                m_fValidators.delete();
+            } else {
+                FileUtil.writePropertiesFile(mValidators, m_fValidators);
+            }
+            Log.d(TAG, String.format("Fetched %d characters for %s (gzip: %s)", sContent.length(), m_sURL, connection.getContentEncoding()));
+            return true;
+        } catch (Exception e) {
+            Log.w(TAG, "Revalidating " + m_sURL + " failed: " + e);
+            return false;
+        } finally {
+            if ( connection != null ) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /** The headers URLTask sends for a plain GET */
+    private Map<String, String> getRequestHeaders() {
+        Map<String, String> mHeaders = new LinkedHashMap<>(m_mHeaders);
+        if ( (mHeaders.containsKey(H_USER_AGENT) == false) && (m_bNoCustomUserAgent == false) ) {
+            mHeaders.put(H_USER_AGENT, URLTask.getMyUserAgentString(m_context));
+        }
+        return mHeaders;
     }
 
     @Override public int getMaximumReuseCacheTimeMS(String sCacheFile) {
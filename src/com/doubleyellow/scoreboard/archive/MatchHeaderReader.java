@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.archive;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Log;
+
+import com.doubleyellow.scoreboard.Brand;
+import com.doubleyellow.scoreboard.model.JSONKey;
+import com.doubleyellow.scoreboard.model.Model;
+import com.doubleyellow.scoreboard.model.Player;
+import com.doubleyellow.scoreboard.model.SportType;
+import com.doubleyellow.scoreboard.model.Util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads only the few details of a stored match needed to list it in the archive.
+ *
+ * Unlike Model.fromJsonString() no JSONObject tree of the complete match is built:
+ * the file is streamed and all values that are not needed (score history, timings, format, ...) are skipped.
+ */
+class MatchHeaderReader {
+
+    private static final String TAG = "SB." + MatchHeaderReader.class.getSimpleName();
+
+    private String m_sEventName     = "";
+    private String m_sEventDivision = "";
+    private String m_sEventRound    = "";
+    private String m_sDate          = null;
+    private String m_sTime          = null;
+    private String m_sResult        = null;
+    private String m_sSport         = SportType.Squash.toString();
+    private boolean m_bHasPlayers   = false;
+    private final Map<Player, String> m_player2Name = new EnumMap<>(Player.class);
+    private final Map<Player, String> m_player2Club = new EnumMap<>(Player.class);
+
+    private MatchHeaderReader() {}
+
+    /**
+     * Returns null if the file is corrupt or contains a match of another sport.
+     *
+     * For sports where the list shows more than the stored result (Racketlon: game scores) the match is still read fully.
+     */
+    static MatchIndex.Entry read(File f) {
+        if ( Brand.isRacketlon() ) {
+            Model match = Brand.getModel();
+            if ( match.fromJsonString(f) == false ) {
+                return null;
+            }
+            return new MatchIndex.Entry(f, match);
+        }
+
+        MatchHeaderReader header = new MatchHeaderReader();
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8")));
+            header.readMatch(reader);
+        } catch (Exception e) {
+            Log.w(TAG, "Could not read " + f.getName() + " : " + e.getMessage());
+            return null;
+        } finally {
+            if ( reader != null ) {
+                try { reader.close(); } catch (Exception e) { }
+            }
+        }
+        return header.toEntry(f);
+    }
+
+    private MatchIndex.Entry toEntry(File f) {
+        if ( m_bHasPlayers == false ) {
+            // should not be possible, but we might have imported a corrupt file into our 'stored matches'
+            return null;
+        }
+        if ( m_sSport.contains(Brand.getSport().toString()) == false ) {
+            // using 'contains' for TennisPadel for Padel version
+            return null;
+        }
+        String sDate = Model.normalizeJsonDate(m_sDate);
+        String sTime = (m_sTime == null) ? "" : Model.normalizeJsonTime(m_sTime);
+        return new MatchIndex.Entry(f
+                , m_sEventName, m_sEventDivision, m_sEventRound
+                , getName(Player.A), getName(Player.B)
+                , m_player2Club.get(Player.A), m_player2Club.get(Player.B)
+                , Model.getMatchDate(sDate, sTime)
+                , Model.getMatchStartTimeHH_Colon_MM(sTime)
+                , m_sResult);
+    }
+
+    /** Same as Model.getName(Player): without seeding and country */
+    private String getName(Player p) {
+        String sName = m_player2Name.get(p);
+        if ( sName == null ) {
+            sName = "";
+        }
+        return Util.removeCountry(Util.removeSeeding(sName.trim()));
+    }
+
+    private void readMatch(JsonReader reader) throws Exception {
+        reader.beginObject();
+        while ( reader.hasNext() ) {
+            JSONKey key = toKey(reader.nextName());
+            if ( key == null ) {
+                reader.skipValue();
+                continue;
+            }
+            switch (key) {
+                case event:
+                    readEvent(reader);
+                    break;
+                case players:
+                    m_bHasPlayers = readPlayerMap(reader, m_player2Name);
+                    break;
+                case clubs:
+                    readPlayerMap(reader, m_player2Club);
+                    break;
+                case when:
+                    // new in 3.17
+                    readWhen(reader);
+                    break;
+                case date:
+                    // old
+                    if ( m_sDate == null ) { m_sDate = nextString(reader); } else { reader.skipValue(); }
+                    break;
+                case time:
+                    // old
+                    if ( m_sTime == null ) { m_sTime = nextString(reader); } else { reader.skipValue(); }
+                    break;
+                case result:
+                    m_sResult = nextString(reader);
+                    break;
+                case sport:
+                    String sSport = nextString(reader);
+                    if ( sSport != null ) {
+                        m_sSport = sSport;
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readEvent(JsonReader reader) throws Exception {
+        if ( reader.peek() != JsonToken.BEGIN_OBJECT ) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while ( reader.hasNext() ) {
+            JSONKey key = toKey(reader.nextName());
+            if ( key == null ) {
+                reader.skipValue();
+                continue;
+            }
+            switch (key) {
+                case name:     m_sEventName     = trim(nextString(reader)); break;
+                case division: m_sEventDivision = trim(nextString(reader)); break;
+                case round:    m_sEventRound    = trim(nextString(reader)); break;
+                default:       reader.skipValue();                          break;
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readWhen(JsonReader reader) throws Exception {
+        if ( reader.peek() != JsonToken.BEGIN_OBJECT ) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while ( reader.hasNext() ) {
+            JSONKey key = toKey(reader.nextName());
+            if ( JSONKey.date.equals(key) ) {
+                m_sDate = nextString(reader);
+            } else if ( JSONKey.time.equals(key) ) {
+                m_sTime = nextString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static boolean readPlayerMap(JsonReader reader, Map<Player, String> mTarget) throws Exception {
+        if ( reader.peek() != JsonToken.BEGIN_OBJECT ) {
+            reader.skipValue();
+            return false;
+        }
+        reader.beginObject();
+        while ( reader.hasNext() ) {
+            String sPlayer = reader.nextName();
+            if ( sPlayer.equals(Player.A.toString()) ) {
+                mTarget.put(Player.A, nextString(reader));
+            } else if ( sPlayer.equals(Player.B.toString()) ) {
+                mTarget.put(Player.B, nextString(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return true;
+    }
+
+    /** Like JSONObject.optString(): returns strings, numbers and booleans as string, null for anything else */
+    private static String nextString(JsonReader reader) throws Exception {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private static String trim(String s) {
+        return (s == null) ? "" : s.trim();
+    }
+
+    /** Only the keys we are interested in: avoids the exception of JSONKey.valueOf() for all others */
+    private static final Map<String, JSONKey> m_mKeys = new HashMap<>();
+    static {
+        for ( JSONKey key : new JSONKey[] { JSONKey.event, JSONKey.name, JSONKey.division, JSONKey.round
+                                          , JSONKey.players, JSONKey.clubs
+                                          , JSONKey.when, JSONKey.date, JSONKey.time
+                                          , JSONKey.result, JSONKey.sport } ) {
+            m_mKeys.put(key.toString(), key);
+        }
+    }
+    private static JSONKey toKey(String sName) {
+        return m_mKeys.get(sName);
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.archive;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.doubleyellow.scoreboard.Brand;
+import com.doubleyellow.scoreboard.model.Model;
+import com.doubleyellow.scoreboard.model.Player;
+import com.doubleyellow.util.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Index of the stored matches: holds, per file, the few details needed to list the match in the archive.
+ *
+ * An entry is only valid as long as name, last modified timestamp and size of the file are unchanged.
+ * Files that were added or changed outside the app (e.g. by an import) are detected that way and re-parsed by ReadStoredMatches.
+ */
+public class MatchIndex {
+
+    private static final String TAG = "SB." + MatchIndex.class.getSimpleName();
+
+    /** deliberately not ending with .sb or .json to not be picked up as a stored match */
+    private static final String INDEX_FILENAME = "archive.%s.index";
+    private static final String SEPARATOR      = "\t";
+    private static final int    VERSION        = 1;
+
+    public static class Entry {
+        final String sFileName;
+        final long   lLastModified;
+        final long   lSize;
+
+        final String sEventName;
+        final String sEventDivision;
+        final String sEventRound;
+        final String sNameA;
+        final String sNameB;
+        final String sClubA;
+        final String sClubB;
+        final long   lMatchDate;
+        final String sStartTimeHHMM;
+        final String sResult;
+        final String sGameScores;
+
+        private Entry(String[] saValues) {
+            int i = 0;
+            sFileName      = saValues[i++];
+            lLastModified  = Long.parseLong(saValues[i++]);
+            lSize          = Long.parseLong(saValues[i++]);
+            sEventName     = saValues[i++];
+            sEventDivision = saValues[i++];
+            sEventRound    = saValues[i++];
+            sNameA         = saValues[i++];
+            sNameB         = saValues[i++];
+            sClubA         = saValues[i++];
+            sClubB         = saValues[i++];
+            lMatchDate     = Long.parseLong(saValues[i++]);
+            sStartTimeHHMM = saValues[i++];
+            sResult        = saValues[i++];
+            sGameScores    = saValues[i++];
+        }
+        Entry(File f, Model match) {
+            sFileName      = f.getName();
+            lLastModified  = f.lastModified();
+            lSize          = f.length();
+            sEventName     = match.getEventName();
+            sEventDivision = match.getEventDivision();
+            sEventRound    = match.getEventRound();
+            sNameA         = match.getName(Player.A);
+            sNameB         = match.getName(Player.B);
+            sClubA         = match.getClub(Player.A);
+            sClubB         = match.getClub(Player.B);
+            lMatchDate     = match.getMatchDate().getTime();
+            sStartTimeHHMM = match.getMatchStartTimeHH_Colon_MM();
+            sResult        = match.getResult();
+            sGameScores    = Brand.isRacketlon() ? match.getGameScores() : null;
+        }
+
+        /** Used by MatchHeaderReader */
+        Entry(File f, String sEventName, String sEventDivision, String sEventRound
+                    , String sNameA, String sNameB, String sClubA, String sClubB
+                    , Date dMatchDate, String sStartTimeHHMM, String sResult) {
+            this.sFileName      = f.getName();
+            this.lLastModified  = f.lastModified();
+            this.lSize          = f.length();
+            this.sEventName     = sEventName;
+            this.sEventDivision = sEventDivision;
+            this.sEventRound    = sEventRound;
+            this.sNameA         = sNameA;
+            this.sNameB         = sNameB;
+            this.sClubA         = sClubA;
+            this.sClubB         = sClubB;
+            this.lMatchDate     = dMatchDate.getTime();
+            this.sStartTimeHHMM = sStartTimeHHMM;
+            this.sResult        = sResult;
+            this.sGameScores    = null;
+        }
+
+        boolean isValidFor(File f) {
+            return (lLastModified == f.lastModified()) && (lSize == f.length());
+        }
+
+        public String getEventName()     { return sEventName; }
+        public String getEventDivision() { return sEventDivision; }
+        public String getEventRound()    { return sEventRound; }
+        public String getName(Player p)  { return Player.A.equals(p) ? sNameA : sNameB; }
+        public String getClub(Player p)  { return Player.A.equals(p) ? sClubA : sClubB; }
+        public Date   getMatchDate()     { return new Date(lMatchDate); }
+        public String getMatchStartTimeHH_Colon_MM() { return sStartTimeHHMM; }
+        public String getResult()        { return sResult; }
+        public String getGameScores()    { return sGameScores; }
+
+        private String toLine() {
+            Object[] oaValues = { sFileName, lLastModified, lSize
+                                , sEventName, sEventDivision, sEventRound
+                                , sNameA, sNameB, sClubA, sClubB
+                                , lMatchDate, sStartTimeHHMM, sResult, sGameScores };
+            StringBuilder sb = new StringBuilder();
+            for ( Object o : oaValues ) {
+                if ( sb.length() > 0 ) {
+                    sb.append(SEPARATOR);
+                }
+                sb.append(clean(o));
+            }
+            return sb.toString();
+        }
+        private static String clean(Object o) {
+            if ( o == null ) { return ""; }
+            return String.valueOf(o).replaceAll("[\\t\\r\\n]", " ");
+        }
+    }
+
+    /** Kept in memory once loaded, shared by the archive and PersistHelper */
+    private static Map<String, Entry> m_mIndex  = null;
+    private static boolean            m_bDirty  = false;
+
+    private static File getIndexFile(Context context) {
+        return new File(PreviousMatchSelector.getArchiveDir(context), String.format(INDEX_FILENAME, Brand.getSport()));
+    }
+
+    private static synchronized Map<String, Entry> getIndex(Context context) {
+        if ( m_mIndex != null ) {
+            return m_mIndex;
+        }
+        m_mIndex = new HashMap<>();
+        File fIndex = getIndexFile(context);
+        if ( fIndex.exists() == false ) {
+            return m_mIndex;
+        }
+        try {
+            // split ourselves: trailing empty values must be preserved
+            String[] saLines = FileUtil.readFileAsString(fIndex).split("\n");
+            if ( saLines[0].equals(String.valueOf(VERSION)) == false ) {
+                return m_mIndex;
+            }
+            for ( int i = 1; i < saLines.length; i++ ) {
+                String sLine = saLines[i];
+                String[] saValues = sLine.split(SEPARATOR, -1);
+                try {
+                    Entry entry = new Entry(saValues);
+                    m_mIndex.put(entry.sFileName, entry);
+                } catch (Exception e) {
+                    Log.w(TAG, "Skipping index line " + sLine);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return m_mIndex;
+    }
+
+    /** Returns the indexed details of the match stored in the file, or null if the file was changed since it was indexed */
+    static synchronized Entry get(Context context, File f) {
+        Entry entry = getIndex(context).get(f.getName());
+        if ( (entry != null) && entry.isValidFor(f) ) {
+            return entry;
+        }
+        return null;
+    }
+
+    /** Files with fewer entries to read than this are read on the calling thread */
+    private static final int MIN_FILES_FOR_POOL = 8;
+    private static final int MAX_THREADS        = 4;
+
+    /**
+     * Returns the details for each of the files that could be read.
+     * Files not (validly) present in the index are read with MatchHeaderReader, spread over a bounded number of threads.
+     */
+    static Map<File, Entry> getEntries(final Context context, List<File> lFiles) {
+        Map<File, Entry> mReturn = new HashMap<>();
+        List<File>       lToRead = new ArrayList<>();
+        for ( File f : lFiles ) {
+            Entry entry = get(context, f);
+            if ( entry != null ) {
+                mReturn.put(f, entry);
+            } else {
+                lToRead.add(f);
+            }
+        }
+        if ( lToRead.size() == 0 ) {
+            return mReturn;
+        }
+
+        int iThreads = Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+        if ( (lToRead.size() < MIN_FILES_FOR_POOL) || (iThreads < 2) ) {
+            for ( File f : lToRead ) {
+                readAndPut(context, f, mReturn);
+            }
+            return mReturn;
+        }
+
+        final Map<File, Entry> mRead = new ConcurrentHashMap<>();
+        List<Callable<Void>> lTasks = new ArrayList<>();
+        for ( final File f : lToRead ) {
+            lTasks.add(new Callable<Void>() {
+                @Override public Void call() {
+                    readAndPut(context, f, mRead);
+                    return null;
+                }
+            });
+        }
+        long lStart = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(iThreads);
+        try {
+            pool.invokeAll(lTasks);
+        } catch (InterruptedException e) {
+            Log.w(TAG, "Interrupted while reading stored matches");
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        Log.d(TAG, String.format("Read %d of %d matches using %d threads in %d ms", lToRead.size(), lFiles.size(), iThreads, System.currentTimeMillis() - lStart));
+        mReturn.putAll(mRead);
+        return mReturn;
+    }
+
+    private static void readAndPut(Context context, File f, Map<File, Entry> mTarget) {
+        if ( f.length() == 0 ) {
+            f.delete();
+            return;
+        }
+        Entry entry = MatchHeaderReader.read(f);
+        if ( entry == null ) {
+            // corrupt, or from wrong brand...
+            Log.w(TAG, "Skipping " + f.getName());
+            return;
+        }
+        synchronized (MatchIndex.class) {
+            getIndex(context).put(entry.sFileName, entry);
+            m_bDirty = true;
+        }
+        mTarget.put(f, entry);
+    }
+
+    /** To be invoked right after the match has been written to the file */
+    public static synchronized Entry put(Context context, File f, Model match) {
+        Entry entry = new Entry(f, match);
+        getIndex(context).put(entry.sFileName, entry);
+        m_bDirty = true;
+        return entry;
+    }
+
+    public static synchronized void remove(Context context, File f) {
+        if ( getIndex(context).remove(f.getName()) != null ) {
+            m_bDirty = true;
+        }
+    }
+
+    /** Remove entries of files that no longer exist */
+    static synchronized void retainOnly(Context context, Collection<File> lFiles) {
+        Set<String> lNames = new HashSet<>();
+        for ( File f : lFiles ) {
+            lNames.add(f.getName());
+        }
+        if ( getIndex(context).keySet().retainAll(lNames) ) {
+            m_bDirty = true;
+        }
+    }
+
+    /** Writes the index to disk if it was changed since it was read */
+    static synchronized void save(Context context) {
+        if ( (m_mIndex == null) || (m_bDirty == false) ) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(VERSION).append("\n");
+        for ( Entry entry : m_mIndex.values() ) {
+            sb.append(entry.toLine()).append("\n");
+        }
+        try {
+            FileUtil.writeTo(getIndexFile(context), sb.toString());
+            m_bDirty = false;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
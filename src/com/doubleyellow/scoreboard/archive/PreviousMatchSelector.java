@@ -448,18 +448,16 @@ public class PreviousMatchSelector extends ExpandableMatchSelector
         List<File> lAllMatchFiles = getLastFewHoursMatches(context, iHoursBack);
         if ( lAllMatchFiles == null ) { return mReturn; }
 
+        Map<File, MatchIndex.Entry> mEntries = MatchIndex.getEntries(context, lAllMatchFiles);
         for(File fStored: lAllMatchFiles ) {
-            Model mTmp = Brand.getModel();
-            try {
-                if ( mTmp.fromJsonString(fStored) ) {
-                    String sA = mTmp.getName(Player.A);
-                    String sB = mTmp.getName(Player.B);
-                    mReturn.put(getKeyFromNames(sA, sB), fStored);
-                };
-            } catch (Exception e) {
-                e.printStackTrace();
+            MatchIndex.Entry entry = mEntries.get(fStored);
+            if ( entry != null ) {
+                String sA = entry.getName(Player.A);
+                String sB = entry.getName(Player.B);
+                mReturn.put(getKeyFromNames(sA, sB), fStored);
             }
         }
+        MatchIndex.save(context);
         return mReturn;
     }
 
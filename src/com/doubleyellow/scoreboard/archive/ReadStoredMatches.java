@@ -125,8 +125,6 @@ class ReadStoredMatches extends AsyncTask<String /* Params: input of execute() *
     }
 
     private void populate(List<File> lAllMatchFiles, SimpleELAdapter adapter) {
-        boolean bFastRead = (lAllMatchFiles.size() >= 20); // for performance reasons: fast read only tries to read name, date, time after parsing
-
         Activity activity = m_ems.getActivity();
         GroupMatchesBy sortBy    = PreferenceValues.groupArchivedMatchesBy(activity); // Event, Date
         Collections.sort(lAllMatchFiles);
@@ -137,36 +135,13 @@ class ReadStoredMatches extends AsyncTask<String /* Params: input of execute() *
         Set<String> mPlayers = new HashSet<String>();
         Set<String> mClubs   = new HashSet<String>();
 
+        MatchIndex.retainOnly(activity, lAllMatchFiles);
+        Map<File, MatchIndex.Entry> mEntries = MatchIndex.getEntries(activity, lAllMatchFiles);
         for (File fMatchModel : lAllMatchFiles) {
-            Model match = Brand.getModel();
-            //match.setClean();
-            String sJson = null;
-            try {
-                sJson = FileUtil.readFileAsString(fMatchModel);
-            } catch (IOException e) {
-                continue;
-            }
-            if ( StringUtil.isEmpty(sJson) ) {
-                fMatchModel.delete();
+            MatchIndex.Entry match = mEntries.get(fMatchModel);
+            if ( match == null ) {
                 continue;
             }
-            if ( match.fromJsonString(sJson, bFastRead) == null ) {
-                // corrupt, or from wrong brand...
-                Log.w(TAG, "Skipping " + fMatchModel.getName());
-                continue;
-            }
-            if ( false && match.isDirty() ) { // TODO: why was this again: 20200515 called to many times.. so disabled ?
-                try {
-                    if ( bFastRead ) {
-                        // re-read it fully first so nothing gets lost
-                        match.fromJsonString(sJson, false);
-                    }
-                    fMatchModel.delete();
-                    PersistHelper.storeAsPrevious(activity, match, true);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
 
             Date   dMatchDate    = match.getMatchDate();
             String sDate         = sdf.format(dMatchDate);
@@ -220,16 +195,25 @@ class ReadStoredMatches extends AsyncTask<String /* Params: input of execute() *
 
             // prevent duplicates
             if ( fDuplicate != null ) {
+                // re-read it fully first so nothing gets lost
+                Model model = Brand.getModel();
+                if ( model.fromJsonString(fMatchModel) == false ) {
+                    continue;
+                }
                 fDuplicate.delete();
                 fMatchModel.delete();
+                MatchIndex.remove(activity, fDuplicate);
+                MatchIndex.remove(activity, fMatchModel);
                 try {
-                    File fReal = PersistHelper.storeAsPrevious(activity, match, true);
+                    File fReal = PersistHelper.storeAsPrevious(activity, model, true);
                     adapter.addItem(sEventName, sDate + " " + sMatchDesc, fReal);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             }
         }
+        MatchIndex.save(activity);
+
         if ( PreferenceValues.useMyListFunctionality(activity) ) {
             PreferenceValues.addPlayersToList(activity, mPlayers);
             PreferenceValues.addStringsToList(activity, PreferenceKeys.eventList, mEvents);
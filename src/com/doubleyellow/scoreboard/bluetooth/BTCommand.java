@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.bluetooth;
+
+import com.doubleyellow.scoreboard.model.Player;
+import com.doubleyellow.util.StringUtil;
+
+/**
+ * A 'method(arg,arg)' message with the method already resolved and the arguments already split.
+ * Can be handed to ScoreBoard.interpretReceivedCommand() as is, without parsing the text again.
+ */
+public class BTCommand {
+
+    public final BTMethods method;
+    /** Same layout as splitting the message text on '(', ')' and ',': method name at index 0, then the (trimmed) arguments */
+    public final String[]  saMethodNArgs;
+    /** The message as text, e.g. to pass on to a wearable */
+    public final String    sMessage;
+
+    private BTCommand(BTMethods method, String[] saMethodNArgs, String sMessage) {
+        this.method        = method;
+        this.saMethodNArgs = saMethodNArgs;
+        this.sMessage      = sMessage;
+    }
+
+    /** Returns null if the message does not start with a known method */
+    public static BTCommand parse(String sMessage) {
+        String   sTrimmed      = sMessage.trim();
+        String[] saMethodNArgs = sTrimmed.split("[\\(\\),]");
+        BTMethods method;
+        try {
+            method = BTMethods.valueOf(saMethodNArgs[0].trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        for ( int i = 0; i < saMethodNArgs.length; i++ ) {
+            saMethodNArgs[i] = saMethodNArgs[i].trim();
+        }
+        return new BTCommand(method, saMethodNArgs, sTrimmed);
+    }
+
+    /** Argument at the given position (1 = first argument), or null if not present */
+    public String getArg(int iPos) {
+        if ( iPos <= 0 || iPos >= saMethodNArgs.length ) {
+            return null;
+        }
+        return saMethodNArgs[iPos];
+    }
+
+    /** Player argument at the given position, specified as A/B or 0/1. Returns null if not present */
+    public Player getPlayer(int iPos) {
+        String sAorB = getArg(iPos);
+        if ( StringUtil.isEmpty(sAorB) ) {
+            return null;
+        }
+        if ( sAorB.equals("0") || sAorB.equals("1") ) {
+            return Player.values()[sAorB.charAt(0) - '0'];
+        }
+        return Player.valueOf(sAorB.toUpperCase());
+    }
+
+    /** For methods that verify the score: the score of the sending device, appended as last argument */
+    public String getScoreOfSender() {
+        return saMethodNArgs[saMethodNArgs.length - 1];
+    }
+
+    @Override public String toString() {
+        return sMessage;
+    }
+}
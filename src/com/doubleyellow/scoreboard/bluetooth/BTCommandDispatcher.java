@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.bluetooth;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes messages received from bluetooth, BLE, wearable or FCM on a background thread.
+ *
+ * - re-assembles files (json of a match, country flags) send in several messages, prefixed with the total length
+ * - splits messages queued by the sender into separate BTCommand's
+ *
+ * Only the resulting files and commands are handed to the Target on the UI thread, in the order they were received.
+ * They are handed over between startHandling() and stopHandling(), so that the Target knows what source the changes they trigger originate from
+ * (e.g. to not echo a command received from a wearable back to it).
+ */
+public class BTCommandDispatcher {
+
+    private static final String TAG = "SB." + BTCommandDispatcher.class.getSimpleName();
+
+    /** Maximum nr of digits of the length prefixed to the first message of a file: must fit in an int */
+    private static final int MAX_LENGTH_DIGITS = 9;
+
+    /** Invoked on the UI thread */
+    public interface Target {
+        void startHandling(String sMessage, MessageSource source);
+        void stopHandling(MessageSource source);
+        /** The message exactly as received, to pass on to other connected devices */
+        void relayReceivedMessage(String sMessage, MessageSource source);
+        void interpretReceivedFile(String sFileContent, MessageSource source);
+        void interpretReceivedCommand(BTCommand command, MessageSource source);
+    }
+
+    private final Target        m_target;
+    private final HandlerThread m_thread;
+    private final Handler       m_handler;
+    private final Handler       m_uiHandler = new Handler(Looper.getMainLooper());
+
+    /** only accessed on the dispatcher thread */
+    private int           m_iReceivingFileLength = 0;
+    private StringBuilder m_sbReceivingFile      = new StringBuilder();
+
+    public BTCommandDispatcher(Target target) {
+        m_target = target;
+        m_thread = new HandlerThread(BTCommandDispatcher.class.getSimpleName());
+        m_thread.start();
+        m_handler = new Handler(m_thread.getLooper());
+    }
+
+    public void dispatch(final String sMessage, final MessageSource source) {
+        m_handler.post(new Runnable() {
+            @Override public void run() {
+                decode(sMessage, source);
+            }
+        });
+    }
+
+    public void quit() {
+        m_thread.quitSafely();
+    }
+
+    private void decode(final String sReceived, final MessageSource source) {
+        String sMessage = sReceived;
+
+        // read file if json is being sent (identified by first sending the length of the json string)
+        if ( m_iReceivingFileLength <= 0 ) {
+            int iColon = getLengthPrefixEnd(sMessage);
+            if ( iColon > 0 ) {
+                // first part of a long message being received
+                m_iReceivingFileLength = Integer.parseInt(sMessage.substring(0, iColon));
+                Log.d(TAG, "Receiving file content with length:" + m_iReceivingFileLength);
+                sMessage = sMessage.substring(iColon + 1);
+            }
+        }
+        String          sFileContent = null;
+        List<BTCommand> lCommands    = null;
+        if ( m_iReceivingFileLength > 0 ) {
+            // in the process of reading a file
+            m_sbReceivingFile.append(sMessage);
+            if ( m_sbReceivingFile.length() >= m_iReceivingFileLength ) {
+                // whole file received
+                sFileContent = m_sbReceivingFile.toString();
+
+                // reset for next file communication
+                m_sbReceivingFile      = new StringBuilder();
+                m_iReceivingFileLength = 0;
+            } else {
+                Log.d(TAG, String.format("Waiting for more file content...(%d < %d)", m_sbReceivingFile.length(), m_iReceivingFileLength));
+            }
+        } else {
+            lCommands = decodeCommands(sMessage);
+        }
+
+        final String          sFile     = sFileContent;
+        final List<BTCommand> lToHandle = lCommands;
+        m_uiHandler.post(new Runnable() {
+            @Override public void run() {
+                m_target.startHandling(sReceived, source);
+                try {
+                    m_target.relayReceivedMessage(sReceived, source);
+                    if ( sFile != null ) {
+                        m_target.interpretReceivedFile(sFile, source);
+                    }
+                    if ( lToHandle != null ) {
+                        for ( BTCommand command : lToHandle ) {
+                            m_target.interpretReceivedCommand(command, source);
+                        }
+                    }
+                } finally {
+                    m_target.stopHandling(source);
+                }
+            }
+        });
+    }
+
+    /** if messages were queued on the 'Master'/sender, ensure we split them back here */
+    private static List<BTCommand> decodeCommands(String sMessage) {
+        String[] saReadMethods = sMessage.trim().split("\n");
+        if ( saReadMethods.length > 1 ) {
+            Log.w(TAG, "Multiple methods received: " + saReadMethods.length);
+        }
+        List<BTCommand> lCommands = new ArrayList<>(saReadMethods.length);
+        for ( String sMethodNArgs : saReadMethods ) {
+            BTCommand command = BTCommand.parse(sMethodNArgs);
+            if ( command == null ) {
+                // might happen if connection is broken unexpectedly
+                // or old version communicating with new version with new method
+                Log.w(TAG, String.format("Could not derive btMethod from message %s [#%d]", sMethodNArgs.substring(0, Math.min(20, sMethodNArgs.length())) + "...", sMethodNArgs.length()));
+                continue;
+            }
+            lCommands.add(command);
+        }
+        return lCommands;
+    }
+
+    /** Returns the position of the colon if the message starts with 'digits:', -1 otherwise */
+    private static int getLengthPrefixEnd(String sMessage) {
+        int iMax = Math.min(MAX_LENGTH_DIGITS + 1, sMessage.length());
+        for ( int i = 0; i < iMax; i++ ) {
+            char c = sMessage.charAt(i);
+            if ( c == ':' ) {
+                return (i > 0) ? i : -1;
+            }
+            if ( (c < '0') || (c > '9') ) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.bluetooth;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary frame used by BluetoothControlService once both devices agreed on it (see BTMethods.protocolVersion).
+ *
+ * Layout:
+ * <pre>
+ * byte 0     : MAGIC | VERSION
+ * byte 1     : Type
+ * byte 2-3   : sequence number (unsigned, big endian)
+ * byte 4-... : payload length (varint)
+ * ...        : payload
+ * </pre>
+ *
+ * A 'method(arg,arg,score)' message as build by ScoreBoard is packed into a Method payload:
+ * method ordinal, arguments prefixed with their length and, for methods that verify the score, the score as 2 bytes.
+ * Unpacking yields exactly the same text, so the receiving side interprets it as before.
+ * Anything that can not be packed (json of a match, flags, ...) travels as Text.
+ */
+class BTFrame {
+
+    static final int  VERSION = 1;
+    static final int  MAGIC   = 0xF0;
+    private static final int MASK_MAGIC = 0xF0;
+
+    private static final int HEADER_FIXED_LENGTH = 4;
+    private static final int FLAG_HAS_SCORE      = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    enum Type {
+        /** Payload is an UTF-8 message */
+        Text,
+        /** Payload is a packed 'method(args)' message */
+        Method,
+        /** Sequence number is the last one received in order. No payload */
+        Ack,
+        /** Sequence number is the one expected but not received. No payload */
+        Nack,
+    }
+
+    final Type   type;
+    final int    iSeq;
+    final byte[] baPayload;
+
+    BTFrame(Type type, int iSeq, byte[] baPayload) {
+        this.type      = type;
+        this.iSeq      = iSeq & 0xFFFF;
+        this.baPayload = (baPayload == null) ? new byte[0] : baPayload;
+    }
+
+    /** Returns a frame of type Method if the message could be packed, of type Text otherwise */
+    static BTFrame forMessage(String sMessage, int iSeq) {
+        byte[] baPacked = packMethod(sMessage);
+        if ( baPacked != null ) {
+            return new BTFrame(Type.Method, iSeq, baPacked);
+        }
+        return new BTFrame(Type.Text, iSeq, sMessage.getBytes(UTF8));
+    }
+
+    /** The message as it would have been send without framing */
+    String getMessage() {
+        switch (type) {
+            case Text:
+                return new String(baPayload, UTF8);
+            case Method:
+                return unpackMethod(baPayload);
+            default:
+                return null;
+        }
+    }
+
+    boolean isSequenced() {
+        return (type == Type.Text) || (type == Type.Method);
+    }
+
+    byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_FIXED_LENGTH + 3 + baPayload.length);
+        out.write(MAGIC | VERSION);
+        out.write(type.ordinal());
+        out.write((iSeq >> 8) & 0xFF);
+        out.write( iSeq       & 0xFF);
+        int iLength = baPayload.length;
+        while ( iLength >= 0x80 ) {
+            out.write((iLength & 0x7F) | 0x80);
+            iLength >>>= 7;
+        }
+        out.write(iLength);
+        out.write(baPayload, 0, baPayload.length);
+        return out.toByteArray();
+    }
+
+    //--------------------------------------
+    // reading
+    //--------------------------------------
+
+    static boolean startsFrame(byte b) {
+        return (b & MASK_MAGIC) == MAGIC;
+    }
+
+    /** Filled by parse(): the frame and the number of bytes it occupied, or -1 if the bytes do not hold a valid frame */
+    static class ParseResult {
+        BTFrame frame     = null;
+        int     iConsumed = 0;
+    }
+
+    /**
+     * Tries to read a frame from the start of the buffer.
+     * @return false if more bytes are required
+     */
+    static boolean parse(byte[] ba, int iLength, ParseResult result) {
+        result.frame     = null;
+        result.iConsumed = 0;
+        if ( iLength < HEADER_FIXED_LENGTH + 1 ) {
+            return false;
+        }
+        int iVersion = ba[0] & ~MASK_MAGIC & 0xFF;
+        int iType    = ba[1] & 0xFF;
+        if ( (iVersion != VERSION) || (iType >= Type.values().length) ) {
+            // not a frame we understand: let caller skip a byte
+            result.iConsumed = -1;
+            return true;
+        }
+        int iSeq = ((ba[2] & 0xFF) << 8) | (ba[3] & 0xFF);
+
+        int iPayloadLength = 0;
+        int iShift         = 0;
+        int i              = HEADER_FIXED_LENGTH;
+        while ( true ) {
+            if ( i >= iLength ) {
+                return false;
+            }
+            int b = ba[i++] & 0xFF;
+            iPayloadLength |= (b & 0x7F) << iShift;
+            if ( (b & 0x80) == 0 ) {
+                break;
+            }
+            iShift += 7;
+            if ( iShift > 28 ) {
+                result.iConsumed = -1;
+                return true;
+            }
+        }
+        if ( iLength < i + iPayloadLength ) {
+            return false;
+        }
+        byte[] baPayload = new byte[iPayloadLength];
+        System.arraycopy(ba, i, baPayload, 0, iPayloadLength);
+        result.frame     = new BTFrame(Type.values()[iType], iSeq, baPayload);
+        result.iConsumed = i + iPayloadLength;
+        return true;
+    }
+
+    //--------------------------------------
+    // packing of 'method(arg,arg,score)'
+    //--------------------------------------
+
+    private static byte[] packMethod(String sMessage) {
+        int iOpen = sMessage.indexOf('(');
+        if ( (iOpen <= 0) || (sMessage.endsWith(")") == false) ) {
+            return null;
+        }
+        BTMethods method;
+        try {
+            method = BTMethods.valueOf(sMessage.substring(0, iOpen));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if ( method.ordinal() > 0xFF ) {
+            return null;
+        }
+        String[] saArgs = sMessage.substring(iOpen + 1, sMessage.length() - 1).split(",", -1);
+
+        int iScoreA = -1;
+        int iScoreB = -1;
+        int iNrOfArgs = saArgs.length;
+        if ( method.verifyScore() ) {
+            String sScore = saArgs[iNrOfArgs - 1];
+            if ( sScore.matches("(0|[1-9]\\d{0,2})-(0|[1-9]\\d{0,2})") ) { // no leading zeros: unpacking must yield the exact same text
+                String[] saScore = sScore.split("-");
+                iScoreA = Integer.parseInt(saScore[0]);
+                iScoreB = Integer.parseInt(saScore[1]);
+                if ( (iScoreA <= 0xFF) && (iScoreB <= 0xFF) ) {
+                    iNrOfArgs--;
+                } else {
+                    iScoreA = -1;
+                }
+            }
+        }
+        if ( iNrOfArgs > 0xFF ) {
+            return null;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sMessage.length());
+        out.write(method.ordinal());
+        out.write(iScoreA >= 0 ? FLAG_HAS_SCORE : 0);
+        out.write(iNrOfArgs);
+        for ( int i = 0; i < iNrOfArgs; i++ ) {
+            byte[] baArg = saArgs[i].getBytes(UTF8);
+            if ( baArg.length > 0xFF ) {
+                return null;
+            }
+            out.write(baArg.length);
+            out.write(baArg, 0, baArg.length);
+        }
+        if ( iScoreA >= 0 ) {
+            out.write(iScoreA);
+            out.write(iScoreB);
+        }
+        return out.toByteArray();
+    }
+
+    private static String unpackMethod(byte[] ba) {
+        int i = 0;
+        BTMethods method  = BTMethods.values()[ba[i++] & 0xFF];
+        int       iFlags  = ba[i++] & 0xFF;
+        int       iNrArgs = ba[i++] & 0xFF;
+        List<String> lParts = new ArrayList<>(iNrArgs + 1);
+        for ( int a = 0; a < iNrArgs; a++ ) {
+            int iLen = ba[i++] & 0xFF;
+            lParts.add(new String(ba, i, iLen, UTF8));
+            i += iLen;
+        }
+        if ( (iFlags & FLAG_HAS_SCORE) != 0 ) {
+            lParts.add((ba[i] & 0xFF) + "-" + (ba[i + 1] & 0xFF));
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(method).append("(");
+        for ( int p = 0; p < lParts.size(); p++ ) {
+            if ( p > 0 ) {
+                sb.append(",");
+            }
+            sb.append(lParts.get(p));
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+
+    /** Both devices must have the same list of methods for the ordinals in a Method payload to mean the same */
+    static int getMethodsHash() {
+        StringBuilder sb = new StringBuilder();
+        for ( BTMethods m : BTMethods.values() ) {
+            sb.append(m).append(m.verifyScore() ? "+" : "").append(";");
+        }
+        return sb.toString().hashCode();
+    }
+
+    /** Sequence numbers wrap around: returns negative if iSeq is before iReference, positive if after */
+    static int compareSeq(int iSeq, int iReference) {
+        return (short) ((iSeq - iReference) & 0xFFFF);
+    }
+
+    @Override public String toString() {
+        return type + "#" + iSeq + "[" + baPayload.length + "]";
+    }
+}
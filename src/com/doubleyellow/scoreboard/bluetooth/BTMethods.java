@@ -73,6 +73,13 @@ public enum BTMethods {
      * - first the player identifying what wristband a button was pressed on
      **/
     undoScoreForInitiatorBLE(false),
+
+    /**
+     * Send by BluetoothControlService itself, as plain text, right after connecting.
+     * Three parameters: version of BTFrame supported, hash of the list of methods and the next sequence number expected.
+     * If both devices send the same first two, BTFrame's are used from then on.
+     **/
+    protocolVersion(false),
     ;
     private boolean bVerifyScore = false;
     BTMethods(boolean verifyScore) {
@@ -30,6 +30,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -176,7 +178,9 @@ public class BluetoothControlService
         // Start the thread to manage the connection and perform transmissions
         mConnectedThread = new ConnectedThread(socket);
         mConnectedThread.start();
+        resetFraming(device);
         connectionSucceeded(device);
+        sendProtocolVersion();
     }
 
     /**
@@ -198,7 +202,8 @@ public class BluetoothControlService
         setState(BTState.NONE, null);
     }
 
-    private static final String MSG_SEPARATOR = "\n";
+    private static final String MSG_SEPARATOR      = "\n";
+    private static final byte   MSG_SEPARATOR_BYTE = '\n';
 
     /**
      * Write to the ConnectedThread (in a synchronized manner!)
@@ -211,15 +216,177 @@ public class BluetoothControlService
             Log.d(TAG, String.format("Not sending message %s. In progress of handling message", s));
             return;
         }
-        write(s.getBytes());
+        writeMessage(s);
 
         if ( m_sbSendDelayed.length() > 0 ) {
             Log.d(TAG, "Sending 'delayed' : " + m_sbSendDelayed);
-            write(m_sbSendDelayed.toString().getBytes());
+            writeMessage(m_sbSendDelayed.toString());
             m_sbSendDelayed.setLength(0);
         }
     }
 
+    private void writeMessage(String s) {
+        if ( m_bUseFrames ) {
+            BTFrame frame = BTFrame.forMessage(s, m_iSeqOut);
+            m_iSeqOut = (m_iSeqOut + 1) & 0xFFFF;
+            if ( frame.baPayload.length <= MAX_RETRANSMIT_PAYLOAD ) {
+                m_lUnacknowledged.add(frame);
+                while ( m_lUnacknowledged.size() > MAX_UNACKNOWLEDGED ) {
+                    m_lUnacknowledged.removeFirst();
+                }
+            }
+            writeFrame(frame, s.getBytes());
+        } else {
+            write(s.getBytes());
+        }
+    }
+
+    //--------------------------------------
+    // binary framing
+    //--------------------------------------
+
+    /** Frames not yet acknowledged are kept (up to this number) to be re-send if the other device reports missing them */
+    private static final int MAX_UNACKNOWLEDGED     = 64;
+    /** Complete matches and flags are not kept for re-sending: if one of them is reported missing, the complete match is send instead */
+    private static final int MAX_RETRANSMIT_PAYLOAD = 1024;
+    /** If the missing frames did not arrive within this time, the nack itself may have been lost: send it again on the next frame out of order */
+    private static final long NACK_TIMEOUT_MS       = 2000;
+
+    /** Only true once the other device confirmed it understands the same frames */
+    private       boolean             m_bUseFrames           = false;
+    /** Sequence numbers are kept over connections to the same device, so a short connection loss does not require a resend of the complete match */
+    private       String              m_sFramesDeviceAddress = null;
+    private       int                 m_iSeqOut              = 0;
+    private       int                 m_iSeqInExpected       = 0;
+    /** time the last nack was send, 0 if all frames were received in order since */
+    private       long                m_lNackSentAt          = 0L;
+    private final LinkedList<BTFrame> m_lUnacknowledged      = new LinkedList<>();
+
+    private synchronized void resetFraming(BluetoothDevice device) {
+        m_bUseFrames = false;
+        m_lNackSentAt = 0L;
+        String sAddress = (device == null) ? null : device.getAddress();
+        if ( (sAddress == null) || (sAddress.equals(m_sFramesDeviceAddress) == false) ) {
+            m_sFramesDeviceAddress = sAddress;
+            m_iSeqOut              = 0;
+            m_iSeqInExpected       = 0;
+            m_lUnacknowledged.clear();
+        }
+    }
+
+    /** Send as text, so older versions simply ignore it */
+    private synchronized void sendProtocolVersion() {
+        if ( mState.equals(BTState.CONNECTED) == false ) { return; }
+        String sMessage = BTMethods.protocolVersion + "(" + BTFrame.VERSION + "," + BTFrame.getMethodsHash() + "," + m_iSeqInExpected + ")";
+        mConnectedThread.write((sMessage + MSG_SEPARATOR).getBytes(), null);
+    }
+
+    private synchronized void handleProtocolVersion(String sMessage) {
+        String[] saArgs = sMessage.trim().split("[\\(\\),]");
+        if ( saArgs.length < 4 ) { return; }
+        try {
+            int iVersion       = Integer.parseInt(saArgs[1]);
+            int iMethodsHash   = Integer.parseInt(saArgs[2]);
+            int iOtherExpected = Integer.parseInt(saArgs[3]);
+            if ( (iVersion != BTFrame.VERSION) || (iMethodsHash != BTFrame.getMethodsHash()) ) {
+                Log.i(TAG, String.format("Not using frames. Other device: version %d, methods %d", iVersion, iMethodsHash));
+                return;
+            }
+            m_bUseFrames = true;
+            Log.i(TAG, String.format("Using frames. Other device expects #%d, next here #%d", iOtherExpected, m_iSeqOut));
+            if ( resendFrom(iOtherExpected) == false ) {
+                deliver(BTMethods.requestCompleteJsonOfMatch + "()");
+            }
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Could not interpret " + sMessage);
+        }
+    }
+
+    /** @return false if the frames requested are no longer available */
+    private synchronized boolean resendFrom(int iSeq) {
+        if ( iSeq == m_iSeqOut ) {
+            return true;
+        }
+        if ( (BTFrame.compareSeq(iSeq, m_iSeqOut) > 0) || (isAvailableForResend(iSeq) == false) ) {
+            // continue numbering as the other device expects, the complete match needs to be send anyway
+            m_iSeqOut = iSeq;
+            m_lUnacknowledged.clear();
+            return false;
+        }
+        for ( BTFrame frame : m_lUnacknowledged ) {
+            if ( BTFrame.compareSeq(frame.iSeq, iSeq) >= 0 ) {
+                Log.d(TAG, "Re-sending " + frame);
+                writeFrame(frame, null);
+            }
+        }
+        return true;
+    }
+
+    /** true if all frames from iSeq up to the last one send are kept: frames with a large payload are not (see MAX_RETRANSMIT_PAYLOAD) */
+    private boolean isAvailableForResend(int iSeq) {
+        int iSeqExpected = iSeq;
+        for ( BTFrame frame : m_lUnacknowledged ) {
+            int iCompare = BTFrame.compareSeq(frame.iSeq, iSeqExpected);
+            if ( iCompare < 0 ) { continue; }
+            if ( iCompare > 0 ) {
+                Log.d(TAG, String.format("Frame #%d is not kept for re-sending", iSeqExpected));
+                return false;
+            }
+            iSeqExpected = (iSeqExpected + 1) & 0xFFFF;
+        }
+        return iSeqExpected == m_iSeqOut;
+    }
+
+    private synchronized void handleFrame(BTFrame frame) {
+        switch (frame.type) {
+            case Ack:
+                while ( (m_lUnacknowledged.isEmpty() == false) && (BTFrame.compareSeq(m_lUnacknowledged.getFirst().iSeq, frame.iSeq) <= 0) ) {
+                    m_lUnacknowledged.removeFirst();
+                }
+                break;
+            case Nack:
+                Log.w(TAG, "Other device misses " + frame);
+                if ( resendFrom(frame.iSeq) == false ) {
+                    // handle it as if the other device requested the complete match
+                    deliver(BTMethods.requestCompleteJsonOfMatch + "()");
+                }
+                break;
+            default:
+                int iCompare = BTFrame.compareSeq(frame.iSeq, m_iSeqInExpected);
+                if ( iCompare < 0 ) {
+                    // already received: our ack must have been lost
+                    writeFrame(new BTFrame(BTFrame.Type.Ack, m_iSeqInExpected - 1, null), null);
+                } else if ( iCompare > 0 ) {
+                    // one or more frames were missed: ignore this one until the missing ones are re-send
+                    long lNow = System.currentTimeMillis();
+                    if ( lNow - m_lNackSentAt > NACK_TIMEOUT_MS ) {
+                        writeFrame(new BTFrame(BTFrame.Type.Nack, m_iSeqInExpected, null), null);
+                        m_lNackSentAt = lNow;
+                    }
+                } else {
+                    m_iSeqInExpected = (m_iSeqInExpected + 1) & 0xFFFF;
+                    m_lNackSentAt    = 0L;
+                    writeFrame(new BTFrame(BTFrame.Type.Ack, frame.iSeq, null), null);
+                    deliver(frame.getMessage());
+                }
+                break;
+        }
+    }
+
+    private void writeFrame(BTFrame frame, byte[] baNotify) {
+        synchronized ( this ) {
+            if ( mState.equals(BTState.CONNECTED) == false ) { return; }
+            mConnectedThread.write(frame.toBytes(), baNotify);
+        }
+    }
+
+    /** Send message to the UI Activity */
+    private void deliver(String sMessage) {
+        byte[] baToInterpret = sMessage.getBytes();
+        Message message = mHandler.obtainMessage(BTMessage.READ.ordinal(), baToInterpret.length, -1, baToInterpret);
+        message.sendToTarget();
+    }
+
     private final StringBuffer m_sbSendDelayed = new StringBuffer();
     public synchronized void sendDelayed(String s) {
         m_sbSendDelayed.append(s);
@@ -409,35 +576,59 @@ public class BluetoothControlService
         }
 
         @Override public void run() {
-            byte[] buffer = new byte[1024];
+            byte[] buffer    = new byte[1024];
+            byte[] baPending = new byte[1024];
+            int    iPending  = 0;
             int bytes;
-            StringBuilder sbBufferComplete = new StringBuilder();
+            BTFrame.ParseResult parsed = new BTFrame.ParseResult();
             // Keep listening to the InputStream while connected
             while (true) {
                 try {
                     // Read from the InputStream
                     bytes = mmInStream.read(buffer);
                     Log.v(TAG, "read from input stream: " + bytes);
-                    // Send the obtained bytes to the UI Activity
-                    String sBuffer = new String(buffer, 0 , bytes);
-                    sbBufferComplete.append(sBuffer);
-                    int iIdx = sbBufferComplete.indexOf(MSG_SEPARATOR);
-                    if ( iIdx > 0 ) {
-                        while (iIdx > 0 ) {
-                            String sToInterpret = sbBufferComplete.substring(0, iIdx);
-                            // reconstruct StringBuilder without message to interpret
-                            String sRemaining = sbBufferComplete.substring(iIdx + MSG_SEPARATOR.length());
-                            sbBufferComplete.setLength(0);
-                            sbBufferComplete.append(sRemaining);
-
-                            byte[] baToInterpret = sToInterpret.getBytes();
-                            Message message = mHandler.obtainMessage(BTMessage.READ.ordinal(), baToInterpret.length, -1, baToInterpret);
-                            message.sendToTarget();
-
-                            iIdx = sbBufferComplete.indexOf(MSG_SEPARATOR);
+                    if ( bytes < 0 ) {
+                        throw new IOException("End of stream");
+                    }
+                    if ( iPending + bytes > baPending.length ) {
+                        baPending = Arrays.copyOf(baPending, Math.max(2 * baPending.length, iPending + bytes));
+                    }
+                    System.arraycopy(buffer, 0, baPending, iPending, bytes);
+                    iPending += bytes;
+
+                    // interpret all complete messages: binary frames or text terminated by MSG_SEPARATOR
+                    while ( iPending > 0 ) {
+                        int iConsumed = 0;
+                        if ( BTFrame.startsFrame(baPending[0]) ) {
+                            if ( BTFrame.parse(baPending, iPending, parsed) == false ) {
+                                break; // wait for more data
+                            }
+                            if ( parsed.frame != null ) {
+                                handleFrame(parsed.frame);
+                                iConsumed = parsed.iConsumed;
+                            } else {
+                                Log.w(TAG, "Skipping byte not starting a valid frame");
+                                iConsumed = 1;
+                            }
+                        } else {
+                            int iIdx = indexOf(baPending, iPending, MSG_SEPARATOR_BYTE);
+                            if ( iIdx < 0 ) {
+                                Log.v(TAG, "Waiting for more data from input stream: " + iPending);
+                                break;
+                            }
+                            if ( iIdx > 0 ) {
+                                String sToInterpret = new String(baPending, 0, iIdx);
+                                if ( sToInterpret.startsWith(BTMethods.protocolVersion.toString()) ) {
+                                    handleProtocolVersion(sToInterpret);
+                                } else {
+                                    deliver(sToInterpret);
+                                }
+                            }
+                            iConsumed = iIdx + 1;
                         }
-                    } else {
-                        Log.v(TAG, "Waiting for more data from input stream: " + sbBufferComplete);
+                        // remove the message interpreted from the buffer
+                        System.arraycopy(baPending, iConsumed, baPending, 0, iPending - iConsumed);
+                        iPending -= iConsumed;
                     }
                 } catch (IOException e) {
                     connectionLost();
@@ -447,18 +638,34 @@ public class BluetoothControlService
             }
         }
 
+        private int indexOf(byte[] ba, int iLength, byte b) {
+            for ( int i = 0; i < iLength; i++ ) {
+                if ( ba[i] == b ) { return i; }
+            }
+            return -1;
+        }
+
         /**
          * Write to the connected OutStream.
          *
          * @param buffer The bytes to write
          */
         void write(byte[] buffer) {
+            write(buffer, buffer);
+        }
+
+        /**
+         * @param baNotify message to share back to the UI Activity, null for messages that are only of interest to this service
+         */
+        void write(byte[] buffer, byte[] baNotify) {
             try {
                 mmOutStream.write(buffer);
                 mmOutStream.flush();
-                // Share the sent message back to the UI Activity
-                Message message = mHandler.obtainMessage(BTMessage.WRITE.ordinal(), buffer);
-                message.sendToTarget();
+                if ( baNotify != null ) {
+                    // Share the sent message back to the UI Activity
+                    Message message = mHandler.obtainMessage(BTMessage.WRITE.ordinal(), baNotify);
+                    message.sendToTarget();
+                }
             } catch (IOException e) {
             }
         }
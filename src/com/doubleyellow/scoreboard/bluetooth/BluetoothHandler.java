@@ -91,9 +91,8 @@ public class BluetoothHandler extends Handler
                     // become slave
                     sb.setBluetoothRole(BTRole.Slave, readMessage.trim());
                 }
-                m_bHandlingBluetoothMessageInProgress = true;
-                sb.interpretReceivedMessageOnUiThread(readMessage, MessageSource.BluetoothMirror);
-                m_bHandlingBluetoothMessageInProgress = false;
+                // the command is executed later, see setHandlingMessage()
+                sb.interpretReceivedMessage(readMessage, MessageSource.BluetoothMirror);
                 break;
             case READ_RESULT_BATTERY:
                 break;
@@ -110,6 +109,10 @@ public class BluetoothHandler extends Handler
         }
     }
     private boolean m_bHandlingBluetoothMessageInProgress = false;
+    /** Invoked on the UI thread by the BTCommandDispatcher around executing a received message */
+    public void setHandlingMessage(boolean bInProgress) {
+        m_bHandlingBluetoothMessageInProgress = bInProgress;
+    }
     boolean isHandlingMessage() {
         return m_bHandlingBluetoothMessageInProgress;
     }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2024  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.bluetooth_le;
+
+import android.util.Log;
+
+import com.doubleyellow.scoreboard.bluetooth.BTCommand;
+import com.doubleyellow.scoreboard.model.Player;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The TranslateToBTMessage part of the BLE config, compiled once per connected device.
+ *
+ * For each service/characteristic the message formats are looked up, formatted for the player of the device and parsed into BTCommand's,
+ * so that a notification of a button press only requires a lookup by UUID and an array index.
+ */
+class BLEDispatchTable
+{
+    private static final String TAG = "SB." + BLEDispatchTable.class.getSimpleName();
+
+    /** What to do for a single value received from the device */
+    static class Action {
+        /** Message format as in the config, without the '# comment' */
+        final String    sFormat;
+        /** Formats starting with '-' are ignored */
+        final boolean   bIgnore;
+        /** For an ignored '-info:' format: the format for the info message */
+        final String    sInfoFormat;
+        /** Pre-parsed command, if the format does not depend on the value received */
+        final BTCommand command;
+
+        Action(String sFormat, Player player) {
+            bIgnore = (sFormat == null) || sFormat.startsWith("-");
+            if ( bIgnore ) {
+                this.sFormat     = sFormat;
+                this.sInfoFormat = (sFormat != null && sFormat.startsWith("-info:")) ? sFormat.replace("-info:", "") : null;
+                this.command     = null;
+                return;
+            }
+            this.sFormat     = sFormat.replaceAll("#.*", "").trim();
+            this.sInfoFormat = null;
+            String sMessage0 = format(this.sFormat, player, 0);
+            String sMessage1 = format(this.sFormat, player, 1);
+            this.command     = sMessage0.equals(sMessage1) ? BTCommand.parse(sMessage0) : null;
+        }
+
+        String getMessage(Player player, int iValue) {
+            if ( command != null ) {
+                return command.sMessage;
+            }
+            return format(sFormat, player, iValue);
+        }
+        BTCommand getCommand(Player player, int iValue) {
+            if ( command != null ) {
+                return command;
+            }
+            return BTCommand.parse(format(sFormat, player, iValue));
+        }
+        String getInfoMessage(Player player, int iValue) {
+            return format(sInfoFormat, player, iValue);
+        }
+        private static String format(String sFormat, Player player, int iValue) {
+            return String.format(sFormat, (player==null?"":player), (player==null?"":player.getOther()), iValue);
+        }
+    }
+
+    /** Compiled config of one characteristic */
+    static class Characteristic {
+        /** false if the config does not hold a (valid) entry for the number of devices used */
+        final boolean  bValid;
+        /** -1 if values are handled as they come in */
+        final int      iHandleOnReleaseValue;
+        final Action[] aActions;
+        /** index = nr of seconds the button must at least have been held. Entries may be null */
+        final Action[][] aaLongPressActions;
+
+        private Characteristic(JSONObject joCharacteristicCfg, int iHandleOnReleaseValueDefault, Player player) {
+            JSONArray saMessageFormat = (joCharacteristicCfg == null) ? null : joCharacteristicCfg.optJSONArray(BLEUtil.Keys.TranslateToBTMessage.toString());
+            if ( saMessageFormat == null || saMessageFormat.length() == 0 ) {
+                bValid                = false;
+                iHandleOnReleaseValue = -1;
+                aActions              = null;
+                aaLongPressActions    = null;
+                return;
+            }
+            bValid                = true;
+            iHandleOnReleaseValue = joCharacteristicCfg.optInt(BLEUtil.Keys.HandleOnReleaseValue.toString(), iHandleOnReleaseValueDefault);
+            aActions              = toActions(saMessageFormat, player);
+
+            Map<Integer, Action[]> mLongPress = new HashMap<>();
+            int iMaxSeconds = 0;
+            String sPrefix = BLEUtil.Keys.TranslateToBTMessage + "_";
+            Iterator<String> itKeys = joCharacteristicCfg.keys();
+            while ( itKeys.hasNext() ) {
+                String sKey = itKeys.next();
+                if ( sKey.startsWith(sPrefix) == false ) { continue; }
+                try {
+                    int iSeconds = Integer.parseInt(sKey.substring(sPrefix.length()));
+                    JSONArray ja = joCharacteristicCfg.optJSONArray(sKey);
+                    if ( (iSeconds >= 1) && (ja != null) ) {
+                        mLongPress.put(iSeconds, toActions(ja, player));
+                        iMaxSeconds = Math.max(iMaxSeconds, iSeconds);
+                    }
+                } catch (NumberFormatException e) {
+                    Log.w(TAG, "Ignoring " + sKey);
+                }
+            }
+            aaLongPressActions = new Action[iMaxSeconds + 1][];
+            for ( Map.Entry<Integer, Action[]> e : mLongPress.entrySet() ) {
+                aaLongPressActions[e.getKey()] = e.getValue();
+            }
+        }
+
+        /** The actions to use for a button held for the given duration: the longest configured duration not exceeding it that does not ignore the value */
+        Action[] getActions(int iValue, long lDurationHeldMs) {
+            if ( lDurationHeldMs >= 1000 ) {
+                int iCountDownFrom = (int) Math.min(lDurationHeldMs / 1000, aaLongPressActions.length - 1);
+                for ( int iTryFor = iCountDownFrom; iTryFor >= 1; iTryFor-- ) {
+                    Action[] aLongPress = aaLongPressActions[iTryFor];
+                    if ( (aLongPress != null) && (iValue < aLongPress.length) && (aLongPress[iValue].bIgnore == false) ) {
+                        return aLongPress;
+                    }
+                }
+            }
+            return aActions;
+        }
+
+        private static Action[] toActions(JSONArray saMessageFormat, Player player) {
+            Action[] actions = new Action[saMessageFormat.length()];
+            for ( int i = 0; i < actions.length; i++ ) {
+                actions[i] = new Action(saMessageFormat.optString(i, null), player);
+            }
+            return actions;
+        }
+    }
+
+    private final Map<UUID, Map<UUID, Characteristic>> m_mService2Characteristics = new HashMap<>();
+
+    /**
+     * @param player is null if a single device is used for both players
+     */
+    BLEDispatchTable(JSONObject joConfig, int iNrOfDevices, Player player) {
+        final int iHandleOnReleaseValueDefault = joConfig.optInt(BLEUtil.Keys.HandleOnReleaseValue.toString(), -1);
+        Iterator<String> itServices = joConfig.keys();
+        while ( itServices.hasNext() ) {
+            String     sService     = itServices.next();
+            JSONObject joServiceCfg = joConfig.optJSONObject(sService);
+            UUID       uService     = toUUID(sService);
+            if ( (joServiceCfg == null) || (uService == null) ) { continue; }
+
+            Map<UUID, Characteristic> mCharacteristics = new HashMap<>();
+            Iterator<String> itCharacteristics = joServiceCfg.keys();
+            while ( itCharacteristics.hasNext() ) {
+                String    sCharacteristic     = itCharacteristics.next();
+                JSONArray jaCharacteristicCfg = joServiceCfg.optJSONArray(sCharacteristic);
+                UUID      uCharacteristic     = toUUID(sCharacteristic);
+                if ( (jaCharacteristicCfg == null) || (uCharacteristic == null) ) { continue; }
+
+                JSONObject joCharacteristicCfg = jaCharacteristicCfg.optJSONObject(iNrOfDevices - 1);
+                mCharacteristics.put(uCharacteristic, new Characteristic(joCharacteristicCfg, iHandleOnReleaseValueDefault, player));
+            }
+            m_mService2Characteristics.put(uService, mCharacteristics);
+        }
+    }
+
+    /** Returns null if the characteristic is not configured to translate values into messages */
+    Characteristic get(UUID uService, UUID uCharacteristic) {
+        Map<UUID, Characteristic> mCharacteristics = m_mService2Characteristics.get(uService);
+        if ( mCharacteristics == null ) { return null; }
+        return mCharacteristics.get(uCharacteristic);
+    }
+
+    private static UUID toUUID(String s) {
+        if ( s.length() != 36 ) { return null; }
+        try {
+            return UUID.fromString(s);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
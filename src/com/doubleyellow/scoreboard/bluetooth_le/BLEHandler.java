@@ -19,15 +19,19 @@ package com.doubleyellow.scoreboard.bluetooth_le;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.View;
 import android.widget.Toast;
 
 import com.doubleyellow.scoreboard.Brand;
+import com.doubleyellow.scoreboard.bluetooth.BTCommand;
 import com.doubleyellow.scoreboard.bluetooth.BTMessage;
 import com.doubleyellow.scoreboard.bluetooth.MessageSource;
 import com.doubleyellow.scoreboard.main.ScoreBoard;
 import com.doubleyellow.scoreboard.R;
+import com.doubleyellow.scoreboard.util.LatencyHistogram;
 
 /**
  * Handler specific for BluetoothLE messages.
@@ -42,6 +46,16 @@ public class BLEHandler extends Handler
         sb = scoreBoard;
     }
 
+    private LatencyHistogram m_latencyHistogram = null;
+    void setLatencyHistogram(LatencyHistogram histogram) {
+        m_latencyHistogram = histogram;
+    }
+    /** Records the time from the message being send until the first frame drawn after handling it */
+    private void recordLatency(final long lSentAtUptimeMs) {
+        if ( m_latencyHistogram == null ) { return; }
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> m_latencyHistogram.record(SystemClock.uptimeMillis() - lSentAtUptimeMs));
+    }
+
     @Override public void handleMessage(Message msg) {
         BTMessage btMessage = BTMessage.values()[msg.what];
         //Log.d(TAG, "msg.what : " + msg.what + " : " + btMessage);
@@ -52,7 +66,15 @@ public class BLEHandler extends Handler
         switch (btMessage) {
             case READ:
                 try {
-                    sb.interpretReceivedMessageOnUiThread(sMsg, MessageSource.BluetoothLE);
+                    if ( msg.obj instanceof BTCommand ) {
+                        // already parsed by BLEReceiverManager, and we are on the UI thread
+                        BTCommand command = (BTCommand) msg.obj;
+                        sb.relayReceivedMessage(command.sMessage, MessageSource.BluetoothLE);
+                        sb.interpretReceivedCommand(command, MessageSource.BluetoothLE);
+                        recordLatency(msg.getWhen());
+                    } else {
+                        sb.interpretReceivedMessage(sMsg, MessageSource.BluetoothLE);
+                    }
                 } catch (Exception e) {
                     e.printStackTrace();
                     Log.w(TAG, "Message could not be understood :" + sMsg);
@@ -37,9 +37,11 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 
 import com.doubleyellow.scoreboard.R;
+import com.doubleyellow.scoreboard.bluetooth.BTCommand;
 import com.doubleyellow.scoreboard.bluetooth.BTMessage;
 import com.doubleyellow.scoreboard.model.Player;
 import com.doubleyellow.scoreboard.prefs.PreferenceValues;
+import com.doubleyellow.scoreboard.util.LatencyHistogram;
 import com.doubleyellow.util.ListUtil;
 import com.doubleyellow.util.MapUtil;
 import com.doubleyellow.util.Params;
@@ -115,6 +117,15 @@ public class BLEReceiverManager
      */
     public void setHandler(Handler handler) {
         mHandler = handler;
+        if ( handler instanceof BLEHandler ) {
+            ((BLEHandler) handler).setLatencyHistogram(m_latencyHistogram);
+        }
+    }
+
+    /** Time from receiving a button press until the first frame drawn after it was handled */
+    private final LatencyHistogram m_latencyHistogram = new LatencyHistogram("Button press to display");
+    public LatencyHistogram getLatencyHistogram() {
+        return m_latencyHistogram;
     }
 
     public void setState(BLEState state, String sAddress, int iDeviceCount) {
@@ -206,9 +217,12 @@ public class BLEReceiverManager
         private final String sDeviceAddress;
         /** is null in case a single device is used for scoring for both players */
         private final Player player ;
+        /** what to send to main for values received from this device */
+        private final BLEDispatchTable dispatchTable;
         MyBluetoothGattCallback(String sAddress, Player player) {
             this.sDeviceAddress = sAddress;
             this.player         = player;
+            this.dispatchTable  = new BLEDispatchTable(mServicesAndCharacteristicsConfig, saDeviceAddresses.size(), player);
         }
 
         @Override public void onConnectionStateChange(BluetoothGatt gatt, int status, int newState) {
@@ -307,86 +321,63 @@ public class BLEReceiverManager
             //Log.d(TAG, String.format("onCharacteristicChanged B: characteristic : %s, writetype : %d, instance_id : %d", characteristic.getUuid(), characteristic.getWriteType(), characteristic.getInstanceId())); // e.g. write type 2 for indicate, no notify also results in '2' ?
 
             try {
-                final int iHandleOnReleaseValueDefault = mServicesAndCharacteristicsConfig.optInt(BLEUtil.Keys.HandleOnReleaseValue.toString(), -1);
-                JSONObject joServiceCfg = mServicesAndCharacteristicsConfig.optJSONObject(characteristic.getService().getUuid().toString().toLowerCase());
-                if ( joServiceCfg != null ) {
-                    JSONArray  jaCharacteristicCfg = joServiceCfg.optJSONArray(characteristic.getUuid().toString().toLowerCase());
-                    if ( jaCharacteristicCfg != null ) {
-                        JSONObject joCharacteristicCfg = jaCharacteristicCfg.optJSONObject(saDeviceAddresses.size() - 1);
-                        if ( joCharacteristicCfg == null ) {
-                            showInvalidActiveConfig();
-                            return;
-                        }
-                        JSONArray saMessageFormat = joCharacteristicCfg.optJSONArray(BLEUtil.Keys.TranslateToBTMessage.toString());
-                        if ( saMessageFormat == null || saMessageFormat.length() == 0 ) {
-                            showInvalidActiveConfig();
-                            return;
-                        }
-                        final int iValueIn = value[0];
-                        int iValueToHandle = iValueIn;
-                        int iHandleOnReleaseValue = joCharacteristicCfg.optInt(BLEUtil.Keys.HandleOnReleaseValue.toString(), iHandleOnReleaseValueDefault);
-                        final boolean bHandleOnRelease = iHandleOnReleaseValue >= 0;
-                        if ( bHandleOnRelease ) {
-                            // only act on 'buttons released' if a value for release is specified
-                            if ( ( this.lastValueReceived != iHandleOnReleaseValue)
-                              && (iValueIn               == iHandleOnReleaseValue)
-                            ) {
-                                iValueToHandle = this.lastValueReceived;
-                            } else if ( iValueIn > lastValueReceived ) {
-                                // assuming value to actually handle 'on release' increases if multiple buttons are pressed
-                                lastValueReceived = iValueIn;
-                                lastValueReceivedOn = System.currentTimeMillis();
-                                Log.d(TAG, String.format("Recording value %d at %d to use on release", this.lastValueReceived, lastValueReceivedOn));
-
-                                //iValueToHandle = -1;
-                                return;
-                            }
-                        }
+                BLEDispatchTable.Characteristic cfg = dispatchTable.get(characteristic.getService().getUuid(), characteristic.getUuid());
+                if ( cfg == null ) {
+                    return;
+                }
+                if ( cfg.bValid == false ) {
+                    showInvalidActiveConfig();
+                    return;
+                }
+                final int iValueIn = value[0];
+                int iValueToHandle = iValueIn;
+                final boolean bHandleOnRelease = cfg.iHandleOnReleaseValue >= 0;
+                if ( bHandleOnRelease ) {
+                    // only act on 'buttons released' if a value for release is specified
+                    if ( ( this.lastValueReceived != cfg.iHandleOnReleaseValue)
+                      && (iValueIn               == cfg.iHandleOnReleaseValue)
+                    ) {
+                        iValueToHandle = this.lastValueReceived;
+                    } else if ( iValueIn > lastValueReceived ) {
+                        // assuming value to actually handle 'on release' increases if multiple buttons are pressed
+                        lastValueReceived = iValueIn;
+                        lastValueReceivedOn = System.currentTimeMillis();
+                        Log.d(TAG, String.format("Recording value %d at %d to use on release", this.lastValueReceived, lastValueReceivedOn));
+                        return;
+                    }
+                }
 
-                        if ( iValueToHandle >= 0 ) {
-                            long lDurationButtonWasHeld = -1;
-                            if ( bHandleOnRelease && this.lastValueReceivedOn > 0L ) {
-                                lDurationButtonWasHeld = System.currentTimeMillis() - this.lastValueReceivedOn;
-                                if ( lDurationButtonWasHeld >= 1000 ) {
-                                    int iCountDownFrom = Math.round(lDurationButtonWasHeld / 1000);
-                                    for( int iTryFor=iCountDownFrom; iTryFor>=1;iTryFor--){
-                                        JSONArray saMessageFormatLongPress = joCharacteristicCfg.optJSONArray(BLEUtil.Keys.TranslateToBTMessage + "_" + iTryFor);
-                                        if ( saMessageFormatLongPress != null && iValueToHandle < saMessageFormatLongPress.length() ) {
-                                            if ( saMessageFormatLongPress.getString(iValueToHandle).startsWith("-") == false ) {
-                                                // code below will actually handle the value from longpress
-                                                saMessageFormat = saMessageFormatLongPress;
-                                                break;
-                                            }
-                                        }
-                                    }
-                                }
-                                this.lastValueReceivedOn = 0L;
-                            }
-                            if ( iValueToHandle < saMessageFormat.length() ) {
-                                String sMessageFormat = saMessageFormat.getString(iValueToHandle);
-                                if ( sMessageFormat == null || sMessageFormat.startsWith("-") ) {
-                                    Log.d(TAG, "Ignoring message " + sMessageFormat + " handle: " + iValueToHandle  + ", in: " + iValueIn);
-                                    if ( sMessageFormat != null && sMessageFormat.startsWith("-info:") ) {
-                                        String sMessage = String.format(sMessageFormat.replace("-info:", ""), (this.player==null?"":player), (this.player==null?"":player.getOther()), value[0]);
-                                        Message message = mHandler.obtainMessage(BTMessage.INFO.ordinal(), R.string.ble_message_x_ignored, iValueToHandle, sMessage);
-                                        message.sendToTarget();
-                                    }
-                                } else {
-                                    sMessageFormat = sMessageFormat.replaceAll("#.*", "").trim();
-                                    String sMessage = String.format(sMessageFormat, (this.player==null?"":player), (this.player==null?"":player.getOther()), value[0]);
-                                    Message message = mHandler.obtainMessage(BTMessage.READ.ordinal(), sMessage );
-                                    message.sendToTarget();
-                                }
-                                if ( bHandleOnRelease ) {
-                                    this.lastValueReceived = 0;
-                                }
-                            } else {
-                                Log.d(TAG, String.format("Ignoring value %d, previous value %d. Message array to small", iValueToHandle, this.lastValueReceived));
+                if ( iValueToHandle >= 0 ) {
+                    long lDurationButtonWasHeld = -1;
+                    if ( bHandleOnRelease && this.lastValueReceivedOn > 0L ) {
+                        lDurationButtonWasHeld = System.currentTimeMillis() - this.lastValueReceivedOn;
+                        this.lastValueReceivedOn = 0L;
+                    }
+                    BLEDispatchTable.Action[] actions = cfg.getActions(iValueToHandle, lDurationButtonWasHeld);
+                    if ( iValueToHandle < actions.length ) {
+                        BLEDispatchTable.Action action = actions[iValueToHandle];
+                        if ( action.bIgnore ) {
+                            Log.d(TAG, "Ignoring message " + action.sFormat + " handle: " + iValueToHandle  + ", in: " + iValueIn);
+                            if ( action.sInfoFormat != null ) {
+                                String sMessage = action.getInfoMessage(this.player, value[0]);
+                                Message message = mHandler.obtainMessage(BTMessage.INFO.ordinal(), R.string.ble_message_x_ignored, iValueToHandle, sMessage);
+                                message.sendToTarget();
                             }
                         } else {
-                            Log.d(TAG, String.format("Ignoring value %d, previous value %d", iValueToHandle, this.lastValueReceived));
+                            // a BTCommand if the message could be parsed, the text otherwise: the receiver reports what it does not understand
+                            BTCommand command = action.getCommand(this.player, value[0]);
+                            Object    oMessage = (command != null) ? command : action.getMessage(this.player, value[0]);
+                            Message message = mHandler.obtainMessage(BTMessage.READ.ordinal(), oMessage);
+                            message.sendToTarget();
+                        }
+                        if ( bHandleOnRelease ) {
+                            this.lastValueReceived = 0;
                         }
+                    } else {
+                        Log.d(TAG, String.format("Ignoring value %d, previous value %d. Message array to small", iValueToHandle, this.lastValueReceived));
                     }
+                } else {
+                    Log.d(TAG, String.format("Ignoring value %d, previous value %d", iValueToHandle, this.lastValueReceived));
                 }
             } catch (Exception e) {
                 e.printStackTrace();
@@ -31,6 +31,7 @@ import com.doubleyellow.scoreboard.model.Model;
 import com.doubleyellow.scoreboard.model.Player;
 import com.doubleyellow.scoreboard.prefs.PreferenceKeys;
 import com.doubleyellow.scoreboard.prefs.PreferenceValues;
+import com.doubleyellow.scoreboard.util.LatencyHistogram;
 
 public class VerifyConnectedDevices extends BaseAlertDialog
 {
@@ -54,8 +55,14 @@ public class VerifyConnectedDevices extends BaseAlertDialog
 
     @Override public void show() {
 
+        String sMessage = context.getString(R.string.ble_shortly_vibrate_selected_connected_devices);
+        LatencyHistogram latency = (m_bleReceiverManager != null) ? m_bleReceiverManager.getLatencyHistogram() : null;
+        if ( (latency != null) && (latency.getCount() > 0) ) {
+            // for troubleshooting slow reactions to button presses
+            sMessage += "\n\n" + latency;
+        }
         adb.setTitle(R.string.ble_devices_verify)
-                .setMessage(R.string.ble_shortly_vibrate_selected_connected_devices)
+                .setMessage(sMessage)
                 .setIcon(android.R.drawable.stat_sys_data_bluetooth)
                 ;
         switch (m_iNrOfDevices) {
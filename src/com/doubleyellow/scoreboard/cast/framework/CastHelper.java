@@ -20,7 +20,8 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.res.Resources;
 import android.media.MediaRouter;
-import android.os.CountDownTimer;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -74,8 +75,11 @@ import org.json.JSONObject;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -352,6 +356,18 @@ public class CastHelper implements com.doubleyellow.scoreboard.cast.ICastHelper
 
     private final Map<String, Map> m_mSendChangeViewDelayed = new LinkedHashMap<>(); // make null if you do not want to use delayed
 
+    /** Changes are collected and send at most once per interval, all in one message */
+    private static final long FLUSH_INTERVAL_MS = 300;
+    private final Handler  m_flushHandler    = new Handler(Looper.getMainLooper());
+    private       boolean  m_bFlushScheduled = false;
+    private final Runnable m_flushRunnable   = new Runnable() {
+        @Override public void run() {
+            flushChangeViewMessages();
+        }
+    };
+    /** Value last send per element and property: what the cast screen is already showing does not need to be send again */
+    private final Map<String, Object> m_mLastSentValue = new HashMap<>();
+
     public boolean sendChangeViewMessage(String sResName, Object oValue, String sProperty) {
         if ( isCasting() == false ) { return false; }
         if ( sProperty.contains("color") && oValue instanceof Integer ) {
@@ -359,37 +375,47 @@ public class CastHelper implements com.doubleyellow.scoreboard.cast.ICastHelper
         }
         Map map = MapUtil.getMap("id", sResName, "property", sProperty, "value", oValue);
         if ( m_mSendChangeViewDelayed != null ) {
+            String sKey = sResName + sProperty;
             synchronized (m_mSendChangeViewDelayed) {
-                if ( m_cdtDelayedSendChangeViewMessages != null ) {
-                    m_cdtDelayedSendChangeViewMessages.cancel();
+                Object oLastSent = m_mLastSentValue.get(sKey);
+                if ( (oLastSent != null) && oLastSent.equals(oValue) ) {
+                    // e.g. changed and changed back before the flush: nothing to send
+                    m_mSendChangeViewDelayed.remove(sKey);
+                    return true;
                 }
-                Map mReplaced = m_mSendChangeViewDelayed.put(sResName + sProperty, map);
+                Map mReplaced = m_mSendChangeViewDelayed.put(sKey, map);
                 if ( mReplaced != null ) {
                     //Log.d(TAG, "Discarding : " + mReplaced);
                 }
-                m_cdtDelayedSendChangeViewMessages = new DelayedChangeViewCountDown(300);
-                m_cdtDelayedSendChangeViewMessages.start();
+                if ( m_bFlushScheduled == false ) {
+                    m_bFlushScheduled = true;
+                    m_flushHandler.postDelayed(m_flushRunnable, FLUSH_INTERVAL_MS);
+                }
             }
             return true;
         } else {
             return sendMapAsJsonMessage(map);
         }
     }
-    private DelayedChangeViewCountDown m_cdtDelayedSendChangeViewMessages = null;
 
-    private class DelayedChangeViewCountDown extends CountDownTimer {
-        private DelayedChangeViewCountDown(long iMilliSeconds) {
-            super(iMilliSeconds, iMilliSeconds);
-        }
-        @Override public void onTick(long millisUntilFinished) {
-            //Log.d(TAG, "Waiting ... " + millisUntilFinished);
-        }
-        @Override public void onFinish() {
+    private void flushChangeViewMessages() {
+        synchronized (m_mSendChangeViewDelayed) {
+            m_bFlushScheduled = false;
+            if ( m_mSendChangeViewDelayed.isEmpty() ) { return; }
             Log.d(TAG, "Posting ... with name space " + m_sMessageNamespace + " to device id " + m_sCastingToAppId);
-            synchronized (m_mSendChangeViewDelayed) {
-                sendListAsJsonMessage(m_mSendChangeViewDelayed);
-                m_mSendChangeViewDelayed.clear();
+            if ( sendListAsJsonMessage(m_mSendChangeViewDelayed) ) {
+                for ( Map.Entry<String, Map> e : m_mSendChangeViewDelayed.entrySet() ) {
+                    m_mLastSentValue.put(e.getKey(), e.getValue().get("value"));
+                }
             }
+            m_mSendChangeViewDelayed.clear();
+        }
+    }
+
+    /** E.g. when a new session is started the cast screen shows nothing yet */
+    private void forgetLastSentValues() {
+        synchronized (m_mSendChangeViewDelayed) {
+            m_mLastSentValue.clear();
         }
     }
 
@@ -413,14 +439,21 @@ public class CastHelper implements com.doubleyellow.scoreboard.cast.ICastHelper
         return sendJsonMessage(sMsg);
     }
 
-    private static List<String> m_lMessages = new ArrayList<>();
+    /** Last messages send, for troubleshooting (see dumpMessages()). Oldest are discarded */
+    private static final int           MAX_MESSAGES_KEPT = 500;
+    private static final Deque<String> m_lMessages       = new ArrayDeque<>(MAX_MESSAGES_KEPT);
     private boolean sendJsonMessage(String sMsg) {
         Log.v(TAG, "sendMessage: " + sMsg);
         try {
-            if ( ListUtil.isEmpty(m_lMessages) || (m_lMessages.get(0).equals(sMsg) == false) ) {
-                m_lMessages.add(sMsg);
-            } else {
-                Log.w(TAG, "Not adding same message again :" + sMsg);
+            synchronized (m_lMessages) {
+                if ( sMsg.equals(m_lMessages.peekLast()) == false ) {
+                    if ( m_lMessages.size() >= MAX_MESSAGES_KEPT ) {
+                        m_lMessages.removeFirst();
+                    }
+                    m_lMessages.addLast(sMsg);
+                } else {
+                    Log.w(TAG, "Not adding same message again :" + sMsg);
+                }
             }
             if ( iConstructCastMessagesWhileNotEvenCasting != 0 ) {
                 iConstructCastMessagesWhileNotEvenCasting++;
@@ -445,8 +478,10 @@ public class CastHelper implements com.doubleyellow.scoreboard.cast.ICastHelper
             try {
                 File dir = m_context.getFilesDir();
                 File fMessages = new File(dir, "cast_messages.txt");
-                FileUtil.writeTo(fMessages, ListUtil.join(m_lMessages, "\n"));
-                m_lMessages.clear();
+                synchronized (m_lMessages) {
+                    FileUtil.writeTo(fMessages, ListUtil.join(m_lMessages, "\n"));
+                    m_lMessages.clear();
+                }
 
                 Log.w(TAG, "adb pull " + fMessages.getAbsolutePath() );
             } catch (IOException e) {
@@ -503,6 +538,7 @@ public class CastHelper implements com.doubleyellow.scoreboard.cast.ICastHelper
 
     private void cleanup() {
         m_castSession = null;
+        forgetLastSentValues();
 /*
         if ( m_matchModel != null ) {
             int iCleared = m_matchModel.clearListeners(".*.cast.framework.*");
@@ -623,6 +659,9 @@ public class CastHelper implements com.doubleyellow.scoreboard.cast.ICastHelper
 
         Log.d(TAG, "Updating cast (CAF)");
 
+        // (re)send everything: receiver may have (re)loaded the page
+        forgetLastSentValues();
+
         Map<ColorPrefs.ColorTarget, Integer> mColors = ColorPrefs.getTarget2colorMapping(context);
         iBoard.initColors(mColors);
 
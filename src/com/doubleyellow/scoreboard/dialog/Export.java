@@ -32,7 +32,6 @@ import com.doubleyellow.android.util.ContentUtil;
 import com.doubleyellow.android.util.ExportImport;
 import com.doubleyellow.android.view.ViewUtil;
 import com.doubleyellow.scoreboard.Brand;
-import com.doubleyellow.scoreboard.PersistHelper;
 import com.doubleyellow.scoreboard.R;
 import com.doubleyellow.scoreboard.URLFeedTask;
 import com.doubleyellow.scoreboard.archive.PreviousMatchSelector;
@@ -124,6 +123,10 @@ public class Export extends BaseAlertDialog implements HttpUploadFileTask.Upload
         doUpload.setEnabled(ContentUtil.isNetworkAvailable(context));
         ll.addView(doUpload);
 
+        onlyChanged = new CheckBox(context);
+        onlyChanged.setText(R.string.export_only_changed_since_last_export);
+        ll.addView(onlyChanged);
+
         ColorUtil.setBackground(txtFileName, iInputBgColor);
         txtFileName.setTextColor(iInputTxtColor);
 
@@ -145,6 +148,7 @@ public class Export extends BaseAlertDialog implements HttpUploadFileTask.Upload
 
     private EditText txtFileName;
     private CheckBox doUpload;
+    private CheckBox onlyChanged;
 
     public static final int BTN_EXPORT = DialogInterface.BUTTON_POSITIVE;
     public static final int BTN_CANCEL = DialogInterface.BUTTON_NEGATIVE;
@@ -161,24 +165,40 @@ public class Export extends BaseAlertDialog implements HttpUploadFileTask.Upload
 
     private void doExport() {
         String sFilename = txtFileName.getText().toString() + ".zip";
-        File file = new File(targetDirectory, sFilename);
-
-        // ensure LAST.sb is excluded from the export
-        File fLast = PersistHelper.getLastMatchFile(context);
-        File fLastTmp = new File(fLast.getPath() + ".tmp");
-        fLast.renameTo(fLastTmp);
+        final File file = new File(targetDirectory, sFilename);
 
-        String sPath = ExportImport.exportData(sourceDirectory, file, ".*\\.sb");
-        if ( sPath != null ) {
-            Toast.makeText(context, getString(R.string.Exported_to_x, sPath), Toast.LENGTH_LONG).show();
+        if ( btnExport != null ) {
+            btnExport.setEnabled(false);
         }
+        final boolean bOnlyChanged = (onlyChanged != null) && onlyChanged.isChecked();
 
-        // rename LAST.sb back to original
-        fLastTmp.renameTo(fLast);
+        // LAST.sb is excluded from the export by the task itself
+        ExportImportTask task = new ExportImportTask(context, ExportImportTask.Mode.Export, sourceDirectory, file, bOnlyChanged, new ExportImportTask.Listener() {
+            @Override public void onFinished(ExportImportTask task, int iCount, boolean bCancelled) {
+                onExportFinished(file, iCount, bCancelled, task.getError(), bOnlyChanged);
+            }
+        });
+        task.execute();
+    }
 
-        if ( (doUpload != null) && doUpload.isChecked() ) {
-            btnExport.setEnabled(false);
+    private void onExportFinished(File file, int iCount, boolean bCancelled, String sError, boolean bOnlyChanged) {
+        if ( bCancelled || (iCount < 0) ) {
+            if ( iCount < 0 ) {
+                Toast.makeText(context, String.valueOf(sError), Toast.LENGTH_LONG).show();
+            }
+            if ( btnExport != null ) {
+                btnExport.setEnabled(true);
+            }
+            return;
+        }
+        if ( iCount == 0 ) {
+            Toast.makeText(context, bOnlyChanged ? R.string.no_matches_changed_since_last_export : R.string.no_matches_to_export, Toast.LENGTH_LONG).show();
+            dismiss();
+            return;
+        }
+        Toast.makeText(context, getString(R.string.Exported_to_x, file.getPath()), Toast.LENGTH_LONG).show();
 
+        if ( (doUpload != null) && doUpload.isChecked() ) {
             // store file on the server
             String sUrl = URLFeedTask.prefixWithBaseIfRequired("upload.file.php");
             if ( Util.isMyDevice(context) ) {
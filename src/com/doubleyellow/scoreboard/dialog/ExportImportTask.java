@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.dialog;
+
+import android.app.ProgressDialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.os.AsyncTask;
+import android.util.Log;
+
+import com.doubleyellow.scoreboard.PersistHelper;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the matches of the archive directory to a zip file, or extracts them from one, in the background.
+ *
+ * - entries are streamed into or out of the zip one at a time, using a fixed buffer
+ * - progress is shown in a dialog from which the user can cancel
+ * - the file with the match in progress (LAST.sb) is skipped, it is never renamed or overwritten
+ * - an export can be limited to the matches that changed since the previous export, as recorded in a manifest
+ *
+ * Used by Export and Import
+ */
+class ExportImportTask extends AsyncTask<Void, Integer /* Progress: done, total */, Integer /* Result: number of files */>
+{
+    private static final String TAG = "SB." + ExportImportTask.class.getSimpleName();
+
+    enum Mode {
+        Export,
+        Import,
+    }
+
+    interface Listener {
+        /** Invoked on the UI thread. iCount is -1 if the export or import failed, see getError() */
+        void onFinished(ExportImportTask task, int iCount, boolean bCancelled);
+    }
+
+    private static final int    BUFFER_SIZE   = 8 * 1024;
+    private static final String MANIFEST      = "export.manifest";
+    private static final String EXPORT_REGEXP = ".*\\.sb";
+
+    private final Context  m_context;
+    private final Mode     m_mode;
+    /** archive directory: source for export, target for import */
+    private final File     m_fDirectory;
+    private final File     m_fZip;
+    private final boolean  m_bOnlyChanged;
+    private final Listener m_listener;
+    private final File     m_fManifest;
+    private final File     m_fLastMatch;
+    private final File     m_fLastMatchPrevVersion;
+
+    private ProgressDialog m_progressDialog = null;
+    private String         m_sError         = null;
+
+    /**
+     * @param bOnlyChanged for exports only: only add the files that changed since the previous export
+     */
+    ExportImportTask(Context context, Mode mode, File fDirectory, File fZip, boolean bOnlyChanged, Listener listener) {
+        m_context               = context;
+        m_mode                  = mode;
+        m_fDirectory            = fDirectory;
+        m_fZip                  = fZip;
+        m_bOnlyChanged          = bOnlyChanged;
+        m_listener              = listener;
+        m_fManifest             = new File(context.getFilesDir(), MANIFEST);
+        m_fLastMatch            = PersistHelper.getLastMatchFile(context).getAbsoluteFile();
+        m_fLastMatchPrevVersion = new File(fDirectory, "LAST.sb").getAbsoluteFile();
+    }
+
+    String getError() {
+        return m_sError;
+    }
+
+    @Override protected void onPreExecute() {
+        m_progressDialog = new ProgressDialog(m_context);
+        m_progressDialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
+        m_progressDialog.setIndeterminate(false);
+        m_progressDialog.setMessage(m_fZip.getName());
+        m_progressDialog.setCanceledOnTouchOutside(false);
+        m_progressDialog.setButton(DialogInterface.BUTTON_NEGATIVE, m_context.getString(android.R.string.cancel), new DialogInterface.OnClickListener() {
+            @Override public void onClick(DialogInterface dialog, int which) {
+                cancel(false);
+            }
+        });
+        m_progressDialog.setOnCancelListener(new DialogInterface.OnCancelListener() {
+            @Override public void onCancel(DialogInterface dialog) {
+                cancel(false);
+            }
+        });
+        m_progressDialog.show();
+    }
+
+    @Override protected Integer doInBackground(Void... params) {
+        try {
+            if ( m_mode.equals(Mode.Export) ) {
+                return doExport();
+            } else {
+                return doImport();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, m_mode + " of " + m_fZip + " failed", e);
+            m_sError = e.getMessage();
+            return -1;
+        }
+    }
+
+    @Override protected void onProgressUpdate(Integer... values) {
+        if ( m_progressDialog == null ) { return; }
+        m_progressDialog.setMax     (values[1]);
+        m_progressDialog.setProgress(values[0]);
+    }
+
+    @Override protected void onPostExecute(Integer iCount) {
+        hideProgress();
+        m_listener.onFinished(this, iCount, false);
+    }
+
+    @Override protected void onCancelled(Integer iCount) {
+        hideProgress();
+        m_listener.onFinished(this, iCount == null ? 0 : iCount, true);
+    }
+
+    private void hideProgress() {
+        if ( m_progressDialog == null ) { return; }
+        try {
+            m_progressDialog.dismiss();
+        } catch (Exception e) {
+            // activity may already be gone
+        }
+        m_progressDialog = null;
+    }
+
+    //---------------------------------------------------------
+    // export
+    //---------------------------------------------------------
+
+    private int doExport() throws IOException {
+        List<File> lFiles = new ArrayList<>();
+        addFiles(m_fDirectory, lFiles);
+
+        Properties manifestPrev = readManifest();
+        Properties manifest     = new Properties();
+        List<File> lExport      = new ArrayList<>();
+        for ( File f: lFiles ) {
+            String sPath  = getRelativePath(f);
+            String sState = f.lastModified() + "," + f.length();
+            manifest.setProperty(sPath, sState);
+            if ( (m_bOnlyChanged == false) || (sState.equals(manifestPrev.getProperty(sPath)) == false) ) {
+                lExport.add(f);
+            }
+        }
+        publishProgress(0, lExport.size());
+        if ( lExport.isEmpty() ) {
+            return 0;
+        }
+
+        // write to a temporary file, so that a cancelled export does not leave an incomplete zip
+        File fTmp = new File(m_fZip.getPath() + ".tmp");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int iCnt = 0;
+        ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(fTmp), BUFFER_SIZE));
+        try {
+            for ( File f: lExport ) {
+                if ( isCancelled() ) { break; }
+
+                // same entry names as ExportImport.exportData() so that older versions can import it
+                ZipEntry entry = new ZipEntry(m_fDirectory.getName() + "/" + getRelativePath(f));
+                entry.setTime(f.lastModified());
+                zos.putNextEntry(entry);
+                InputStream in = new FileInputStream(f);
+                try {
+                    copy(in, zos, buffer);
+                } finally {
+                    in.close();
+                }
+                zos.closeEntry();
+                publishProgress(++iCnt, lExport.size());
+            }
+        } finally {
+            zos.close();
+        }
+        if ( isCancelled() ) {
+            fTmp.delete();
+            return 0;
+        }
+        if ( fTmp.renameTo(m_fZip) == false ) {
+            fTmp.delete();
+            throw new IOException("Could not create " + m_fZip);
+        }
+        writeManifest(manifest);
+        return iCnt;
+    }
+
+    private void addFiles(File fDir, List<File> lFiles) {
+        File[] files = fDir.listFiles();
+        if ( files == null ) { return; }
+        for ( File f: files ) {
+            if ( f.isDirectory() ) {
+                addFiles(f, lFiles);
+            } else if ( f.getName().matches(EXPORT_REGEXP) && (isLastMatch(f) == false) ) {
+                lFiles.add(f);
+            }
+        }
+    }
+
+    private String getRelativePath(File f) {
+        return f.getAbsolutePath().substring(m_fDirectory.getAbsolutePath().length() + 1);
+    }
+
+    private Properties readManifest() {
+        Properties manifest = new Properties();
+        if ( m_bOnlyChanged && m_fManifest.exists() ) {
+            try {
+                InputStream in = new FileInputStream(m_fManifest);
+                try {
+                    manifest.load(in);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Could not read " + m_fManifest + ", exporting all", e);
+            }
+        }
+        return manifest;
+    }
+
+    private void writeManifest(Properties manifest) {
+        try {
+            OutputStream out = new FileOutputStream(m_fManifest);
+            try {
+                manifest.store(out, m_fZip.getName());
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write " + m_fManifest, e);
+        }
+    }
+
+    //---------------------------------------------------------
+    // import
+    //---------------------------------------------------------
+
+    private int doImport() throws IOException {
+        final String sTargetDir = m_fDirectory.getCanonicalPath() + File.separator;
+        final String sPrefix    = m_fDirectory.getName() + "/";
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int iCnt = 0;
+        ZipFile zipFile = new ZipFile(m_fZip);
+        try {
+            int iTotal = zipFile.size();
+            int iDone  = 0;
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while ( entries.hasMoreElements() && (isCancelled() == false) ) {
+                ZipEntry entry = entries.nextElement();
+                publishProgress(++iDone, iTotal);
+                if ( entry.isDirectory() ) { continue; }
+
+                String sName = entry.getName();
+                if ( sName.startsWith(sPrefix) ) {
+                    sName = sName.substring(sPrefix.length());
+                }
+                File fTarget = new File(m_fDirectory, sName);
+                if ( fTarget.getCanonicalPath().startsWith(sTargetDir) == false ) {
+                    // Zip Path Traversal
+                    Log.w(TAG, "Zip file contains file with untrusted path " + entry.getName());
+                    continue;
+                }
+                if ( isLastMatch(fTarget) ) { continue; }
+
+                fTarget.getParentFile().mkdirs();
+                File fTmp = new File(fTarget.getPath() + ".tmp");
+                InputStream  in  = zipFile.getInputStream(entry);
+                OutputStream out = new FileOutputStream(fTmp);
+                try {
+                    copy(in, out, buffer);
+                } finally {
+                    out.close();
+                    in.close();
+                }
+                if ( fTmp.renameTo(fTarget) == false ) {
+                    fTmp.delete();
+                    throw new IOException("Could not write " + fTarget);
+                }
+                if ( entry.getTime() != -1 ) {
+                    // time the match was last changed, as stored by doExport(). Not every file system allows setting it: best effort
+                    fTarget.setLastModified(entry.getTime());
+                }
+                iCnt++;
+            }
+        } finally {
+            zipFile.close();
+        }
+        return iCnt;
+    }
+
+    //---------------------------------------------------------
+    // helpers
+    //---------------------------------------------------------
+
+    private boolean isLastMatch(File f) {
+        File fAbs = f.getAbsoluteFile();
+        return fAbs.equals(m_fLastMatch) || fAbs.equals(m_fLastMatchPrevVersion);
+    }
+
+    private static void copy(InputStream in, OutputStream out, byte[] buffer) throws IOException {
+        int iRead;
+        while ( (iRead = in.read(buffer)) != -1 ) {
+            out.write(buffer, 0, iRead);
+        }
+    }
+}
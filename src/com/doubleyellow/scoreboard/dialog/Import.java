@@ -136,16 +136,24 @@ public class Import extends BaseAlertDialog
 
         switch (which) {
             case BNT_IMPORT:
-                String sFilename = fChecked.getName();
+                final String sFilename = fChecked.getName();
                 File file = new File(sourceDirectory, sFilename);
-                int iCnt = ExportImport.importData(targetDirectory, file); // Zip Path Traversal: Security warning in google play
-                if ( iCnt > 0 ) {
-                    Toast.makeText(context, getString(R.string.File_x_has_been_imported__Cnt_y, sFilename, iCnt), Toast.LENGTH_LONG).show();
-                    if ( context instanceof MenuHandler) {
-                        MenuHandler menuHandler = (MenuHandler) context;
-                        menuHandler.handleMenuItem(R.id.refresh);
+                // entries with a path outside the target directory are skipped (Zip Path Traversal: Security warning in google play)
+                ExportImportTask task = new ExportImportTask(context, ExportImportTask.Mode.Import, targetDirectory, file, false, new ExportImportTask.Listener() {
+                    @Override public void onFinished(ExportImportTask task, int iCnt, boolean bCancelled) {
+                        if ( iCnt < 0 ) {
+                            Toast.makeText(context, String.valueOf(task.getError()), Toast.LENGTH_LONG).show();
+                        }
+                        if ( iCnt > 0 ) {
+                            Toast.makeText(context, getString(R.string.File_x_has_been_imported__Cnt_y, sFilename, iCnt), Toast.LENGTH_LONG).show();
+                            if ( context instanceof MenuHandler) {
+                                MenuHandler menuHandler = (MenuHandler) context;
+                                menuHandler.handleMenuItem(R.id.refresh);
+                            }
+                        }
                     }
-                }
+                });
+                task.execute();
                 break;
             case DialogInterface.BUTTON_NEUTRAL:
                 break;
@@ -25,6 +25,9 @@ import android.content.Intent;
 import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
 import android.view.*;
 import android.widget.*;
@@ -112,14 +115,14 @@ public class FeedMatchSelector extends ExpandableMatchSelector
                                                                                                                  "${FirstOfList:~${" + Player.B + "}~${B.name}~} [${B.country}] [${B.club}] : ${" + JSONKey.result + "} (${" + JSONKey.id + "})";
     private boolean    m_bHideCompletedMatches = false;
 
-    private int readFeedConfig(JSONObject joRoot) throws Exception {
+    /** @param joConfig the 'config' section of the feed */
+    private int readFeedConfig(JSONObject joConfig) throws Exception {
         if ( m_joFeedConfig != null ) {
             // read config section only once per feed, not e.g. when user is refreshing the feed
             return 0;
         }
 
-        // if there is a config section, use it
-        m_joFeedConfig = joRoot.optJSONObject(URLsKeys.config.toString());
+        m_joFeedConfig = joConfig;
         if ( m_joFeedConfig != null ) {
             m_sDisplayFormat_Players = m_joFeedConfig.optString(URLsKeys.Placeholder_Player.toString(), DisplayFormat_PlayerDefault);
             m_sDisplayFormat_Matches = m_joFeedConfig.optString(URLsKeys.Placeholder_Match .toString(), DisplayFormat_MatchDefault);
@@ -315,9 +318,9 @@ public class FeedMatchSelector extends ExpandableMatchSelector
                                                 + ")?+";                                                 // group 9
     private static final String sPlayerSplitter = "\\s+-\\s+";
 
-    private static final String sRegExpMatch    = "^" + sRegExpDateTime + "[\\s:]*" + sRegExpPlayer + sPlayerSplitter + sRegExpPlayer + "[\\s:]*+" + sRegExpResult + "(.*?)" + "$";
-    private static final Pattern pMatchParsing  = Pattern.compile(sRegExpMatch);
-    private static final Pattern pPlayerParsing = Pattern.compile("^" + sRegExpPlayer + "(.*?)" + "$");
+    static final String sRegExpMatch     = "^" + sRegExpDateTime + "[\\s:]*" + sRegExpPlayer + sPlayerSplitter + sRegExpPlayer + "[\\s:]*+" + sRegExpResult + "(.*?)" + "$";
+    static final String sRegExpOnePlayer = "^" + sRegExpPlayer + "(.*?)" + "$";
+    // the grammar described by these regular expressions is parsed by MatchStringTokenizer, without the backtracking (see MatchStringTokenizerTest)
     public static String getMatchDetailsFromMatchString(Model model, String sText, Context context, boolean bIsOnePlayerOnly) {
         return getMatchDetailsFromMatchString(model, sText, context, bIsOnePlayerOnly, false);
     }
@@ -329,19 +332,19 @@ public class FeedMatchSelector extends ExpandableMatchSelector
         }
         //Log.d(TAG, "Using reg exp : " + sRegExp);
         //Log.d(TAG, "Examining     : " + sText);
-        Matcher m;
+        String[] m;
         if ( bIsOnePlayerOnly ) {
-            m = pPlayerParsing.matcher(sText);
+            m = MatchStringTokenizer.tokenizePlayer(sText);
         } else {
-            m = pMatchParsing.matcher(sText);
+            m = MatchStringTokenizer.tokenizeMatch(sText);
         }
-        if ( m.find() ) {
+        if ( m != null ) {
             String sResult = null;
             if ( bIsOnePlayerOnly ) {
-                String sPlayer1       = m.group(1);
-                String sCountry1      = m.group(2);
-                String sClub1         = m.group(3);
-                String sUnknownEnd    = m.group(4);
+                String sPlayer1       = m[1];
+                String sCountry1      = m[2];
+                String sClub1         = m[3];
+                String sUnknownEnd    = m[4];
                 //Log.w(TAG, String.format("w: %s, p1: %s, p2: %s, r: %s", sDateTime, sPlayer1, sPlayer2, sResult));
                 if ( PreferenceValues.removeSeedingAfterMatchSelection(context) ) {
                     sPlayer1 = Util.removeSeeding(sPlayer1);
@@ -354,16 +357,16 @@ public class FeedMatchSelector extends ExpandableMatchSelector
                 model.setPlayerCountry(Player.A, sCountry1 ); // can be a club abbreviation too
                 model.setPlayerClub   (Player.A, sClub1 ); // can be a country abbreviation too
             } else {
-                String sDateTime      = m.group( 1);
-                String sPlayer1       = m.group( 2);
-                String sCountry1      = m.group( 3);
-                String sClub1         = m.group( 4);
-                String sPlayer2       = m.group( 5);
-                String sCountry2      = m.group( 6);
-                String sClub2         = m.group( 7);
-                       sResult        = m.group( 8);
-                String sResultAndText = m.group( 9);
-                String sUnknownEnd    = m.group(10);
+                String sDateTime      = m[ 1];
+                String sPlayer1       = m[ 2];
+                String sCountry1      = m[ 3];
+                String sClub1         = m[ 4];
+                String sPlayer2       = m[ 5];
+                String sCountry2      = m[ 6];
+                String sClub2         = m[ 7];
+                       sResult        = m[ 8];
+                String sResultAndText = m[ 9];
+                String sUnknownEnd    = m[10];
                 //Log.w(TAG, String.format("w: %s, p1: %s, p2: %s, r: %s", sDateTime, sPlayer1, sPlayer2, sResult));
                 if ( PreferenceValues.removeSeedingAfterMatchSelection(context) ) {
                     sPlayer1 = Util.removeSeeding(sPlayer1);
@@ -429,8 +432,8 @@ public class FeedMatchSelector extends ExpandableMatchSelector
                 };
                 for(String sRetryRE: saRetry) {
                     if ( StringUtil.isEmpty(sRetryRE) ) { continue; }
-                    m = Pattern.compile(sRetryRE).matcher(sText);
-                    if ( m.find() ) {
+                    Matcher mRetry = Pattern.compile(sRetryRE).matcher(sText);
+                    if ( mRetry.find() ) {
                         Log.d(TAG, "Did find something for RegExp: " + sRetryRE);
                         break;
                     } else {
@@ -797,6 +800,11 @@ public class FeedMatchSelector extends ExpandableMatchSelector
             m_bGroupByCourt = PreferenceValues.groupMatchesInFeedByCourt(context); // if set to true, matches must be sorted by date+time within the 'section', my feeds usually come in 'per field'
         }
 
+        private final Handler m_uiHandler = new Handler(Looper.getMainLooper());
+
+        /** true if the list shows cached content that is still being revalidated */
+        boolean m_bShowingStaleContent = false;
+
         int     m_iMatchesWithCourt = 0;
         int     m_iMatchesWithOutResultWithCourt = 0;
         /** To keep the number of toast message to a certain minimum */
@@ -804,6 +812,7 @@ public class FeedMatchSelector extends ExpandableMatchSelector
 
         @Override public void clear() {
             super.clear();
+            m_iJsonFeedGeneration++;
 
             // will be 're-increased' by 'receive()'
             m_iMatchesWithCourt              = 0;
@@ -873,10 +882,15 @@ public class FeedMatchSelector extends ExpandableMatchSelector
                 return;
             }
 
-            m_task = new URLFeedTask(context, m_sLastFetchedURL);
+            URLFeedTask task = new URLFeedTask(context, m_sLastFetchedURL);
             if ( bUseCacheIfPresent == false ) {
-                m_task.setCacheFileToOld(true);
+                task.setCacheFileToOld(true);
+            } else {
+                // show outdated matches from cache immediately, update the list if the feed turns out to have changed
+                task.setStaleWhileRevalidate(true);
             }
+            m_bShowingStaleContent = false;
+            m_task = task;
 
             m_task.setContentReceiver(this);
             if ( Build.VERSION.SDK_INT <= Build.VERSION_CODES.P /* 28 */ ) {
@@ -901,7 +915,14 @@ public class FeedMatchSelector extends ExpandableMatchSelector
         @Override public void receive(String sContent, FetchResult result, long lCacheAge, String sLastSuccessfulContent, String sUrl)
         {
             Log.i(TAG, String.format("Fetched (from cache %s) %s", lCacheAge, result));
-            if ( m_task != null ) {
+            boolean bRevalidating = (m_task instanceof URLFeedTask) && ((URLFeedTask) m_task).isRevalidating();
+            boolean bUnchanged    = (m_task instanceof URLFeedTask) && ((URLFeedTask) m_task).isUnchangedSinceRevalidating();
+            if ( m_bShowingStaleContent && (bUnchanged == false) ) {
+                // content changed since the cached content was shown: rebuild the list
+                this.clear();
+            }
+            m_bShowingStaleContent = bRevalidating;
+            if ( (m_task != null) && (bRevalidating == false) ) {
                 m_task.cancel(true);
                 Log.d(TAG, "Setting m_task to null");
                 m_task = null;
@@ -910,6 +931,10 @@ public class FeedMatchSelector extends ExpandableMatchSelector
                 // long running fetch and user closed activity ??
                 return;
             }
+            if ( bUnchanged ) {
+                // the list already shows this content
+                return;
+            }
 
             // remove the 'fetching...' message
             boolean bRemoved = this.removeHeader(m_sFetchingDataMessage);
@@ -961,18 +986,24 @@ public class FeedMatchSelector extends ExpandableMatchSelector
                     sUseContent = sContent;
                 }
                 if ( sUseContent != null ) {
-                    lExpandedGroups = fillList(sUseContent.trim());
+                    String sTrimmed = sUseContent.trim();
                     FeedMatchSelector.this.onChildClickListener.setDisabled( m_feedStatus.allowSelectionForMatch() == false );
+                    if ( isJsonFeed(sTrimmed) ) {
+                        // onListFilled() is invoked once the last section has been read
+                        fillListJSON(sTrimmed, result);
+                        return;
+                    }
+                    lExpandedGroups = fillListFlat(sTrimmed);
                 }
-            } catch (JSONException e) {
-                e.printStackTrace();
-                String sName = PreferenceValues.getMatchesFeedName(getActivity());
-                this.addItem(sName, e.getMessage());
             } catch (Exception e) {
                 // e.g. activity closed by user before data was received
                 e.printStackTrace();
             }
+            onListFilled(result, sUseContent, lExpandedGroups);
+        }
 
+        /** Adds messages if nothing was added to the list, and redraws it */
+        private void onListFilled(FetchResult result, String sUseContent, List<String> lExpandedGroups) {
             boolean bSuggestToShowPlayerList = false;
             if ( this.getChildrenCount() == 0 ) {
 
@@ -1049,26 +1080,11 @@ public class FeedMatchSelector extends ExpandableMatchSelector
 */
         }
 
-        /** For matches or players */
-        private List<String> fillList(String sContent) throws Exception {
-            List<String> lExpandedGroups = null;
-            if ( sContent.startsWith("{") && sContent.endsWith("}"))  {
-                sContent = canonicalizeJsonKeys(sContent);
-                JSONObject joRoot = new JSONObject(sContent);
-                readFeedConfig(joRoot);
-                lExpandedGroups = fillListJSON(joRoot);
-            } else if ( sContent.startsWith("[") && sContent.endsWith("]") && sContent.contains("{") ) { // TODO: check json validity
-                sContent = canonicalizeJsonKeys(sContent);
-                JSONArray array = new JSONArray(sContent);
-                if ( m_feedStatus.isShowingPlayers() ) {
-                    fillPlayerListFromJSONArray(getFormat(m_feedStatus), "All", array);
-                } else {
-                    fillMatchListFromJSONArray(getFormat(m_feedStatus), "All", lExpandedGroups, array);
-                }
-            } else {
-                lExpandedGroups = fillListFlat(sContent);
+        private boolean isJsonFeed(String sContent) {
+            if ( sContent.startsWith("{") && sContent.endsWith("}") ) {
+                return true;
             }
-            return lExpandedGroups;
+            return sContent.startsWith("[") && sContent.endsWith("]") && sContent.contains("{"); // TODO: check json validity
         }
 
         private String getFormat(FeedStatus feedStatus) {
@@ -1081,102 +1097,153 @@ public class FeedMatchSelector extends ExpandableMatchSelector
 
         private final AndroidPlaceholder placeholder = new AndroidPlaceholder(TAG);
 
-        /** For matches and players */
-        private List<String> fillListJSON(JSONObject joRoot) throws Exception {
-            List<String> lExpandedGroups = new ArrayList<>();
-            String       sDisplayFormat  = getFormat(m_feedStatus);
+        /** bumped whenever the list is cleared, so that sections of a feed still being read are no longer added */
+        private volatile int m_iJsonFeedGeneration = 0;
+
+        /**
+         * For matches and players.
+         * The feed is read on a background thread, each section is added to the list as soon as it has been read.
+         * The 'config' section is expected to come before the sections with matches or players, as in all feeds generated by the server.
+         */
+        private void fillListJSON(final String sContent, final FetchResult result) {
+            final int          iGeneration     = ++m_iJsonFeedGeneration;
+            final List<String> lExpandedGroups = new ArrayList<>();
             mFeedPrefOverwrites.clear();
 
-            if ( JsonUtil.size(joRoot) >= 1 && joRoot.has(JSONKey.Message.toString()) ) {
-                String sMessage = (String) joRoot.remove(JSONKey.Message.toString());
-                Toast.makeText(context, sMessage, Toast.LENGTH_LONG).show();
-            }
+            Thread reader = new Thread(new Runnable() {
+                @Override public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    long lStart = System.currentTimeMillis();
+                    Exception error = null;
+                    try {
+                        new JsonFeedReader(sContent, "All").read(new JsonFeedReader.Listener() {
+                            @Override public void onRootValue(final String sKey, final Object value) {
+                                postIfCurrent(iGeneration, new Runnable() {
+                                    @Override public void run() {
+                                        applyJsonRootValue(sKey, value);
+                                    }
+                                });
+                            }
+                            @Override public void onSection(final String sSection, final JSONArray entries) {
+                                postIfCurrent(iGeneration, new Runnable() {
+                                    @Override public void run() {
+                                        addJsonSection(sSection, entries, lExpandedGroups);
+                                    }
+                                });
+                            }
+                            @Override public boolean isCancelled() {
+                                return iGeneration != m_iJsonFeedGeneration;
+                            }
+                        });
+                    } catch (Exception e) {
+                        error = e;
+                    }
+                    Log.d(TAG, String.format("Read json feed of %d characters in %d ms", sContent.length(), System.currentTimeMillis() - lStart));
+
+                    final Exception readError = error;
+                    postIfCurrent(iGeneration, new Runnable() {
+                        @Override public void run() {
+                            if ( readError != null ) {
+                                readError.printStackTrace();
+                                String sName = PreferenceValues.getMatchesFeedName(getActivity());
+                                addItem(sName, readError.getMessage());
+                            }
+                            onListFilled(result, sContent, lExpandedGroups);
+                        }
+                    });
+                }
+            }, JsonFeedReader.class.getSimpleName());
+            reader.start();
+        }
 
-            // for feeds where matches between teams are listed, for each team a list of players may be specified
-            m_joTeamPlayers = joRoot.optJSONObject(JSONKey.teamPlayers.toString());
+        private void postIfCurrent(final int iGeneration, final Runnable runnable) {
+            m_uiHandler.post(new Runnable() {
+                @Override public void run() {
+                    if ( (iGeneration != m_iJsonFeedGeneration) || (context == null) ) {
+                        // list cleared or activity closed while reading the feed
+                        return;
+                    }
+                    runnable.run();
+                }
+            });
+        }
 
-            int    iEntriesCnt             = 0;
+        /** Root entries of the feed that do not hold matches or players */
+        private void applyJsonRootValue(String sKey, Object value) {
             String sActualNameFromFeed     = null;
             String sAuthenticationFromFeed = null;
-
-            Iterator<String> itSections = joRoot.keys(); // Field names and or round names?
-            while ( itSections.hasNext() ) {
-                String sSection = itSections.next();
-
-                boolean bNameOrConfig = false;
-                if ( sSection.equalsIgnoreCase(URLsKeys.name.toString()) ) { // old, do not promote this (name as root key) in documentation or so
-                    bNameOrConfig = true;
-                    sActualNameFromFeed = joRoot.getString(sSection);
-                } else if ( sSection.equalsIgnoreCase(URLsKeys.config.toString()) ) {
-                    bNameOrConfig = true;
-                    JSONObject joConfig = (JSONObject) joRoot.get(sSection);
-                    sActualNameFromFeed     = joConfig.optString(URLsKeys.name.toString());
-                    sAuthenticationFromFeed = joConfig.optString(URLsKeys.Authentication.toString());
+            if ( sKey.equals(JSONKey.Message.toString()) ) {
+                Toast.makeText(context, String.valueOf(value), Toast.LENGTH_LONG).show();
+            } else if ( sKey.equals(JSONKey.teamPlayers.toString()) && (value instanceof JSONObject) ) {
+                // for feeds where matches between teams are listed, for each team a list of players may be specified
+                m_joTeamPlayers = (JSONObject) value;
+            } else if ( sKey.equalsIgnoreCase(URLsKeys.name.toString()) ) { // old, do not promote this (name as root key) in documentation or so
+                sActualNameFromFeed = String.valueOf(value);
+            } else if ( sKey.equalsIgnoreCase(URLsKeys.config.toString()) && (value instanceof JSONObject) ) {
+                JSONObject joConfig = (JSONObject) value;
+                try {
+                    readFeedConfig(joConfig);
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
+                sActualNameFromFeed     = joConfig.optString(URLsKeys.name.toString());
+                sAuthenticationFromFeed = joConfig.optString(URLsKeys.Authentication.toString());
+            } else {
+                Log.w(TAG, String.format("Not using %s with value %s", sKey, value));
+                return;
+            }
 
-                if ( StringUtil.isNotEmpty(sActualNameFromFeed) || StringUtil.isNotEmpty(sAuthenticationFromFeed) ) {
-                    // read the name of the feed
-                    Map<URLsKeys, String> feedPostDetail = PreferenceValues.getFeedPostDetail(context);
-                    String sCurrentName           = feedPostDetail.get(URLsKeys.Name);
-                    String sCurrentAuthentication = feedPostDetail.get(URLsKeys.Authentication);
+            if ( StringUtil.isNotEmpty(sActualNameFromFeed) || StringUtil.isNotEmpty(sAuthenticationFromFeed) ) {
+                // read the name of the feed
+                Map<URLsKeys, String> feedPostDetail = PreferenceValues.getFeedPostDetail(context);
+                String sCurrentName           = feedPostDetail.get(URLsKeys.Name);
+                String sCurrentAuthentication = feedPostDetail.get(URLsKeys.Authentication);
 
-                    boolean bFeedPropertiesChanged = false;
+                boolean bFeedPropertiesChanged = false;
 
-                    if ( StringUtil.isNotEmpty(sActualNameFromFeed) ) {
-                        if ( sActualNameFromFeed.equals(sCurrentName) == false ) {
-                            feedPostDetail.put(URLsKeys.Name, sActualNameFromFeed);
-                            bFeedPropertiesChanged = true;
-                        }
+                if ( StringUtil.isNotEmpty(sActualNameFromFeed) ) {
+                    if ( sActualNameFromFeed.equals(sCurrentName) == false ) {
+                        feedPostDetail.put(URLsKeys.Name, sActualNameFromFeed);
+                        bFeedPropertiesChanged = true;
                     }
-                    if ( StringUtil.isNotEmpty(sAuthenticationFromFeed) ) {
-                        if ( sAuthenticationFromFeed.equals(sCurrentAuthentication) == false ) {
-                            feedPostDetail.put(URLsKeys.Authentication, sAuthenticationFromFeed);
-                            bFeedPropertiesChanged = true;
-                        }
-                    }
-
-                    if ( bFeedPropertiesChanged ) {
-                        PreferenceValues.addOrReplaceNewFeedURL(context, feedPostDetail, true, true);
-
-                        if ( getActivity() instanceof MatchTabbed ) {
-                            MatchTabbed tabbed = (MatchTabbed) getActivity();
-                            tabbed.mAdapter.notifyDataSetChanged();
-                        }
+                }
+                if ( StringUtil.isNotEmpty(sAuthenticationFromFeed) ) {
+                    if ( sAuthenticationFromFeed.equals(sCurrentAuthentication) == false ) {
+                        feedPostDetail.put(URLsKeys.Authentication, sAuthenticationFromFeed);
+                        bFeedPropertiesChanged = true;
                     }
-                    sActualNameFromFeed     = null;
-                    sAuthenticationFromFeed = null;
                 }
 
-                if ( bNameOrConfig ) {
-                    continue;
-                }
+                if ( bFeedPropertiesChanged ) {
+                    PreferenceValues.addOrReplaceNewFeedURL(context, feedPostDetail, true, true);
 
-                Object values = joRoot.get(sSection);
-                JSONArray entries = null;
-                if ( values instanceof JSONArray ) {
-                    entries = (JSONArray) values;
-                } else if ( values instanceof JSONObject ) {
-                    JSONObject joChild = (JSONObject) values;
-                    entries = joChild.optJSONArray("Matches"); // not required
-                    sSection = joChild.optString("Field", sSection);
-                    if ( entries == null ) {
-                        Log.w(TAG, String.format("Not using %s with object %s as value", sSection, values));
+                    if ( getActivity() instanceof MatchTabbed ) {
+                        MatchTabbed tabbed = (MatchTabbed) getActivity();
+                        tabbed.mAdapter.notifyDataSetChanged();
                     }
-                } else {
-                    Log.w(TAG, String.format("Not using %s with value %s (%s)", sSection, values, values.getClass().getName()));
                 }
+            }
+        }
 
-                if ( entries != null ) {
-                    if ( m_feedStatus.isShowingPlayers() ) {
-                        fillPlayerListFromJSONArray(sDisplayFormat, sSection, entries);
-                    } else {
-                        fillMatchListFromJSONArray(sDisplayFormat, sSection, lExpandedGroups, entries);
-                    }
-                    iEntriesCnt += entries.length();
+        /** Adds the matches or players of one section, and shows them right away */
+        private void addJsonSection(String sSection, JSONArray entries, List<String> lExpandedGroups) {
+            boolean bFirstSection = (this.getChildrenCount() == 0);
+            String  sDisplayFormat = getFormat(m_feedStatus);
+            try {
+                if ( m_feedStatus.isShowingPlayers() ) {
+                    fillPlayerListFromJSONArray(sDisplayFormat, sSection, entries);
+                } else {
+                    fillMatchListFromJSONArray(sDisplayFormat, sSection, lExpandedGroups, entries);
                 }
+            } catch (JSONException e) {
+                e.printStackTrace();
+                String sName = PreferenceValues.getMatchesFeedName(getActivity());
+                this.addItem(sName, e.getMessage());
+            }
+            notifyDataSetChanged();
+            if ( bFirstSection && (this.getChildrenCount() > 0) ) {
+                hideProgress();
             }
-
-            return lExpandedGroups; // TODO: return list of headers that should be expanded
         }
 
         /** Players only */
@@ -1263,53 +1330,78 @@ public class FeedMatchSelector extends ExpandableMatchSelector
 
         /** Matches or players */
         private List<String> fillListFlat(String sContent) {
-            List<String> lInput = new ArrayList<String>(Arrays.asList(sContent.split("\n")));
-            ListUtil.removeEmpty(lInput);
+            ParsedFlatFeed feed = ParsedFlatFeed.get(sContent);
 
-            if ( ListUtil.isEmpty(lInput) ) {
+            if ( ListUtil.isEmpty(feed.lEntries) && ListUtil.isEmpty(feed.lSettings) && (feed.sName == null) ) {
                 super.addItem(m_sNoMatchesInFeed, m_sLastFetchedURL);
                 //super.clearFilter();
 
                 // TODO: ask user if he wants to switch to list of players (only if there actually are players in the feed)
-            } else {
-                String sFirstLineOfFeed = lInput.get(0).trim();
-                if ( sFirstLineOfFeed.startsWith("[") && sFirstLineOfFeed.endsWith("]") ) {
-                    // assume the first line is the name of the feed: allowing the name of the feed be dynamically updated
-                    String sNewName     = lInput.remove(0).trim().substring(1, sFirstLineOfFeed.length() - 1);
-                    Map<URLsKeys, String> feedPostDetail = PreferenceValues.getFeedPostDetail(context);
-                    String sCurrentName = feedPostDetail.get(URLsKeys.Name);
-                    if ( (sNewName.equals(sCurrentName) == false) && (sNewName.trim().length() > 0) ) {
-                        // TODO: see if the feed is in the feeds.php, and if so get additional attributes from there (Region,Country!)
-
-                        feedPostDetail.put(URLsKeys.Name, sNewName);
-                        PreferenceValues.addOrReplaceNewFeedURL(context, feedPostDetail, true, true);
-
-                        //emsAdapter.notifyDataSetChanged();
-                        //notifyDataSetChanged();
-                        if ( getActivity() instanceof MatchTabbed ) {
-                            MatchTabbed tabbed = (MatchTabbed) getActivity();
-                            tabbed.mAdapter.notifyDataSetChanged();
-                        }
+                return null;
+            }
+            if ( feed.sName != null ) {
+                // assume the first line is the name of the feed: allowing the name of the feed be dynamically updated
+                String sNewName     = feed.sName;
+                Map<URLsKeys, String> feedPostDetail = PreferenceValues.getFeedPostDetail(context);
+                String sCurrentName = feedPostDetail.get(URLsKeys.Name);
+                if ( (sNewName.equals(sCurrentName) == false) && (sNewName.trim().length() > 0) ) {
+                    // TODO: see if the feed is in the feeds.php, and if so get additional attributes from there (Region,Country!)
+
+                    feedPostDetail.put(URLsKeys.Name, sNewName);
+                    PreferenceValues.addOrReplaceNewFeedURL(context, feedPostDetail, true, true);
+
+                    //emsAdapter.notifyDataSetChanged();
+                    //notifyDataSetChanged();
+                    if ( getActivity() instanceof MatchTabbed ) {
+                        MatchTabbed tabbed = (MatchTabbed) getActivity();
+                        tabbed.mAdapter.notifyDataSetChanged();
                     }
                 }
-                List<String> lExpanded = new ArrayList<String>();
-                String sHeader = getString(m_feedStatus.equals(FeedStatus.showingPlayers)?R.string.lbl_players:R.string.sb_matches); // default if no header follows in the feed
-                mFeedPrefOverwrites.clear();
-                Model mTmp = ModelFactory.getTemp("Storing parsing-result of a match from a feed");
-                for ( String sEntry : lInput ) {
-                    sEntry = sEntry.trim();
-                    if ( StringUtil.isEmpty(sEntry) ) {
-                        continue;
+            }
+            String sDefaultHeader = getString(m_feedStatus.equals(FeedStatus.showingPlayers)?R.string.lbl_players:R.string.sb_matches); // default if no header follows in the feed
+            mFeedPrefOverwrites.clear();
+            for ( String sSetting : feed.lSettings ) {
+                applyFeedSetting(sSetting);
+            }
+            Model mTmp = null;
+            for ( ParsedFlatFeed.Entry entry : feed.lEntries ) {
+                String sHeader = (entry.sHeader == null) ? sDefaultHeader : entry.sHeader;
+                switch ( m_feedStatus ) {
+                    case showingPlayers: {
+                        super.addItem(sHeader, entry.sEntry);
+                        break;
                     }
+                    case showingMatches: {
+                        if ( m_bHideCompletedMatches ) {
+                            if ( entry.bResultParsed == false ) {
+                                if ( mTmp == null ) {
+                                    mTmp = ModelFactory.getTemp("Storing parsing-result of a match from a feed");
+                                }
+                                entry.sResult       = getMatchDetailsFromMatchString(mTmp, entry.sEntry, context, false);
+                                entry.bResultParsed = true;
+                            }
+                            if ( StringUtil.isEmpty(entry.sResult) ) {
+                                super.addItem(sHeader, entry.sEntry);
+                            }
+                        } else {
+                            super.addItem(sHeader, entry.sEntry);
+                        }
+                        break;
+                    }
+                }
+            }
+            return new ArrayList<String>(feed.lExpanded);
+        }
 
-                    if ( sEntry.matches(SETTING_REGEXP) ) {
-                        Pattern p = Pattern.compile(SETTING_REGEXP);
-                        Matcher m = p.matcher(sEntry);
-                        while ( m.find() ) {
-                            String sKey   = m.group(1);
-                            String sValue = m.group(2);
-                            try {
-                                // allow some lines to actually specify settings. Like game is played until 15 (i.s.o default of 11)
+        /** allow some lines to actually specify settings */
+        private void applyFeedSetting(String sEntry) {
+            Pattern p = Pattern.compile(SETTING_REGEXP);
+            Matcher m = p.matcher(sEntry);
+            while ( m.find() ) {
+                String sKey   = m.group(1);
+                String sValue = m.group(2);
+                try {
+                    // allow some lines to actually specify settings. Like game is played until 15 (i.s.o default of 11)
 /*
 [shareAction=PostResult]
 [captionForPostMatchResultToSite=Post uitslag naar DY Boxen site]
@@ -1317,67 +1409,115 @@ public class FeedMatchSelector extends ExpandableMatchSelector
 [numberOfPointsToWinGame=15]
 [locationLast=IHAM, Mechelen]
 */
-                                PreferenceKeys key = PreferenceKeys.valueOf(sKey);
-                                mFeedPrefOverwrites.put(key, sValue);
-                            } catch (Exception e) {
-                                //e.printStackTrace();
-                                try {
-                                    // allow some lines to actually specify settings. Like fixed URL (psa/1234/matches) in stead of dynamic URL (psa.php?nr=1)
+                    PreferenceKeys key = PreferenceKeys.valueOf(sKey);
+                    mFeedPrefOverwrites.put(key, sValue);
+                } catch (Exception e) {
+                    //e.printStackTrace();
+                    try {
+                        // allow some lines to actually specify settings. Like fixed URL (psa/1234/matches) in stead of dynamic URL (psa.php?nr=1)
 /*
 [FeedMatches=psa/.../matches]
 [FeedPlayers=tournamentsoftware/.../players]
 */
-                                    URLsKeys urLsKeys = URLsKeys.valueOf(sKey);
-                                    Map<URLsKeys, String> feedPostDetail = PreferenceValues.getFeedPostDetail(context);
-                                    String sCurrentVal = feedPostDetail.get(urLsKeys);
-                                    if ( (sValue.equals(sCurrentVal) == false) && (sValue.trim().length() > 0) ) {
-                                        feedPostDetail.put(urLsKeys, sValue);
-                                        PreferenceValues.addOrReplaceNewFeedURL(context, feedPostDetail, true, true);
-                                    }
-                                } catch (Exception e2) {
-                                    e2.printStackTrace();
-                                }
-                            }
+                        URLsKeys urLsKeys = URLsKeys.valueOf(sKey);
+                        Map<URLsKeys, String> feedPostDetail = PreferenceValues.getFeedPostDetail(context);
+                        String sCurrentVal = feedPostDetail.get(urLsKeys);
+                        if ( (sValue.equals(sCurrentVal) == false) && (sValue.trim().length() > 0) ) {
+                            feedPostDetail.put(urLsKeys, sValue);
+                            PreferenceValues.addOrReplaceNewFeedURL(context, feedPostDetail, true, true);
                         }
-
-                        continue;
+                    } catch (Exception e2) {
+                        e2.printStackTrace();
                     }
+                }
+            }
+        }
+    }
 
-                    // sometime special characters are encoded as unicode in the feed: decode them
-                    String sEntryUCD = Placeholder.Misc.UnicodeDecode.execute(sEntry, null, null);
-                    if ( sEntryUCD.equals(sEntry) == false ) {
-                        sEntry = sEntryUCD;
-                    }
+    /**
+     * A flat text feed split into its name, settings, headers and entries.
+     * Kept for the last few feeds, keyed by the hash of the content, so reloading an unchanged feed does not parse it again.
+     */
+    private static class ParsedFlatFeed
+    {
+        private static final int MAX_CACHED = 4;
+        private static final Map<String, ParsedFlatFeed> m_mCache = new LinkedHashMap<String, ParsedFlatFeed>(MAX_CACHED + 1, 1f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, ParsedFlatFeed> eldest) {
+                return size() > MAX_CACHED;
+            }
+        };
 
-                    if ( sEntry.matches(HEADER_PREFIX_REGEXP) ) {
-                        String sPrefix = sEntry.replaceAll(HEADER_PREFIX_REGEXP, "$1");
-                        sHeader = sEntry.replaceAll(HEADER_PREFIX_REGEXP, "$2").trim();
-                        if ( sPrefix.equals("+") && (lExpanded.contains(sHeader) == false) ) {
-                            lExpanded.add(sHeader);
-                        }
-                        continue;
-                    }
-                    switch ( m_feedStatus ) {
-                        case showingPlayers: {
-                            super.addItem(sHeader, sEntry);
-                            break;
-                        }
-                        case showingMatches: {
-                            if ( m_bHideCompletedMatches ) {
-                                String sResult = getMatchDetailsFromMatchString(mTmp, sEntry, context, false);
-                                if ( StringUtil.isEmpty(sResult) ) {
-                                    super.addItem(sHeader, sEntry);
-                                }
-                            } else {
-                                super.addItem(sHeader, sEntry);
-                            }
-                            break;
-                        }
+        static class Entry {
+            /** null for entries before the first header */
+            final String  sHeader;
+            final String  sEntry;
+            /** parsed on first use, only needed for hiding completed matches */
+            String        sResult       = null;
+            boolean       bResultParsed = false;
+            Entry(String sHeader, String sEntry) {
+                this.sHeader = sHeader;
+                this.sEntry  = sEntry;
+            }
+        }
+
+        String       sName     = null;
+        List<String> lSettings = new ArrayList<>();
+        List<Entry>  lEntries  = new ArrayList<>();
+        List<String> lExpanded = new ArrayList<>();
+
+        static ParsedFlatFeed get(String sContent) {
+            String sKey = StringUtil.md5hash(sContent);
+            synchronized ( m_mCache ) {
+                ParsedFlatFeed feed = m_mCache.get(sKey);
+                if ( feed == null ) {
+                    feed = new ParsedFlatFeed(sContent);
+                    m_mCache.put(sKey, feed);
+                } else {
+                    Log.d(TAG, "Using earlier parsed feed " + sKey);
+                }
+                return feed;
+            }
+        }
+
+        private ParsedFlatFeed(String sContent) {
+            List<String> lInput = new ArrayList<String>(Arrays.asList(sContent.split("\n")));
+            ListUtil.removeEmpty(lInput);
+            if ( ListUtil.isEmpty(lInput) ) { return; }
+
+            String sFirstLineOfFeed = lInput.get(0).trim();
+            if ( sFirstLineOfFeed.startsWith("[") && sFirstLineOfFeed.endsWith("]") ) {
+                sName = lInput.remove(0).trim().substring(1, sFirstLineOfFeed.length() - 1);
+            }
+            Pattern pSetting = Pattern.compile(SETTING_REGEXP);
+            Pattern pHeader  = Pattern.compile(HEADER_PREFIX_REGEXP);
+            String sHeader = null;
+            for ( String sEntry : lInput ) {
+                sEntry = sEntry.trim();
+                if ( StringUtil.isEmpty(sEntry) ) {
+                    continue;
+                }
+                if ( pSetting.matcher(sEntry).matches() ) {
+                    lSettings.add(sEntry);
+                    continue;
+                }
+
+                // sometime special characters are encoded as unicode in the feed: decode them
+                String sEntryUCD = Placeholder.Misc.UnicodeDecode.execute(sEntry, null, null);
+                if ( sEntryUCD.equals(sEntry) == false ) {
+                    sEntry = sEntryUCD;
+                }
+
+                Matcher mHeader = pHeader.matcher(sEntry);
+                if ( mHeader.matches() ) {
+                    String sPrefix = mHeader.group(1);
+                    sHeader = mHeader.group(2).trim();
+                    if ( sPrefix.equals("+") && (lExpanded.contains(sHeader) == false) ) {
+                        lExpanded.add(sHeader);
                     }
+                    continue;
                 }
-                return lExpanded;
+                lEntries.add(new Entry(sHeader, sEntry));
             }
-            return null;
         }
     }
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.feed;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.doubleyellow.scoreboard.model.JSONKey;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a json feed one section at a time, without building a JSONObject of the complete feed.
+ *
+ * Keys are canonicalized while reading, like FeedMatchSelector.canonicalizeJsonKeys() does for the feed as a whole.
+ * Values are left as they are.
+ */
+class JsonFeedReader
+{
+    /** Invoked on the thread calling read(), in the order the entries appear in the feed */
+    interface Listener {
+        /** Root entries that do not hold a list of matches or players, e.g. 'config', 'name', 'Message' or 'teamPlayers' */
+        void onRootValue(String sKey, Object value);
+        /** All matches or players of one section */
+        void onSection(String sSection, JSONArray entries);
+        /** Checked before each root entry */
+        boolean isCancelled();
+    }
+
+    /** Entries of a section that is specified as an object in stead of an array */
+    private static final String SECTION_ENTRIES = "Matches";
+
+    private static final Map<String, String> mCanonicalKeys = new HashMap<>();
+    static {
+        // allow the feed to specify keys in CamelCase, we will be using camelcase with first letter lowercase
+        mCanonicalKeys.put("Division"    , JSONKey.division   .toString());
+        mCanonicalKeys.put("Field"       , JSONKey.field      .toString());
+        mCanonicalKeys.put("Round"       , JSONKey.round      .toString());
+        mCanonicalKeys.put("Location"    , JSONKey.location   .toString());
+        mCanonicalKeys.put("Players"     , JSONKey.players    .toString());
+        mCanonicalKeys.put("Court"       , JSONKey.court      .toString());
+        mCanonicalKeys.put("Date"        , JSONKey.date       .toString());
+        mCanonicalKeys.put("Time"        , JSONKey.time       .toString());
+        mCanonicalKeys.put("ID"          , JSONKey.id         .toString());
+        mCanonicalKeys.put("Id"          , JSONKey.id         .toString());
+        mCanonicalKeys.put("Name"        , JSONKey.name       .toString());
+        mCanonicalKeys.put("Club"        , JSONKey.club       .toString());
+        mCanonicalKeys.put("Country"     , JSONKey.country    .toString());
+        //translate old (legacy) keys (all lower and/or with underscores) to new more consistent camelCase ones
+        mCanonicalKeys.put("team_players", JSONKey.teamPlayers.toString());
+        mCanonicalKeys.put("teamid"      , JSONKey.teamId     .toString());
+    }
+
+    private final String m_sContent;
+    /** Section to use if the feed is a list of matches or players, in stead of an object with sections */
+    private final String m_sRootArraySection;
+
+    JsonFeedReader(String sContent, String sRootArraySection) {
+        m_sContent          = sContent;
+        m_sRootArraySection = sRootArraySection;
+    }
+
+    void read(Listener listener) throws IOException, JSONException {
+        JsonReader reader = new JsonReader(new StringReader(m_sContent));
+        reader.setLenient(true);
+        try {
+            if ( reader.peek() == JsonToken.BEGIN_ARRAY ) {
+                listener.onSection(m_sRootArraySection, readArray(reader));
+                return;
+            }
+            reader.beginObject();
+            while ( reader.hasNext() ) {
+                if ( listener.isCancelled() ) { return; }
+
+                String sKey = canonicalKey(reader.nextName());
+                if ( reader.peek() == JsonToken.BEGIN_ARRAY ) {
+                    listener.onSection(sKey, readArray(reader));
+                    continue;
+                }
+                Object value = readValue(reader);
+                if ( value instanceof JSONObject ) {
+                    JSONObject joChild = (JSONObject) value;
+                    JSONArray  entries = joChild.optJSONArray(SECTION_ENTRIES);
+                    if ( entries != null ) {
+                        listener.onSection(joChild.optString(JSONKey.field.toString(), sKey), entries);
+                        continue;
+                    }
+                }
+                listener.onRootValue(sKey, value);
+            }
+            reader.endObject();
+        } catch (IllegalStateException e) {
+            // thrown by JsonReader if the structure is not what was peeked for
+            throw new JSONException(e.getMessage());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException, JSONException {
+        JsonToken token = reader.peek();
+        switch ( token ) {
+            case BEGIN_OBJECT:
+                JSONObject jo = new JSONObject();
+                reader.beginObject();
+                while ( reader.hasNext() ) {
+                    String sKey = canonicalKey(reader.nextName());
+                    jo.put(sKey, readValue(reader));
+                }
+                reader.endObject();
+                return jo;
+            case BEGIN_ARRAY:
+                return readArray(reader);
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return toNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                throw new JSONException("Unexpected " + token);
+        }
+    }
+
+    private static JSONArray readArray(JsonReader reader) throws IOException, JSONException {
+        JSONArray ja = new JSONArray();
+        reader.beginArray();
+        while ( reader.hasNext() ) {
+            ja.put(readValue(reader));
+        }
+        reader.endArray();
+        return ja;
+    }
+
+    private static String canonicalKey(String sKey) {
+        String sCanonical = mCanonicalKeys.get(sKey);
+        return (sCanonical == null) ? sKey : sCanonical;
+    }
+
+    /** Same types as org.json would use when parsing the number */
+    private static Object toNumber(String sNumber) {
+        try {
+            if ( (sNumber.indexOf('.') < 0) && (sNumber.indexOf('e') < 0) && (sNumber.indexOf('E') < 0) ) {
+                long l = Long.parseLong(sNumber);
+                if ( (l >= Integer.MIN_VALUE) && (l <= Integer.MAX_VALUE) ) {
+                    return (int) l;
+                }
+                return l;
+            }
+            return Double.parseDouble(sNumber);
+        } catch (NumberFormatException e) {
+            return sNumber;
+        }
+    }
+}
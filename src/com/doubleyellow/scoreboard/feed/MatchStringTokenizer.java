@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.feed;
+
+/**
+ * Splits a line of a flat text feed into date/time, players with seeding, country and club, and result.
+ *
+ * Replaces matching the line against the regular expressions in FeedMatchSelector (sRegExpMatch and the one-player variant):
+ * the returned groups are exactly those the regular expression would have returned, but the choices the regex engine
+ * would backtrack over are tried in the same order directly, skipping the ones that can not succeed.
+ *
+ * For a match line the groups are
+ *  1 date/time, 2 player A (incl. seeding), 3 country A, 4 club A, 5 player B (incl. seeding), 6 country B, 7 club B, 8 result, 9 result and text, 10 rest
+ * For a player line
+ *  1 player (incl. seeding), 2 country, 3 club, 4 rest
+ *
+ * Line terminators ('\r', U+0085, ...) are treated like any other character, as the text is expected to be a single trimmed line.
+ * For a text containing one, the groups may differ from the regular expression, where '.' and '$' stop at line terminators.
+ */
+class MatchStringTokenizer
+{
+    static final int NR_OF_MATCH_GROUPS  = 10;
+    static final int NR_OF_PLAYER_GROUPS = 4;
+
+    private static final String[] RESULT_WORDS = { "Opgave", "Resign", "Retired", "Penalty", "Withdrawn", "Walkover", "walkover", "Not played" };
+    private static final String[] AM_PM        = { "PM", "AM", "pm", "am" };
+
+    private final String   s;
+    private final int      n;
+    private final String[] groups;
+
+    private MatchStringTokenizer(String sText, int iNrOfGroups) {
+        s      = sText;
+        n      = sText.length();
+        groups = new String[iNrOfGroups + 1];
+    }
+
+    /** Groups as returned by a Matcher for sRegExpMatch (index 0 is the whole text), or null if the text is not a match */
+    static String[] tokenizeMatch(String sText) {
+        MatchStringTokenizer t = new MatchStringTokenizer(sText, NR_OF_MATCH_GROUPS);
+        return t.match() ? t.groups : null;
+    }
+
+    /** Groups as returned by a Matcher for the one-player regular expression, or null if the text is not a player */
+    static String[] tokenizePlayer(String sText) {
+        MatchStringTokenizer t = new MatchStringTokenizer(sText, NR_OF_PLAYER_GROUPS);
+        if ( (t.n == 0) || (isNameChar(sText.charAt(0)) == false) ) { return null; }
+        int iEnd = t.player(0, 1);
+        t.groups[4] = sText.substring(iEnd);
+        t.groups[0] = sText;
+        return t.groups;
+    }
+
+    //------------------------------------------
+    // Match
+    //------------------------------------------
+
+    private boolean match() {
+        // date/time is optional and lazy: first try without it
+        if ( dateTimeSeparatorAndPlayers(0) ) {
+            return true;
+        }
+        // date/time: optional word of max 3 characters followed by whitespace, then digits and separators, then optional AM/PM
+        int iWordLength = 0;
+        while ( (iWordLength < n) && (iWordLength <= 3) && isWordChar(s.charAt(iWordLength)) ) {
+            iWordLength++;
+        }
+        int[] iaWordEnd = ( (iWordLength >= 1) && (iWordLength <= 3) && (iWordLength < n) && isWhitespace(s.charAt(iWordLength)) )
+                        ? new int[] { iWordLength + 1, 0 }
+                        : new int[] { 0 };
+        for ( int iAfterWord : iaWordEnd ) {
+            int iMaxDigits = iAfterWord;
+            while ( (iMaxDigits < n) && isDateTimeChar(s.charAt(iMaxDigits)) ) {
+                iMaxDigits++;
+            }
+            for ( int iAfterDigits = iMaxDigits; iAfterDigits >= iAfterWord; iAfterDigits-- ) {
+                int iAfterAmPm = startsWithAny(iAfterDigits, AM_PM);
+                int[] iaEnd = (iAfterAmPm > 0) ? new int[] { iAfterAmPm, iAfterDigits } : new int[] { iAfterDigits };
+                for ( int iEnd : iaEnd ) {
+                    if ( iEnd == 0 ) { continue; } // empty date/time: same as without it, which already failed
+                    if ( dateTimeSeparatorAndPlayers(iEnd) ) {
+                        groups[1] = s.substring(0, iEnd);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** [\s:]* followed by both players, starting after the date/time */
+    private boolean dateTimeSeparatorAndPlayers(int iFrom) {
+        int iMax = iFrom;
+        while ( (iMax < n) && isWhitespaceOrColon(s.charAt(iMax)) ) {
+            iMax++;
+        }
+        for ( int iNameStart = iMax; iNameStart >= iFrom; iNameStart-- ) {
+            if ( (iNameStart >= n) || (isNameChar(s.charAt(iNameStart)) == false) ) { continue; }
+            if ( playerAWithSplitterAndPlayerB(iNameStart) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean playerAWithSplitterAndPlayerB(int iNameStart) {
+        int iMaxNameEnd = nameEnd(iNameStart);
+        for ( int iNameEnd = iMaxNameEnd; iNameEnd > iNameStart; iNameEnd-- ) {
+            // within the name only a whitespace can start the splitter
+            if ( (iNameEnd < iMaxNameEnd) && (isWhitespace(s.charAt(iNameEnd)) == false) ) { continue; }
+            if ( playerATail(iNameStart, iNameEnd) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** optional seeding, country and club of player A, each optional part first tried as long as possible */
+    private boolean playerATail(int iNameStart, int iNameEnd) {
+        for ( int iSeedEnd : options(seedEnd(iNameEnd), iNameEnd) ) {
+            int iMaxWs1 = whitespaceEnd(iSeedEnd);
+            for ( int iCountryStart = iMaxWs1; iCountryStart >= iSeedEnd; iCountryStart-- ) {
+                int iCountryEnd = bracketedEnd(iCountryStart, false);
+                for ( int iAfterCountry : options(iCountryEnd, iCountryStart) ) {
+                    int iMaxWs2 = whitespaceEnd(iAfterCountry);
+                    for ( int iClubStart = iMaxWs2; iClubStart >= iAfterCountry; iClubStart-- ) {
+                        int iClubEnd = bracketedEnd(iClubStart, true);
+                        for ( int iAfterClub : options(iClubEnd, iClubStart) ) {
+                            int iPlayerBStart = splitterEnd(iAfterClub);
+                            if ( iPlayerBStart < 0 ) { continue; }
+
+                            groups[2] = s.substring(iNameStart, iSeedEnd);
+                            groups[3] = (iAfterCountry > iCountryStart) ? s.substring(iCountryStart + 1, iAfterCountry - 1) : null;
+                            groups[4] = (iAfterClub    > iClubStart   ) ? s.substring(iClubStart    + 1, iAfterClub    - 1) : null;
+                            int iEnd = player(iPlayerBStart, 5);
+                            result(iEnd);
+                            groups[0] = s;
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** \s+-\s+ : returns where the name of player B starts, or -1 */
+    private int splitterEnd(int iFrom) {
+        int iDash = whitespaceEnd(iFrom);
+        if ( (iDash == iFrom) || (iDash >= n) || (s.charAt(iDash) != '-') ) { return -1; }
+        int iAfterWs = whitespaceEnd(iDash + 1);
+        int iWsLength = iAfterWs - (iDash + 1);
+        if ( iWsLength == 0 ) { return -1; }
+        if ( (iAfterWs < n) && isNameChar(s.charAt(iAfterWs)) ) {
+            return iAfterWs;
+        }
+        if ( iWsLength >= 2 ) {
+            // name of player B can only be the last whitespace character
+            return iAfterWs - 1;
+        }
+        return -1;
+    }
+
+    /** [\s:]*+ followed by the result */
+    private void result(int iFrom) {
+        int iStart = iFrom;
+        while ( (iStart < n) && isWhitespaceOrColon(s.charAt(iStart)) ) {
+            iStart++;
+        }
+        int iEnd = iStart;
+        while ( (iEnd < n) && isResultChar(s.charAt(iEnd)) ) {
+            iEnd++;
+        }
+        if ( iEnd == iStart ) {
+            int iWordEnd = startsWithAny(iStart, RESULT_WORDS);
+            if ( iWordEnd > 0 ) {
+                iEnd = iWordEnd;
+            }
+        }
+        // without a result java.util.regex reports group 8 as empty and group 9 as not matched
+        groups[ 8] = s.substring(iStart, iEnd);
+        groups[ 9] = (iEnd > iStart) ? groups[8] : null;
+        groups[10] = s.substring(iEnd);
+    }
+
+    //------------------------------------------
+    // Player
+    //------------------------------------------
+
+    /**
+     * Name with seeding, country and club of a player that nothing has to follow: every optional part can be taken as long as possible.
+     * Fills groups iGroup .. iGroup + 2 and returns where the player ends.
+     */
+    private int player(int iNameStart, int iGroup) {
+        int iNameEnd = nameEnd(iNameStart);
+        int iSeedEnd = seedEnd(iNameEnd);
+        if ( iSeedEnd < 0 ) { iSeedEnd = iNameEnd; }
+        groups[iGroup] = s.substring(iNameStart, iSeedEnd);
+
+        int iPos = whitespaceEnd(iSeedEnd);
+        int iCountryEnd = bracketedEnd(iPos, false);
+        groups[iGroup + 1] = (iCountryEnd > 0) ? s.substring(iPos + 1, iCountryEnd - 1) : null;
+        if ( iCountryEnd > 0 ) { iPos = iCountryEnd; }
+
+        iPos = whitespaceEnd(iPos);
+        int iClubEnd = bracketedEnd(iPos, true);
+        groups[iGroup + 2] = (iClubEnd > 0) ? s.substring(iPos + 1, iClubEnd - 1) : null;
+        if ( iClubEnd > 0 ) { iPos = iClubEnd; }
+        return iPos;
+    }
+
+    //------------------------------------------
+    // Parts
+    //------------------------------------------
+
+    /** [^\[\(:]+ as long as possible */
+    private int nameEnd(int iFrom) {
+        int i = iFrom;
+        while ( (i < n) && isNameChar(s.charAt(i)) ) {
+            i++;
+        }
+        return i;
+    }
+
+    /** [\[\(]\d+(?:/\d+)?[\]\)] : returns the end or -1 */
+    private int seedEnd(int iFrom) {
+        if ( (iFrom >= n) || (isOpen(s.charAt(iFrom)) == false) ) { return -1; }
+        int i = digitsEnd(iFrom + 1);
+        if ( i == iFrom + 1 ) { return -1; }
+        if ( (i < n) && (s.charAt(i) == '/') ) {
+            int iAfterSlash = digitsEnd(i + 1);
+            if ( iAfterSlash > i + 1 ) {
+                i = iAfterSlash;
+            }
+        }
+        if ( (i >= n) || (isClose(s.charAt(i)) == false) ) { return -1; }
+        return i + 1;
+    }
+
+    /** [\[\(](\w+)[\]\)] or, for a club, [\[\(]([\w\s\-]+)[\]\)] : returns the end or -1 */
+    private int bracketedEnd(int iFrom, boolean bClub) {
+        if ( (iFrom >= n) || (isOpen(s.charAt(iFrom)) == false) ) { return -1; }
+        int i = iFrom + 1;
+        while ( i < n ) {
+            char c = s.charAt(i);
+            if ( isWordChar(c) || (bClub && (isWhitespace(c) || (c == '-'))) ) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        if ( (i == iFrom + 1) || (i >= n) || (isClose(s.charAt(i)) == false) ) { return -1; }
+        return i + 1;
+    }
+
+    private int whitespaceEnd(int iFrom) {
+        int i = iFrom;
+        while ( (i < n) && isWhitespace(s.charAt(i)) ) {
+            i++;
+        }
+        return i;
+    }
+
+    private int digitsEnd(int iFrom) {
+        int i = iFrom;
+        while ( (i < n) && isDigit(s.charAt(i)) ) {
+            i++;
+        }
+        return i;
+    }
+
+    /** returns the end of the first of the words the text continues with at the given position, or -1 */
+    private int startsWithAny(int iFrom, String[] saWords) {
+        for ( String sWord : saWords ) {
+            if ( s.startsWith(sWord, iFrom) ) {
+                return iFrom + sWord.length();
+            }
+        }
+        return -1;
+    }
+
+    /** the end of an optional part: first the end if the part is present, then the position without it */
+    private static int[] options(int iEndIfPresent, int iEndIfAbsent) {
+        return (iEndIfPresent >= 0) ? new int[] { iEndIfPresent, iEndIfAbsent } : new int[] { iEndIfAbsent };
+    }
+
+    //------------------------------------------
+    // Character classes (ASCII only, like the java.util.regex defaults)
+    //------------------------------------------
+
+    private static boolean isWhitespace(char c) {
+        return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f') || (c == '\r');
+    }
+    private static boolean isWhitespaceOrColon(char c) {
+        return isWhitespace(c) || (c == ':');
+    }
+    private static boolean isDigit(char c) {
+        return (c >= '0') && (c <= '9');
+    }
+    private static boolean isWordChar(char c) {
+        return isDigit(c) || ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || (c == '_');
+    }
+    private static boolean isNameChar(char c) {
+        return (c != '[') && (c != '(') && (c != ':');
+    }
+    private static boolean isOpen(char c) {
+        return (c == '[') || (c == '(');
+    }
+    private static boolean isClose(char c) {
+        return (c == ']') || (c == ')');
+    }
+    private static boolean isDateTimeChar(char c) {
+        return isDigit(c) || isWhitespace(c) || (c == ':') || (c == '/') || (c == '-');
+    }
+    private static boolean isResultChar(char c) {
+        return isDigit(c) || isWhitespace(c) || (c == ',') || (c == '/') || (c == '(') || (c == ')') || (c == '-') || (c == '+');
+    }
+}
@@ -18,7 +18,10 @@
 package com.doubleyellow.scoreboard.feed;
 
 import android.content.Context;
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 import com.doubleyellow.android.util.ContentReceiver;
 import com.doubleyellow.android.util.KeyStoreUtil;
@@ -32,138 +35,188 @@ import com.doubleyellow.util.*;
 import org.json.JSONObject;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Takes care of refreshing data that was downloaded from a website earlier.
  * Mainly
  * - data from a feed
  * - all possible feeds
+ *
+ * Each Status is a stage that starts as soon as the stages it depends on are finished.
+ * Independent fetches run concurrently on a small pool, so the matches feed does not wait for e.g. the web config.
+ * Downloading country flags is done last, on a low priority thread, and can be cancelled.
+ * Stages are started and finished on the UI thread only.
  */
-public class Preloader extends AsyncTask<Context, Void, Integer> implements ContentReceiver
+public class Preloader
 {
     private static String TAG = "SB." + Preloader.class.getSimpleName();
     private static Preloader instance = null;
 
+    /** Max number of stages running at the same time */
+    private static final int POOL_SIZE = 3;
+
     private Map<Status, String> mStatus2Url = new HashMap<Status, String>();
     public static Preloader getInstance(Context context) {
         if ( instance == null ) {
-            instance = new Preloader();
-          //instance.execute(context); // execute in separate thread on AsyncTask.SERIAL_EXECUTOR
-            instance.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, context);
-
-            //instance.go(context);
+            instance = new Preloader(context);
+            instance.startReadyStages();
         }
         return instance;
     }
 
-    @Override protected Integer doInBackground(Context[] params) {
-        m_context = params[0];
+    private final Context         m_context;
+    private final Handler         m_uiHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService m_pool      = Executors.newFixedThreadPool(POOL_SIZE, new ThreadFactory() {
+        private int iCount = 0;
+        @Override public Thread newThread(Runnable r) {
+            return new Thread(r, Preloader.class.getSimpleName() + "-" + (++iCount));
+        }
+    });
+
+    private final Map<Status, Long>     mStarted  = new EnumMap<>(Status.class);
+    private final Map<Status, Long>     mFinished = new EnumMap<>(Status.class);
+    private final Map<Status, Status[]> mDependsOn = new EnumMap<>(Status.class);
+    private final long                  m_lCreated = SystemClock.uptimeMillis();
+
+    private Preloader(Context context) {
+        m_context = context.getApplicationContext();
 
         mStatus2Url.put(Status.WebConfig        , PreferenceValues.getWebConfigURL  (m_context));
         mStatus2Url.put(Status.ActiveMatchesFeed, PreferenceValues.getMatchesFeedURL(m_context));
         mStatus2Url.put(Status.ActivePlayersFeed, PreferenceValues.getPlayersFeedURL(m_context));
         mStatus2Url.put(Status.FeedOfFeeds      , PreferenceValues.getFeedsFeedURL  (m_context));
 
-        doNext(1);
+        Status[] none = new Status[0];
+        mDependsOn.put(Status.WebConfig        , none);
+        mDependsOn.put(Status.ActiveMatchesFeed, none);
+        mDependsOn.put(Status.ActivePlayersFeed, none);
+        mDependsOn.put(Status.FeedOfFeeds      , none);
+        mDependsOn.put(Status.DynamicFeedNames , new Status[] { Status.FeedOfFeeds });
+        mDependsOn.put(Status.NoConnection     , none);
+        mDependsOn.put(Status.ContactsCache    , none);
+        // flags last: not to compete for bandwidth with what is needed to present a list of matches
+        mDependsOn.put(Status.CountryFlags     , new Status[] { Status.WebConfig, Status.ActiveMatchesFeed, Status.ActivePlayersFeed, Status.FeedOfFeeds, Status.ContactsCache });
+    }
 
-        while(m_status.equals(Status.Done) == false ) {
-            synchronized (this) {
-                try {
-                    wait(1000);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+    /** Starts every stage not yet started of which all dependencies are finished */
+    private void startReadyStages() {
+        for ( Status status : Status.values() ) {
+            if ( status.equals(Status.NotStarted) || status.equals(Status.Done) ) { continue; }
+            if ( mStarted.containsKey(status) ) { continue; }
+            boolean bReady = true;
+            for ( Status dependency : mDependsOn.get(status) ) {
+                bReady = bReady && mFinished.containsKey(dependency);
+            }
+            if ( bReady ) {
+                mStarted.put(status, SystemClock.uptimeMillis());
+                start(status);
             }
-            Log.d(TAG, "Status " + m_status);
         }
-
-        return 1;
     }
 
-    @Override protected void onPostExecute(Integer o) {
-        // to e.g. allow the preloader to restart after rotation or so... normally not desired
-        //instance = null;
-        Log.d(TAG, "Preloader is done: " + o);
-        m_context = null;
+    private void start(final Status status) {
+        if ( mStatus2Url.containsKey(status) ) {
+            // step involves fetching data from internet
+            fetch(status);
+        } else if ( status.equals(Status.ContactsCache) ) {
+            runInBackground(status, new Runnable() {
+                @Override public void run() {
+                    PreferenceValues.getPlayerListAndContacts(m_context);
+                }
+            });
+        } else if ( status.equals(Status.CountryFlags) ) {
+            if ( PreferenceValues.useFlags(m_context) && PreferenceValues.prefetchFlags(m_context) ) {
+                m_downloadFlags = new DownloadFlags();
+                Thread thread = new Thread(m_downloadFlags, DownloadFlags.class.getSimpleName());
+                thread.start();
+                // not waiting for it: nothing depends on the flags
+            }
+            finished(status);
+        } else {
+            finished(status);
+        }
     }
 
-    private void setFetching(boolean b) {
-        m_bFetching = b;
-    }
-    private Context m_context = null;
-    private synchronized void doNext(int iOffSet) {
-        if ( m_bFetching ) {
-            Log.w(TAG, "Fetching ....");
+    private void fetch(final Status status) {
+        String sURL = mStatus2Url.get(status);
+        if ( StringUtil.isEmpty(sURL) ) {
+            finished(status);
             return;
         }
-        if ( m_context == null ) {
-            Log.w(TAG, "No context object anymore ?!");
-            return;
+        sURL = URLFeedTask.prefixWithBaseIfRequired(sURL);
+        URLFeedTask urlFeedTask = new URLFeedTask(m_context, sURL);
+        if ( status.equals(Status.FeedOfFeeds) ) {
+            urlFeedTask.setNrForUserAgent(PreferenceValues.getRunCount(m_context, PreferenceKeys.FeedFeedsURL));
         }
+        urlFeedTask.setContentReceiver(new ContentReceiver() {
+            @Override public void receive(String sContent, FetchResult result, long lCacheAge, String sLastSuccessfulContent, String sUrl) {
+                Preloader.this.receive(status, sContent, result, lCacheAge);
+            }
+        });
+        urlFeedTask.executeOnExecutor(m_pool);
+    }
 
-        if ( m_status.equals(Status.Done) ) {
-            // last one was processed
-            return;
-        }
-        // goto the next 'status'
-        //m_status = ListUtil.getNextEnum(m_status);
-        m_status = Status.values()[m_status.ordinal()+iOffSet];
-        if ( mStatus2Url.containsKey(m_status) ) {
-            // step involves fetching data from internet
-            String sURL = mStatus2Url.get(m_status);
-            if ( StringUtil.isNotEmpty(sURL) ) {
-                sURL = URLFeedTask.prefixWithBaseIfRequired(sURL);
-                URLFeedTask urlFeedTask = new URLFeedTask(m_context, sURL);
-                if ( m_status.equals(Status.FeedOfFeeds) ) {
-                    urlFeedTask.setNrForUserAgent(PreferenceValues.getRunCount(m_context, PreferenceKeys.FeedFeedsURL));
+    private void runInBackground(final Status status, final Runnable runnable) {
+        m_pool.execute(new Runnable() {
+            @Override public void run() {
+                try {
+                    runnable.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
-                urlFeedTask.setContentReceiver(this);
-                setFetching(true);
-                urlFeedTask.execute();
-            } else {
-                doNext(1);
-            }
-/*
-        } else if ( m_status.equals(Status.CountryCache) ) {
-            Log.i(TAG, String.format("handling %s... ", m_status));
-            try {
-                // initialize the country util from json in resources (res folder)
-                String sJson = ContentUtil.readRaw(m_context, R.raw.countries_list_01);
-                JSONArray jsCountries = new JSONArray(sJson);
-                CountryUtil.init(JsonUtil.toListOfMaps(jsCountries), "ISO3166-1-Alpha-2", "ISO3166-1-Alpha-3", "IOC", "FIFA", new String[] { "official_name_en", "name" });
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
-            doNext(1);
-*/
-        } else if ( m_status.equals(Status.ContactsCache) ) {
-          //Log.i(TAG, String.format("handling %s... ", m_status));
-            PreferenceValues.getPlayerListAndContacts(m_context);
-            doNext(1);
-        } else if ( m_status.equals(Status.DynamicFeedNames) ) {
-            doNext(1);
-        } else if ( m_status.equals(Status.NoConnection) ) {
-            doNext(1);
-        } else if ( m_status.equals(Status.CountryFlags) ) {
-            if ( false ) {
-                // skip for now: eating to much resources
-                doNext(1);
-            }
-            if ( PreferenceValues.useFlags(m_context) && PreferenceValues.prefetchFlags(m_context) ) {
-                Runnable runnable = new DownloadFlags();
-                runnable.run();
+                m_uiHandler.post(new Runnable() {
+                    @Override public void run() {
+                        finished(status);
+                    }
+                });
             }
-            doNext(1);
-        } else {
-            //Log.i(TAG, String.format("No next %s ", m_status));
+        });
+    }
+
+    private void finished(Status status) {
+        long lNow = SystemClock.uptimeMillis();
+        mFinished.put(status, lNow);
+        Log.d(TAG, String.format("%s done in %d ms", status, lNow - mStarted.get(status)));
+        startReadyStages();
+        if ( getPreloadStatus().equals(Status.Done) ) {
+            Log.d(TAG, "Preloader is done\n" + getStageTimings());
+            m_pool.shutdown();
         }
     }
+
+    /** Done if all stages are finished, otherwise the first stage not yet finished */
     public Status getPreloadStatus() {
-        return m_status;
+        for ( Status status : Status.values() ) {
+            if ( status.equals(Status.NotStarted) || status.equals(Status.Done) ) { continue; }
+            if ( mFinished.containsKey(status) == false ) {
+                return mStarted.containsKey(status) ? status : Status.NotStarted;
+            }
+        }
+        return Status.Done;
+    }
+
+    /** Per stage: when it was started and how long it took, relative to the creation of the preloader */
+    public String getStageTimings() {
+        StringBuilder sb = new StringBuilder();
+        for ( Status status : Status.values() ) {
+            Long lStarted = mStarted.get(status);
+            if ( lStarted == null ) { continue; }
+            Long lFinished = mFinished.get(status);
+            sb.append(String.format(Locale.US, "%-18s : start %5d ms, %s\n", status, lStarted - m_lCreated
+                                   , (lFinished == null) ? "running" : ("took " + (lFinished - lStarted) + " ms")));
+        }
+        return sb.toString();
+    }
+
+    /** Stops downloading flags, e.g. when the app is closed. Flags already downloaded are kept */
+    public static void cancelBackgroundWork() {
+        if ( instance == null || instance.m_downloadFlags == null ) { return; }
+        instance.m_downloadFlags.cancel();
     }
 
-    private boolean m_bFetching = false;
-    private Status m_status = Status.NotStarted;
     public enum Status {
         NotStarted,
         WebConfig,
@@ -173,22 +226,22 @@ public class Preloader extends AsyncTask<Context, Void, Integer> implements Cont
         FeedOfFeeds,
         /** TODO: this next one should actually update the 'Name' of some of the defined feeds if they match on URL: ones like tournamentsoftware.com.001.php, tournamentsoftware.com.002.php */
         DynamicFeedNames,
-        /** just a bookmark we can jump to if first feedfetching already fails */
+        /** no longer a bookmark to jump to: stages that do not require an internet connection no longer wait for the fetches */
         NoConnection,
         ContactsCache,
         CountryFlags,
         Done,
     }
 
-    private static final String SHARED_SECRET = "YourSquore1h03v3";
     // echo -n 'YourSquore1h03v320210208-2330' | md5sum
-    @Override public void receive(String sContent, FetchResult result, long lCacheAge, String sLastSuccessfulContent, String sUrl) {
-        setFetching(false);
-        Log.d(TAG, "Fetching done for " + m_status + " (result:" + result + ")");
+    private static final String SHARED_SECRET = "YourSquore1h03v3";
+
+    private void receive(Status status, String sContent, ContentReceiver.FetchResult result, long lCacheAge) {
+        Log.d(TAG, "Fetching done for " + status + " (result:" + result + ")");
         switch (result) {
             case OK:
-                Log.i(TAG, String.format("Fetched %s (cache age %s)", m_status, lCacheAge));
-                if ( m_status.equals(Status.WebConfig) ) {
+                Log.i(TAG, String.format("Fetched %s (cache age %s)", status, lCacheAge));
+                if ( status.equals(Status.WebConfig) ) {
                     try {
                         JSONObject config = new JSONObject(sContent);
                         if ( Brand.Squore.equals(Brand.brand) ) {
@@ -214,7 +267,7 @@ public class Preloader extends AsyncTask<Context, Void, Integer> implements Cont
                         e.printStackTrace();
                     }
                 }
-                if ( m_status.equals(Status.ActiveMatchesFeed) ) {
+                if ( status.equals(Status.ActiveMatchesFeed) ) {
                     // if we only receive a header for the feed, or empty content, try another
                     sContent = sContent.trim();
                     if (StringUtil.isEmpty(sContent) || sContent.matches("^\\[.+\\]$")) {
@@ -223,51 +276,50 @@ public class Preloader extends AsyncTask<Context, Void, Integer> implements Cont
                         if ( iFeedPostUrlIdx == 0) {
                             if ( PreferenceValues.getMatchesFeedURLUnchanged() ) {
                                 PreferenceValues.setActiveFeedNr(m_context, 1);
-                                doNext(0);
+                                mStatus2Url.put(Status.ActiveMatchesFeed, PreferenceValues.getMatchesFeedURL(m_context));
+                                fetch(status);
                                 break;
                             }
                         }
                     }
                 }
-                doNext(1);
-                break;
-            case FileNotFound:
-                doNext(1); // continue with other internet resources that may be available
-                break;
-            case LoginToNetworkFirst:
-            case NoCacheAndNetwork:
-            case TimeoutError:
-                doNext(1);
+                finished(status);
                 break;
             case SSLHandshakeError: {
-                    if ( PreferenceValues.allowTrustAllCertificatesAndHosts(m_context) ) {
+                    if ( PreferenceValues.allowTrustAllCertificatesAndHosts(m_context) && (m_bTrustAllAttempted == false) ) {
+                        m_bTrustAllAttempted = true;
                         try {
                             KeyStoreUtil.trustAllHttpsCertificates();
                             KeyStoreUtil.trustAllHostnames();
                         } catch (Exception e) {
                             e.printStackTrace();
                         }
-                        doNext(0);
+                        fetch(status);
                     } else {
-                        doNext(1);
+                        finished(status);
                     }
                     break;
                 }
-            case NoNetwork:
-            case UnexpectedContent:
-            case UnexpectedError:
-                m_status = Status.NoConnection;
-                doNext(1); // do stuff that does not require an internet connection like caching contacts
-                break;
             default:
-                m_status = Status.NoConnection;
+                // FileNotFound, NoNetwork, TimeoutError, ...: continue with other stages, they do not depend on this one succeeding
+                finished(status);
                 break;
         }
     }
+    private boolean m_bTrustAllAttempted = false;
 
+    private DownloadFlags m_downloadFlags = null;
     private class DownloadFlags implements Runnable
     {
+        private volatile boolean m_bCancelled = false;
+
+        void cancel() {
+            m_bCancelled = true;
+        }
+
         @Override public void run() {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            long lStart = SystemClock.uptimeMillis();
 /*
             String sFlagURL              = PreferenceValues.getFlagsURL(m_context);
             int    iFlagMaxCacheAgeInMin = PreferenceValues.getMaxCacheAgeFlags(m_context);
@@ -279,10 +331,13 @@ public class Preloader extends AsyncTask<Context, Void, Integer> implements Cont
             if ( MapUtil.isEmpty(xxx3ToName) ) { return; }
             List<String> lCountryCodesToFetch = new ArrayList(xxx3ToName.keySet());
             ListUtil.removeEmpty(lCountryCodesToFetch);
-            while ( ListUtil.isNotEmpty(lCountryCodesToFetch) ) {
+            int iHandled = 0;
+            while ( ListUtil.isNotEmpty(lCountryCodesToFetch) && (m_bCancelled == false) ) {
                 String sCountryCode = lCountryCodesToFetch.remove(0);
                 PreferenceValues.downloadImage(m_context, null, sCountryCode, 100);
+                iHandled++;
             }
+            Log.d(TAG, String.format("Flags: %d handled in %d ms%s", iHandled, SystemClock.uptimeMillis() - lStart, m_bCancelled ? " (cancelled)" : ""));
         }
     }
 }
@@ -112,7 +112,7 @@ public class PusherHandler implements FCMHandler
             return false;
         }
         try {
-            m_scoreBoard.interpretReceivedMessageOnUiThread(sAction, MessageSource.FirebaseCloudMessage);
+            m_scoreBoard.interpretReceivedMessage(sAction, MessageSource.FirebaseCloudMessage);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
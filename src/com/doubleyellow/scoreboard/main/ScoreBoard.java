@@ -71,6 +71,8 @@ import com.doubleyellow.scoreboard.R;
 import com.doubleyellow.scoreboard.activity.*;
 import com.doubleyellow.scoreboard.archive.ArchiveTabbed;
 import com.doubleyellow.scoreboard.archive.PreviousMatchSelector;
+import com.doubleyellow.scoreboard.bluetooth.BTCommand;
+import com.doubleyellow.scoreboard.bluetooth.BTCommandDispatcher;
 import com.doubleyellow.scoreboard.bluetooth.BTMethods;
 import com.doubleyellow.scoreboard.bluetooth.BTRole;
 import com.doubleyellow.scoreboard.bluetooth.BTState;
@@ -98,6 +100,8 @@ import com.doubleyellow.scoreboard.firebase.PusherHandler;
 import com.doubleyellow.scoreboard.firebase.PusherMessagingService;
 import com.doubleyellow.scoreboard.model.*;
 import com.doubleyellow.scoreboard.model.Util;
+import com.doubleyellow.scoreboard.share.LiveScoreAggregator;
+import com.doubleyellow.scoreboard.share.LiveScorePublisher;
 import com.doubleyellow.scoreboard.share.MatchModelPoster;
 import com.doubleyellow.scoreboard.share.ResultPoster;
 import com.doubleyellow.scoreboard.share.ResultSender;
@@ -528,7 +532,7 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
         } else {
             ScoreBoard.bUseActionBar = ToggleResult.setToTrue;
             //RWValues.setBoolean(PreferenceKeys.showActionBar, ScoreBoard.this, true);
-            RWValues.setOverwrite(PreferenceKeys.showActionBar, true); // temporary
+            PreferenceValues.setOverwrite(PreferenceKeys.showActionBar, true); // temporary
             actionBar.show();
             initActionBarSettings(menuItemsWithOrWithoutText);
             showAppropriateMenuItemInActionBar();
@@ -1113,6 +1117,9 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
             Preloader preloader = Preloader.getInstance(this);
         }
 
+        // livescore updates that could not be posted before the app was stopped
+        LiveScorePublisher.flushOutbox(this);
+
         dialogManager = DialogManager.getInstance();
 
         handleStartedFromOtherApp();
@@ -1321,6 +1328,12 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
         m_bHapticFeedbackOnGameEnd = PreferenceValues.hapticFeedbackOnGameEnd(this);
         m_liveScoreShare           = PreferenceValues.isConfiguredForLiveScore(this);
 
+        if ( PreferenceValues.runLiveScoreAggregator(this) ) {
+            LiveScoreAggregator.start(this, PreferenceValues.getLiveScoreAggregatorPort(this), PreferenceValues.getLiveScoreAggregatorToken(this));
+        } else {
+            LiveScoreAggregator.stop();
+        }
+
         updateMicrophoneFloatButton();
         updatePowerPlayIcons();
         updateTimerFloatButton();
@@ -2313,6 +2326,9 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
             if ( fJson != null && fJson.exists() ) {
                 try {
                     bReadFromJsonOK = matchModel.fromJsonString(fJson);
+                    if ( bReadFromJsonOK && fJson.equals(PersistHelper.getLastMatchFile(this)) ) {
+                        PersistHelper.replayJournal(this, matchModel);
+                    }
                     if ( PreferenceValues.lockMatchMV(this).contains(AutoLockContext.WhenMatchIsUnchangeForX_Minutes)) {
                         final int iMinutes = PreferenceValues.numberOfMinutesAfterWhichToLockMatch(this);
                         if ( iMinutes > 0 ) {
@@ -2498,6 +2514,17 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
         ArchiveTabbed.persist(this);
       //cleanup_Speak();
         stopBlueTooth();
+        if ( m_commandDispatcher != null ) {
+            m_commandDispatcher.quit();
+            m_commandDispatcher = null;
+        }
+        if ( m_wearableHelper != null ) {
+            m_wearableHelper.onDestroy();
+        }
+        if ( isFinishing() ) {
+            Preloader.cancelBackgroundWork();
+            LiveScoreAggregator.stop();
+        }
 
         PusherHandler.getInstance().cleanup();
 
@@ -3030,6 +3057,7 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
         matchModel.registerListener(new OnPowerPlayChangeListener());
         matchModel.registerListener(new LockChangeListener());
         matchModel.registerListener(new TimingChangedListener());
+        matchModel.registerListener(new ScoringActionListener());
       //matchModel.registerListener(new ScoreLinesChangeListener());
 
         //dbgmsg("Model listeners registered", 0, 0);
@@ -3269,7 +3297,7 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
                 iBoard.updateSetScoresToShow(false);
             } else {
                 // normal score
-                if ( PreferenceValues.recordRallyEndStatsAfterEachScore(ScoreBoard.this).equals(Feature.Automatic)
+                if ( PreferenceValues.getSnapshot(ScoreBoard.this).recordRallyEndStatsAfterEachScore().equals(Feature.Automatic)
                  && (call==null || call.equals(Call.NL) ) ) { // if it was a No Let decision it means the opponent scored with a winner
                     showRallyEndStats(p, call);
                 }
@@ -3283,9 +3311,9 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
 
             if ( (iDelta == 1) ) {
                 // for tabletennis and badminton
-                int iEachX = PreferenceValues.autoShowGamePausedDialogAfterXPoints(ScoreBoard.this);
+                int iEachX = PreferenceValues.getSnapshot(ScoreBoard.this).autoShowGamePausedDialogAfterXPoints();
                 if ( matchModel.isTowelingDownScore(iEachX, 11) && (matchModel.isPossibleGameVictory() == false)) {
-                    Feature showGamePausedDialog = PreferenceValues.showGamePausedDialog(ScoreBoard.this);
+                    Feature showGamePausedDialog = PreferenceValues.getSnapshot(ScoreBoard.this).showGamePausedDialog();
                     switch (showGamePausedDialog) {
                         case Automatic: {
                             // show pause dialog
@@ -3317,7 +3345,7 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
         @Override public void OnCallChanged(Call call, Player appealingOrMisbehaving, Player pointAwardedTo, ConductType conductType) {
             iBoard.updateScoreHistory(true);
 
-            if ( PreferenceValues.showChoosenDecisionShortly(ScoreBoard.this) ) {
+            if ( PreferenceValues.getSnapshot(ScoreBoard.this).showChoosenDecisionShortly() ) {
                 iBoard.showChoosenDecision(call, appealingOrMisbehaving, conductType);
             }
             if ( pointAwardedTo != null ) {
@@ -3338,6 +3366,11 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
             iBoard.updateScoreHistory(false);
         }
     }
+    private class ScoringActionListener implements Model.OnScoringActionListener {
+        @Override public void OnScoringAction(ScoringAction action, Object... args) {
+            PersistHelper.journal(ScoreBoard.this, matchModel, action, args);
+        }
+    }
     private void showPowerPlayDialog() {
         //if ( Brand.isNotSquash() ) { return; }
         if ( warnModelIsLocked() ) { return; }
@@ -4761,7 +4794,7 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
             shareScoreSheetDelayed(1000);
         }
     }
-    /** Invoked by TwoTimerView and interpretReceivedMessage() */
+    /** Invoked by TwoTimerView and interpretReceivedCommand() */
     public void _showTimer(Type timerType, boolean bAutoTriggered, ViewType viewType, Integer iInitialSecs) {
         if ( iInitialSecs == null ) {
             iInitialSecs = PreferenceValues.getInteger(timerType.getPrefKey(), this, timerType.getDefaultSecs());
@@ -7057,16 +7090,54 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
         sb.append(")");
     }
 
-    /** length of file to be read */
-    private int           iReceivingBTFileLength = 0;
-    /** Buffer with file content */
-    private StringBuilder sbReceivingBTFile      = new StringBuilder();
-    public synchronized void interpretReceivedMessageOnUiThread(String readMessage, MessageSource source) {
-        runOnUiThread(() -> interpretReceivedMessage(readMessage, source));
+    private BTCommandDispatcher m_commandDispatcher = null;
+    private synchronized BTCommandDispatcher getCommandDispatcher() {
+        if ( m_commandDispatcher == null ) {
+            m_commandDispatcher = new BTCommandDispatcher(new BTCommandDispatcher.Target() {
+                @Override public void startHandling(String sMessage, MessageSource source) {
+                    switch (source) {
+                        case Wearable:
+                            WearableHelper.setHandlingMessageInProgress(sMessage);
+                            break;
+                        case BluetoothMirror:
+                            mBluetoothHandler.setHandlingMessage(true);
+                            break;
+                    }
+                }
+                @Override public void stopHandling(MessageSource source) {
+                    switch (source) {
+                        case Wearable:
+                            WearableHelper.setHandlingMessageInProgress(null);
+                            break;
+                        case BluetoothMirror:
+                            mBluetoothHandler.setHandlingMessage(false);
+                            break;
+                    }
+                }
+                @Override public void relayReceivedMessage(String sMessage, MessageSource source) {
+                    ScoreBoard.this.relayReceivedMessage(sMessage, source);
+                }
+                @Override public void interpretReceivedFile(String sFileContent, MessageSource source) {
+                    ScoreBoard.this.interpretReceivedFile(sFileContent, source);
+                }
+                @Override public void interpretReceivedCommand(BTCommand command, MessageSource source) {
+                    ScoreBoard.this.interpretReceivedCommand(command, source);
+                }
+            });
+        }
+        return m_commandDispatcher;
+    }
+
+    /**
+     * Invoked by BluetoothHandler, BLEHandler, WearableHelper.MessageListener and PusherHandler.
+     * The message is decoded on a background thread, the resulting commands are interpreted on the UI thread.
+     */
+    public void interpretReceivedMessage(String readMessage, MessageSource msgSource) {
+        getCommandDispatcher().dispatch(readMessage, msgSource);
     }
-    /** Invoked by BluetoothHandler, BLEHandler, WearableHelper.MessageListener and PusherHandler */
-    public synchronized void interpretReceivedMessage(String readMessage, MessageSource msgSource) {
 
+    /** Pass on a message, exactly as it was received, to the other connected devices */
+    public synchronized void relayReceivedMessage(String readMessage, MessageSource msgSource) {
         if ( readMessage.startsWith(BTMethods.requestCompleteJsonOfMatch.toString())) {
             // don't blindly pass on this type of message to wearable
         } else {
@@ -7080,687 +7151,618 @@ public class ScoreBoard extends XActivity implements /*NfcAdapter.CreateNdefMess
                 sendMessageToWearables(readMessage);
             }
         }
+    }
 
-        // read file if json is being sent (identified by first sending the length of the json string)
-        {
-            int    iSubStrLength = Math.min(20, readMessage.length());
-            String readMessage20 = readMessage.substring(0, iSubStrLength);
-            if ( (iReceivingBTFileLength <= 0) && readMessage20.matches("^\\d+:.*") ) {
-                // first part of a long message being received
-                String sLength = readMessage20.replaceFirst(":.*", "");
-                iReceivingBTFileLength = Integer.parseInt(sLength);
-                Log.d(TAG, "Receiving file content with length:" + iReceivingBTFileLength);
-                readMessage = readMessage.substring(sLength.length() + 1);
-            }
-            if ( iReceivingBTFileLength > 0 ) {
-                // in the process of reading a file
-                sbReceivingBTFile.append(readMessage);
-                if (sbReceivingBTFile.length() >= iReceivingBTFileLength ) {
-                    // whole file received
-                    final String sFileContent = sbReceivingBTFile.toString();
-
-                    Log.d(TAG, String.format("Full file related message received (%d) : %s", sFileContent.length(), sFileContent ));
-
-                    // reset for next file communication
-                    sbReceivingBTFile      = new StringBuilder();
-                    iReceivingBTFileLength = 0;
-
-                    if ( sFileContent.startsWith("{") && sFileContent.endsWith("}") ) {
-                        Log.d(TAG, "Parsing received match...");
-                        if ( msgSource.equals(MessageSource.FirebaseCloudMessage) ) {
-                            Model m = Brand.getModel();
-                            m.fromJsonString(sFileContent);
-                            boolean bStartNewMatchDialog = StringUtil.areAllNonEmpty(m.getName(Player.A), m.getName(Player.B));
-                            if ( bStartNewMatchDialog ) {
-                                Intent intent = new Intent();
-                                intent.putExtra(IntentKeys.NewMatch.toString(), sFileContent); // this is read by ScoreBoard.onActivityResult
-                                PreferenceValues.initForLiveScoring(this, true);
-
-                                if ( StringUtil.isEmpty(m.getSource()) ) {
-                                    String sSourceId = null; // DateUtil.getCurrentYYYYMMDDTHHMMSS();  // TODO
-                                    m.setSource(MessageSource.FirebaseCloudMessage.toString(), sSourceId);
-                                    String sFileContentEnriched = m.toJsonString(null);
-                                    intent.putExtra(IntentKeys.NewMatch.toString(), sFileContentEnriched);
-                                }
+    /** Invoked once all parts of a file (json of a match, country flag) have been received */
+    private synchronized void interpretReceivedFile(final String sFileContent, MessageSource msgSource) {
+        Log.d(TAG, String.format("Full file related message received (%d) : %s", sFileContent.length(), sFileContent ));
 
-                                // assume json of a Model of a 'new match' to be reffed is being sent via an FCM message
-                                // act as if the match was selected from a feed
-                                final int iRequestCode = R.id.sb_select_feed_match;
-                                if ( childActivityRequestCode() == iRequestCode ) {
-                                    Toast.makeText(this, "Ignoring new match to ref received by FCM message: " + sFileContent + ".\nRelated child activity already open", Toast.LENGTH_LONG).show();
-                                } else {
-                                    onActivityResult(iRequestCode, 0 , intent);
-                                    if ( PreferenceValues.showToastMessageForEveryReceivedFCMMessage(this)) {
-                                        Toast.makeText(this, "New match to ref received by FCM message:\n" + sFileContent, Toast.LENGTH_LONG).show();
-                                    }
-                                }
-                            } else {
-                                // TODO: implement other options. e.g. populate 'My List' and open 'My List'
-                                Toast.makeText(this, "JSON received via FCM is not valid to represent a match.\n" + sFileContent, Toast.LENGTH_LONG).show();
-                            }
-                        } else {
-                            try {
-                                PersistHelper.storeAsPrevious(this, matchModel, false);
-                                //persist(true);
-                                File fJson = PersistHelper.getLastMatchFile(this);
-                                FileUtil.writeTo(fJson, sFileContent);
-
-                                setMatchModel(null);
-                                boolean bReadOK = this.initScoreBoard(fJson);
-                                Log.d(TAG, "Parsing: " + bReadOK);
-                                if ( bReadOK ) {
-                                    matchModel.triggerListeners();
-                                    if ( BTRole.Slave.equals(m_blueToothRole) ) {
-                                        String bluetooth_name = Settings.Secure.getString(getContentResolver(), "bluetooth_name");
-                                        if ( StringUtil.isEmpty(bluetooth_name) && mBluetoothAdapter != null ) {
-                                            bluetooth_name = mBluetoothAdapter.getName();
-                                        }
-                                        if ( StringUtil.isEmpty(bluetooth_name) ) {
-                                            bluetooth_name = Build.MODEL;
-                                        }
-                                        writeMethodToBluetooth(BTMethods.jsonMatchReceived, true);
-                                        writeMethodToBluetooth(BTMethods.Toast, getString(R.string.bt_match_received_by_X, bluetooth_name));
-                                    }
-                                    bluetoothRequestCountryFile(2000);
-                                } else {
-                                    writeMethodToBluetooth(BTMethods.Toast, "Receiver could not read json...");
-                                    if ( BTRole.Slave.equals(m_blueToothRole) ) {
-                                        writeMethodToBluetooth(BTMethods.requestCompleteJsonOfMatch);
-                                    }
-                                }
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                                writeMethodToBluetooth(BTMethods.Toast, "Could not read json. Exception: " + e.getMessage());
+        if ( sFileContent.startsWith("{") && sFileContent.endsWith("}") ) {
+            Log.d(TAG, "Parsing received match...");
+            if ( msgSource.equals(MessageSource.FirebaseCloudMessage) ) {
+                Model m = Brand.getModel();
+                m.fromJsonString(sFileContent);
+                boolean bStartNewMatchDialog = StringUtil.areAllNonEmpty(m.getName(Player.A), m.getName(Player.B));
+                if ( bStartNewMatchDialog ) {
+                    Intent intent = new Intent();
+                    intent.putExtra(IntentKeys.NewMatch.toString(), sFileContent); // this is read by ScoreBoard.onActivityResult
+                    PreferenceValues.initForLiveScoring(this, true);
+
+                    if ( StringUtil.isEmpty(m.getSource()) ) {
+                        String sSourceId = null; // DateUtil.getCurrentYYYYMMDDTHHMMSS();  // TODO
+                        m.setSource(MessageSource.FirebaseCloudMessage.toString(), sSourceId);
+                        String sFileContentEnriched = m.toJsonString(null);
+                        intent.putExtra(IntentKeys.NewMatch.toString(), sFileContentEnriched);
+                    }
 
-                                // re-requesting complete match if exception occurred
+                    // assume json of a Model of a 'new match' to be reffed is being sent via an FCM message
+                    // act as if the match was selected from a feed
+                    final int iRequestCode = R.id.sb_select_feed_match;
+                    if ( childActivityRequestCode() == iRequestCode ) {
+                        Toast.makeText(this, "Ignoring new match to ref received by FCM message: " + sFileContent + ".\nRelated child activity already open", Toast.LENGTH_LONG).show();
+                    } else {
+                        onActivityResult(iRequestCode, 0 , intent);
+                        if ( PreferenceValues.showToastMessageForEveryReceivedFCMMessage(this)) {
+                            Toast.makeText(this, "New match to ref received by FCM message:\n" + sFileContent, Toast.LENGTH_LONG).show();
+                        }
+                    }
+                } else {
+                    // TODO: implement other options. e.g. populate 'My List' and open 'My List'
+                    Toast.makeText(this, "JSON received via FCM is not valid to represent a match.\n" + sFileContent, Toast.LENGTH_LONG).show();
+                }
+            } else {
+                try {
+                    PersistHelper.storeAsPrevious(this, matchModel, false);
+                    //persist(true);
+                    File fJson = PersistHelper.getLastMatchFile(this);
+                    FileUtil.writeTo(fJson, sFileContent);
+
+                    setMatchModel(null);
+                    boolean bReadOK = this.initScoreBoard(fJson);
+                    Log.d(TAG, "Parsing: " + bReadOK);
+                    if ( bReadOK ) {
+                        matchModel.triggerListeners();
+                        if ( BTRole.Slave.equals(m_blueToothRole) ) {
+                            String bluetooth_name = Settings.Secure.getString(getContentResolver(), "bluetooth_name");
+                            if ( StringUtil.isEmpty(bluetooth_name) && mBluetoothAdapter != null ) {
+                                bluetooth_name = mBluetoothAdapter.getName();
+                            }
+                            if ( StringUtil.isEmpty(bluetooth_name) ) {
+                                bluetooth_name = Build.MODEL;
                             }
+                            writeMethodToBluetooth(BTMethods.jsonMatchReceived, true);
+                            writeMethodToBluetooth(BTMethods.Toast, getString(R.string.bt_match_received_by_X, bluetooth_name));
                         }
+                        bluetoothRequestCountryFile(2000);
                     } else {
-                        // assume base64 encoded image
-                        if ( sFileContent.startsWith(BTFileType.CountryFlag + ":") ) {
-                            Log.d(TAG, "Parsing flag...");
-                            int    iFirstColon  = sFileContent.indexOf(":");
-                            int    iSecondColon = sFileContent.indexOf(":", iFirstColon + 1);
-                            String sCountryCode = null;
-                            try {
-                                       sCountryCode = sFileContent.substring(iFirstColon+1, iSecondColon);
-                                String sBase64      = sFileContent.substring(iSecondColon+1);
-
-                                File   fCache = PreferenceValues.getFlagCacheName(sCountryCode, this);
-                                byte[] decodedByte    = Base64.decode(sBase64, 0);
-                                FileOutputStream fileOutputStream = new FileOutputStream(fCache);
-                                fileOutputStream.write(decodedByte);
-                                fileOutputStream.close();
-                                Log.d(TAG, String.format("Created flag file %s via bluetooth", fCache));
-
-                                // to refresh PlayerButton with the image
-                                for(Player p: Player.values() ) {
-                                    String sCountry = matchModel.getCountry(p);
-                                    if ( sCountry.equals(sCountryCode) ) {
-                                        iBoard.updatePlayerCountry(p, sCountry);
-                                    }
-                                }
+                        writeMethodToBluetooth(BTMethods.Toast, "Receiver could not read json...");
+                        if ( BTRole.Slave.equals(m_blueToothRole) ) {
+                            writeMethodToBluetooth(BTMethods.requestCompleteJsonOfMatch);
+                        }
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    writeMethodToBluetooth(BTMethods.Toast, "Could not read json. Exception: " + e.getMessage());
 
-                                // we only request one file at a time, if one is received, request the other if required
-                                bluetoothRequestCountryFile(2000);
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                                Toast.makeText(this, String.format("Could not interpret file as image for %s", sCountryCode), Toast.LENGTH_LONG).show();
-                                writeMethodToBluetooth(BTMethods.Toast, "Receiver could not interpret image for " + sCountryCode);
-                            }
-                        } else {
-                            Log.w(TAG, "Parsing what ??...");
+                    // re-requesting complete match if exception occurred
+                }
+            }
+        } else {
+            // assume base64 encoded image
+            if ( sFileContent.startsWith(BTFileType.CountryFlag + ":") ) {
+                Log.d(TAG, "Parsing flag...");
+                int    iFirstColon  = sFileContent.indexOf(":");
+                int    iSecondColon = sFileContent.indexOf(":", iFirstColon + 1);
+                String sCountryCode = null;
+                try {
+                           sCountryCode = sFileContent.substring(iFirstColon+1, iSecondColon);
+                    String sBase64      = sFileContent.substring(iSecondColon+1);
+
+                    File   fCache = PreferenceValues.getFlagCacheName(sCountryCode, this);
+                    byte[] decodedByte    = Base64.decode(sBase64, 0);
+                    FileOutputStream fileOutputStream = new FileOutputStream(fCache);
+                    fileOutputStream.write(decodedByte);
+                    fileOutputStream.close();
+                    Log.d(TAG, String.format("Created flag file %s via bluetooth", fCache));
+
+                    // to refresh PlayerButton with the image
+                    for(Player p: Player.values() ) {
+                        String sCountry = matchModel.getCountry(p);
+                        if ( sCountry.equals(sCountryCode) ) {
+                            iBoard.updatePlayerCountry(p, sCountry);
                         }
                     }
-                } else {
-                    Log.d(TAG, String.format("Waiting for more file content...(%d < %d)", sbReceivingBTFile.length(), iReceivingBTFileLength));
+
+                    // we only request one file at a time, if one is received, request the other if required
+                    bluetoothRequestCountryFile(2000);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    Toast.makeText(this, String.format("Could not interpret file as image for %s", sCountryCode), Toast.LENGTH_LONG).show();
+                    writeMethodToBluetooth(BTMethods.Toast, "Receiver could not interpret image for " + sCountryCode);
                 }
-                return;
+            } else {
+                Log.w(TAG, "Parsing what ??...");
             }
         }
+    }
 
-        // if messages were queued on the 'Master'/sender, ensure we split them back here
-        String[] saReadMethods = readMessage.trim().split("\n");
-        if ( saReadMethods.length > 1 ) {
-            Log.w(TAG, "Multiple methods received: " + saReadMethods.length);
+    /** Invoked on the UI thread by the BTCommandDispatcher, or by BLEHandler with a message already parsed by BLEReceiverManager */
+    public synchronized void interpretReceivedCommand(BTCommand command, MessageSource msgSource) {
+        if ( matchModel == null ) {
+            Log.w(TAG, "Matchmodel is null"); // should not happen normally
+            return;
         }
-
-        for(String sMethodNArgs: saReadMethods) {
-
-            // read what model.method() to invoke with what arguments
-            String[]  saMethodNArgs = sMethodNArgs.trim().split("[\\(\\),]");
-            String    sMethod       = saMethodNArgs[0];
-            BTMethods btMethod      = null;
-            try {
-                btMethod = BTMethods.valueOf(sMethod);
-            } catch (Exception e) {
-                Log.w(TAG, "Could not derive method from " + sMethod);
-                // might happen if connection is broken unexpectedly
-                // or old version communicating with new version with new method
-                //e.printStackTrace();
-            }
-            if ( matchModel == null ) {
-                Log.w(TAG, "Matchmodel is null"); // should not happen normally
-            } else if ( btMethod == null ) {
-                Log.w(TAG, String.format("Could not derive btMethod from message %s [#%d]", sMethodNArgs.substring(0, Math.min(20, sMethodNArgs.length())) + "...", sMethodNArgs.length()));
-                //Toast.makeText(this, String.format("Could not derive btMethod from message %s", sMethod), Toast.LENGTH_LONG).show();
-            } else {
-                if ( sMethodNArgs.trim().contains("(") && sMethodNArgs.trim().endsWith(")") == false ) {
-                    Log.w(TAG, "method received but with incomplete arguments: " + sMethodNArgs); // should not happen normally
-                    if ( BTRole.Slave.equals(m_blueToothRole) ) {
-                        //Toast.makeText(this, "method received but with incomplete arguments: " + sMethodNArgs, Toast.LENGTH_LONG).show();
-                    }
-                }
-                switch (btMethod) {
-                    case updatePreference: {
-                        if ( saMethodNArgs.length >= 3 ) {
-                            try {
-                                PreferenceKeys key    = PreferenceKeys.valueOf(saMethodNArgs[1]);
-                                String         sValue = saMethodNArgs[2];
-                                if ( sValue.matches("true|false") ) {
-                                    PreferenceValues.setBoolean(key, this, Boolean.parseBoolean(sValue));
-                                } else if ( StringUtil.isInteger(sValue) ) {
-                                    PreferenceValues.setNumber(key, this, Integer.parseInt(sValue));
-                                } else {
-                                    PreferenceValues.setString(key, this, sValue);
-                                }
-                                Toast.makeText(this, String.format("Updated pref over bluetooth %s=%s", key, sValue), Toast.LENGTH_LONG).show();
-                                if (saMethodNArgs[1].toLowerCase().contains("color") ) {
-                                    ColorPrefs.clearColorCache();
-                                    initColors();
-                                }
-                            } catch (IllegalArgumentException e) {
-                                // most likely com.doubleyellow.scoreboard.prefs.ColorPrefs.ColorTarget
-                                try {
-                                    ColorPrefs.ColorTarget key    = ColorPrefs.ColorTarget.valueOf(saMethodNArgs[1]);
-                                    String         sValue = saMethodNArgs[2];
-                                    PreferenceValues.setString(key, this, sValue);
-                                    Toast.makeText(this, String.format("Updated color pref over bluetooth %s=%s", key, sValue), Toast.LENGTH_LONG).show();
-                                    ColorPrefs.clearColorCache();
-                                    initColors();
-                                } catch (IllegalArgumentException e2) {
-                                    // most likely com.doubleyellow.scoreboard.prefs.ColorPrefs.ColorTarget
-                                    // PlayerColorsNewMatchA , PlayerColorsNewMatchB
-                                }
-                            }
+        final BTMethods btMethod      = command.method;
+        final String[]  saMethodNArgs = command.saMethodNArgs;
+        final String    sMethodNArgs  = command.sMessage;
+        if ( sMethodNArgs.trim().contains("(") && sMethodNArgs.trim().endsWith(")") == false ) {
+            Log.w(TAG, "method received but with incomplete arguments: " + sMethodNArgs); // should not happen normally
+            if ( BTRole.Slave.equals(m_blueToothRole) ) {
+                //Toast.makeText(this, "method received but with incomplete arguments: " + sMethodNArgs, Toast.LENGTH_LONG).show();
+            }
+        }
+        switch (btMethod) {
+            case updatePreference: {
+                if ( saMethodNArgs.length >= 3 ) {
+                    try {
+                        PreferenceKeys key    = PreferenceKeys.valueOf(saMethodNArgs[1]);
+                        String         sValue = saMethodNArgs[2];
+                        if ( sValue.matches("true|false") ) {
+                            PreferenceValues.setBoolean(key, this, Boolean.parseBoolean(sValue));
+                        } else if ( StringUtil.isInteger(sValue) ) {
+                            PreferenceValues.setNumber(key, this, Integer.parseInt(sValue));
                         } else {
-                            Toast.makeText(this, String.format("Could not handle %s,%s,%s", (Object[]) saMethodNArgs), Toast.LENGTH_LONG).show();
+                            PreferenceValues.setString(key, this, sValue);
                         }
-                        break;
-                    }
-                    case changeScoreBLEConfirm: {
-                        Player          playerWristBand      = Player         .valueOf(saMethodNArgs[1].toUpperCase().trim());
-                        BLEDeviceButton eButtonPressed       = BLEDeviceButton.valueOf(saMethodNArgs[2].toUpperCase().trim());
-                        int             iNrOfDevicesRequired = m_bleConfig.optInt   (BLEUtil.Keys.NrOfDevices.toString(), 2);
-                        Log.i(TAG, String.format("[interpretReceivedMessage] changeScoreBLEConfirm: %s, player:%s, button:%s", m_blePlayerWaitingForScoreToBeConfirmed, playerWristBand, eButtonPressed));
-                        int iTmpTxtOnElementDuringFeedback = getTxtOnElementDuringFeedback(m_blePlayerWaitingForScoreToBeConfirmed);
-                        if ( iNrOfDevicesRequired == 1 ) {
-                            if ( m_blePlayerWaitingForScoreToBeConfirmed != null ) {
-                                String sDoChangeScore = null;
-                                String sDoCancelScore = null;
-                                if ( playerWristBand.equals(m_blePlayerWaitingForScoreToBeConfirmed) ) {
-                                    // button for same player pressed again
-                                    if ( m_bSingleDevice_ConfirmWithSameButton ) {
-                                        sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_pressing_y, eButtonPressed);
-                                    } else {
-                                        sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_pressing_y, eButtonPressed);
-                                    }
-                                } else {
-                                    // button for other player pressed
-                                    if ( m_bSingleDevice_ConfirmWithSameButton ) {
-                                        sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_pressing_y, eButtonPressed);
-                                    } else {
-                                        sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_pressing_y, eButtonPressed);
-                                    }
-                                }
-                                if ( sDoChangeScore != null ) {
-                                    Log.i(TAG, "sDoChangeScore : " + sDoChangeScore);
-
-                                    stopWaitingForBLEConfirmation();
-                                    iBoard.showBLEInfoMessage(sDoChangeScore, 10);
-                                    startVisualFeedbackForScoreChange(m_blePlayerWaitingForScoreToBeConfirmed, iTmpTxtOnElementDuringFeedback);
-                                    m_blePlayerWaitingForScoreToBeConfirmed = null;
-                                } else if ( sDoCancelScore != null ) {
-                                    Log.i(TAG, "sDoCancelScore : " + sDoCancelScore);
-                                    m_blePlayerWaitingForScoreToBeConfirmed = null;
-                                    stopWaitingForBLEConfirmation();
-                                    iBoard.showBLEInfoMessage(sDoCancelScore, 10);
-                                } else {
-                                    // should not happen... with single device one button should confirm, the other cancel (third button?)
-                                    Log.w(TAG, "[Single device] Score still waiting confirmation? " + m_blePlayerWaitingForScoreToBeConfirmed + " " + m_bSingleDevice_ConfirmWithSameButton);
-                                    iBoard.appendToInfoMessage(".");
-                                }
-                            } else {
-                                BLEDeviceButton eButtonOther     = BLEDeviceButton.values()[1 - eButtonPressed.ordinal()];
-                                BLEDeviceButton eButtonToConfirm = m_bSingleDevice_ConfirmWithSameButton ? eButtonPressed : eButtonOther;
-                                Log.w(TAG, String.format("Score for %s entered with button %s now waiting for confirmation by pressing %s", playerWristBand, eButtonPressed, eButtonToConfirm));
-                                m_blePlayerWaitingForScoreToBeConfirmed = playerWristBand;
-
-                                String sToConfirmMsg = getBLEMessage(R.string.ble_pressed_X__confirm_score_for_Y_by_pressing_Z, eButtonPressed, m_blePlayerWaitingForScoreToBeConfirmed, eButtonToConfirm);
-                                iBoard.showBLEInfoMessage(sToConfirmMsg, -1);
-                                startWaitingForBLEConfirmation(m_blePlayerWaitingForScoreToBeConfirmed, null);
-                            }
-
-                        } else if ( iNrOfDevicesRequired == 2 ) {
-                            if ( m_blePlayerWaitingForScoreToBeConfirmed != null ) {
-                                String sDoChangeScore = null;
-                                String sDoCancelScore = null;
-                                if (playerWristBand.getOther().equals(m_blePlayerWaitingForScoreToBeConfirmed)) {
-                                    // check the confirmation by other player/team
-                                    Log.i(TAG, "Check BLE confirmation by " + playerWristBand + " with button " + m_eConfirmScoreByOpponentButton);
-                                    if (eButtonPressed.equals(m_eConfirmScoreByOpponentButton)) {
-                                        sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_opponent_x_by_pressing_y, playerWristBand, eButtonPressed);
-                                    } else if ( eButtonPressed.equals(m_eCancelScoreByOpponentButton) ) {
-                                        sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_opponent_x_by_pressing_y, playerWristBand, eButtonPressed);
-                                    }
-                                } else {
-                                    // same player/team pressed a button...
-                                    Log.w(TAG, "Player " + m_blePlayerWaitingForScoreToBeConfirmed + " waiting for confirmation by opponent pressing " + m_eConfirmScoreByOpponentButton);
-                                    if (eButtonPressed.equals(m_eCancelScoreByInitiatorButton)) {
-                                        sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_initiator_x_by_pressing_y, playerWristBand, eButtonPressed);
-                                    }
-                                }
-                                if (sDoChangeScore != null) {
-                                    Log.i(TAG, "sDoChangeScore : " + sDoChangeScore);
-
-                                    stopWaitingForBLEConfirmation();
-                                    iBoard.showBLEInfoMessage(sDoChangeScore, 10);
-                                    startVisualFeedbackForScoreChange(m_blePlayerWaitingForScoreToBeConfirmed, iTmpTxtOnElementDuringFeedback);
-                                    m_blePlayerWaitingForScoreToBeConfirmed = null;
-                                } else if (sDoCancelScore != null) {
-                                    Log.i(TAG, "sDoCancelScore : " + sDoCancelScore);
-                                    m_blePlayerWaitingForScoreToBeConfirmed = null;
-                                    stopWaitingForBLEConfirmation();
-                                    iBoard.showBLEInfoMessage(sDoCancelScore, 10);
-                                } else {
-                                    Log.w(TAG, "Score still waiting confirmation? " + m_blePlayerWaitingForScoreToBeConfirmed);
-                                    iBoard.appendToInfoMessage(".");
-                                }
-                            } else if ( m_blePlayerToConfirmOwnScore != null ) {
-                                String sDoChangeScore = null;
-                                String sDoCancelScore = null;
-                                if ( playerWristBand.equals(m_blePlayerToConfirmOwnScore) ) {
-                                    // check the confirmation by scoring player/team
-                                    Log.i(TAG, "Check BLE confirmation by " + playerWristBand + " with button " + m_eConfirmScoreBySelfButton);
-                                    if (eButtonPressed.equals(m_eConfirmScoreBySelfButton)) {
-                                        sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_scoring_team_x_by_pressing_y, playerWristBand, eButtonPressed);
-                                    } else {
-                                        sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_scoring_team_x_by_pressing_y, playerWristBand, eButtonPressed);
-                                    }
-                                } else {
-                                    // same player/team pressed a button...
-                                    if ( eButtonPressed.equals(m_eInitiateOpponentScoredChangeButton.getOther()) ) {
-                                        sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_initiator_x_by_pressing_y, playerWristBand, eButtonPressed);
-                                    } else {
-                                        Log.w(TAG, "Player " + m_blePlayerToConfirmOwnScore + " to confirm own score by pressing " + m_eConfirmScoreBySelfButton);
-                                        iBoard.appendToInfoMessage(".");
-                                    }
-                                }
-                                if (sDoChangeScore != null) {
-                                    Log.i(TAG, "sDoChangeScore : " + sDoChangeScore);
-
-                                    stopWaitingForBLEConfirmation();
-                                    iBoard.showBLEInfoMessage(sDoChangeScore, 10);
-                                    startVisualFeedbackForScoreChange(m_blePlayerToConfirmOwnScore, iTmpTxtOnElementDuringFeedback);
-                                    m_blePlayerToConfirmOwnScore = null;
-                                } else if (sDoCancelScore != null) {
-                                    Log.i(TAG, "sDoCancelScore : " + sDoCancelScore);
-                                    m_blePlayerToConfirmOwnScore = null;
-                                    stopWaitingForBLEConfirmation();
-                                    iBoard.showBLEInfoMessage(sDoCancelScore, 10);
-                                } else {
-                                    Log.w(TAG, "Score still waiting confirmation? " + m_blePlayerToConfirmOwnScore);
-                                    iBoard.appendToInfoMessage(".");
-                                }
-                            } else {
-                                if ( eButtonPressed.equals(m_eInitiateSelfScoreChangeButton) ) {
-                                    Log.w(TAG, String.format("Score for %s entered with button %s now waiting for confirmation by opponent %s pressing %s", playerWristBand, eButtonPressed, playerWristBand.getOther(), m_eConfirmScoreByOpponentButton));
-                                    m_blePlayerWaitingForScoreToBeConfirmed = playerWristBand;
-
-                                    String sToConfirmMsg = getBLEMessage(R.string.ble_player_x_confirm_score_for_y_by_pressing_z, playerWristBand.getOther(), playerWristBand, m_eConfirmScoreByOpponentButton);
-                                    iBoard.showBLEInfoMessage(sToConfirmMsg, -1);
-                                    startWaitingForBLEConfirmation(m_blePlayerWaitingForScoreToBeConfirmed, playerWristBand.getOther());
-                                } else if ( eButtonPressed.equals(m_eInitiateOpponentScoredChangeButton) ) {
-                                    Log.w(TAG, String.format("Score for opponent entered by %s with button %s now waiting for confirmation by scoring player %s pressing %s", playerWristBand, eButtonPressed, playerWristBand.getOther(), m_eConfirmScoreBySelfButton));
-                                    m_blePlayerToConfirmOwnScore = playerWristBand.getOther();
-
-                                    String sToConfirmMsg = getBLEMessage(R.string.ble_player_x_confirm_you_scored_by_pressing_y, playerWristBand.getOther(), m_eConfirmScoreBySelfButton);
-                                    iBoard.showBLEInfoMessage(sToConfirmMsg, -1);
-                                    startWaitingForBLEConfirmation(m_blePlayerToConfirmOwnScore, playerWristBand.getOther());
-                                } else {
-                                    Log.w(TAG, String.format("In state waiting for initiate-score-change, button %s does nothing ", eButtonPressed));
-                                    if ( PreferenceValues.currentDateIsTestDate() ) {
-                                        String sInfoMsg = getBLEMessage(R.string.ble_waiting_initiate_score_change_message, m_eInitiateSelfScoreChangeButton);
-                                        iBoard.showBLEInfoMessage(sInfoMsg, 4);
-                                    }
-                                }
-                            }
+                        Toast.makeText(this, String.format("Updated pref over bluetooth %s=%s", key, sValue), Toast.LENGTH_LONG).show();
+                        if (saMethodNArgs[1].toLowerCase().contains("color") ) {
+                            ColorPrefs.clearColorCache();
+                            initColors();
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // most likely com.doubleyellow.scoreboard.prefs.ColorPrefs.ColorTarget
+                        try {
+                            ColorPrefs.ColorTarget key    = ColorPrefs.ColorTarget.valueOf(saMethodNArgs[1]);
+                            String         sValue = saMethodNArgs[2];
+                            PreferenceValues.setString(key, this, sValue);
+                            Toast.makeText(this, String.format("Updated color pref over bluetooth %s=%s", key, sValue), Toast.LENGTH_LONG).show();
+                            ColorPrefs.clearColorCache();
+                            initColors();
+                        } catch (IllegalArgumentException e2) {
+                            // most likely com.doubleyellow.scoreboard.prefs.ColorPrefs.ColorTarget
+                            // PlayerColorsNewMatchA , PlayerColorsNewMatchB
                         }
-                        break;
                     }
-                    case changeScore: {
-                        if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
-                            String sAorB = saMethodNArgs[1].toUpperCase();
-                            Player player;
-                            if ( sAorB.matches("[0-1]") ) {
-                                int i0isA1IsB = Integer.parseInt(sAorB);
-                                player = Player.values()[i0isA1IsB];
+                } else {
+                    Toast.makeText(this, String.format("Could not handle %s,%s,%s", (Object[]) saMethodNArgs), Toast.LENGTH_LONG).show();
+                }
+                break;
+            }
+            case changeScoreBLEConfirm: {
+                Player          playerWristBand      = Player         .valueOf(saMethodNArgs[1].toUpperCase().trim());
+                BLEDeviceButton eButtonPressed       = BLEDeviceButton.valueOf(saMethodNArgs[2].toUpperCase().trim());
+                int             iNrOfDevicesRequired = m_bleConfig.optInt   (BLEUtil.Keys.NrOfDevices.toString(), 2);
+                Log.i(TAG, String.format("[interpretReceivedMessage] changeScoreBLEConfirm: %s, player:%s, button:%s", m_blePlayerWaitingForScoreToBeConfirmed, playerWristBand, eButtonPressed));
+                int iTmpTxtOnElementDuringFeedback = getTxtOnElementDuringFeedback(m_blePlayerWaitingForScoreToBeConfirmed);
+                if ( iNrOfDevicesRequired == 1 ) {
+                    if ( m_blePlayerWaitingForScoreToBeConfirmed != null ) {
+                        String sDoChangeScore = null;
+                        String sDoCancelScore = null;
+                        if ( playerWristBand.equals(m_blePlayerWaitingForScoreToBeConfirmed) ) {
+                            // button for same player pressed again
+                            if ( m_bSingleDevice_ConfirmWithSameButton ) {
+                                sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_pressing_y, eButtonPressed);
                             } else {
-                                player = Player.valueOf(sAorB);
+                                sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_pressing_y, eButtonPressed);
                             }
-                            String sScoreReceived = saMethodNArgs[saMethodNArgs.length - 1];
-                            String sModelScore    = matchModel.getScore(Player.A) + "-" + matchModel.getScore(Player.B);
-                            if ( sScoreReceived.equals("0-0") && sModelScore.equals("0-0") ) {
-                                // if endGame=automatic changeScore might be send to set score to 0-0, but if slave already changed to 0-0, ignore
-                                Log.w(TAG, String.format("Ignoring %s", btMethod));
+                        } else {
+                            // button for other player pressed
+                            if ( m_bSingleDevice_ConfirmWithSameButton ) {
+                                sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_pressing_y, eButtonPressed);
                             } else {
-                                matchModel.changeScore(player);
+                                sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_pressing_y, eButtonPressed);
                             }
                         }
-                        break;
+                        if ( sDoChangeScore != null ) {
+                            Log.i(TAG, "sDoChangeScore : " + sDoChangeScore);
+
+                            stopWaitingForBLEConfirmation();
+                            iBoard.showBLEInfoMessage(sDoChangeScore, 10);
+                            startVisualFeedbackForScoreChange(m_blePlayerWaitingForScoreToBeConfirmed, iTmpTxtOnElementDuringFeedback);
+                            m_blePlayerWaitingForScoreToBeConfirmed = null;
+                        } else if ( sDoCancelScore != null ) {
+                            Log.i(TAG, "sDoCancelScore : " + sDoCancelScore);
+                            m_blePlayerWaitingForScoreToBeConfirmed = null;
+                            stopWaitingForBLEConfirmation();
+                            iBoard.showBLEInfoMessage(sDoCancelScore, 10);
+                        } else {
+                            // should not happen... with single device one button should confirm, the other cancel (third button?)
+                            Log.w(TAG, "[Single device] Score still waiting confirmation? " + m_blePlayerWaitingForScoreToBeConfirmed + " " + m_bSingleDevice_ConfirmWithSameButton);
+                            iBoard.appendToInfoMessage(".");
+                        }
+                    } else {
+                        BLEDeviceButton eButtonOther     = BLEDeviceButton.values()[1 - eButtonPressed.ordinal()];
+                        BLEDeviceButton eButtonToConfirm = m_bSingleDevice_ConfirmWithSameButton ? eButtonPressed : eButtonOther;
+                        Log.w(TAG, String.format("Score for %s entered with button %s now waiting for confirmation by pressing %s", playerWristBand, eButtonPressed, eButtonToConfirm));
+                        m_blePlayerWaitingForScoreToBeConfirmed = playerWristBand;
+
+                        String sToConfirmMsg = getBLEMessage(R.string.ble_pressed_X__confirm_score_for_Y_by_pressing_Z, eButtonPressed, m_blePlayerWaitingForScoreToBeConfirmed, eButtonToConfirm);
+                        iBoard.showBLEInfoMessage(sToConfirmMsg, -1);
+                        startWaitingForBLEConfirmation(m_blePlayerWaitingForScoreToBeConfirmed, null);
                     }
-                    case undoScoreForInitiatorBLE:
-                        if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
-                            String sAorB = saMethodNArgs[1].toUpperCase().trim();
-                            Player pUndoTriggeredBy;
-                            if ( sAorB.matches("[0-1]") ) {
-                                int i0isA1IsB = Integer.parseInt(sAorB);
-                                pUndoTriggeredBy = Player.values()[i0isA1IsB];
-                            } else {
-                                pUndoTriggeredBy = Player.valueOf(sAorB);
-                            }
-                            Player lastScorer = matchModel.getLastScorer();
 
-                            String sInfoMsg = getBLEMessage(R.string.ble_last_score_for_X_undone_by_ble, pUndoTriggeredBy);
-                            if ( pUndoTriggeredBy.equals(lastScorer) ) {
-                                //matchModel.undoLast(); // triggered by timer after blinking 'undo'
-                                startVisualFeedbackForScoreChange(lastScorer, R.string.uc_undo);
-                                iBoard.showBLEInfoMessage(sInfoMsg, 10);
-                            } else {
-                                if ( lastScorer != null ) {
-                                    sInfoMsg = getBLEMessage(R.string.ble_last_score_for_X_can_not_be_undone_by_ble_of_Y, lastScorer, pUndoTriggeredBy);
-                                    iBoard.showBLEInfoMessage(sInfoMsg, 10);
-                                }
+                } else if ( iNrOfDevicesRequired == 2 ) {
+                    if ( m_blePlayerWaitingForScoreToBeConfirmed != null ) {
+                        String sDoChangeScore = null;
+                        String sDoCancelScore = null;
+                        if (playerWristBand.getOther().equals(m_blePlayerWaitingForScoreToBeConfirmed)) {
+                            // check the confirmation by other player/team
+                            Log.i(TAG, "Check BLE confirmation by " + playerWristBand + " with button " + m_eConfirmScoreByOpponentButton);
+                            if (eButtonPressed.equals(m_eConfirmScoreByOpponentButton)) {
+                                sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_opponent_x_by_pressing_y, playerWristBand, eButtonPressed);
+                            } else if ( eButtonPressed.equals(m_eCancelScoreByOpponentButton) ) {
+                                sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_opponent_x_by_pressing_y, playerWristBand, eButtonPressed);
+                            }
+                        } else {
+                            // same player/team pressed a button...
+                            Log.w(TAG, "Player " + m_blePlayerWaitingForScoreToBeConfirmed + " waiting for confirmation by opponent pressing " + m_eConfirmScoreByOpponentButton);
+                            if (eButtonPressed.equals(m_eCancelScoreByInitiatorButton)) {
+                                sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_initiator_x_by_pressing_y, playerWristBand, eButtonPressed);
                             }
                         }
-                        break;
-                    case changeScoreBLE:
-                        if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
-                            // derive score to change from first parameter
-                            String sAorB = saMethodNArgs[1].toUpperCase().trim();
-                            Player pScored;
-                            if ( sAorB.matches("[0-1]") ) {
-                                int i0isA1IsB = Integer.parseInt(sAorB);
-                                pScored = Player.values()[i0isA1IsB];
+                        if (sDoChangeScore != null) {
+                            Log.i(TAG, "sDoChangeScore : " + sDoChangeScore);
+
+                            stopWaitingForBLEConfirmation();
+                            iBoard.showBLEInfoMessage(sDoChangeScore, 10);
+                            startVisualFeedbackForScoreChange(m_blePlayerWaitingForScoreToBeConfirmed, iTmpTxtOnElementDuringFeedback);
+                            m_blePlayerWaitingForScoreToBeConfirmed = null;
+                        } else if (sDoCancelScore != null) {
+                            Log.i(TAG, "sDoCancelScore : " + sDoCancelScore);
+                            m_blePlayerWaitingForScoreToBeConfirmed = null;
+                            stopWaitingForBLEConfirmation();
+                            iBoard.showBLEInfoMessage(sDoCancelScore, 10);
+                        } else {
+                            Log.w(TAG, "Score still waiting confirmation? " + m_blePlayerWaitingForScoreToBeConfirmed);
+                            iBoard.appendToInfoMessage(".");
+                        }
+                    } else if ( m_blePlayerToConfirmOwnScore != null ) {
+                        String sDoChangeScore = null;
+                        String sDoCancelScore = null;
+                        if ( playerWristBand.equals(m_blePlayerToConfirmOwnScore) ) {
+                            // check the confirmation by scoring player/team
+                            Log.i(TAG, "Check BLE confirmation by " + playerWristBand + " with button " + m_eConfirmScoreBySelfButton);
+                            if (eButtonPressed.equals(m_eConfirmScoreBySelfButton)) {
+                                sDoChangeScore = getBLEMessage(R.string.ble_score_confirmed_by_scoring_team_x_by_pressing_y, playerWristBand, eButtonPressed);
                             } else {
-                                pScored = Player.valueOf(sAorB);
+                                sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_scoring_team_x_by_pressing_y, playerWristBand, eButtonPressed);
                             }
-
-                            // derive initiated-by-player and by-button-pressed from optional 2nd and 3th parameter(s)
-                            Player pInitiatedBy = pScored;
-                            BLEDeviceButton buttonPressed = null;
-                            int[] iaPosition = {2,3};
-                            for(int iParamPos: iaPosition) {
-                                if ( saMethodNArgs.length > iParamPos ) {
-                                    sAorB = saMethodNArgs[iParamPos].toUpperCase().trim();
-                                    if ( sAorB.length() == 1 ) {
-                                        if ( sAorB.matches("[0-1]") ) {
-                                            int i0isA1IsB = Integer.parseInt(sAorB);
-                                            pInitiatedBy = Player.values()[i0isA1IsB];
-                                        } else {
-                                            pInitiatedBy = Player.valueOf(sAorB);
-                                        }
-                                    } else {
-                                        String sPrimaryOrSecondary = sAorB;
-                                        buttonPressed = BLEDeviceButton.valueOf(sPrimaryOrSecondary);
-                                    }
-                                }
-                            }
-                            int iTmpTxtOnElementDuringFeedback = getTxtOnElementDuringFeedback(pScored);
-                            String sInfoMsg = getBLEMessage(R.string.ble_score_for_X_changed_by_Y_ble_button_of_Z, pScored, buttonPressed, pInitiatedBy);
-                            if ( m_nrOfBLEDevicesConnected == 1 ) {
-                                sInfoMsg = getBLEMessage(R.string.ble_score_for_X_changed_by_Y_ble_button, pScored, buttonPressed);
+                        } else {
+                            // same player/team pressed a button...
+                            if ( eButtonPressed.equals(m_eInitiateOpponentScoredChangeButton.getOther()) ) {
+                                sDoCancelScore = getBLEMessage(R.string.ble_score_cancelled_by_initiator_x_by_pressing_y, playerWristBand, eButtonPressed);
+                            } else {
+                                Log.w(TAG, "Player " + m_blePlayerToConfirmOwnScore + " to confirm own score by pressing " + m_eConfirmScoreBySelfButton);
+                                iBoard.appendToInfoMessage(".");
                             }
-                            iBoard.showBLEInfoMessage(sInfoMsg, 10);
-                            startVisualFeedbackForScoreChange(pScored, iTmpTxtOnElementDuringFeedback);
-                        }
-                        break;
-                    case changeSide: {
-                        if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
-                            Player player = Player.valueOf(saMethodNArgs[1].toUpperCase());
-                            matchModel.changeSide(player);
-                        }
-                        break;
-                    }
-                    case changeColor: {
-                        if ( saMethodNArgs.length > 1 && (matchModel != null) ) {
-                            Player player = Player.valueOf(saMethodNArgs[1].toUpperCase());
-                            matchModel.setPlayerColor(player, saMethodNArgs.length>2?saMethodNArgs[2]:null);
-                        }
-                        break;
-                    }
-                    case undoLast: {
-                        matchModel.undoLast();
-                        break;
-                    }
-                    case undoLastForScorer: {
-                        if ( saMethodNArgs.length > 1 && (matchModel != null) ) {
-                            Player nonScorer = Player.valueOf(saMethodNArgs[1].toUpperCase());
-                            matchModel.undoLastForScorer(nonScorer);
-                        }
-                        break;
-                    }
-                    case endGame: {
-                        matchModel.endGame();
-                        break;
-                    }
-                    case timestampStartOfGame: {
-                        if ( saMethodNArgs.length > 1 && (matchModel != null) ) {
-                            GameTiming.ChangedBy changedBy = GameTiming.ChangedBy.valueOf(saMethodNArgs[1]);
-                            matchModel.timestampStartOfGame(changedBy);
                         }
-                        break;
-                    }
-                    case cancelTimer: {
-                        cancelTimer();
-                        break;
-                    }
-                    case startTimer: {
-                        if ( saMethodNArgs.length > 1 ) {
-                            //Type timerType = Type.valueOf(saMethodNArgs[1]); // might be empty string in rare cases
-                            Type timerType = Params.getEnumValueFromString(Type.class,saMethodNArgs[1]);
-                            boolean  bAutoStarted = (saMethodNArgs.length>2) ? Boolean.valueOf(saMethodNArgs[2]) : false;
-                            ViewType viewType     = (saMethodNArgs.length>3) ? Params.getEnumValueFromString(ViewType.class,saMethodNArgs[3]): null;
-                            Integer  iInitialSecs = (saMethodNArgs.length>4) ? Integer.parseInt(saMethodNArgs[4]) : null;
-
-                            _showTimer(timerType, bAutoStarted, viewType, iInitialSecs);
+                        if (sDoChangeScore != null) {
+                            Log.i(TAG, "sDoChangeScore : " + sDoChangeScore);
+
+                            stopWaitingForBLEConfirmation();
+                            iBoard.showBLEInfoMessage(sDoChangeScore, 10);
+                            startVisualFeedbackForScoreChange(m_blePlayerToConfirmOwnScore, iTmpTxtOnElementDuringFeedback);
+                            m_blePlayerToConfirmOwnScore = null;
+                        } else if (sDoCancelScore != null) {
+                            Log.i(TAG, "sDoCancelScore : " + sDoCancelScore);
+                            m_blePlayerToConfirmOwnScore = null;
+                            stopWaitingForBLEConfirmation();
+                            iBoard.showBLEInfoMessage(sDoCancelScore, 10);
                         } else {
-                            Log.d(TAG, "Method needs arguments: " + btMethod);
+                            Log.w(TAG, "Score still waiting confirmation? " + m_blePlayerToConfirmOwnScore);
+                            iBoard.appendToInfoMessage(".");
                         }
-                        break;
-                    }
-                    case restartTimerWithSecondsLeft: {
-                        if ( saMethodNArgs.length > 1 ) {
-                            DialogTimerView.restartTimerWithSecondsLeft(Integer.parseInt(saMethodNArgs[1]));
-                            break;
+                    } else {
+                        if ( eButtonPressed.equals(m_eInitiateSelfScoreChangeButton) ) {
+                            Log.w(TAG, String.format("Score for %s entered with button %s now waiting for confirmation by opponent %s pressing %s", playerWristBand, eButtonPressed, playerWristBand.getOther(), m_eConfirmScoreByOpponentButton));
+                            m_blePlayerWaitingForScoreToBeConfirmed = playerWristBand;
+
+                            String sToConfirmMsg = getBLEMessage(R.string.ble_player_x_confirm_score_for_y_by_pressing_z, playerWristBand.getOther(), playerWristBand, m_eConfirmScoreByOpponentButton);
+                            iBoard.showBLEInfoMessage(sToConfirmMsg, -1);
+                            startWaitingForBLEConfirmation(m_blePlayerWaitingForScoreToBeConfirmed, playerWristBand.getOther());
+                        } else if ( eButtonPressed.equals(m_eInitiateOpponentScoredChangeButton) ) {
+                            Log.w(TAG, String.format("Score for opponent entered by %s with button %s now waiting for confirmation by scoring player %s pressing %s", playerWristBand, eButtonPressed, playerWristBand.getOther(), m_eConfirmScoreBySelfButton));
+                            m_blePlayerToConfirmOwnScore = playerWristBand.getOther();
+
+                            String sToConfirmMsg = getBLEMessage(R.string.ble_player_x_confirm_you_scored_by_pressing_y, playerWristBand.getOther(), m_eConfirmScoreBySelfButton);
+                            iBoard.showBLEInfoMessage(sToConfirmMsg, -1);
+                            startWaitingForBLEConfirmation(m_blePlayerToConfirmOwnScore, playerWristBand.getOther());
+                        } else {
+                            Log.w(TAG, String.format("In state waiting for initiate-score-change, button %s does nothing ", eButtonPressed));
+                            if ( PreferenceValues.currentDateIsTestDate() ) {
+                                String sInfoMsg = getBLEMessage(R.string.ble_waiting_initiate_score_change_message, m_eInitiateSelfScoreChangeButton);
+                                iBoard.showBLEInfoMessage(sInfoMsg, 4);
+                            }
                         }
                     }
-                    case recordAppealAndCall: {
-                        if ( saMethodNArgs.length > 2 && (matchModel != null) ) {
-                            Player player = Player.valueOf(saMethodNArgs[1]);
-                            Call   call   = Call  .valueOf(saMethodNArgs[2]);
-                            matchModel.recordAppealAndCall(player, call);
-                        }
-                        break;
+                }
+                break;
+            }
+            case changeScore: {
+                if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
+                    Player player         = command.getPlayer(1);
+                    String sScoreReceived = command.getScoreOfSender();
+                    String sModelScore    = matchModel.getScore(Player.A) + "-" + matchModel.getScore(Player.B);
+                    if ( sScoreReceived.equals("0-0") && sModelScore.equals("0-0") ) {
+                        // if endGame=automatic changeScore might be send to set score to 0-0, but if slave already changed to 0-0, ignore
+                        Log.w(TAG, String.format("Ignoring %s", btMethod));
+                    } else {
+                        matchModel.changeScore(player);
                     }
-                    case recordConduct: {
-                        if ( saMethodNArgs.length > 3 && (matchModel != null) ) {
-                            Player      player      = Player     .valueOf(saMethodNArgs[1].toUpperCase());
-                            Call        call        = Call       .valueOf(saMethodNArgs[2]);
-                            ConductType conductType = ConductType.valueOf(saMethodNArgs[3]);
-                            matchModel.recordConduct(player, call, conductType);
+                }
+                break;
+            }
+            case undoScoreForInitiatorBLE:
+                if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
+                    Player pUndoTriggeredBy = command.getPlayer(1);
+                    Player lastScorer = matchModel.getLastScorer();
+
+                    String sInfoMsg = getBLEMessage(R.string.ble_last_score_for_X_undone_by_ble, pUndoTriggeredBy);
+                    if ( pUndoTriggeredBy.equals(lastScorer) ) {
+                        //matchModel.undoLast(); // triggered by timer after blinking 'undo'
+                        startVisualFeedbackForScoreChange(lastScorer, R.string.uc_undo);
+                        iBoard.showBLEInfoMessage(sInfoMsg, 10);
+                    } else {
+                        if ( lastScorer != null ) {
+                            sInfoMsg = getBLEMessage(R.string.ble_last_score_for_X_can_not_be_undone_by_ble_of_Y, lastScorer, pUndoTriggeredBy);
+                            iBoard.showBLEInfoMessage(sInfoMsg, 10);
                         }
-                        break;
-                    }
-                    case restartScore: {
-                        restartScore();
-                        break;
-                    }
-                    case jsonMatchReceived: {
-                        // do not actually swap sides, but make sure mirrored device displays LR as desired
-                        swapSidesOnBT(iBoard.m_firstPlayerOnScreen); // ??
-                        break;
                     }
-                    case requestCompleteJsonOfMatch: {
-                        sendMatchToOtherBluetoothDevice(false, 2000);
-                        break;
-                    }
-                    case requestCountryFlag: {
-                        if ( saMethodNArgs.length > 1 ) {
-                            sendFlagToOtherBluetoothDevice(this, saMethodNArgs[1]);
+                }
+                break;
+            case changeScoreBLE:
+                if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
+                    // derive score to change from first parameter
+                    Player pScored = command.getPlayer(1);
+
+                    // derive initiated-by-player and by-button-pressed from optional 2nd and 3th parameter(s)
+                    Player pInitiatedBy = pScored;
+                    BLEDeviceButton buttonPressed = null;
+                    int[] iaPosition = {2,3};
+                    for(int iParamPos: iaPosition) {
+                        if ( saMethodNArgs.length > iParamPos ) {
+                            String sAorB = saMethodNArgs[iParamPos].toUpperCase();
+                            if ( sAorB.length() == 1 ) {
+                                pInitiatedBy = command.getPlayer(iParamPos);
+                            } else {
+                                String sPrimaryOrSecondary = sAorB;
+                                buttonPressed = BLEDeviceButton.valueOf(sPrimaryOrSecondary);
+                            }
                         }
-                        break;
                     }
-                    case swapPlayers: {
-                        if ( saMethodNArgs.length > 1 ) {
-                            Player pFirst = Player.valueOf(saMethodNArgs[1].toUpperCase());
-                            swapSides(Toast.LENGTH_LONG, pFirst);
-                        }
-                        break;
+                    int iTmpTxtOnElementDuringFeedback = getTxtOnElementDuringFeedback(pScored);
+                    String sInfoMsg = getBLEMessage(R.string.ble_score_for_X_changed_by_Y_ble_button_of_Z, pScored, buttonPressed, pInitiatedBy);
+                    if ( m_nrOfBLEDevicesConnected == 1 ) {
+                        sInfoMsg = getBLEMessage(R.string.ble_score_for_X_changed_by_Y_ble_button, pScored, buttonPressed);
                     }
-                    case swapDoublePlayers: {
-                        if ( saMethodNArgs.length > 1 ) {
-                            Player player = Player.valueOf(saMethodNArgs[1].toUpperCase());
-                            _swapDoublePlayers(player);
+                    iBoard.showBLEInfoMessage(sInfoMsg, 10);
+                    startVisualFeedbackForScoreChange(pScored, iTmpTxtOnElementDuringFeedback);
+                }
+                break;
+            case changeSide: {
+                if ( (saMethodNArgs.length > 1) && (matchModel != null) ) {
+                    Player player = Player.valueOf(saMethodNArgs[1].toUpperCase());
+                    matchModel.changeSide(player);
+                }
+                break;
+            }
+            case changeColor: {
+                if ( saMethodNArgs.length > 1 && (matchModel != null) ) {
+                    Player player = Player.valueOf(saMethodNArgs[1].toUpperCase());
+                    matchModel.setPlayerColor(player, saMethodNArgs.length>2?saMethodNArgs[2]:null);
+                }
+                break;
+            }
+            case undoLast: {
+                matchModel.undoLast();
+                break;
+            }
+            case undoLastForScorer: {
+                if ( saMethodNArgs.length > 1 && (matchModel != null) ) {
+                    Player nonScorer = Player.valueOf(saMethodNArgs[1].toUpperCase());
+                    matchModel.undoLastForScorer(nonScorer);
+                }
+                break;
+            }
+            case endGame: {
+                matchModel.endGame();
+                break;
+            }
+            case timestampStartOfGame: {
+                if ( saMethodNArgs.length > 1 && (matchModel != null) ) {
+                    GameTiming.ChangedBy changedBy = GameTiming.ChangedBy.valueOf(saMethodNArgs[1]);
+                    matchModel.timestampStartOfGame(changedBy);
+                }
+                break;
+            }
+            case cancelTimer: {
+                cancelTimer();
+                break;
+            }
+            case startTimer: {
+                if ( saMethodNArgs.length > 1 ) {
+                    //Type timerType = Type.valueOf(saMethodNArgs[1]); // might be empty string in rare cases
+                    Type timerType = Params.getEnumValueFromString(Type.class,saMethodNArgs[1]);
+                    boolean  bAutoStarted = (saMethodNArgs.length>2) ? Boolean.valueOf(saMethodNArgs[2]) : false;
+                    ViewType viewType     = (saMethodNArgs.length>3) ? Params.getEnumValueFromString(ViewType.class,saMethodNArgs[3]): null;
+                    Integer  iInitialSecs = (saMethodNArgs.length>4) ? Integer.parseInt(saMethodNArgs[4]) : null;
+
+                    _showTimer(timerType, bAutoStarted, viewType, iInitialSecs);
+                } else {
+                    Log.d(TAG, "Method needs arguments: " + btMethod);
+                }
+                break;
+            }
+            case restartTimerWithSecondsLeft: {
+                if ( saMethodNArgs.length > 1 ) {
+                    DialogTimerView.restartTimerWithSecondsLeft(Integer.parseInt(saMethodNArgs[1]));
+                    break;
+                }
+            }
+            case recordAppealAndCall: {
+                if ( saMethodNArgs.length > 2 && (matchModel != null) ) {
+                    Player player = Player.valueOf(saMethodNArgs[1]);
+                    Call   call   = Call  .valueOf(saMethodNArgs[2]);
+                    matchModel.recordAppealAndCall(player, call);
+                }
+                break;
+            }
+            case recordConduct: {
+                if ( saMethodNArgs.length > 3 && (matchModel != null) ) {
+                    Player      player      = Player     .valueOf(saMethodNArgs[1].toUpperCase());
+                    Call        call        = Call       .valueOf(saMethodNArgs[2]);
+                    ConductType conductType = ConductType.valueOf(saMethodNArgs[3]);
+                    matchModel.recordConduct(player, call, conductType);
+                }
+                break;
+            }
+            case restartScore: {
+                restartScore();
+                break;
+            }
+            case jsonMatchReceived: {
+                // do not actually swap sides, but make sure mirrored device displays LR as desired
+                swapSidesOnBT(iBoard.m_firstPlayerOnScreen); // ??
+                break;
+            }
+            case requestCompleteJsonOfMatch: {
+                sendMatchToOtherBluetoothDevice(false, 2000);
+                break;
+            }
+            case requestCountryFlag: {
+                if ( saMethodNArgs.length > 1 ) {
+                    sendFlagToOtherBluetoothDevice(this, saMethodNArgs[1]);
+                }
+                break;
+            }
+            case swapPlayers: {
+                if ( saMethodNArgs.length > 1 ) {
+                    Player pFirst = Player.valueOf(saMethodNArgs[1].toUpperCase());
+                    swapSides(Toast.LENGTH_LONG, pFirst);
+                }
+                break;
+            }
+            case swapDoublePlayers: {
+                if ( saMethodNArgs.length > 1 ) {
+                    Player player = Player.valueOf(saMethodNArgs[1].toUpperCase());
+                    _swapDoublePlayers(player);
+                }
+                break;
+            }
+            case toggleGameScoreView: {
+                if ( Brand.isGameSetMatch() ) {
+                    toggleSetScoreView();
+                } else {
+                    toggleGameScoreView();
+                }
+                break;
+            }
+            case Toast: {
+                if ( saMethodNArgs.length > 1 ) {
+                    String sMsg = saMethodNArgs[1];
+                    if ( StringUtil.isInteger(sMsg) ) {
+                        // a resource id was send
+                        try {
+                            sMsg = getString(Integer.parseInt(sMsg), (mBluetoothHandler.getOtherDeviceName()) );
+                        } catch (Exception e) {
+                            //e.printStackTrace();
                         }
-                        break;
                     }
-                    case toggleGameScoreView: {
-                        if ( Brand.isGameSetMatch() ) {
-                            toggleSetScoreView();
+                    Toast.makeText(this, sMsg, Toast.LENGTH_LONG).show();
+                }
+                break;
+            }
+            case resume: // fall through
+            case resume_confirmed: {
+                String sJson = matchModel.toJsonString(null, null, null);
+                int iJsonLengthHere = sJson.length();
+
+                setWearableRole(WearRole.AppRunningOnBoth);
+
+                Log.d(TAG, "[resume|resume_confirmed] Received " + btMethod);
+                if ( btMethod.equals(BTMethods.resume) ) {
+                    String sMessage = BTMethods.resume_confirmed + "(" + matchModel.getMatchStartTimeHHMMSSXXX() + "," + iJsonLengthHere + ")";
+                    Log.d(TAG, "Send " + sMessage);
+                    sendMessageToWearablesUnchecked(sMessage);
+                } else {
+                    // btMethod = resume confirmed
+                    String sMatchStartTimeHere        = matchModel.getMatchStartTimeHHMMSSXXX();
+                    String sMatchStartTimeCounterPart = ( saMethodNArgs.length > 1 ) ? saMethodNArgs[1]: null;
+                    int    iMatchJsonLengthOther      = ( saMethodNArgs.length > 2 ) ? Integer.parseInt(saMethodNArgs[2]) : 0;
+                    Log.d(TAG, String.format("Match times (here - counterpart): %s - %s", sMatchStartTimeHere, sMatchStartTimeCounterPart));
+                    if ( sMatchStartTimeHere.equals(sMatchStartTimeCounterPart) ) {
+                        Log.d(TAG, String.format("Match json length (here - counterpart) : %d - %d", iJsonLengthHere, iMatchJsonLengthOther));
+                        // sync has happened before, keep them in sync. Take json from device that is 'biggest'
+                        if ( iJsonLengthHere > iMatchJsonLengthOther ) {
+                            sendMatchFromToWearable(sJson);
+                        } else if ( iJsonLengthHere < iMatchJsonLengthOther ) {
+                            sendMessageToWearablesUnchecked(BTMethods.requestCompleteJsonOfMatch);
                         } else {
-                            toggleGameScoreView();
+                            // assume matches are still in sync
                         }
-                        break;
+                    } else if ( isWearable() == false ) {
+                        pullOrPushMatchOverBluetoothWearable( isWearable() ? "Handheld" : "Wearable");
+                    } else {
+                        Log.d(TAG, "Not auto syncing for wearable");
                     }
-                    case Toast: {
-                        if ( saMethodNArgs.length > 1 ) {
-                            String sMsg = saMethodNArgs[1];
-                            if ( StringUtil.isInteger(sMsg) ) {
-                                // a resource id was send
-                                try {
-                                    sMsg = getString(Integer.parseInt(sMsg), (mBluetoothHandler.getOtherDeviceName()) );
-                                } catch (Exception e) {
-                                    //e.printStackTrace();
+                }
+                break;
+            }
+            case paused: {
+                setWearableRole(WearRole.PausedOnOther);
+                break;
+            }
+/*
+            case openSuggestMatchSyncDialogOnOtherPaired: {
+                pullOrPushMatchOverBluetoothWearable( isWearable() ? "Handheld" : "Wearable");
+                break;
+            }
+*/
+            case lock: {
+                handleMenuItem(R.id.sb_lock);
+                break;
+            }
+            case unlock: {
+                handleMenuItem(R.id.sb_unlock);
+                break;
+            }
+            default:
+                Log.w(TAG, "Not handling method " + btMethod);
+                break;
+        }
+        switch (msgSource) {
+            case Wearable:
+                // message is coming from paired wearable
+                if ( btMethod.verifyScore() ) {
+                    String sScoreReceived = command.getScoreOfSender();
+                    String sModelScore    = matchModel.getScore(Player.A) + "-" + matchModel.getScore(Player.B);
+                    if ( sModelScore.equals(sScoreReceived) == false ) {
+                        Log.d(TAG, String.format("Scores don't match: received %s , here %s", sScoreReceived, sModelScore));
+                        boolean bRequestModel = true;
+                        if ( matchModel.isPossibleGameVictory() && sScoreReceived.equals("0-0") ) {
+                            if ( dialogManager.isDialogShowing() ) {
+                                if ( dialogManager.baseDialog instanceof EndGame ) {
+                                    EndGame endGame = (EndGame) dialogManager.baseDialog;
+                                    endGame.handleButtonClick(EndGame.BTN_END_GAME_PLUS_TIMER);
+                                    bRequestModel = false;
                                 }
                             }
-                            Toast.makeText(this, sMsg, Toast.LENGTH_LONG).show();
                         }
-                        break;
-                    }
-                    case resume: // fall through
-                    case resume_confirmed: {
-                        String sJson = matchModel.toJsonString(null, null, null);
-                        int iJsonLengthHere = sJson.length();
-
-                        setWearableRole(WearRole.AppRunningOnBoth);
-
-                        Log.d(TAG, "[resume|resume_confirmed] Received " + btMethod);
-                        if ( btMethod.equals(BTMethods.resume) ) {
-                            String sMessage = BTMethods.resume_confirmed + "(" + matchModel.getMatchStartTimeHHMMSSXXX() + "," + iJsonLengthHere + ")";
-                            Log.d(TAG, "Send " + sMessage);
-                            sendMessageToWearablesUnchecked(sMessage);
-                        } else {
-                            // btMethod = resume confirmed
-                            String sMatchStartTimeHere        = matchModel.getMatchStartTimeHHMMSSXXX();
-                            String sMatchStartTimeCounterPart = ( saMethodNArgs.length > 1 ) ? saMethodNArgs[1]: null;
-                            int    iMatchJsonLengthOther      = ( saMethodNArgs.length > 2 ) ? Integer.parseInt(saMethodNArgs[2]) : 0;
-                            Log.d(TAG, String.format("Match times (here - counterpart): %s - %s", sMatchStartTimeHere, sMatchStartTimeCounterPart));
-                            if ( sMatchStartTimeHere.equals(sMatchStartTimeCounterPart) ) {
-                                Log.d(TAG, String.format("Match json length (here - counterpart) : %d - %d", iJsonLengthHere, iMatchJsonLengthOther));
-                                // sync has happened before, keep them in sync. Take json from device that is 'biggest'
-                                if ( iJsonLengthHere > iMatchJsonLengthOther ) {
-                                    sendMatchFromToWearable(sJson);
-                                } else if ( iJsonLengthHere < iMatchJsonLengthOther ) {
-                                    sendMessageToWearablesUnchecked(BTMethods.requestCompleteJsonOfMatch);
-                                } else {
-                                    // assume matches are still in sync
-                                }
-                            } else if ( isWearable() == false ) {
-                                pullOrPushMatchOverBluetoothWearable( isWearable() ? "Handheld" : "Wearable");
-                            } else {
-                                Log.d(TAG, "Not auto syncing for wearable");
-                            }
+                        if ( bRequestModel ) {
+                            sendMessageToWearablesUnchecked(BTMethods.requestCompleteJsonOfMatch);
                         }
-                        break;
-                    }
-                    case paused: {
-                        setWearableRole(WearRole.PausedOnOther);
-                        break;
                     }
-    /*
-                    case openSuggestMatchSyncDialogOnOtherPaired: {
-                        pullOrPushMatchOverBluetoothWearable( isWearable() ? "Handheld" : "Wearable");
-                        break;
-                    }
-    */
-                    case lock: {
-                        handleMenuItem(R.id.sb_lock);
-                        break;
-                    }
-                    case unlock: {
-                        handleMenuItem(R.id.sb_unlock);
-                        break;
+                } else {
+                    //Log.d(TAG, "[WEAR] verify score not required for " + btMethod);
+                }
+                break;
+            case BluetoothMirror:
+                if ( BTRole.Slave.equals(m_blueToothRole) && btMethod.verifyScore() ) {
+                    // verify score of model against score received. If not equal request complete matchmodel to get in sync
+                    String sScoreReceived = command.getScoreOfSender();
+                    String sModelScore    = matchModel.getScore(Player.A) + "-" + matchModel.getScore(Player.B);
+                    if ( sModelScore.equals(sScoreReceived) == false ) {
+                        Log.d(TAG, String.format("Scores don't match: received %s , here %s", sScoreReceived, sModelScore));
+                        writeMethodToBluetooth(BTMethods.requestCompleteJsonOfMatch);
                     }
-                    default:
-                        Log.w(TAG, "Not handling method " + btMethod);
-                        break;
+                    //hidePresentationEndOfGame();
                 }
-                switch (msgSource) {
-                    case Wearable:
-                        // message is coming from paired wearable
-                        if ( btMethod.verifyScore() ) {
-                            String sScoreReceived = saMethodNArgs[saMethodNArgs.length - 1];
-                            String sModelScore    = matchModel.getScore(Player.A) + "-" + matchModel.getScore(Player.B);
-                            if ( sModelScore.equals(sScoreReceived) == false ) {
-                                Log.d(TAG, String.format("Scores don't match: received %s , here %s", sScoreReceived, sModelScore));
-                                boolean bRequestModel = true;
-                                if ( matchModel.isPossibleGameVictory() && sScoreReceived.equals("0-0") ) {
-                                    if ( dialogManager.isDialogShowing() ) {
-                                        if ( dialogManager.baseDialog instanceof EndGame ) {
-                                            EndGame endGame = (EndGame) dialogManager.baseDialog;
-                                            endGame.handleButtonClick(EndGame.BTN_END_GAME_PLUS_TIMER);
-                                            bRequestModel = false;
-                                        }
-                                    }
-                                }
-                                if ( bRequestModel ) {
-                                    sendMessageToWearablesUnchecked(BTMethods.requestCompleteJsonOfMatch);
-                                }
-                            }
-                        } else {
-                            //Log.d(TAG, "[WEAR] verify score not required for " + btMethod);
-                        }
-                        break;
-                    case BluetoothMirror:
-                        if ( BTRole.Slave.equals(m_blueToothRole) && btMethod.verifyScore() ) {
-                            // verify score of model against score received. If not equal request complete matchmodel to get in sync
-                            String sScoreReceived = saMethodNArgs[saMethodNArgs.length - 1];
-                            String sModelScore    = matchModel.getScore(Player.A) + "-" + matchModel.getScore(Player.B);
-                            if ( sModelScore.equals(sScoreReceived) == false ) {
-                                Log.d(TAG, String.format("Scores don't match: received %s , here %s", sScoreReceived, sModelScore));
-                                writeMethodToBluetooth(BTMethods.requestCompleteJsonOfMatch);
-                            }
-                            //hidePresentationEndOfGame();
-                        }
-                        break;
-                    case FirebaseCloudMessage:
-                        if ( PreferenceValues.showToastMessageForEveryReceivedFCMMessage(this)) {
-                            Toast.makeText(this, "Score changed by FCM message: " + readMessage, Toast.LENGTH_SHORT).show();
-                        }
-                        break;
+                break;
+            case FirebaseCloudMessage:
+                if ( PreferenceValues.showToastMessageForEveryReceivedFCMMessage(this)) {
+                    Toast.makeText(this, "Score changed by FCM message: " + sMethodNArgs, Toast.LENGTH_SHORT).show();
                 }
-            }
+                break;
         }
     }
 
@@ -201,8 +201,12 @@ public class BadmintonModel extends Model
         return super.getResultShort_SQ_TT_BM();
     }
 
-    @Override public void changeScore(Player player) {
-        super.changeScore_TT_BM_RL(player, getSport());
+    @Override public void changeScore(final Player player) {
+        doScoringAction(ScoringAction.changeScore, new Runnable() {
+            @Override public void run() {
+                BadmintonModel.super.changeScore_TT_BM_RL(player, getSport());
+            }
+        }, player);
     }
 
     //-------------------------------
@@ -31,6 +31,7 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
@@ -224,8 +225,21 @@ public class GSMModel extends Model
         return super.getNrOfPointsToWinGame();
     }
 
+    /** points of all sets, cached until the score changes */
+    private Map<Player, Integer> m_totalPointsScored = null;
+    @Override protected void clearDerivedScoreState() {
+        super.clearDerivedScoreState();
+        m_totalPointsScored = null;
+    }
+
     @Override public Map<Player, Integer> getTotalNumberOfPointsScored() {
-        Map<Player, Integer> pointsWon = new HashMap<Player, Integer>();
+        if ( m_totalPointsScored == null ) {
+            m_totalPointsScored = Collections.unmodifiableMap(calculateTotalNumberOfPointsScored());
+        }
+        return m_totalPointsScored;
+    }
+    private Map<Player, Integer> calculateTotalNumberOfPointsScored() {
+        Map<Player, Integer> pointsWon = new Score();
         if ( ListUtil.isEmpty(m_lPlayer2EndPointsOfGames_PerSet)) { return pointsWon; }
 
         for( List<Map<Player, Integer>> lPlayer2EndPointsOfGames: m_lPlayer2EndPointsOfGames_PerSet) {
@@ -406,6 +420,29 @@ public class GSMModel extends Model
     /** number of sets each player has won: {A=2, B=1} */
     private List<Player>                     m_lSetWinner           = null;
 
+    @Override void getStateValues(Map<String, Object> mValues) {
+        super.getStateValues(mValues);
+        mValues.put("lGamesScorelineHistory_PerSet"       , m_lGamesScorelineHistory_PerSet);
+        mValues.put("lPlayer2GamesWon_PerSet"             , m_lPlayer2GamesWon_PerSet);
+        mValues.put("lPlayer2EndPointsOfGames_PerSet"     , m_lPlayer2EndPointsOfGames_PerSet);
+        mValues.put("lGamesTiming_PerSet"                 , m_lGamesTiming_PerSet);
+        mValues.put("lSetCountHistory"                    , m_lSetCountHistory);
+        mValues.put("lSetWinner"                          , m_lSetWinner);
+        mValues.put("iLastBallChangeOccurredAtStartOfGame", m_iLastBallChangeOccurredAtStartOfGame);
+    }
+    /** The lists of the set in progress are the same instances as the ones of the super class, also after a restore */
+    @SuppressWarnings("unchecked")
+    @Override void setStateValues(Map<String, Object> mValues) {
+        super.setStateValues(mValues);
+        m_lGamesScorelineHistory_PerSet        = (List<List<List<ScoreLine>>>)      mValues.get("lGamesScorelineHistory_PerSet");
+        m_lPlayer2GamesWon_PerSet              = (List<List<Map<Player, Integer>>>) mValues.get("lPlayer2GamesWon_PerSet");
+        m_lPlayer2EndPointsOfGames_PerSet      = (List<List<Map<Player, Integer>>>) mValues.get("lPlayer2EndPointsOfGames_PerSet");
+        m_lGamesTiming_PerSet                  = (List<List<GameTiming>>)           mValues.get("lGamesTiming_PerSet");
+        m_lSetCountHistory                     = (List<Map<Player, Integer>>)       mValues.get("lSetCountHistory");
+        m_lSetWinner                           = (List<Player>)                     mValues.get("lSetWinner");
+        m_iLastBallChangeOccurredAtStartOfGame = (Integer)                          mValues.get("iLastBallChangeOccurredAtStartOfGame");
+    }
+
     public Map<Player, Integer> getSetsWon() {
         if ( ListUtil.isEmpty(m_lSetCountHistory) ) {
             if ( m_lSetCountHistory == null ) {
@@ -432,7 +469,7 @@ public class GSMModel extends Model
                 mPlayer2GamesWonLast = ListUtil.getLast(player2GamesWonInSet);
                 if ( mPlayer2GamesWonLast != null ) {
                     if ( bCloneMaps ) {
-                        lReturn.add(new HashMap<>(mPlayer2GamesWonLast));
+                        lReturn.add(new Score(mPlayer2GamesWonLast));
                     } else {
                         lReturn.add(mPlayer2GamesWonLast);
                     }
@@ -529,9 +566,9 @@ public class GSMModel extends Model
     }
 
     private void endSet(Player pWinner, int iGamesLeader, int iGamesTrailer, boolean bNotifyListeners) {
-        HashMap<Player, Integer> scores = new HashMap<Player, Integer>();
-        scores.put(pWinner           , iGamesLeader);
-        scores.put(pWinner.getOther(), iGamesTrailer);
+        Score scores = new Score();
+        scores.setInt(pWinner           , iGamesLeader);
+        scores.setInt(pWinner.getOther(), iGamesTrailer);
         addSetScore(scores);
 
         addNewSetScoreDetails(false);
@@ -631,9 +668,7 @@ public class GSMModel extends Model
         m_lSetWinner.add(winner);
 
         // clone to get current score before adding set
-        Map<Player, Integer> player2SetsWon = new HashMap<Player, Integer>();
-        Map<Player, Integer> prevSetsWon = getSetsWon();
-        player2SetsWon.putAll(prevSetsWon);
+        Map<Player, Integer> player2SetsWon = new Score(getSetsWon());
 
         MapUtil.increaseCounter(player2SetsWon, winner);
         m_lSetCountHistory.add(player2SetsWon);
@@ -792,7 +827,14 @@ public class GSMModel extends Model
         }
     }
 
-    @Override public void changeScore(Player player) {
+    @Override public void changeScore(final Player player) {
+        doScoringAction(ScoringAction.changeScore, new Runnable() {
+            @Override public void run() {
+                _changeScore(player);
+            }
+        }, player);
+    }
+    private void _changeScore(Player player) {
         int iDelta = 1;
         Integer iNewScore = determineNewScoreForPlayer(player, iDelta,false);
         ScoreLine scoreLine = getScoreLine(player, iNewScore, m_nextServeSide);
@@ -826,6 +868,15 @@ public class GSMModel extends Model
     }
 
     @Override public synchronized void undoLast() {
+        doScoringAction(ScoringAction.undoLast, new Runnable() {
+            @Override public void run() {
+                if ( undoFromSnapshot() == false ) {
+                    _undoLast();
+                }
+            }
+        });
+    }
+    private void _undoLast() {
         boolean bGoingBackASet = false;
         Map<Player, Integer> scoreOfGameInProgress = getScoreOfGameInProgress();
         if ( MapUtil.getMaxValue(scoreOfGameInProgress) == 0 ) {
@@ -937,7 +988,14 @@ public class GSMModel extends Model
     }
 
     /** overridden to check at the end of a game that it is also end of a set */
-    @Override public void endGame(boolean bNotifyListeners, boolean bStartNewGame) {
+    @Override public void endGame(final boolean bNotifyListeners, final boolean bStartNewGame) {
+        doScoringAction(ScoringAction.endGame, new Runnable() {
+            @Override public void run() {
+                _endGame(bNotifyListeners);
+            }
+        }, bNotifyListeners, bStartNewGame);
+    }
+    private void _endGame(boolean bNotifyListeners) {
         // invokes startNewGame() in the end
         super.endGame(bNotifyListeners, false); // updates m_player2GamesWon of super class
 
@@ -77,6 +77,16 @@ public class GameTiming implements Serializable
         triggerListeners(Changed.Both, ChangedBy.TimingCreated);
     }
 
+    /** Copy for undo (see ModelSnapshot). Does not trigger the listeners */
+    GameTiming(GameTiming other) {
+        this.start                  = other.start;
+        this.end                    = other.end;
+        this.startTimeIsSetManually = other.startTimeIsSetManually;
+        this.iGameNrZeroBased       = other.iGameNrZeroBased;
+        this.scoreTimings           = (other.scoreTimings == null) ? null : new ArrayList<Integer>(other.scoreTimings);
+        setTimingListeners(other.onTimingChangedListeners);
+    }
+
     private void setTimingListeners(List<OnTimingChangedListener> onTimingChangedListeners) {
         this.onTimingChangedListeners = onTimingChangedListeners;
     }
@@ -133,14 +143,14 @@ public class GameTiming implements Serializable
     }
     private long update(boolean bStart, int iOffsetInSeconds, ChangedBy changedBy) {
         if ( bStart ) {
-            this.start = System.currentTimeMillis() + (iOffsetInSeconds * 1000);
+            this.start = ModelClock.now() + (iOffsetInSeconds * 1000);
             if ( this.start > this.end ) {
                 this.end = this.start;
             }
             triggerListeners(Changed.Start, changedBy);
             return this.start;
         } else {
-            this.end = System.currentTimeMillis();
+            this.end = ModelClock.now();
             triggerListeners(Changed.End, changedBy);
             return this.end;
         }
@@ -149,7 +159,7 @@ public class GameTiming implements Serializable
     /** record the 'seconds since start of game' for the scoreline */
     int addTiming() {
         if ( scoreTimings == null ) { return -1; }
-        long lMsSinceStartOfGame      = System.currentTimeMillis() - this.start;
+        long lMsSinceStartOfGame      = ModelClock.now() - this.start;
         int  iSecondsSinceStartOfGame = DateUtil.convertToSeconds(lMsSinceStartOfGame);
         addTiming(iSecondsSinceStartOfGame);
         return iSecondsSinceStartOfGame;
@@ -136,6 +136,14 @@ public abstract class Model implements Serializable
 		/** Invoked each time a 'call' is recorded into the model */
         void OnBrokenEquipmentChanged(BrokenEquipment equipment, Player affectedPlayer);
     }
+    public interface OnScoringActionListener extends OnModelChangeListener {
+        /**
+         * Invoked once for each scoring action triggered from outside the model, after it has been applied.
+         * Nested invocations (e.g. undoLast() invoking itself, changeScore() ending a game) are not reported.
+         * Arguments are those of the model method with the same name as the action.
+         */
+        void OnScoringAction(ScoringAction action, Object... args);
+    }
 
     transient private List<OnScoreChangeListener>        onScoreChangeListeners          = new ArrayList<OnScoreChangeListener>();
     transient private List<OnPlayerChangeListener>       onPlayerChangeListeners         = new ArrayList<OnPlayerChangeListener>();
@@ -147,6 +155,7 @@ public abstract class Model implements Serializable
     transient         List<OnComplexChangeListener>      onComplexChangeListeners        = new ArrayList<OnComplexChangeListener>();
     transient private List<OnBrokenEquipmentListener>    onBrokenEquipmentListeners      = new ArrayList<OnBrokenEquipmentListener>();
     transient private List<OnPowerPlayChangeListener>    onPowerPlayChangeListener       = new ArrayList<>();
+    transient private List<OnScoringActionListener>      onScoringActionListeners        = new ArrayList<>();
     transient private List<OnLockChangeListener>         onLockChangeListeners           = new ArrayList<OnLockChangeListener>();
     transient private List<GameTiming.OnTimingChangedListener> onTimingChangedListeners  = new ArrayList<GameTiming.OnTimingChangedListener>();
 
@@ -161,6 +170,7 @@ public abstract class Model implements Serializable
         iCnt += ListUtil.removeObjects(onCallChangeListeners        , sClassNameFilter);
         iCnt += ListUtil.removeObjects(onBrokenEquipmentListeners   , sClassNameFilter);
         iCnt += ListUtil.removeObjects(onPowerPlayChangeListener    , sClassNameFilter);
+        iCnt += ListUtil.removeObjects(onScoringActionListeners     , sClassNameFilter);
         iCnt += ListUtil.removeObjects(onComplexChangeListeners     , sClassNameFilter);
         iCnt += ListUtil.removeObjects(onLockChangeListeners        , sClassNameFilter);
         iCnt += ListUtil.removeObjects(onTimingChangedListeners     , sClassNameFilter);
@@ -177,6 +187,7 @@ public abstract class Model implements Serializable
         registerListeners(lCopyFrom.onCallChangeListeners);
         registerListeners(lCopyFrom.onBrokenEquipmentListeners);
         registerListeners(lCopyFrom.onPowerPlayChangeListener);
+        registerListeners(lCopyFrom.onScoringActionListeners);
         registerListeners(lCopyFrom.onComplexChangeListeners);
         registerListeners(lCopyFrom.onLockChangeListeners);
         registerListeners(lCopyFrom.onTimingChangedListeners);
@@ -236,6 +247,9 @@ public abstract class Model implements Serializable
         if ( changedListener instanceof OnPowerPlayChangeListener ) {
             onPowerPlayChangeListener.add((OnPowerPlayChangeListener) changedListener);
         }
+        if ( changedListener instanceof OnScoringActionListener ) {
+            onScoringActionListeners.add((OnScoringActionListener) changedListener);
+        }
         if ( changedListener instanceof OnLockChangeListener ) {
             OnLockChangeListener lockChangeListener = (OnLockChangeListener) changedListener;
             onLockChangeListeners.add(lockChangeListener);
@@ -298,10 +312,7 @@ public abstract class Model implements Serializable
     //------------------------
 
     Map<Player, Integer> getZeroZeroMap() {
-        Map<Player, Integer> mZeroZero = new HashMap<>();
-        mZeroZero.put(Player.A, 0);
-        mZeroZero.put(Player.B, 0);
-        return mZeroZero;
+        return Score.zeroZero();
     }
 
     public final static int UNDEFINED_VALUE = -1;
@@ -667,24 +678,32 @@ public abstract class Model implements Serializable
     }
 
     /** Invoked from GUI only */
-    public void changeSide(Player player) {
-        boolean bSamePlayer = player.equals(m_pServer);
-        if ( bSamePlayer ) {
-            setServerAndSide(null, m_nextServeSide.getOther(), null);
-        } else {
-            setServerAndSide(player, m_player2LastServeSide.get(player), null);
-        }
+    public void changeSide(final Player player) {
+        doScoringAction(ScoringAction.changeSide, new Runnable() {
+            @Override public void run() {
+                boolean bSamePlayer = player.equals(m_pServer);
+                if ( bSamePlayer ) {
+                    setServerAndSide(null, m_nextServeSide.getOther(), null);
+                } else {
+                    setServerAndSide(player, m_player2LastServeSide.get(player), null);
+                }
+            }
+        }, player);
     }
 
     /** invoked from BrokenWhat dialog */
-    public void recordBroken(Player player, BrokenEquipment brokenEquipment) {
-        ScoreLine slBroken = new ScoreLine(player, brokenEquipment);
-        addScoreLine(slBroken, true);
-
-        setDirty(false);
-        for(OnBrokenEquipmentListener l: onBrokenEquipmentListeners) {
-            l.OnBrokenEquipmentChanged(brokenEquipment, player);
-        }
+    public void recordBroken(final Player player, final BrokenEquipment brokenEquipment) {
+        doScoringAction(ScoringAction.recordBroken, new Runnable() {
+            @Override public void run() {
+                ScoreLine slBroken = new ScoreLine(player, brokenEquipment);
+                addScoreLine(slBroken, true);
+
+                setDirty(false);
+                for(OnBrokenEquipmentListener l: onBrokenEquipmentListeners) {
+                    l.OnBrokenEquipmentChanged(brokenEquipment, player);
+                }
+            }
+        }, player, brokenEquipment);
     }
 
     public boolean isLastPointHandout() {
@@ -712,15 +731,19 @@ public abstract class Model implements Serializable
     //-------------------------------
     // timeout
     //-------------------------------
-    public void recordTimeout(Player p, boolean bAddScoreline) {
-        String sAtScore = getResultShort() + "," + getScore(Player.A) + "-" + getScore(Player.B);
-        String sOld = m_player2TimeoutInfo.put(p, sAtScore);
-        if ( sOld != null ) {
-            m_player2TimeoutInfo.put(p, sOld + ";" + sAtScore);
-        }
-        if ( bAddScoreline ) {
-            addScoreLine(new ScoreLine(p, Misc.TO), true);
-        }
+    public void recordTimeout(final Player p, final boolean bAddScoreline) {
+        doScoringAction(ScoringAction.recordTimeout, new Runnable() {
+            @Override public void run() {
+                String sAtScore = getResultShort() + "," + getScore(Player.A) + "-" + getScore(Player.B);
+                String sOld = m_player2TimeoutInfo.put(p, sAtScore);
+                if ( sOld != null ) {
+                    m_player2TimeoutInfo.put(p, sOld + ";" + sAtScore);
+                }
+                if ( bAddScoreline ) {
+                    addScoreLine(new ScoreLine(p, Misc.TO), true);
+                }
+            }
+        }, p, bAddScoreline);
     }
     public String getTimeoutInfo(Player p) {
         return m_player2TimeoutInfo.get(p);
@@ -758,7 +781,14 @@ public abstract class Model implements Serializable
     public int getNrOfPowerPlaysPerMatch() {
         return m_maxNrOfPowerPlays;
     }
-    public void markNextRallyAsPowerPlayFor(Player player) {
+    public void markNextRallyAsPowerPlayFor(final Player player) {
+        doScoringAction(ScoringAction.markNextRallyAsPowerPlayFor, new Runnable() {
+            @Override public void run() {
+                _markNextRallyAsPowerPlayFor(player);
+            }
+        }, player);
+    }
+    private void _markNextRallyAsPowerPlayFor(Player player) {
         // TODO: can this be done if player has gameball already?? For now assume: no
         PowerPlayForPlayer powerPlayForPlayer = null;
         int iUsedPowerPlays = MapUtil.getInt(m_player2NrOfPowerPlaysUsed, player, 0);
@@ -840,7 +870,11 @@ public abstract class Model implements Serializable
 
     /** returns the difference taking all points into account */
     public Map<Player, Integer> getPointsDiff(boolean bIncludeGameInProgress) {
-        Map<Player, Integer> pointsWon = _getTotalNumberOfPointsScored(bIncludeGameInProgress);
+        Map<Player, Integer> mCached = m_pointsDiff.get(bIncludeGameInProgress);
+        if ( mCached != null ) {
+            return mCached;
+        }
+        Map<Player, Integer> pointsWon = new Score(_getTotalNumberOfPointsScored(bIncludeGameInProgress));
         int iMax = MapUtil.getMaxValue(pointsWon);
         int iMin = MapUtil.getMinValue(pointsWon);
         if ( iMax > iMin ) {
@@ -851,7 +885,9 @@ public abstract class Model implements Serializable
             pointsWon.put(Player.A, 0);
             pointsWon.put(Player.B, 0);
         }
-        return pointsWon;
+        mCached = Collections.unmodifiableMap(pointsWon);
+        m_pointsDiff.put(bIncludeGameInProgress, mCached);
+        return mCached;
     }
 
     void addScoreLine(ScoreLine slCall, boolean bAddTiming) {
@@ -874,7 +910,7 @@ public abstract class Model implements Serializable
                         int iDiffBetweenEndOfPrevAndStartOfCurrent = DateUtil.convertToSeconds(gameTimingCurrent.getStart() - gameTimingPrevious.getEnd());
                         if (iDiffBetweenEndOfPrevAndStartOfCurrent < 30) {
                             // adjust start of game
-                            int iSecondsPassed = DateUtil.convertToSeconds(System.currentTimeMillis() - gameTimingCurrent.getStart());
+                            int iSecondsPassed = DateUtil.convertToSeconds(ModelClock.now() - gameTimingCurrent.getStart());
                             if (iSecondsPassed > I_NR_OF_SECS_CORRECTION) {
                                 gameTimingCurrent.updateStart(-1 * I_NR_OF_SECS_CORRECTION, GameTiming.ChangedBy.FirstScoreOfGameEntered);
                             }
@@ -911,14 +947,14 @@ public abstract class Model implements Serializable
             // score for the server
 
             // first update history array
-            if (m_pServer.equals(Player.A)) scoreLine = new ScoreLine( sCurrentSide, iNewScore, null        , null      );
-            else                            scoreLine = new ScoreLine( null        , null     , sCurrentSide, iNewScore );
+            if (m_pServer.equals(Player.A)) scoreLine = ScoreLine.valueOf( sCurrentSide, iNewScore, null        , null      );
+            else                            scoreLine = ScoreLine.valueOf( null        , null     , sCurrentSide, iNewScore );
         } else {
             // hand-out: score for receiver
 
             // first update history array
-            if (m_pServer.equals(Player.A)) scoreLine = new ScoreLine( sCurrentSide, null     , null        , iNewScore );
-            else                            scoreLine = new ScoreLine( null        , iNewScore, sCurrentSide, null      );
+            if (m_pServer.equals(Player.A)) scoreLine = ScoreLine.valueOf( sCurrentSide, null     , null        , iNewScore );
+            else                            scoreLine = ScoreLine.valueOf( null        , iNewScore, sCurrentSide, null      );
         }
         return scoreLine;
     }
@@ -1023,7 +1059,16 @@ public abstract class Model implements Serializable
     }
 
     /** special undo. Might remove a scoreline that has already followed by a scoreline where the other player scored. Basic implementation for tabletennis. E.g. will not work with conduct calls for Squash */
-    public synchronized boolean undoLastForScorer(Player p) {
+    public synchronized boolean undoLastForScorer(final Player p) {
+        final boolean[] bUndone = new boolean[1];
+        doScoringAction(ScoringAction.undoLastForScorer, new Runnable() {
+            @Override public void run() {
+                bUndone[0] = _undoLastForScorer(p);
+            }
+        }, p);
+        return bUndone[0];
+    }
+    private boolean _undoLastForScorer(Player p) {
         List<ScoreLine> lGameScoreHistory = getGameScoreHistory();
         if ( lGameScoreHistory.size() == 0 ) {
             return false;
@@ -1045,8 +1090,10 @@ public abstract class Model implements Serializable
             m_rallyEndStatsGIP.remove(m_rallyEndStatsGIP.length() - 1);
         }
 
-        // inform listeners
         int iReducedScore = MapUtil.increaseCounter(getScoreOfGameInProgress(), p, -1);
+        setDirty(true);
+
+        // inform listeners
         for (OnScoreChangeListener l : onScoreChangeListeners) {
             l.OnScoreChange(p, iReducedScore, -1, null);
         }
@@ -1057,6 +1104,15 @@ public abstract class Model implements Serializable
         return true;
     }
     public synchronized void undoLast() {
+        doScoringAction(ScoringAction.undoLast, new Runnable() {
+            @Override public void run() {
+                if ( undoFromSnapshot() == false ) {
+                    _undoLast();
+                }
+            }
+        });
+    }
+    private void _undoLast() {
 
         setDirty(true); // ensure gameball etc must be recalculated
 
@@ -1096,7 +1152,7 @@ public abstract class Model implements Serializable
                                                                                      // does not match with slRemoved
             if ( (slRemoved != null) && slRemoved.isCall() ) {
                 // usually only a 'just let' or 'conduct warning'
-                if ( slRemoved.call.isConduct() ) {
+                if ( slRemoved.getCall().isConduct() ) {
                     String removedConductCall = ListUtil.removeLast(lConductCalls);
                 }
                 ScoreLine lastValidWithServer = getLastWithValidServer();
@@ -1104,12 +1160,12 @@ public abstract class Model implements Serializable
                     determineServerAndSideForUndoFromPreviousScoreLine(lastValidWithServer, null);
                 }
 
-                if ( slRemoved.call.equals(Call.PPW) || slRemoved.call.equals(Call.PPL) ) {
+                if ( slRemoved.getCall().equals(Call.PPW) || slRemoved.getCall().equals(Call.PPL) ) {
                     Player powerPlayRequestBy = slRemoved.getCallTargetPlayer();
                     m_currentRallyIsPowerPlayFor.add(powerPlayRequestBy);
                     MapUtil.increaseCounter(m_player2NrOfPowerPlaysUsed, powerPlayRequestBy, -1);
                 }
-                if ( slRemoved.call.getScoreAffect().equals(Call.ScoreAffect.LoseGame) ) {
+                if ( slRemoved.getCall().getScoreAffect().equals(Call.ScoreAffect.LoseGame) ) {
                     // we are undo-ing a conduct-game (CG)
                     Player adjustScoreFor = slRemoved.getCallTargetPlayer().getOther();
                     for(ScoreLine l: lGameScoreHistory) {
@@ -1118,6 +1174,7 @@ public abstract class Model implements Serializable
                         }
                     }
                     // TODO: does not work if score went from zero directly to 11 for scoring player
+                    clearDerivedScoreState(); // setDirty(true) was invoked before the score changed
                 }
                 // inform listeners
                 for(OnComplexChangeListener l:onComplexChangeListeners) {
@@ -1137,6 +1194,7 @@ public abstract class Model implements Serializable
                     if ( iReducedScore < 0 ) {
                         Log.w(TAG, "Should not happen"); scoreOfGameInProgress.put(removeScoringPlayer, 0);
                     }
+                    clearDerivedScoreState(); // setDirty(true) was invoked before the score changed
                     for (OnScoreChangeListener l : onScoreChangeListeners) {
                         l.OnScoreChange(removeScoringPlayer, iReducedScore, iDelta, null);
                     }
@@ -1158,7 +1216,7 @@ public abstract class Model implements Serializable
                 if ( lGameScoreHistory.size() != 0 ) {
                     ScoreLine lastValid = getLastScoreLine();
                     if ( lastValid.isCall() ) {
-                        if ( lastValid.call.hasScoreAffect() ) {
+                        if ( lastValid.getCall().hasScoreAffect() ) {
                             undoLast(); // remove the call that came with the score
                         }
                     } else {
@@ -1191,6 +1249,7 @@ public abstract class Model implements Serializable
 
         List<Map<Player, Integer>> player2EndPointsOfGames = getPlayer2EndPointsOfGames();
         ListUtil.removeLast(player2EndPointsOfGames);
+        clearDerivedScoreState();
         if ( m_HandicapFormat.equals(HandicapFormat.DifferentForAllGames) ) {
             List<Map<Player, Integer>> deviatingStartScoreOfGames = getDeviatingStartScoreOfGames();
             ListUtil.removeLast(deviatingStartScoreOfGames);
@@ -1261,7 +1320,7 @@ public abstract class Model implements Serializable
         int iGameZB = getNrOfFinishedGames();
         while ( ListUtil.size(getDeviatingStartScoreOfGames()) < iGameZB  ) {
             Map<Player, Integer> last = getStartScoreOfGameInProgress();
-            HashMap<Player, Integer> copy = new HashMap<>(last);
+            Map<Player, Integer> copy = new Score(last);
             addDeviatingScore(copy);
         }
         Map<Player, Integer> startScoreOfGameInProgress = getStartScoreOfGameInProgress();
@@ -1431,13 +1490,13 @@ public abstract class Model implements Serializable
 
         // clone last entry and add one to winner
         Map<Player, Integer> player2GamesWonNow = getPlayer2GamesWon();
-        Map<Player, Integer> player2GamesWonNew = new HashMap<Player, Integer>(player2GamesWonNow);
+        Map<Player, Integer> player2GamesWonNew = new Score(player2GamesWonNow);
         MapUtil.increaseCounter(player2GamesWonNew, winner);
         m_lPlayer2GamesWon.add(player2GamesWonNew);
 
         if ( m_HandicapFormat.equals(HandicapFormat.DifferentForAllGames) && bNewStartScore ) {
             Map<Player, Integer> startScoreOfGameInProgress = getStartScoreOfGameInProgress();
-            setDeviatingScore(getNrOfFinishedGames(), new HashMap<Player, Integer>(startScoreOfGameInProgress));
+            setDeviatingScore(getNrOfFinishedGames(), new Score(startScoreOfGameInProgress));
         }
         //getPlayer2EndPointsOfGames().add(gameScore); // is already in there. Or better is taken from there
     }
@@ -1447,12 +1506,12 @@ public abstract class Model implements Serializable
         List<Map<Player, Integer>> lReturn = new ArrayList<Map<Player, Integer>>();
         if ( ListUtil.isNotEmpty(m_lPlayer2GamesWon) ) {
             for ( Map<Player, Integer> mTmp: m_lPlayer2GamesWon ) {
-                lReturn.add(new HashMap<Player, Integer>(mTmp));
+                lReturn.add(new Score(mTmp));
             }
         }
         Player gameVictoryFor = isPossibleGameVictoryFor();
         if ( gameVictoryFor != null) {
-            HashMap<Player, Integer> mTmp = new HashMap<Player, Integer>(getPlayer2GamesWon());
+            Map<Player, Integer> mTmp = new Score(getPlayer2GamesWon());
             MapUtil.increaseCounter(mTmp, gameVictoryFor);
             lReturn.add(mTmp);
         }
@@ -1472,7 +1531,7 @@ public abstract class Model implements Serializable
         List<Map<Player, Integer>> player2EndPointsOfGames = getPlayer2EndPointsOfGames();
         if ( ListUtil.isNotEmpty(player2EndPointsOfGames) ) {
             for ( Map<Player, Integer> mTmp: player2EndPointsOfGames) {
-                lReturn.add(new HashMap<Player, Integer>(mTmp));
+                lReturn.add(new Score(mTmp));
             }
         }
         Player gameVictoryFor = isPossibleGameVictoryFor();
@@ -1488,7 +1547,16 @@ public abstract class Model implements Serializable
     public Map<Player, Integer> getGamesWon() {
         return getGamesWon(true);
     }
+    /** Read-only. Cached until the score changes */
     public Map<Player, Integer> getGamesWon(boolean bIncludeGameInProgress) {
+        Map<Player, Integer> mCached = m_gamesWon.get(bIncludeGameInProgress);
+        if ( mCached == null ) {
+            mCached = Collections.unmodifiableMap(calculateGamesWon(bIncludeGameInProgress));
+            m_gamesWon.put(bIncludeGameInProgress, mCached);
+        }
+        return mCached;
+    }
+    private Map<Player, Integer> calculateGamesWon(boolean bIncludeGameInProgress) {
         Map<Player, Integer> mGamesWon = getZeroZeroMap();
 
         Map<Player, Integer> mInProgress = getScoreOfGameInProgress();
@@ -1532,8 +1600,17 @@ public abstract class Model implements Serializable
     public Map<Player, Integer> getTotalNumberOfPointsScored() {
         return _getTotalNumberOfPointsScored(true);
     }
+    /** Read-only. Cached until the score changes */
     private Map<Player, Integer> _getTotalNumberOfPointsScored(boolean bIncludeGameInProgress) {
-        Map<Player, Integer> pointsWon = new HashMap<Player, Integer>();
+        Map<Player, Integer> mCached = m_pointsScored.get(bIncludeGameInProgress);
+        if ( mCached == null ) {
+            mCached = Collections.unmodifiableMap(calculateTotalNumberOfPointsScored(bIncludeGameInProgress));
+            m_pointsScored.put(bIncludeGameInProgress, mCached);
+        }
+        return mCached;
+    }
+    private Map<Player, Integer> calculateTotalNumberOfPointsScored(boolean bIncludeGameInProgress) {
+        Map<Player, Integer> pointsWon = new Score();
         List<Map<Player, Integer>> gameEndScores = null;
         if (bIncludeGameInProgress) {
             gameEndScores = this.getGameScoresIncludingInProgress();
@@ -1568,6 +1645,7 @@ public abstract class Model implements Serializable
         if ( b.equals(m_TieBreakFormat) == false ) {
             setDirty(false);
             m_TieBreakFormat = b;
+            clearDerivedScoreState(); // e.g. a game may now be won by 2 points less
             return true;
         }
         return false;
@@ -1636,11 +1714,11 @@ public abstract class Model implements Serializable
     /** For when playing with handicap system */
     private List<Map<Player, Integer>>          m_deviatingStartScoreOfGames  = null;
 
-    private void addDeviatingScore(HashMap<Player, Integer> m) {
+    private void addDeviatingScore(Map<Player, Integer> m) {
         List<Map<Player, Integer>> deviatingStartScoreOfGames = getDeviatingStartScoreOfGames();
         m_deviatingStartScoreOfGames.add(m);
     }
-    private void setDeviatingScore(int iGameZB, HashMap<Player, Integer> m) {
+    private void setDeviatingScore(int iGameZB, Map<Player, Integer> m) {
         List<Map<Player, Integer>> deviatingStartScoreOfGames = getDeviatingStartScoreOfGames();
         if ( iGameZB < ListUtil.size(deviatingStartScoreOfGames)  ) {
             deviatingStartScoreOfGames.set(iGameZB, m);
@@ -1755,7 +1833,9 @@ public abstract class Model implements Serializable
         return m_matchTime;
     }
     public String getMatchStartTimeHH_Colon_MM() {
-        String matchStartTimeHHMMSSXXX = getMatchStartTimeHHMMSSXXX();
+        return getMatchStartTimeHH_Colon_MM(getMatchStartTimeHHMMSSXXX());
+    }
+    public static String getMatchStartTimeHH_Colon_MM(String matchStartTimeHHMMSSXXX) {
         if ( StringUtil.isEmpty(matchStartTimeHHMMSSXXX) ) {
             return "";
         }
@@ -1804,18 +1884,22 @@ public abstract class Model implements Serializable
         return true;
     }
     public Date getMatchDate() {
+        return getMatchDate(m_matchDate, m_matchTime);
+    }
+    /** Also used for reading only the header of a stored match */
+    public static Date getMatchDate(String sMatchDate, String sMatchTime) {
         Date dReturn = null;
         try {
-            if ( StringUtil.isNotEmpty(m_matchTime) ) {
-                dReturn = DateUtil.parseString2Date(m_matchDate + "T" + m_matchTime, jsonTimeFormat);
+            if ( StringUtil.isNotEmpty(sMatchTime) ) {
+                dReturn = DateUtil.parseString2Date(sMatchDate + "T" + sMatchTime, jsonTimeFormat);
             } else {
-                dReturn = DateUtil.parseString2Date(m_matchDate, DateUtil.YYYY_MM_DD);
+                dReturn = DateUtil.parseString2Date(sMatchDate, DateUtil.YYYY_MM_DD);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
         if ( dReturn == null ) {
-            Log.w(TAG, "Could not parse date and time : " + m_matchDate + " " + m_matchTime);
+            Log.w(TAG, "Could not parse date and time : " + sMatchDate + " " + sMatchTime);
             // prevent returning null
             return new Date();
         }
@@ -1827,10 +1911,10 @@ public abstract class Model implements Serializable
     /** Adjust when.date and/or when.time of the match if appropriate */
     private void adjustTheWhenObjectIfAppropriate(GameTiming.ChangedBy changedBy) {
         long lModelInitialized = getGameTimingCurrent().getStart();
-        int  iMinutesPassed    = DateUtil.convertToMinutes(System.currentTimeMillis() - lModelInitialized);
+        int  iMinutesPassed    = DateUtil.convertToMinutes(ModelClock.now() - lModelInitialized);
         if ( iMinutesPassed > 2 ) {
             // match was selected/set up long before actual start
-            m_matchDate = DateUtil.getCurrentYYYY_MM_DD();
+            m_matchDate = DateUtil.formatDate2String(ModelClock.now(), DateUtil.YYYY_MM_DD);
             long lStart = getGameTimingCurrent().updateStart(-1 * I_NR_OF_SECS_CORRECTION, changedBy); // act as if the match started 30 seconds ago
             m_matchTime = DateUtil.formatDate2String(lStart, DateUtil.HHMMSSXXX_COLON);
         }
@@ -1838,6 +1922,10 @@ public abstract class Model implements Serializable
 
     public void timestampStartOfGame(GameTiming.ChangedBy changedBy) {
         if ( gameHasStarted() == false ) {
+            if ( m_iScoringActionDepth == 0 ) {
+                // e.g. timer ended: undo should not restore the timing as it was before
+                clearSnapshots();
+            }
             // ref deliberately pressed announcement/timer button while score at 0-0 so first rally is still to start
             int iNrOfFinishedGames = getNrOfFinishedGames();
             if ( ListUtil.size(m_lGameTimings) <= iNrOfFinishedGames) {
@@ -1849,7 +1937,7 @@ public abstract class Model implements Serializable
     }
 
     private void addNewGameTiming(int iNrOfFinishedGames) {
-        long lNow = System.currentTimeMillis();
+        long lNow = ModelClock.now();
         GameTiming gameTimingCurrent = new GameTiming(iNrOfFinishedGames, lNow, lNow, onTimingChangedListeners);
         m_lGameTimings.add(gameTimingCurrent);
     }
@@ -1867,7 +1955,7 @@ public abstract class Model implements Serializable
         return lTimes;
     }
 
-    private String removeTimezone(String sTimeHHMMSSXXX) {
+    private static String removeTimezone(String sTimeHHMMSSXXX) {
         if ( sTimeHHMMSSXXX == null ) { return null; }
         return sTimeHHMMSSXXX.replaceAll("[+-]\\d\\d:\\d\\d$", "");
     }
@@ -2212,6 +2300,33 @@ public abstract class Model implements Serializable
     private static String jsonTimeFormat_Old = DateUtil.YYYYMMDD_HHMMSS; /* up to apk 202 */
     private static String jsonTimeFormat = DateUtil.YYYYMMDD_HHMMSSXXX_DASH_T_COLON;
 
+    /** Translates date formats used by older versions into yyyy-MM-dd */
+    public static String normalizeJsonDate(String sDate) {
+        if ( StringUtil.size(sDate) == 8 && sDate.matches("^\\d{8}$")) {
+            // up to 202
+            sDate = sDate.substring(0,4) + "-" + sDate.substring(4,6) + "-" + sDate.substring(6,8);
+        }
+        return sDate;
+    }
+    /** Translates time formats used by older versions into HH:mm:ssXXX */
+    public static String normalizeJsonTime(String sTime) {
+        if ( StringUtil.size(sTime) == 4 ) {
+            sTime += "00"; // add seconds 3.19-4.15 uses HHMMSS format
+        }
+        if ( StringUtil.size(sTime) == 5 && sTime.matches("^\\d{2}:\\d{2}$") ) {
+            sTime += ":00";
+        }
+        if ( StringUtil.size(sTime) == 6  && sTime.matches("^\\d{6}$") ) {
+            // up to 202 it was HHMMSS, now add colons
+            sTime = sTime.substring(0,2) + ":" + sTime.substring(2,4) + ":" + sTime.substring(4,6);
+        }
+        if ( StringUtil.size(sTime) == 8 ) {
+            // add time zone if missing
+            sTime = sTime + DateUtil.getTimezoneXXX();
+        }
+        return sTime;
+    }
+
     /** hold timestamp that we compare to, to see if match is unchanged for x minutes */
     private long m_tsLastJsonOperation = 0L;
 
@@ -2347,14 +2462,14 @@ public abstract class Model implements Serializable
             }
             if ( pAddTo.equals(Player.A) ) {
                 pA++;
-                scoreLines.add(new ScoreLine(ssA, pA, ssB, null));
+                scoreLines.add(ScoreLine.valueOf(ssA, pA, ssB, null));
                 if ( bDummyServeSides ) {
                     ssA = ssA == null? ServeSide.R: ssA.getOther();
                     ssB = null;
                 }
             } else {
                 pB++;
-                scoreLines.add(new ScoreLine(ssA, null, ssB, pB));
+                scoreLines.add(ScoreLine.valueOf(ssA, null, ssB, pB));
                 if ( bDummyServeSides ) {
                     ssB = ssB == null? ServeSide.R: ssB.getOther();
                     ssA = null;
@@ -2408,7 +2523,7 @@ public abstract class Model implements Serializable
             if (m_lPlayer2EndPointsOfGames.size() > iGameZB) {
                 player2EndpointOfGame = m_lPlayer2EndPointsOfGames.get(iGameZB);
             } else {
-                player2EndpointOfGame = new HashMap<>();
+                player2EndpointOfGame = new Score();
                 m_lPlayer2EndPointsOfGames.add(player2EndpointOfGame);
             }
             player2EndpointOfGame.put(Player.A, iPointsA);
@@ -2474,30 +2589,12 @@ public abstract class Model implements Serializable
                 // new in 3.17
                 joWhen = joMatch.getJSONObject(JSONKey.when.toString());
             }
-            m_matchDate = joWhen.optString(JSONKey.date.toString(), m_matchDate);
-            if ( StringUtil.size(m_matchDate) == 8 && m_matchDate.matches("^\\d{8}$")) {
-                // up to 202
-                m_matchDate = m_matchDate.substring(0,4) + "-" + m_matchDate.substring(4,6) + "-" + m_matchDate.substring(6,8);
-            }
+            m_matchDate = normalizeJsonDate(joWhen.optString(JSONKey.date.toString(), m_matchDate));
             if ( joWhen.has(JSONKey.time.toString()) ) {
-                m_matchTime = joWhen.getString(JSONKey.time.toString());
-                if ( StringUtil.size(m_matchTime) == 4 ) {
-                    m_matchTime += "00"; // add seconds 3.19-4.15 uses HHMMSS format
-                    iDeviatingDateFormat+=1;
-                }
-                if ( StringUtil.size(m_matchTime) == 5 && m_matchTime.matches("^\\d{2}:\\d{2}$") ) {
-                    m_matchTime += ":00";
-                    iDeviatingDateFormat+=2;
-                }
-                if ( StringUtil.size(m_matchTime) == 6  && m_matchTime.matches("^\\d{6}$") ) {
-                    // up to 202 it was HHMMSS, now add colons
-                    m_matchTime = m_matchTime.substring(0,2) + ":" + m_matchTime.substring(2,4) + ":" + m_matchTime.substring(4,6);
-                    iDeviatingDateFormat+=4;
-                }
-                if ( StringUtil.size(m_matchTime) == 8 ) {
-                    // add time zone if missing
-                    m_matchTime = m_matchTime + DateUtil.getTimezoneXXX();
-                    iDeviatingDateFormat+=8;
+                String sTime = joWhen.getString(JSONKey.time.toString());
+                m_matchTime = normalizeJsonTime(sTime);
+                if ( m_matchTime.equals(sTime) == false ) {
+                    iDeviatingDateFormat++;
                 }
             } else {
                 m_matchTime = "";
@@ -2575,7 +2672,7 @@ public abstract class Model implements Serializable
                                 // this should no longer be necessary
                                 joGame = new JSONObject(joOffset.optString(g)) ;
                             }
-                            HashMap<Player, Integer> startScoreOfGameInProgress = new HashMap<Player, Integer>();
+                            Map<Player, Integer> startScoreOfGameInProgress = new Score();
                             startScoreOfGameInProgress.put(Player.A, joGame.optInt(Player.A.toString(), 0));
                             startScoreOfGameInProgress.put(Player.B, joGame.optInt(Player.B.toString(), 0));
                             setDeviatingScore(g, startScoreOfGameInProgress);
@@ -2926,7 +3023,7 @@ public abstract class Model implements Serializable
             for ( int i=0; i < game.length(); i++ ) {
                 String sScoreLine = game.getString(i);
                 scoreLinePrev = scoreLine;
-                scoreLine = new ScoreLine(sScoreLine);
+                scoreLine = ScoreLine.valueOf(sScoreLine);
                 boolean bPlayerCouldChooseServeSide =
                            scoreLinePrev == null                // start of set
                         || scoreLinePrev.isHandout(getSport()); // previous point was handout
@@ -3422,7 +3519,14 @@ public abstract class Model implements Serializable
         }
     }
     /** called only 'manually forced' via menu item from outside model */
-    public void endMatch(EndMatchManuallyBecause endMatchManuallyBecause, Player pWinnerManually) {
+    public void endMatch(final EndMatchManuallyBecause endMatchManuallyBecause, final Player pWinnerManually) {
+        doScoringAction(ScoringAction.endMatch, new Runnable() {
+            @Override public void run() {
+                _endMatch(endMatchManuallyBecause, pWinnerManually);
+            }
+        }, endMatchManuallyBecause, pWinnerManually);
+    }
+    private void _endMatch(EndMatchManuallyBecause endMatchManuallyBecause, Player pWinnerManually) {
         endGame(false, true);
 
         m_winnerBecauseOf = pWinnerManually;
@@ -3454,7 +3558,14 @@ public abstract class Model implements Serializable
     public final void endGame() {
         endGame(true, true);
     }
-    public void endGame(boolean bNotifyListeners, boolean bStartNewGame) {
+    public void endGame(final boolean bNotifyListeners, final boolean bStartNewGame) {
+        doScoringAction(ScoringAction.endGame, new Runnable() {
+            @Override public void run() {
+                _endGame(bNotifyListeners, bStartNewGame);
+            }
+        }, bNotifyListeners, bStartNewGame);
+    }
+    private void _endGame(boolean bNotifyListeners, boolean bStartNewGame) {
         Map<Player, Integer> scoreOfGameInProgress = getScoreOfGameInProgress();
         int iScoreA = MapUtil.getInt(scoreOfGameInProgress, Player.A, 0);
         int iScoreB = MapUtil.getInt(scoreOfGameInProgress, Player.B, 0);
@@ -3464,9 +3575,7 @@ public abstract class Model implements Serializable
             return;
         }
 
-        HashMap<Player, Integer> scores = new HashMap<Player, Integer>();
-        scores.put(Player.A, iScoreA);
-        scores.put(Player.B, iScoreB);
+        Map<Player, Integer> scores = new Score(iScoreA, iScoreB);
         addGameScore(scores, true);
 
         if ( this instanceof GSMModel == false ) {
@@ -3773,12 +3882,18 @@ public abstract class Model implements Serializable
 
     protected boolean m_bReadingJsonInProgress = false;
     private int m_iDirty = 0;
+    /** like m_iDirty, but never reset by setClean() */
+    transient private int m_iChangeCounter = 0;
     public void setDirty() {
         setDirty(false);
     }
     /** ensure certain inner members (player having matchball, player having gameball) are recalculated */
     protected void setDirty(boolean bScoreRelated) {
         m_iDirty++;
+        m_iChangeCounter++;
+        if ( bScoreRelated ) {
+            clearDerivedScoreState();
+        }
         if ( m_bReadingJsonInProgress ) {
             // speed up the reading
             return;
@@ -3808,11 +3923,325 @@ public abstract class Model implements Serializable
         //Log.v(TAG, String.format("Dirty cnt: %s , score related %s", m_iDirty, bScoreRelated));
     }
 
+    /** Nesting level of scoring actions in progress: only the outermost is reported to OnScoringActionListeners */
+    transient private int     m_iScoringActionDepth  = 0;
+    /** set if a (nested) scoring action threw an exception */
+    transient private boolean m_bScoringActionFailed = false;
+
+    /**
+     * To be used by every public scoring method: performs the changes of the action and reports it to the OnScoringActionListeners.
+     * If the changes throw an exception, the action is not reported, so it is e.g. not journaled.
+     */
+    final void doScoringAction(ScoringAction action, Runnable changes, Object... args) {
+        startScoringAction(action);
+        try {
+            changes.run();
+        } catch (RuntimeException e) {
+            m_bScoringActionFailed = true;
+            throw e;
+        } finally {
+            endScoringAction(action, args);
+        }
+    }
+    private void startScoringAction(ScoringAction action) {
+        if ( (m_iScoringActionDepth == 0) && (m_bReadingJsonInProgress == false) ) {
+            beforeScoringAction(action);
+        }
+        m_iScoringActionDepth++;
+    }
+    private void endScoringAction(ScoringAction action, Object... args) {
+        m_iScoringActionDepth--;
+        if ( m_iScoringActionDepth > 0 ) { return; }
+        boolean bFailed = m_bScoringActionFailed;
+        m_bScoringActionFailed = false;
+        if ( m_bReadingJsonInProgress ) { return; }
+        if ( bFailed ) {
+            Log.w(TAG, "Scoring action failed, not reporting it: " + action);
+            clearSnapshots();
+            return;
+        }
+
+        afterScoringAction(action);
+
+        for(OnScoringActionListener l: onScoringActionListeners) {
+            l.OnScoringAction(action, args);
+        }
+    }
+
+    /** Invokes the model method with the same name as the action, e.g. to replay an action journaled by PersistHelper. Arguments as reported to OnScoringActionListeners */
+    public void replay(ScoringAction action, Object... args) {
+        switch (action) {
+            case changeScore:
+                changeScore((Player) args[0]);
+                break;
+            case undoLast:
+                undoLast();
+                break;
+            case redoLast:
+                redoLast();
+                break;
+            case undoLastForScorer:
+                undoLastForScorer((Player) args[0]);
+                break;
+            case recordAppealAndCall:
+                recordAppealAndCall((Player) args[0], (Call) args[1]);
+                break;
+            case recordConduct:
+                recordConduct((Player) args[0], (Call) args[1], (ConductType) args[2]);
+                break;
+            case recordTimeout:
+                recordTimeout((Player) args[0], (Boolean) args[1]);
+                break;
+            case recordBroken:
+                recordBroken((Player) args[0], (BrokenEquipment) args[1]);
+                break;
+            case markNextRallyAsPowerPlayFor:
+                markNextRallyAsPowerPlayFor((Player) args[0]);
+                break;
+            case changeSide:
+                changeSide((Player) args[0]);
+                break;
+            case endGame:
+                endGame((Boolean) args[0], (Boolean) args[1]);
+                break;
+            case endMatch:
+                endMatch((EndMatchManuallyBecause) args[0], (Player) args[1]);
+                break;
+        }
+    }
+
+    //--------------------------------------------------
+    // Undo/redo by snapshot
+    //--------------------------------------------------
+
+    /** Nr of scoring actions that can be undone (or redone) by restoring a snapshot. Undo beyond that walks back the score lines */
+    private static final int MAX_SNAPSHOTS = 50;
+
+    /** State after each of the last scoring actions, oldest first. The first one is the state before the oldest of those actions */
+    transient private List<ModelSnapshot> m_lSnapshots                    = new ArrayList<>();
+    /** Index in m_lSnapshots of the current state. Snapshots after it can be redone */
+    transient private int                 m_iSnapshotCursor               = -1;
+    transient private int                 m_iChangeCounterBeforeAction    = 0;
+    /** If the counter differs at the start of the next scoring action, the match was changed otherwise (names, format, ...) and the snapshots are outdated */
+    transient private int                 m_iChangeCounterAfterLastAction = -1;
+
+    private void beforeScoringAction(ScoringAction action) {
+        if ( m_iChangeCounter != m_iChangeCounterAfterLastAction ) {
+            clearSnapshots();
+        }
+        switch (action) {
+            case undoLast:
+            case redoLast:
+                break;
+            default:
+                if ( m_lSnapshots.isEmpty() ) {
+                    // state before the action, to undo it
+                    addSnapshot();
+                }
+                break;
+        }
+        m_iChangeCounterBeforeAction = m_iChangeCounter;
+    }
+
+    private void afterScoringAction(ScoringAction action) {
+        switch (action) {
+            case undoLast:
+            case redoLast:
+                // the cursor was moved, or the snapshots were cleared to walk back the score lines
+                break;
+            default:
+                if ( m_iChangeCounter != m_iChangeCounterBeforeAction ) {
+                    addSnapshot();
+                }
+                break;
+        }
+        m_iChangeCounterAfterLastAction = m_iChangeCounter;
+    }
+
+    private void addSnapshot() {
+        // a new action makes the undone ones unreachable
+        while ( m_lSnapshots.size() > m_iSnapshotCursor + 1 ) {
+            ListUtil.removeLast(m_lSnapshots);
+        }
+        ModelSnapshot previous = ListUtil.getLast(m_lSnapshots);
+        Map<String, Object> mValues = new HashMap<>();
+        getStateValues(mValues);
+        m_lSnapshots.add(ModelSnapshot.take(mValues, previous));
+        if ( m_lSnapshots.size() > MAX_SNAPSHOTS + 1 ) {
+            m_lSnapshots.remove(0);
+        }
+        m_iSnapshotCursor = m_lSnapshots.size() - 1;
+    }
+
+    private void clearSnapshots() {
+        m_lSnapshots.clear();
+        m_iSnapshotCursor = -1;
+    }
+
+    /** Members changed by scoring actions, by name. Overwritten by models with more of them, e.g. GSMModel */
+    void getStateValues(Map<String, Object> mValues) {
+        mValues.put("currentRallyIsPowerPlayFor", m_currentRallyIsPowerPlayFor);
+        mValues.put("player2NrOfPowerPlaysUsed" , m_player2NrOfPowerPlaysUsed);
+        mValues.put("player2TimeoutInfo"        , m_player2TimeoutInfo);
+        mValues.put("matchDate"                 , m_matchDate);
+        mValues.put("matchTime"                 , m_matchTime);
+        mValues.put("player2LastServeSide"      , m_player2LastServeSide);
+        mValues.put("player2ServeSideCount"     , m_player2ServeSideCount);
+        mValues.put("nextServeSide"             , m_nextServeSide);
+        mValues.put("pServer"                   , m_pServer);
+        mValues.put("bLastPointWasHandout"      , m_bLastPointWasHandout);
+        mValues.put("in_out"                    , m_in_out);
+        mValues.put("in_out_receiver"           , m_in_out_receiver);
+        mValues.put("doubleServeSequence"       , m_doubleServeSequence);
+        mValues.put("lGamesScorelineHistory"    , m_lGamesScorelineHistory);
+        mValues.put("lPlayer2EndPointsOfGames"  , m_lPlayer2EndPointsOfGames);
+        mValues.put("lPlayer2GamesWon"          , m_lPlayer2GamesWon);
+        mValues.put("lGameWinner"               , m_lGameWinner);
+        mValues.put("lGameTimings"              , m_lGameTimings);
+        mValues.put("winnerBecauseOf"           , m_winnerBecauseOf);
+        mValues.put("EndMatchManuallyBecause"   , m_EndMatchManuallyBecause);
+        mValues.put("halfwayStatus"             , m_halfwayStatus);
+        mValues.put("iTieBreakPlusX"            , m_iTieBreakPlusX);
+        mValues.put("deviatingStartScoreOfGames", m_deviatingStartScoreOfGames);
+        mValues.put("iNrOfTiebreaks"            , m_iNrOfTiebreaks);
+        mValues.put("iHandoutCountDoubles"      , m_iHandoutCountDoubles);
+        mValues.put("lockState"                 , m_lockState);
+        mValues.put("rallyEndStatistics"        , m_rallyEndStatistics);
+    }
+    @SuppressWarnings("unchecked")
+    void setStateValues(Map<String, Object> mValues) {
+        m_currentRallyIsPowerPlayFor = (Set<Player>)                         mValues.get("currentRallyIsPowerPlayFor");
+        m_player2NrOfPowerPlaysUsed  = (Map<Player, Integer>)                mValues.get("player2NrOfPowerPlaysUsed");
+        m_player2TimeoutInfo         = (Map<Player, String>)                 mValues.get("player2TimeoutInfo");
+        m_matchDate                  = (String)                              mValues.get("matchDate");
+        m_matchTime                  = (String)                              mValues.get("matchTime");
+        m_player2LastServeSide       = (Map<Player, ServeSide>)              mValues.get("player2LastServeSide");
+        m_player2ServeSideCount      = (Map<Player, Map<ServeSide,Integer>>) mValues.get("player2ServeSideCount");
+        m_nextServeSide              = (ServeSide)                           mValues.get("nextServeSide");
+        m_pServer                    = (Player)                              mValues.get("pServer");
+        m_bLastPointWasHandout       = (Boolean)                             mValues.get("bLastPointWasHandout");
+        m_in_out                     = (DoublesServe)                        mValues.get("in_out");
+        m_in_out_receiver            = (DoublesServe)                        mValues.get("in_out_receiver");
+        m_doubleServeSequence        = (DoublesServeSequence)                mValues.get("doubleServeSequence");
+        m_lGamesScorelineHistory     = (List<List<ScoreLine>>)               mValues.get("lGamesScorelineHistory");
+        m_lPlayer2EndPointsOfGames   = (List<Map<Player, Integer>>)          mValues.get("lPlayer2EndPointsOfGames");
+        m_lPlayer2GamesWon           = (List<Map<Player, Integer>>)          mValues.get("lPlayer2GamesWon");
+        m_lGameWinner                = (List<Player>)                        mValues.get("lGameWinner");
+        m_lGameTimings               = (List<GameTiming>)                    mValues.get("lGameTimings");
+        m_winnerBecauseOf            = (Player)                              mValues.get("winnerBecauseOf");
+        m_EndMatchManuallyBecause    = (EndMatchManuallyBecause)             mValues.get("EndMatchManuallyBecause");
+        m_halfwayStatus              = (Halfway)                             mValues.get("halfwayStatus");
+        m_iTieBreakPlusX             = (Integer)                             mValues.get("iTieBreakPlusX");
+        m_deviatingStartScoreOfGames = (List<Map<Player, Integer>>)          mValues.get("deviatingStartScoreOfGames");
+        m_iNrOfTiebreaks             = (Integer)                             mValues.get("iNrOfTiebreaks");
+        m_iHandoutCountDoubles       = (Integer)                             mValues.get("iHandoutCountDoubles");
+        m_lockState                  = (LockState)                           mValues.get("lockState");
+        m_rallyEndStatistics         = (List<JSONArray>)                     mValues.get("rallyEndStatistics");
+
+        // statistics were recorded after the snapshot was taken: keep those of rallies that are still part of the score (as _undoLast() does)
+        m_rallyEndStatsGIP = ListUtil.getLast(m_rallyEndStatistics);
+        List<ScoreLine> lGameScoreHistory = ListUtil.getLast(m_lGamesScorelineHistory);
+        while ( (m_rallyEndStatsGIP != null) && (ListUtil.size(lGameScoreHistory) < JsonUtil.size(m_rallyEndStatsGIP)) ) {
+            m_rallyEndStatsGIP.remove(m_rallyEndStatsGIP.length() - 1);
+        }
+    }
+
+    /** To be invoked from undoLast(): restores the state before the last scoring action, if a snapshot of it is still available */
+    final boolean undoFromSnapshot() {
+        if ( m_iScoringActionDepth != 1 ) {
+            // e.g. GSMModel invoking super.undoLast()
+            return false;
+        }
+        if ( m_iSnapshotCursor <= 0 ) {
+            // the score lines will be walked back: snapshots taken so far no longer apply
+            clearSnapshots();
+            return false;
+        }
+        restoreSnapshot(m_iSnapshotCursor - 1);
+        return true;
+    }
+
+    /** Re-does the last undone scoring action. Only possible if nothing else was changed since the undo. */
+    public synchronized boolean redoLast() {
+        final boolean[] bRedone = new boolean[1];
+        doScoringAction(ScoringAction.redoLast, new Runnable() {
+            @Override public void run() {
+                if ( canRedo() ) {
+                    restoreSnapshot(m_iSnapshotCursor + 1);
+                    bRedone[0] = true;
+                }
+            }
+        });
+        return bRedone[0];
+    }
+    public boolean canRedo() {
+        return (m_iSnapshotCursor < m_lSnapshots.size() - 1) && (m_iChangeCounter == m_iChangeCounterAfterLastAction);
+    }
+
+    /** Moves the cursor and informs the listeners the same way _undoLast() does */
+    private void restoreSnapshot(int iSnapshot) {
+        Map<Player, Integer> scoreBefore     = new HashMap<>(getScoreOfGameInProgress());
+        int                  iGamesBefore    = ListUtil.size(m_lGameWinner);
+        Player[]             gameBallBefore  = isPossibleGameBallFor();
+        Set<Player>          powerPlayBefore = m_currentRallyIsPowerPlayFor;
+        LockState            lockBefore      = m_lockState;
+
+        setStateValues(m_lSnapshots.get(iSnapshot).restore());
+        m_iSnapshotCursor = iSnapshot;
+        setDirty(true);
+
+        Map<Player, Integer> scoreAfter = getScoreOfGameInProgress();
+        for ( Player p : Player.values() ) {
+            int iDelta = MapUtil.getInt(scoreAfter, p, 0) - MapUtil.getInt(scoreBefore, p, 0);
+            if ( (iDelta == 0) && (iGamesBefore == ListUtil.size(m_lGameWinner)) ) { continue; }
+            for (OnScoreChangeListener l : onScoreChangeListeners) {
+                l.OnScoreChange(p, MapUtil.getInt(scoreAfter, p, 0), iDelta, null);
+            }
+        }
+        for ( Player p : powerPlayBefore ) {
+            if ( m_currentRallyIsPowerPlayFor.contains(p) ) { continue; }
+            for (OnPowerPlayChangeListener l : onPowerPlayChangeListener) {
+                l.OnPowerPlayChange(p, PowerPlayForPlayer.DeActivatedForNextRally);
+            }
+        }
+        for (OnServeSideChangeListener l : onServeSideChangeListener) {
+            l.OnServeSideChange(m_pServer, m_in_out, m_nextServeSide, m_bLastPointWasHandout, true);
+        }
+        m_possibleGameForPrev.put(When.ScoreOneMorePoint, gameBallBefore);
+        isPossibleGameBallFor(true);
+
+        for(OnComplexChangeListener l:onComplexChangeListeners) {
+            l.OnChanged();
+        }
+        if ( lockBefore != m_lockState ) {
+            for(OnLockChangeListener l: onLockChangeListeners) {
+                l.OnLockChange(lockBefore, m_lockState);
+            }
+        }
+    }
+
     void clearPossibleGSM() {
         m_possibleMatchForPrev.clear();m_possibleMatchForPrev.putAll(m_possibleMatchFor);
         m_possibleMatchFor    .clear();
         m_possibleGameForPrev .clear();m_possibleGameForPrev .putAll(m_possibleGameFor );
         m_possibleGameFor     .clear();
+        clearDerivedScoreState();
+    }
+
+    //--------------------------------------------------
+    // Derived score state (games won, points scored, ...)
+    //--------------------------------------------------
+
+    /** Keyed by 'include game in progress'. Listeners and views ask for these several times per point scored */
+    private final Map<Boolean, Map<Player, Integer>> m_gamesWon     = new HashMap<>();
+    private final Map<Boolean, Map<Player, Integer>> m_pointsScored = new HashMap<>();
+    private final Map<Boolean, Map<Player, Integer>> m_pointsDiff   = new HashMap<>();
+
+    /** Invoked by setDirty(true), and by undo where the score changes after that. Subclasses caching values derived from the score clear them here as well */
+    protected void clearDerivedScoreState() {
+        m_gamesWon    .clear();
+        m_pointsScored.clear();
+        m_pointsDiff  .clear();
     }
 
     public void setClean() {
@@ -3962,7 +4391,7 @@ public abstract class Model implements Serializable
 
     Player[] isPossibleMatchBallFor_SQ_TT_BM(When when, Player[] pGameVictoryFor)
     {
-        Map<Player, Integer> gameInProgressFor = new HashMap<>();
+        Map<Player, Integer> gameInProgressFor = new Score();
         Player[] possible = null;
         if ( getMaxScore() > 0 ) {
             possible = _isPossibleGameVictoryFor(when, true, false);
@@ -4169,8 +4598,15 @@ public abstract class Model implements Serializable
         return server;
     }
 
-    void recordAppealAndCall_SQ_RL_RB(Player appealing, Call call) {
+    void recordAppealAndCall_SQ_RL_RB(final Player appealing, final Call call) {
         if ( call == null ) { return; }
+        doScoringAction(ScoringAction.recordAppealAndCall, new Runnable() {
+            @Override public void run() {
+                _recordAppealAndCall_SQ_RL_RB(appealing, call);
+            }
+        }, appealing, call);
+    }
+    private void _recordAppealAndCall_SQ_RL_RB(Player appealing, Call call) {
         if ( ( gameHasStarted() == false ) && (ListUtil.size(m_lPlayer2GamesWon) <= 1)) {
             // first thing in the match is a call for a let: adjust date and time if appropriate
             adjustTheWhenObjectIfAppropriate(GameTiming.ChangedBy.FirstScoreOfGameEntered);
@@ -4209,7 +4645,14 @@ public abstract class Model implements Serializable
         }
     }
 
-    void recordConduct_SQ_RL_RB(Player pMisbehaving, Call call, ConductType conductType) {
+    void recordConduct_SQ_RL_RB(final Player pMisbehaving, final Call call, final ConductType conductType) {
+        doScoringAction(ScoringAction.recordConduct, new Runnable() {
+            @Override public void run() {
+                _recordConduct_SQ_RL_RB(pMisbehaving, call, conductType);
+            }
+        }, pMisbehaving, call, conductType);
+    }
+    private void _recordConduct_SQ_RL_RB(Player pMisbehaving, Call call, ConductType conductType) {
         if ( (gameHasStarted() == false) && ListUtil.size(m_lPlayer2GamesWon) <= 1) {
             // first thing in the match is a conduct: adjust date and time if appropriate
             adjustTheWhenObjectIfAppropriate(GameTiming.ChangedBy.FirstScoreOfGameEntered);
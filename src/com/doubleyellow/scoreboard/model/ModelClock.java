@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.model;
+
+/**
+ * Current time as used by the model for timestamps of games and scorelines.
+ * While a journaled scoring action is replayed, it is the time the action was originally performed (see PersistHelper).
+ */
+public final class ModelClock {
+    private ModelClock() {}
+
+    private static final ThreadLocal<Long> m_lReplayTime = new ThreadLocal<>();
+
+    public static long now() {
+        Long lReplayTime = m_lReplayTime.get();
+        return (lReplayTime != null) ? lReplayTime : System.currentTimeMillis();
+    }
+
+    /** To be invoked with the original time before replaying a scoring action, and with null afterwards */
+    public static void setReplayTime(Long lTime) {
+        if ( lTime == null ) {
+            m_lReplayTime.remove();
+        } else {
+            m_lReplayTime.set(lTime);
+        }
+    }
+}
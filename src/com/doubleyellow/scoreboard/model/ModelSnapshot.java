@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.model;
+
+import com.doubleyellow.scoreboard.util.ListWrapper;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * State of a model after a scoring action, for undo and redo (see Model.undoLast() and Model.redoLast()).
+ *
+ * Holds copies of the values the model hands it (see Model.getStateValues()) that are never modified.
+ * Games and sets that were already finished in the previous snapshot are not copied again but shared with it,
+ * so taking or restoring a snapshot only copies the game (and set) in progress.
+ * This relies on scoring actions changing the last elements of the game/set lists only.
+ *
+ * Statistics of rally ends (json arrays) are recorded in between scoring actions. They are shared with the model, not copied.
+ */
+final class ModelSnapshot
+{
+    private final Map<String, Object> m_mValues;
+
+    private ModelSnapshot(Map<String, Object> mValues) {
+        m_mValues = mValues;
+    }
+
+    /** @param previous snapshot of the state before the action, null if there is none */
+    static ModelSnapshot take(Map<String, Object> mValues, ModelSnapshot previous) {
+        Map<Object, Object> mCopied = new IdentityHashMap<>();
+        Map<String, Object> mFrozen = new HashMap<>();
+        for ( Map.Entry<String, Object> e : mValues.entrySet() ) {
+            Object prev = (previous == null) ? null : previous.m_mValues.get(e.getKey());
+            mFrozen.put(e.getKey(), copy(e.getValue(), prev, mCopied));
+        }
+        return new ModelSnapshot(mFrozen);
+    }
+
+    /** Values for the model to continue with. The game/set in progress are copies, finished ones are shared with this snapshot */
+    Map<String, Object> restore() {
+        Map<Object, Object> mCopied = new IdentityHashMap<>();
+        Map<String, Object> mValues = new HashMap<>();
+        for ( Map.Entry<String, Object> e : m_mValues.entrySet() ) {
+            mValues.put(e.getKey(), copy(e.getValue(), e.getValue(), mCopied));
+        }
+        return mValues;
+    }
+
+    /**
+     * @param shareFrom frozen counterpart of o. Its elements, except the last one, are used instead of copies of the elements of o.
+     * @param mCopied   o's copied before: the model refers to the lists of the set in progress from more than one member
+     */
+    @SuppressWarnings("unchecked")
+    private static Object copy(Object o, Object shareFrom, Map<Object, Object> mCopied) {
+        if ( o == null ) { return null; }
+        Object oCopy = mCopied.get(o);
+        if ( oCopy != null ) { return oCopy; }
+
+        if ( o instanceof List ) {
+            List l = (List) o;
+            List lShareFrom = (shareFrom instanceof List) ? (List) shareFrom : null;
+            int  iShared    = 0;
+            if ( (lShareFrom != null) && (lShareFrom.size() <= l.size()) ) {
+                iShared = lShareFrom.size() - 1;
+            }
+            // copy constructors do not invoke add(): ListWrapper would log every element
+            List lCopy = (o instanceof ListWrapper) ? new ListWrapper((ListWrapper) o) : new ArrayList(l);
+            for ( int i = 0; i < l.size(); i++ ) {
+                if ( i < iShared ) {
+                    lCopy.set(i, lShareFrom.get(i));
+                } else {
+                    Object elementShareFrom = (i == iShared && lShareFrom != null && i < lShareFrom.size()) ? lShareFrom.get(i) : null;
+                    lCopy.set(i, copy(l.get(i), elementShareFrom, mCopied));
+                }
+            }
+            oCopy = lCopy;
+        } else if ( o instanceof Score ) {
+            oCopy = new Score((Score) o);
+        } else if ( o instanceof Map ) {
+            Map m = (Map) o;
+            Map mCopy = (o instanceof EnumMap) ? new EnumMap((EnumMap) o) : new HashMap(m.size());
+            for ( Object oEntry : m.entrySet() ) {
+                Map.Entry e = (Map.Entry) oEntry;
+                mCopy.put(e.getKey(), copy(e.getValue(), null, mCopied));
+            }
+            oCopy = mCopy;
+        } else if ( o instanceof Set ) {
+            oCopy = new HashSet((Set) o);
+        } else if ( o instanceof GameTiming ) {
+            oCopy = new GameTiming((GameTiming) o);
+        } else {
+            // immutable: ScoreLine, enums, strings, numbers, ... and the statistics json arrays
+            return o;
+        }
+        mCopied.put(o, oCopy);
+        return oCopy;
+    }
+}
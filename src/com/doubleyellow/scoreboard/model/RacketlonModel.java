@@ -278,8 +278,12 @@ public class RacketlonModel extends Model {
     // score
     //-------------------------------
 
-    @Override public void changeScore(Player player) {
-        super.changeScore_TT_BM_RL(player, getSport());
+    @Override public void changeScore(final Player player) {
+        doScoringAction(ScoringAction.changeScore, new Runnable() {
+            @Override public void run() {
+                RacketlonModel.super.changeScore_TT_BM_RL(player, getSport());
+            }
+        }, player);
     }
 
     @Override public String getResultShort() {
@@ -108,8 +108,12 @@ public class RacquetballModel extends Model
     // score
     //-------------------------------
 
-    @Override public void changeScore(Player player) {
-        super.changeScore_SQ_RB(player, true, null);
+    @Override public void changeScore(final Player player) {
+        doScoringAction(ScoringAction.changeScore, new Runnable() {
+            @Override public void run() {
+                RacquetballModel.super.changeScore_SQ_RB(player, true, null);
+            }
+        }, player);
     }
 
     @Override public String getResultShort() {
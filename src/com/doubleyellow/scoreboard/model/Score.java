@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.model;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Score of player A and B (games, points, sets) held in two ints.
+ *
+ * Implements Map&lt;Player, Integer&gt; so it can be used everywhere a HashMap&lt;Player, Integer&gt; was used before,
+ * without the hash table and its entries: changing the score does not create any garbage.
+ * Equals/hashCode are those of a Map, so a Score equals a HashMap holding the same values.
+ */
+public class Score extends AbstractMap<Player, Integer> implements Serializable {
+
+    private static final int A_PRESENT = 1;
+    private static final int B_PRESENT = 2;
+    private static final Player[] PLAYERS = Player.values();
+
+    private int m_iA       = 0;
+    private int m_iB       = 0;
+    /** to keep supporting maps that do not (yet) hold a value for both players */
+    private int m_iPresent = 0;
+
+    /** Empty, like a new HashMap */
+    public Score() { }
+
+    public Score(int iA, int iB) {
+        m_iA       = iA;
+        m_iB       = iB;
+        m_iPresent = A_PRESENT | B_PRESENT;
+    }
+
+    /** Copy of the map: replaces new HashMap&lt;Player, Integer&gt;(m) */
+    public Score(Map<Player, Integer> m) {
+        if ( m instanceof Score ) {
+            Score s = (Score) m;
+            m_iA       = s.m_iA;
+            m_iB       = s.m_iB;
+            m_iPresent = s.m_iPresent;
+        } else if ( m != null ) {
+            putAll(m);
+        }
+    }
+
+    public static Score zeroZero() {
+        return new Score(0, 0);
+    }
+
+    /** Primitive accessor: returns 0 if no value is present for the player */
+    public int getInt(Player p) {
+        return Player.A.equals(p) ? m_iA : m_iB;
+    }
+    public void setInt(Player p, int i) {
+        if ( Player.A.equals(p) ) {
+            m_iA = i;
+        } else {
+            m_iB = i;
+        }
+        m_iPresent |= bit(p);
+    }
+    public void increase(Player p) {
+        setInt(p, getInt(p) + 1);
+    }
+
+    private static int bit(Player p) {
+        return Player.A.equals(p) ? A_PRESENT : B_PRESENT;
+    }
+
+    //-----------------------------------
+    // Map
+    //-----------------------------------
+
+    @Override public int size() {
+        return Integer.bitCount(m_iPresent);
+    }
+
+    @Override public boolean containsKey(Object key) {
+        return (key instanceof Player) && ((m_iPresent & bit((Player) key)) != 0);
+    }
+
+    @Override public Integer get(Object key) {
+        if ( containsKey(key) == false ) {
+            return null;
+        }
+        return getInt((Player) key); // values -128..127 come from the Integer cache
+    }
+
+    /** A null value removes the player */
+    @Override public Integer put(Player p, Integer iValue) {
+        if ( p == null ) {
+            throw new NullPointerException("player");
+        }
+        Integer iPrevious = get(p);
+        if ( iValue == null ) {
+            remove(p);
+        } else {
+            setInt(p, iValue);
+        }
+        return iPrevious;
+    }
+
+    @Override public Integer remove(Object key) {
+        Integer iPrevious = get(key);
+        if ( iPrevious != null ) {
+            Player p = (Player) key;
+            m_iPresent &= ~bit(p);
+            if ( Player.A.equals(p) ) { m_iA = 0; } else { m_iB = 0; }
+        }
+        return iPrevious;
+    }
+
+    @Override public void clear() {
+        m_iA       = 0;
+        m_iB       = 0;
+        m_iPresent = 0;
+    }
+
+    @Override public Set<Entry<Player, Integer>> entrySet() {
+        return new AbstractSet<Entry<Player, Integer>>() {
+            @Override public int size() {
+                return Score.this.size();
+            }
+            @Override public Iterator<Entry<Player, Integer>> iterator() {
+                return new Iterator<Entry<Player, Integer>>() {
+                    private int    iNext = 0;
+                    private Player pLast = null;
+                    @Override public boolean hasNext() {
+                        while ( (iNext < PLAYERS.length) && (containsKey(PLAYERS[iNext]) == false) ) {
+                            iNext++;
+                        }
+                        return iNext < PLAYERS.length;
+                    }
+                    @Override public Entry<Player, Integer> next() {
+                        if ( hasNext() == false ) {
+                            throw new NoSuchElementException();
+                        }
+                        final Player p = PLAYERS[iNext++];
+                        pLast = p;
+                        return new SimpleEntry<Player, Integer>(p, getInt(p)) {
+                            @Override public Integer setValue(Integer iValue) {
+                                super.setValue(iValue);
+                                return put(p, iValue);
+                            }
+                        };
+                    }
+                    @Override public void remove() {
+                        if ( pLast == null ) {
+                            throw new IllegalStateException();
+                        }
+                        Score.this.remove(pLast);
+                        pLast = null;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -23,95 +23,205 @@ import com.doubleyellow.util.StringUtil;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * One line in the score history of a game: a rally won (by server or receiver), or a call, broken equipment or misc event.
+ *
+ * All details are packed into a single long. ScoreLines are immutable: use valueOf() to re-use instances for common rally lines.
+ */
 public class ScoreLine implements Serializable
 {
     public static final String TAG = "SB." + ScoreLine.class.getSimpleName();
 
-    /** holds 4 objects: Can be ServeSide or an Integer (Not Call, these are stored separately) */
-    private Object[]  m_line        = new Object[4];
-    private Player    scoringPlayer = null;
-    private Player    servingPlayer = null;
-    private Integer   score         = null;
-    private ServeSide serveSide     = null;
+    /*
+     * Layout of m_lPacked (enum values are stored as ordinal + 1, 0 meaning null)
+     * bit  0- 1 : serve side A
+     * bit  2- 3 : serve side B
+     * bit  4    : has score A
+     * bit  5    : has score B
+     * bit  6- 7 : call target player
+     * bit  8-13 : call
+     * bit 14-17 : broken equipment
+     * bit 18-21 : misc
+     * bit 22-42 : score A (signed)
+     * bit 43-63 : score B (signed)
+     */
+    private static final int SHIFT_SERVESIDE_A = 0;
+    private static final int SHIFT_SERVESIDE_B = 2;
+    private static final int SHIFT_HAS_SCORE_A = 4;
+    private static final int SHIFT_HAS_SCORE_B = 5;
+    private static final int SHIFT_TARGET      = 6;
+    private static final int SHIFT_CALL        = 8;
+    private static final int SHIFT_EQUIPMENT   = 14;
+    private static final int SHIFT_MISC        = 18;
+    private static final int SHIFT_SCORE_A     = 22;
+    private static final int SHIFT_SCORE_B     = 43;
+    private static final int BITS_SCORE        = 21;
+
+    private static final ServeSide[]       SERVE_SIDES = ServeSide.values();
+    private static final Player[]          PLAYERS     = Player.values();
+    private static final Call[]            CALLS       = Call.values();
+    private static final BrokenEquipment[] EQUIPMENTS  = BrokenEquipment.values();
+    private static final Misc[]            MISCS       = Misc.values();
 
-    private Player    callTargetPlayer = null;
-            Call      call             = null;
-            BrokenEquipment equipment  = null;
-            Misc      misc             = null;
+    private final long m_lPacked;
 
     public ScoreLine(Player player, Call call) {
-        this.callTargetPlayer = player;
-        this.call             = call;
-        m_line                = null;
+        m_lPacked = packEvent(player, SHIFT_CALL, call);
     }
     public ScoreLine(Player player, BrokenEquipment equipment) {
-        this.callTargetPlayer = player;
-        this.equipment        = equipment;
-        m_line                = null;
+        m_lPacked = packEvent(player, SHIFT_EQUIPMENT, equipment);
     }
     public ScoreLine(Player player, Misc misc) {
-        this.callTargetPlayer = player;
-        this.misc             = misc;
-        m_line                = null;
+        m_lPacked = packEvent(player, SHIFT_MISC, misc);
     }
     public boolean isBrokenEquipment() {
-        return ( this.equipment != null );
+        return ( getBrokenEquipment() != null );
     }
     public boolean isCall() {
-        return ( this.callTargetPlayer != null ) && ( this.call != null );
+        return ( getCallTargetPlayer() != null ) && ( getCall() != null );
     }
     public boolean isMisc() {
-        return ( this.callTargetPlayer != null ) && ( this.misc != null );
+        return ( getCallTargetPlayer() != null ) && ( getMisc() != null );
     }
     public boolean isTimeout() {
-        return ( this.callTargetPlayer != null ) && ( Misc.TO.equals(this.misc) );
+        return ( getCallTargetPlayer() != null ) && ( Misc.TO.equals(getMisc()) );
     }
     public boolean isAppealWithPoint() {
-        return ( this.callTargetPlayer != null ) && ( this.call != null ) && (this.call.hasScoreAffect());
+        Call call = getCall();
+        return ( getCallTargetPlayer() != null ) && ( call != null ) && (call.hasScoreAffect());
     }
     public Call getCall() {
-        return this.call;
+        return decode(CALLS, SHIFT_CALL, 6);
     }
     public BrokenEquipment getBrokenEquipment() {
-        return this.equipment;
+        return decode(EQUIPMENTS, SHIFT_EQUIPMENT, 4);
+    }
+    public Misc getMisc() {
+        return decode(MISCS, SHIFT_MISC, 4);
     }
 
     public ScoreLine(ServeSide serveSideA, Integer iScoreA, ServeSide serveSideB, Integer iScoreB) {
-        m_line[0] = serveSideA;
-        m_line[1] = iScoreA;
-        m_line[2] = serveSideB;
-        m_line[3] = iScoreB;
+        m_lPacked = packRally(serveSideA, iScoreA, serveSideB, iScoreB);
+    }
 
-        init(serveSideA, iScoreA, serveSideB, iScoreB);
+    //------------------------------------
+    // Flyweights
+    //------------------------------------
+
+    /** Rally lines with a single score up to this value are shared */
+    private static final int         MAX_SHARED_SCORE = 63;
+    private static final ScoreLine[] m_aShared        = new ScoreLine[(SERVE_SIDES.length + 1) * (SERVE_SIDES.length + 1) * 2 * (MAX_SHARED_SCORE + 1)];
+
+    /** Same as the constructor, but returns a shared instance for common rally lines */
+    public static ScoreLine valueOf(ServeSide serveSideA, Integer iScoreA, ServeSide serveSideB, Integer iScoreB) {
+        if ( (iScoreA == null) == (iScoreB == null) ) {
+            return new ScoreLine(serveSideA, iScoreA, serveSideB, iScoreB);
+        }
+        int iScore = (iScoreA != null) ? iScoreA : iScoreB;
+        if ( (iScore < 0) || (iScore > MAX_SHARED_SCORE) ) {
+            return new ScoreLine(serveSideA, iScoreA, serveSideB, iScoreB);
+        }
+        int iIdx = ((code(serveSideA) * (SERVE_SIDES.length + 1) + code(serveSideB)) * 2 + (iScoreA != null ? 0 : 1)) * (MAX_SHARED_SCORE + 1) + iScore;
+        ScoreLine sl = m_aShared[iIdx];
+        if ( sl == null ) {
+            // no locking needed: instances are immutable, worst case one is created twice
+            sl = new ScoreLine(serveSideA, iScoreA, serveSideB, iScoreB);
+            m_aShared[iIdx] = sl;
+        }
+        return sl;
     }
 
-    private void init(ServeSide serveSideA, Integer iScoreA, ServeSide serveSideB, Integer iScoreB) {
-        if ( iScoreA != null || iScoreB != null ) {
-            scoringPlayer = (iScoreA    != null) ? Player.A   : Player.B;
-            score         = (iScoreA    != null) ? iScoreA    : iScoreB;
+    /** Lines as stored in json. Typically the same few dozen per sport, so parsed only once */
+    private static final int                    MAX_PARSED_CACHE = 1024;
+    private static final Map<String, ScoreLine> m_mParsed        = new HashMap<>();
+
+    /** Same as the String constructor, but returns a shared instance for lines parsed before */
+    public static ScoreLine valueOf(String sScoreLine) {
+        synchronized (m_mParsed) {
+            ScoreLine sl = m_mParsed.get(sScoreLine);
+            if ( sl == null ) {
+                sl = new ScoreLine(sScoreLine);
+                if ( m_mParsed.size() < MAX_PARSED_CACHE ) {
+                    m_mParsed.put(sScoreLine, sl);
+                }
+            }
+            return sl;
         }
-        if ( serveSideA!= null || serveSideB != null ) {
-            servingPlayer = (serveSideA != null) ? Player.A   : Player.B;
-            serveSide     = (serveSideA != null) ? serveSideA : serveSideB;
+    }
+
+    //------------------------------------
+    // Packing
+    //------------------------------------
+
+    private static int code(Enum e) {
+        return (e == null) ? 0 : e.ordinal() + 1;
+    }
+    private <E> E decode(E[] values, int iShift, int iBits) {
+        int iCode = (int) ((m_lPacked >>> iShift) & ((1L << iBits) - 1));
+        return (iCode == 0) ? null : values[iCode - 1];
+    }
+    private boolean hasBit(int iShift) {
+        return ((m_lPacked >>> iShift) & 1L) != 0;
+    }
+    private int decodeScore(int iShift) {
+        long l = m_lPacked >>> iShift;
+        return (int) ((l << (64 - BITS_SCORE)) >> (64 - BITS_SCORE));
+    }
+    private static long encodeScore(Integer iScore, int iShift) {
+        if ( (iScore < -(1 << (BITS_SCORE - 1))) || (iScore >= (1 << (BITS_SCORE - 1))) ) {
+            throw new IllegalArgumentException("Score out of range: " + iScore);
         }
+        return ((long) iScore & ((1L << BITS_SCORE) - 1)) << iShift;
+    }
+
+    private static long packEvent(Player player, int iShift, Enum event) {
+        return ((long) code(player) << SHIFT_TARGET) | ((long) code(event) << iShift);
+    }
+    private static long packRally(ServeSide serveSideA, Integer iScoreA, ServeSide serveSideB, Integer iScoreB) {
+        long l = ((long) code(serveSideA) << SHIFT_SERVESIDE_A)
+               | ((long) code(serveSideB) << SHIFT_SERVESIDE_B);
+        if ( iScoreA != null ) {
+            l |= (1L << SHIFT_HAS_SCORE_A) | encodeScore(iScoreA, SHIFT_SCORE_A);
+        }
+        if ( iScoreB != null ) {
+            l |= (1L << SHIFT_HAS_SCORE_B) | encodeScore(iScoreB, SHIFT_SCORE_B);
+        }
+        return l;
+    }
+
+    private ServeSide getServeSide(Player p) {
+        return decode(SERVE_SIDES, Player.A.equals(p) ? SHIFT_SERVESIDE_A : SHIFT_SERVESIDE_B, 2);
+    }
+    private Integer getScore(Player p) {
+        if ( Player.A.equals(p) ) {
+            return hasBit(SHIFT_HAS_SCORE_A) ? decodeScore(SHIFT_SCORE_A) : null;
+        }
+        return hasBit(SHIFT_HAS_SCORE_B) ? decodeScore(SHIFT_SCORE_B) : null;
     }
 
     public ServeSide getServeSide() {
-        return serveSide;
+        ServeSide serveSideA = getServeSide(Player.A);
+        return (serveSideA != null) ? serveSideA : getServeSide(Player.B);
     }
     public Player getScoringPlayer() {
-        return scoringPlayer;
+        if ( hasBit(SHIFT_HAS_SCORE_A) ) { return Player.A; }
+        if ( hasBit(SHIFT_HAS_SCORE_B) ) { return Player.B; }
+        return null;
     }
     /** returns the player that made the appeal (isCall()==true) or the player that reported broken equipment (isBrokenEquipment()==true) or the player that misbehaved (conduct) */
     public Player getCallTargetPlayer() {
-        return callTargetPlayer;
+        return decode(PLAYERS, SHIFT_TARGET, 2);
     }
     public Player getServingPlayer() {
-        return servingPlayer;
+        if ( getServeSide(Player.A) != null ) { return Player.A; }
+        if ( getServeSide(Player.B) != null ) { return Player.B; }
+        return null;
     }
     public boolean isHandout(SportType sportType) {
         switch (sportType) {
@@ -131,7 +241,12 @@ public class ScoreLine implements Serializable
         return false;
     }
     public Integer getScore() {
-        return score;
+        Integer iScoreA = getScore(Player.A);
+        return (iScoreA != null) ? iScoreA : getScore(Player.B);
+    }
+    /** serve side A, score A, serve side B, score B: each possibly null */
+    private Object[] getLine() {
+        return new Object[] { getServeSide(Player.A), getScore(Player.A), getServeSide(Player.B), getScore(Player.B) };
     }
     public List<String> toStringList() {
         return toStringList(null);
@@ -151,43 +266,47 @@ public class ScoreLine implements Serializable
      **/
     public List<String> toStringList(Context ctx) {
         List<String> lReturn = new ArrayList<String>();
-        if ( this.callTargetPlayer != null ) {
+        Player          callTargetPlayer = getCallTargetPlayer();
+        Call            call             = getCall();
+        BrokenEquipment equipment        = getBrokenEquipment();
+        Misc            misc             = getMisc();
+        if ( callTargetPlayer != null ) {
             lReturn.add(" ");
             lReturn.add(" ");
             lReturn.add(" ");
-            if ( this.call != null ) {
+            if ( call != null ) {
                 String sCall = null;
                 if (ctx != null ) {
-                    sCall = ctx.getString(this.call.getAbbreviationResourceId());
+                    sCall = ctx.getString(call.getAbbreviationResourceId());
                 } else {
-                    sCall = this.call.toString();
+                    sCall = call.toString();
                 }
 
-                if (this.callTargetPlayer.equals(Player.A)) {
+                if (callTargetPlayer.equals(Player.A)) {
                     lReturn.add(1, sCall);
                 } else {
                     lReturn.add(3, sCall);
                 }
-            } else if ( this.equipment != null ) {
+            } else if ( equipment != null ) {
                 String sEquipment = null;
                 if (ctx != null ) {
-                    sEquipment = ctx.getString(this.equipment.getResourceIdAbbreviation());
+                    sEquipment = ctx.getString(equipment.getResourceIdAbbreviation());
                 } else {
                     sEquipment = equipment.toString();
                 }
-                if (this.callTargetPlayer.equals(Player.A)) {
+                if (callTargetPlayer.equals(Player.A)) {
                     lReturn.add(1, sEquipment);
                 } else {
                     lReturn.add(3, sEquipment);
                 }
-            } else if ( this.misc != null ) {
+            } else if ( misc != null ) {
                 String sMisc = null;
                 if (ctx != null ) {
-                    sMisc = ctx.getString(this.misc.getResourceIdAbbreviation());
+                    sMisc = ctx.getString(misc.getResourceIdAbbreviation());
                 } else {
                     sMisc = misc.toString();
                 }
-                if (this.callTargetPlayer.equals(Player.A)) {
+                if (callTargetPlayer.equals(Player.A)) {
                     lReturn.add(1, sMisc);
                 } else {
                     lReturn.add(3, sMisc);
@@ -196,7 +315,7 @@ public class ScoreLine implements Serializable
             return lReturn;
         }
         //boolean bHasNegativeNumber = false;
-        for(Object o: m_line) {
+        for(Object o: getLine()) {
             if ( o == null ) {
                 lReturn.add("-");
             } else {
@@ -238,7 +357,11 @@ public class ScoreLine implements Serializable
     }
     public String toString6() {
         StringBuilder sb = new StringBuilder();
-        if ( this.callTargetPlayer != null ) {
+        Player          callTargetPlayer = getCallTargetPlayer();
+        Call            call             = getCall();
+        BrokenEquipment equipment        = getBrokenEquipment();
+        Misc            misc             = getMisc();
+        if ( callTargetPlayer != null ) {
             if ( call != null ) {
                 if (callTargetPlayer.equals(Player.A)) {
                     sb.append("(").append(call).append(")").append("--");
@@ -260,8 +383,9 @@ public class ScoreLine implements Serializable
             }
             return sb.toString();
         }
-        for(int i=0; i < m_line.length; i++) {
-            Object o = m_line[i];
+        Object[] line = getLine();
+        for(int i=0; i < line.length; i++) {
+            Object o = line[i];
             if ( i % 2 == 0 ) {
                 // null or serve side
                 if ( o instanceof ServeSide ) {
@@ -300,6 +424,15 @@ public class ScoreLine implements Serializable
                                                  +"(--|" + ListUtil.join(Misc.class, "|") + ")"
     );
     public ScoreLine(String sScoreLine) {
+        m_lPacked = parse(sScoreLine);
+    }
+    private static long parse(String sScoreLine) {
+        Object[]        line           = new Object[4];
+        Player          callTargetPlayer = null;
+        Call            call             = null;
+        BrokenEquipment equipment        = null;
+        Misc            misc             = null;
+
         Matcher m = p.matcher(sScoreLine);
         if ( m.find() ) {
             String g1 = m.group(1);
@@ -308,25 +441,25 @@ public class ScoreLine implements Serializable
             String g4 = m.group(4);
 
             if ( g1.equals("-") == false) {
-                m_line[0] = ServeSide.valueOf(g1);
+                line[0] = ServeSide.valueOf(g1);
             }
             if ( g2.equals("-") == false ) {
                 if (StringUtil.isInteger(g2)) {
-                    m_line[1] = Integer.parseInt(g2);
+                    line[1] = Integer.parseInt(g2);
                 } else {
-                    this.call = Call.valueOf(g2);
-                    this.callTargetPlayer = Player.A;
+                    call = Call.valueOf(g2);
+                    callTargetPlayer = Player.A;
                 }
             }
             if ( g3.equals("-") == false) {
-                m_line[2] = ServeSide.valueOf(g3);
+                line[2] = ServeSide.valueOf(g3);
             }
             if ( g4.equals("-") == false ) {
                 if (StringUtil.isInteger(g4)) {
-                    m_line[3] = Integer.parseInt(g4);
+                    line[3] = Integer.parseInt(g4);
                 } else {
-                    this.call = Call.valueOf(g4);
-                    this.callTargetPlayer = Player.B;
+                    call = Call.valueOf(g4);
+                    callTargetPlayer = Player.B;
                 }
             }
         } else {
@@ -337,12 +470,12 @@ public class ScoreLine implements Serializable
                 String g2 = mCall.group(2);
 
                 if (g1.equals("--") == false) {
-                    this.call = Call.valueOf(g1);
-                    this.callTargetPlayer = Player.A;
+                    call = Call.valueOf(g1);
+                    callTargetPlayer = Player.A;
                 }
                 if (g2.equals("--") == false) {
-                    this.call = Call.valueOf(g2);
-                    this.callTargetPlayer = Player.B;
+                    call = Call.valueOf(g2);
+                    callTargetPlayer = Player.B;
                 }
             } else {
                 // broken equipment
@@ -353,12 +486,12 @@ public class ScoreLine implements Serializable
                     String g2 = mEquipment.group(2);
 
                     if (g1.equals("--") == false) {
-                        this.equipment = BrokenEquipment.valueOf(g1);
-                        this.callTargetPlayer = Player.A;
+                        equipment = BrokenEquipment.valueOf(g1);
+                        callTargetPlayer = Player.A;
                     }
                     if (g2.equals("--") == false) {
-                        this.equipment = BrokenEquipment.valueOf(g2);
-                        this.callTargetPlayer = Player.B;
+                        equipment = BrokenEquipment.valueOf(g2);
+                        callTargetPlayer = Player.B;
                     }
                 } else {
                     // broken equipment
@@ -369,17 +502,23 @@ public class ScoreLine implements Serializable
                         String g2 = mMisc.group(2);
 
                         if (g1.equals("--") == false) {
-                            this.misc = Misc.valueOf(g1);
-                            this.callTargetPlayer = Player.A;
+                            misc = Misc.valueOf(g1);
+                            callTargetPlayer = Player.A;
                         }
                         if (g2.equals("--") == false) {
-                            this.misc = Misc.valueOf(g2);
-                            this.callTargetPlayer = Player.B;
+                            misc = Misc.valueOf(g2);
+                            callTargetPlayer = Player.B;
                         }
                     }
                 }
             }
         }
-        init((ServeSide) m_line[0], (Integer) m_line[1], (ServeSide) m_line[2], (Integer) m_line[3]);
+        long lPacked = packRally((ServeSide) line[0], (Integer) line[1], (ServeSide) line[2], (Integer) line[3]);
+        if ( callTargetPlayer != null ) {
+            lPacked |= packEvent(callTargetPlayer, SHIFT_CALL     , call);
+            lPacked |= packEvent(callTargetPlayer, SHIFT_EQUIPMENT, equipment);
+            lPacked |= packEvent(callTargetPlayer, SHIFT_MISC     , misc);
+        }
+        return lPacked;
     }
 }
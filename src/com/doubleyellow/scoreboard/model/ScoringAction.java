@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.model;
+
+/**
+ * Scoring actions as reported to Model.OnScoringActionListener.
+ * Names match the Model methods that are invoked to replay them (e.g. from the journal written by PersistHelper).
+ */
+public enum ScoringAction {
+    /** Player */
+    changeScore,
+    undoLast,
+    /** Re-does the last undoLast */
+    redoLast,
+    /** Player */
+    undoLastForScorer,
+    /** Player, Call */
+    recordAppealAndCall,
+    /** Player, Call, ConductType */
+    recordConduct,
+    /** Player, add scoreline (boolean) */
+    recordTimeout,
+    /** Player, BrokenEquipment */
+    recordBroken,
+    /** Player */
+    markNextRallyAsPowerPlayFor,
+    /** Player */
+    changeSide,
+    /** notify listeners (boolean), start new game (boolean) */
+    endGame,
+    /** EndMatchManuallyBecause, Player */
+    endMatch,
+}
@@ -105,9 +105,13 @@ public class SquashModel extends Model {
     // score
     //-------------------------------
 
-    @Override public void changeScore(Player player) {
-        super.changeScore_SQ_RB(player, true, null);
-        changeScoreHandlePowerPlay(Sport.Squash, player);
+    @Override public void changeScore(final Player player) {
+        doScoringAction(ScoringAction.changeScore, new Runnable() {
+            @Override public void run() {
+                SquashModel.super.changeScore_SQ_RB(player, true, null);
+                changeScoreHandlePowerPlay(Sport.Squash, player);
+            }
+        }, player);
     }
 
     @Override public String getResultShort() {
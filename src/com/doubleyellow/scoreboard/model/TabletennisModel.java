@@ -184,9 +184,9 @@ public class TabletennisModel extends Model
                 Player scorer = sl.getScoringPlayer();
 
                 ServeSide serveSide = sl.getServeSide();
-                ScoreLine slNew = new ScoreLine(serveSide, Player.A.equals(scorer) ? iScore: null, null, Player.B.equals(scorer) ? iScore: null);
+                ScoreLine slNew = ScoreLine.valueOf(serveSide, Player.A.equals(scorer) ? iScore: null, null, Player.B.equals(scorer) ? iScore: null);
                 if ( Player.A.equals(server) ) {
-                    slNew = new ScoreLine(null, Player.A.equals(scorer) ? iScore: null, serveSide, Player.B.equals(scorer) ? iScore: null);
+                    slNew = ScoreLine.valueOf(null, Player.A.equals(scorer) ? iScore: null, serveSide, Player.B.equals(scorer) ? iScore: null);
                 }
                 scoreLinesNew.add(slNew);
             }
@@ -223,8 +223,12 @@ public class TabletennisModel extends Model
         return super.getResultShort_SQ_TT_BM();
     }
 
-    @Override public void changeScore(Player player) {
-        super.changeScore_TT_BM_RL(player, getSport());
+    @Override public void changeScore(final Player player) {
+        doScoringAction(ScoringAction.changeScore, new Runnable() {
+            @Override public void run() {
+                TabletennisModel.super.changeScore_TT_BM_RL(player, getSport());
+            }
+        }, player);
     }
 
     //-------------------------------
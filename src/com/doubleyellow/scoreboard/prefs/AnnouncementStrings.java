@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.prefs;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.SparseArray;
+
+import com.doubleyellow.scoreboard.Brand;
+import com.doubleyellow.scoreboard.R;
+
+import java.util.Locale;
+
+/**
+ * Strings of official announcements in one language, for the current brand/sport.
+ *
+ * Looked up once and kept in memory, shared by Speak, StartEndAnnouncement, the decision dialogs and the Timer reminders.
+ * Obtained with PreferenceValues.getAnnouncementStrings(), that only creates a new one after the announcement language changed.
+ */
+public class AnnouncementStrings
+{
+    /** strings that are shown in the announcement language by PreferenceValues.getOAString(), others are shown in the device language */
+    private static final int[] iaOAResString = new int[] {
+            R.string.oa_best_of_x_games_to_y,
+            R.string.oa_best_of_x_games,
+            R.string.oa_x_th_game,
+            R.string.oa_game_to_x,
+            R.string.oa_match_to_x,
+            R.string.oa_1_game_all,
+            //R.string.oa_x_leads_n_against_y,
+            //R.string.oa_x_wins_n_against_y,
+            R.string.oa_a_leads_xGamesToy,
+            R.string.oa_a_wins_xGamesToy,
+            R.string.oa_x_games_TO_y,
+            R.string.oa_x_games_all,
+            R.string.oa_x_to_serve__y_to_receive,
+            R.string.oa_x_to_serve,
+            R.string.oa_love_all,
+            R.string.oa_love,
+            R.string.oa_match_firstletter,
+            R.string.oa_game_firstletter,
+            R.string.oa_game,
+            R.string.oa_games,
+            R.string.oa_gameball,
+            R.string.oa_matchball,
+            R.string.oa_n_all__or__n_equal,
+            R.string.oa_player_needs_2_clear_points,
+            R.string.oa_halftime,
+            R.string.oa_change_sides,
+            R.string.oa_fifteen_seconds,
+            R.string.oa_decision_colon,
+            R.string.oa_yes_let,
+            R.string.oa_no_let,
+            R.string.oa_stroke,
+            R.string.oa_stroke_to_x,
+            R.string.oa_conduct_warning,
+            R.string.oa_conduct_warning_x_for_type_y,
+            R.string.oa_conduct_stroke,
+            R.string.oa_conduct_x__stroke_to_y_for_type_t,
+            R.string.oa_conduct_x__game_to_y_for_type_t,
+            R.string.oa_conduct_game,
+            R.string.oa_conduct_match,
+            R.string.oal_let_requested_by,
+            R.string.oal_misconduct_by,
+            R.string.oal_warmup,
+            R.string.oal_pause,
+            R.string.oa_time,
+    };
+    private static final int[] iaOAResArray = new int[] {
+        R.array.FirstSecondThirdFourthFifth
+    };
+    //private static final String[] sLeftRight_Symbols = {"\u25c4", "\u25ba"}; // filled triangle (gelijkbenig, lang gerekt) (NOT: only one of the 2 shows)
+    //private static final String[] sLeftRight_Symbols = {"\u261a", "\u261b"}; // filled pointing finger (does not work)
+    //private static final String[] sLeftRight_Symbols = {"\u25c0", "\u25b6"}; // filled triangle (gelijkzijdig)
+    private static final String[] sLeftRight_Symbols = {"\u25c0\uFE0E", "\u25b6\uFE0E"}; // filled triangle (gelijkzijdig) escaped with \uFE0E to not use color?? since android 7
+    //private static final String[] sLeftRight_Symbols = {"\u21fd", "\u21fe"}; // arrow with open head
+
+    private final Context   m_context;
+    private final Locale    m_locale;
+    private final Brand     m_brand;
+    /** separate resources for the locale: the configuration of the resources of the app itself is not touched */
+    private final Resources m_resources;
+
+    private final SparseArray<String>   m_oaStrings        = new SparseArray<>();
+    private final SparseArray<String[]> m_oaStringArrays   = new SparseArray<>();
+    /** key is the resource id without sport suffix */
+    private final SparseArray<String>   m_sportSpecific    = new SparseArray<>();
+
+    /**
+     * @param bUseSymbolsForServeSide if true, the L and R of the announcement language are replaced by arrows if they differ from the ones of the device language
+     */
+    AnnouncementStrings(Context context, Locale locale, boolean bUseSymbolsForServeSide) {
+        m_context = context.getApplicationContext();
+        m_locale  = locale;
+        m_brand   = Brand.brand;
+
+        Configuration config = new Configuration(m_context.getResources().getConfiguration());
+        config.setLocale(locale);
+        m_resources = m_context.createConfigurationContext(config).getResources();
+
+        for ( int iRes: iaOAResString ) {
+            m_oaStrings.put(iRes, m_resources.getString(iRes));
+        }
+        for ( int iRes: iaOAResArray ) {
+            m_oaStringArrays.put(iRes, m_resources.getStringArray(iRes));
+        }
+        if ( bUseSymbolsForServeSide ) {
+            String sL_DeviceLanguage       = m_context.getString(R.string.left_serveside_single_char);
+            String sR_DeviceLanguage       = m_context.getString(R.string.right_serveside_single_char);
+            String sL_AnnouncementLanguage = m_resources.getString(R.string.left_serveside_single_char);
+            String sR_AnnouncementLanguage = m_resources.getString(R.string.right_serveside_single_char);
+            if ( (sL_AnnouncementLanguage + sR_AnnouncementLanguage).equals(sL_DeviceLanguage + sR_DeviceLanguage) ) {
+                // keep using e.g. L and R if L and R of announcement language match those of device language
+                // dutch/german/english al have RL
+            } else {
+                m_oaStrings.put(R.string.left_serveside_single_char , sLeftRight_Symbols[0]);
+                m_oaStrings.put(R.string.right_serveside_single_char, sLeftRight_Symbols[1]);
+            }
+        }
+    }
+
+    public Locale getLocale() {
+        return m_locale;
+    }
+
+    /** false if the brand was changed after this table was created */
+    boolean isForCurrentBrand() {
+        return m_brand.equals(Brand.brand);
+    }
+
+    /** Returns null if the string should not be shown in the announcement language */
+    String getOAString(int iResId) {
+        return m_oaStrings.get(iResId);
+    }
+    String[] getOAStringArray(int iResId) {
+        return m_oaStringArrays.get(iResId);
+    }
+
+    /** Translated string, from the resource with a brand or sport specific suffix if there is one. E.g. oa_game is 'Satz' for squash but 'Spiel' for tennis */
+    public String getSportSpecificString(int iResId, Object ... formats) {
+        String s;
+        synchronized ( m_sportSpecific ) {
+            s = m_sportSpecific.get(iResId);
+            if ( s == null ) {
+                int iResIdSpecific = PreferenceValues.getSportSpecificSuffixedResId(m_context, iResId);
+                s = m_resources.getString(iResIdSpecific);
+                m_sportSpecific.put(iResId, s);
+            }
+        }
+        if ( (formats == null) || (formats.length == 0) ) {
+            return s;
+        }
+        return String.format(m_locale, s, formats);
+    }
+}
@@ -283,6 +283,9 @@ public enum PreferenceKeys {
         liveScoreDeviceId,
         postEveryChangeToSupportLiveScore,
         turnOnLiveScoringForMatchesFromFeed,
+        /** if true this device collects the live score of all courts in the venue, see LiveScoreAggregator */
+        runLiveScoreAggregator,
+        liveScoreAggregatorPort,
 
     FCMPrefs,
         FCMEnabled,
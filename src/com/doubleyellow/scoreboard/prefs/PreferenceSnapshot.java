@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.prefs;
+
+import android.content.Context;
+
+import com.doubleyellow.util.Feature;
+
+import java.util.EnumSet;
+
+/**
+ * Values of the preferences that are read for every point scored, e.g. by the score listeners and IBoard.
+ *
+ * Read once via the regular PreferenceValues getters, so defaults and overwrites are the same.
+ * Obtained with PreferenceValues.getSnapshot(), that builds a new one after preferences or overwrites have changed.
+ * The sets returned are shared and should not be modified.
+ */
+public class PreferenceSnapshot
+{
+    private final EnumSet<ShowOnScreen>      showMatchDurationChronoOn;
+    private final EnumSet<ShowOnScreen>      showLastGameDurationChronoOn;
+    private final EnumSet<ShowOnScreen>      showScoringHistoryInMainScreenOn;
+    private final EnumSet<ShowOnScreen>      showFieldDivisionOn;
+    private final EnumSet<ShowOnScreen>      showBrandLogoOn;
+    private final EnumSet<ShowOnScreen>      floatingMessageForGameBallOn;
+    private final EnumSet<ShowPlayerColorOn> showPlayerColorOn;
+    private final EnumSet<ShowCountryAs>     showCountryAs;
+    private final EnumSet<ShowAvatarOn>      showAvatarOn;
+    private final GameScoresAppearance       gameScoresAppearance;
+    private final int                        serveButtonTransparencyNonServer;
+    private final int                        preferWhiteOverBlackThreshold;
+    private final boolean                    indicateGameBall;
+    private final boolean                    hideFieldDivisionWhenGameInProgress;
+    private final boolean                    hideBrandLogoWhenGameInProgress;
+    private final boolean                    hideFlagForSameCountry;
+    private final boolean                    showTimeIsAlreadyUpFor_Chrono;
+    private final boolean                    showFeedBackOnBLEButtonsPressedInfoMessages;
+    private final boolean                    showChoosenDecisionShortly;
+    private final Feature                    recordRallyEndStatsAfterEachScore;
+    private final Feature                    showGamePausedDialog;
+    private final int                        autoShowGamePausedDialogAfterXPoints;
+
+    PreferenceSnapshot(Context context) {
+        showMatchDurationChronoOn                   = PreferenceValues.showMatchDurationChronoOn(context);
+        showLastGameDurationChronoOn                = PreferenceValues.showLastGameDurationChronoOn(context);
+        showScoringHistoryInMainScreenOn            = PreferenceValues.showScoringHistoryInMainScreenOn(context);
+        showFieldDivisionOn                         = PreferenceValues.showFieldDivisionOn(context);
+        showBrandLogoOn                             = PreferenceValues.showBrandLogoOn(context);
+        floatingMessageForGameBallOn                = PreferenceValues.floatingMessageForGameBallOn(context);
+        showPlayerColorOn                           = PreferenceValues.showPlayerColorOn(context);
+        showCountryAs                               = PreferenceValues.showCountryAs(context);
+        showAvatarOn                                = PreferenceValues.showAvatarOn(context);
+        gameScoresAppearance                        = PreferenceValues.getGameScoresAppearance(context);
+        serveButtonTransparencyNonServer            = PreferenceValues.getServeButtonTransparencyNonServer(context);
+        preferWhiteOverBlackThreshold               = PreferenceValues.getPreferWhiteOverBlackThreshold(context);
+        indicateGameBall                            = PreferenceValues.indicateGameBall(context);
+        hideFieldDivisionWhenGameInProgress         = PreferenceValues.hideFieldDivisionWhenGameInProgress(context);
+        hideBrandLogoWhenGameInProgress             = PreferenceValues.hideBrandLogoWhenGameInProgress(context);
+        hideFlagForSameCountry                      = PreferenceValues.hideFlagForSameCountry(context);
+        showTimeIsAlreadyUpFor_Chrono               = PreferenceValues.showTimeIsAlreadyUpFor_Chrono(context);
+        showFeedBackOnBLEButtonsPressedInfoMessages = PreferenceValues.showFeedBackOnBLEButtonsPressedInfoMessages(context);
+        showChoosenDecisionShortly                  = PreferenceValues.showChoosenDecisionShortly(context);
+        recordRallyEndStatsAfterEachScore           = PreferenceValues.recordRallyEndStatsAfterEachScore(context);
+        showGamePausedDialog                        = PreferenceValues.showGamePausedDialog(context);
+        autoShowGamePausedDialogAfterXPoints        = PreferenceValues.autoShowGamePausedDialogAfterXPoints(context);
+    }
+
+    private static boolean isOn(EnumSet<ShowOnScreen> showOn, boolean bIsPresentation) {
+        return showOn.contains(bIsPresentation ? ShowOnScreen.OnChromeCast : ShowOnScreen.OnDevice);
+    }
+
+    public boolean showMatchDuration(boolean bIsPresentation) {
+        return isOn(showMatchDurationChronoOn, bIsPresentation);
+    }
+    public boolean showLastGameDuration(boolean bIsPresentation) {
+        return isOn(showLastGameDurationChronoOn, bIsPresentation);
+    }
+    public boolean showScoringHistoryInMainScreen(boolean bIsPresentation) {
+        return isOn(showScoringHistoryInMainScreenOn, bIsPresentation);
+    }
+    public boolean showFieldDivision(boolean bIsPresentation) {
+        return isOn(showFieldDivisionOn, bIsPresentation);
+    }
+    public boolean showBrandLogo(boolean bIsPresentation) {
+        return isOn(showBrandLogoOn, bIsPresentation);
+    }
+    public boolean floatingMessageForGameBall(boolean bIsPresentation) {
+        return isOn(floatingMessageForGameBallOn, bIsPresentation);
+    }
+    public EnumSet<ShowPlayerColorOn> showPlayerColorOn() {
+        return showPlayerColorOn;
+    }
+    public EnumSet<ShowCountryAs> showCountryAs() {
+        return showCountryAs;
+    }
+    public EnumSet<ShowAvatarOn> showAvatarOn() {
+        return showAvatarOn;
+    }
+    public GameScoresAppearance getGameScoresAppearance() {
+        return gameScoresAppearance;
+    }
+    public int getServeButtonTransparencyNonServer() {
+        return serveButtonTransparencyNonServer;
+    }
+    public int getPreferWhiteOverBlackThreshold() {
+        return preferWhiteOverBlackThreshold;
+    }
+    public boolean indicateGameBall() {
+        return indicateGameBall;
+    }
+    public boolean hideFieldDivisionWhenGameInProgress() {
+        return hideFieldDivisionWhenGameInProgress;
+    }
+    public boolean hideBrandLogoWhenGameInProgress() {
+        return hideBrandLogoWhenGameInProgress;
+    }
+    public boolean hideFlagForSameCountry() {
+        return hideFlagForSameCountry;
+    }
+    public boolean showTimeIsAlreadyUpFor_Chrono() {
+        return showTimeIsAlreadyUpFor_Chrono;
+    }
+    public boolean showFeedBackOnBLEButtonsPressedInfoMessages() {
+        return showFeedBackOnBLEButtonsPressedInfoMessages;
+    }
+    public boolean showChoosenDecisionShortly() {
+        return showChoosenDecisionShortly;
+    }
+    public Feature recordRallyEndStatsAfterEachScore() {
+        return recordRallyEndStatsAfterEachScore;
+    }
+    public Feature showGamePausedDialog() {
+        return showGamePausedDialog;
+    }
+    public int autoShowGamePausedDialogAfterXPoints() {
+        return autoShowGamePausedDialogAfterXPoints;
+    }
+}
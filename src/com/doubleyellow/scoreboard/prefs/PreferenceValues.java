@@ -34,7 +34,6 @@ import android.preference.*;
 import android.provider.ContactsContract;
 import android.util.DisplayMetrics;
 import android.util.Log;
-import android.util.SparseArray;
 import android.widget.ImageView;
 import android.widget.Toast;
 
@@ -52,6 +51,7 @@ import com.doubleyellow.scoreboard.archive.GroupMatchesBy;
 import com.doubleyellow.scoreboard.dialog.MyDialogBuilder;
 import com.doubleyellow.scoreboard.feed.Authentication;
 import com.doubleyellow.scoreboard.main.ScoreBoard;
+import com.doubleyellow.scoreboard.share.LiveScoreAggregator;
 import com.doubleyellow.scoreboard.model.*;
 import com.doubleyellow.scoreboard.model.Util;
 import com.doubleyellow.scoreboard.speech.Speak;
@@ -599,6 +599,12 @@ public class PreferenceValues extends RWValues
     public static boolean isConfiguredForLiveScore(Context ctx) {
         return getBoolean(PreferenceKeys.postEveryChangeToSupportLiveScore, ctx, false);
     }
+    public static boolean runLiveScoreAggregator(Context ctx) {
+        return getBoolean(PreferenceKeys.runLiveScoreAggregator, ctx, false);
+    }
+    public static int getLiveScoreAggregatorPort(Context ctx) {
+        return getInteger(PreferenceKeys.liveScoreAggregatorPort, ctx, LiveScoreAggregator.DEFAULT_PORT);
+    }
     public static boolean turnOnLiveScoringForMatchesFromFeed(Context ctx) {
         return getBoolean(PreferenceKeys.turnOnLiveScoringForMatchesFromFeed, ctx, R.bool.turnOnLiveScoringForMatchesFromFeed_default);
     }
@@ -710,77 +716,51 @@ public class PreferenceValues extends RWValues
         return sValue;
     }
 
-    private static SparseArray<String>   mOACache      = null;
-    private static SparseArray<String[]> mOAArrayCache = null;
+    /** strings in the announcement language, (only) replaced when the announcement language or brand changes */
+    private static volatile AnnouncementStrings m_announcementStrings = null;
+    /** strings in other languages, e.g. the one Speak falls back to if the announcement language can not be spoken */
+    private static final Map<Locale, AnnouncementStrings> m_otherAnnouncementStrings = new HashMap<>();
+
     static void clearOACache() {
-        mOAArrayCache = null;
-        mOACache      = null;
+        m_announcementStrings = null;
+        synchronized ( m_otherAnnouncementStrings ) {
+            m_otherAnnouncementStrings.clear();
+        }
+    }
+    public static AnnouncementStrings getAnnouncementStrings(Context ctx) {
+        AnnouncementStrings strings = m_announcementStrings;
+        if ( (strings != null) && strings.isForCurrentBrand() ) {
+            return strings;
+        }
+        boolean bUseSymbolsForServeSide = announcementLanguageDeviates(ctx) && (Brand.isGameSetMatch() == false);
+        strings = new AnnouncementStrings(ctx, announcementsLocale(ctx), bUseSymbolsForServeSide);
+        m_announcementStrings = strings;
+        return strings;
+    }
+    public static AnnouncementStrings getAnnouncementStrings(Context ctx, Locale locale) {
+        AnnouncementStrings strings = getAnnouncementStrings(ctx);
+        if ( (locale == null) || strings.getLocale().equals(locale) ) {
+            return strings;
+        }
+        synchronized ( m_otherAnnouncementStrings ) {
+            strings = m_otherAnnouncementStrings.get(locale);
+            if ( (strings == null) || (strings.isForCurrentBrand() == false) ) {
+                strings = new AnnouncementStrings(ctx, locale, false);
+                m_otherAnnouncementStrings.put(locale, strings);
+            }
+        }
+        return strings;
     }
+
     public static String[] getOAStringArray(Context ctx, int iResId) {
-        if ( mOAArrayCache == null ) {
-            getOAString(ctx, R.string.oa_stroke); // just to fill the cache
-        }
-        if ( MapUtil.isNotEmpty(mOAArrayCache) ) {
-            return mOAArrayCache.get(iResId);
+        String[] sa = getAnnouncementStrings(ctx).getOAStringArray(iResId);
+        if ( sa != null ) {
+            return sa;
         } else {
             return ctx.getResources().getStringArray(iResId);
         }
     }
 
-    private static final int[] iaOAResString = new int[] {
-            R.string.oa_best_of_x_games_to_y,
-            R.string.oa_best_of_x_games,
-            R.string.oa_x_th_game,
-            R.string.oa_game_to_x,
-            R.string.oa_match_to_x,
-            R.string.oa_1_game_all,
-            //R.string.oa_x_leads_n_against_y,
-            //R.string.oa_x_wins_n_against_y,
-            R.string.oa_a_leads_xGamesToy,
-            R.string.oa_a_wins_xGamesToy,
-            R.string.oa_x_games_TO_y,
-            R.string.oa_x_games_all,
-            R.string.oa_x_to_serve__y_to_receive,
-            R.string.oa_x_to_serve,
-            R.string.oa_love_all,
-            R.string.oa_love,
-            R.string.oa_match_firstletter,
-            R.string.oa_game_firstletter,
-            R.string.oa_game,
-            R.string.oa_games,
-            R.string.oa_gameball,
-            R.string.oa_matchball,
-            R.string.oa_n_all__or__n_equal,
-            R.string.oa_player_needs_2_clear_points,
-            R.string.oa_halftime,
-            R.string.oa_change_sides,
-            R.string.oa_fifteen_seconds,
-            R.string.oa_decision_colon,
-            R.string.oa_yes_let,
-            R.string.oa_no_let,
-            R.string.oa_stroke,
-            R.string.oa_stroke_to_x,
-            R.string.oa_conduct_warning,
-            R.string.oa_conduct_warning_x_for_type_y,
-            R.string.oa_conduct_stroke,
-            R.string.oa_conduct_x__stroke_to_y_for_type_t,
-            R.string.oa_conduct_x__game_to_y_for_type_t,
-            R.string.oa_conduct_game,
-            R.string.oa_conduct_match,
-            R.string.oal_let_requested_by,
-            R.string.oal_misconduct_by,
-            R.string.oal_warmup,
-            R.string.oal_pause,
-            R.string.oa_time,
-    };
-    private static final int[] iaOAResArray = new int[] {
-        R.array.FirstSecondThirdFourthFifth
-    };
-    //private static final String[] sLeftRight_Symbols = {"\u25c4", "\u25ba"}; // filled triangle (gelijkbenig, lang gerekt) (NOT: only one of the 2 shows)
-    //private static final String[] sLeftRight_Symbols = {"\u261a", "\u261b"}; // filled pointing finger (does not work)
-    //private static final String[] sLeftRight_Symbols = {"\u25c0", "\u25b6"}; // filled triangle (gelijkzijdig)
-    private static final String[] sLeftRight_Symbols = {"\u25c0\uFE0E", "\u25b6\uFE0E"}; // filled triangle (gelijkzijdig) escaped with \uFE0E to not use color?? since android 7
-    //private static final String[] sLeftRight_Symbols = {"\u21fd", "\u21fe"}; // arrow with open head
     public static String getOAStringFirstLetter(Context ctx, int iResId) {
         String oaString = getOAString(ctx, iResId);
         if ( StringUtil.isNotEmpty(oaString) ) {
@@ -789,48 +769,7 @@ public class PreferenceValues extends RWValues
         return null;
     }
     public static String getOAString(Context ctx, int iResId, Object ... formats) {
-        if ( mOACache == null ) {
-            AnnouncementLanguage langAnnouncements = officialAnnouncementsLanguage(ctx);
-
-            String sL_DeviceLanguage = ctx.getString(R.string.left_serveside_single_char);
-            String sR_DeviceLanguage = ctx.getString(R.string.right_serveside_single_char);
-
-            Resources     res    = ctx.getResources();
-            Configuration resCfg = res.getConfiguration();
-            Locale localeRestore = null; // locale to restore to later
-            if ( resCfg.locale.getLanguage().equals(langAnnouncements.toString()) == false ) {
-                localeRestore = resCfg.locale;
-                Locale locale = new Locale(langAnnouncements.toString());
-                res = newResources(res, locale);
-            }
-
-            mOACache = new SparseArray<String>();
-            for(int iRes: iaOAResString) {
-                String sCache = res.getString(iRes);
-                mOACache.put(iRes, sCache);
-            }
-            if ( announcementLanguageDeviates(ctx) && (Brand.isGameSetMatch() == false) ) {
-                String sL_AnnouncementLanguage = res.getString(R.string.left_serveside_single_char);
-                String sR_AnnouncementLanguage = res.getString(R.string.right_serveside_single_char);
-                if ( (sL_AnnouncementLanguage + sR_AnnouncementLanguage).equals(sL_DeviceLanguage + sR_DeviceLanguage) ) {
-                    // keep using e.g. L and R if L and R of announcement language match those of device language
-                    // dutch/german/english al have RL
-                } else {
-                    mOACache.put(R.string.left_serveside_single_char , sLeftRight_Symbols[0]);
-                    mOACache.put(R.string.right_serveside_single_char, sLeftRight_Symbols[1]);
-                }
-            }
-
-            mOAArrayCache = new SparseArray<String[]>();
-            for(int iRes: iaOAResArray) {
-                mOAArrayCache.put(iRes, ctx.getResources().getStringArray(iRes));
-            }
-            res = newResources(res, localeRestore);
-        }
-        String s = null;
-        if ( MapUtil.isNotEmpty(mOACache) ) {
-            s = mOACache.get(iResId);
-        }
+        String s = getAnnouncementStrings(ctx).getOAString(iResId);
         if ( StringUtil.isNotEmpty(s) ) {
             // we have a cached string, do the formatting
             return String.format(s, formats);
@@ -1091,7 +1030,7 @@ public class PreferenceValues extends RWValues
         return getBoolean(PreferenceKeys.floatingMessageForGameBall, context, R.bool.floatingMessageForGameBall_default);
     }
 */
-    private static EnumSet<ShowOnScreen> floatingMessageForGameBallOn(Context context) {
+    static EnumSet<ShowOnScreen> floatingMessageForGameBallOn(Context context) {
         int iRes = R.array.floatingMessageForGameBallOn_DefaultValues__Squash; // value used in preferences.xml and therefor used
         return getEnumSet(PreferenceKeys.floatingMessageForGameBallOn, context, ShowOnScreen.class, EnumSet.of(ShowOnScreen.OnDevice, ShowOnScreen.OnChromeCast));
     }
@@ -1633,6 +1572,15 @@ public class PreferenceValues extends RWValues
     public static String getPostLiveScoreToURL(Context context) {
         return getFeedPostDetail(context, URLsKeys.LiveScoreUrl);
     }
+    public static boolean postLiveScoreAsPatch(Context context) {
+        return Boolean.parseBoolean(getFeedPostDetail(context, URLsKeys.LiveScorePatch));
+    }
+    public static String getLiveScoreAggregatorURL(Context context) {
+        return getFeedPostDetail(context, URLsKeys.LiveScoreAggregator);
+    }
+    public static String getLiveScoreAggregatorToken(Context context) {
+        return getFeedPostDetail(context, URLsKeys.LiveScoreAggregatorToken);
+    }
     private static PostDataPreference getPostDataPreference(Context context) {
         return getEnum(PreferenceKeys.postDataPreference, context, PostDataPreference.class, PostDataPreference.Basic);
     }
@@ -1950,6 +1898,49 @@ public class PreferenceValues extends RWValues
         return map;
     }
 
+    //-------------------------------------------------------------------
+    // Snapshot of preferences read for every point
+    //-------------------------------------------------------------------
+
+    private static volatile PreferenceSnapshot m_snapshot = null;
+    /** SharedPreferences only keeps a weak reference to its listeners */
+    private static SharedPreferences.OnSharedPreferenceChangeListener m_snapshotInvalidator = null;
+
+    /**
+     * Preferences read while scoring, without going to the SharedPreferences for each of them.
+     * A changed preference or overwrite only marks the snapshot as outdated, it is rebuilt once when it is requested again.
+     */
+    public static PreferenceSnapshot getSnapshot(Context context) {
+        PreferenceSnapshot snapshot = m_snapshot;
+        if ( snapshot != null ) {
+            return snapshot;
+        }
+        if ( m_snapshotInvalidator == null ) {
+            m_snapshotInvalidator = new SharedPreferences.OnSharedPreferenceChangeListener() {
+                @Override public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+                    m_snapshot = null;
+                }
+            };
+            PreferenceManager.getDefaultSharedPreferences(context).registerOnSharedPreferenceChangeListener(m_snapshotInvalidator);
+        }
+        snapshot = new PreferenceSnapshot(context);
+        m_snapshot = snapshot;
+        return snapshot;
+    }
+
+    public static String removeOverwrite(Object key) {
+        m_snapshot = null;
+        return RWValues.removeOverwrite(key);
+    }
+    public static String setOverwrite(Object key, boolean bValue) {
+        m_snapshot = null;
+        return RWValues.setOverwrite(key, bValue);
+    }
+    public static int clearOverwrites() {
+        m_snapshot = null;
+        return RWValues.clearOverwrites();
+    }
+
     public static void removeOverwrites(Map<PreferenceKeys, String> values) {
         if ( values == null ) { return; }
         removeOverwrites(values.keySet());
@@ -1976,10 +1967,12 @@ public class PreferenceValues extends RWValues
     public static void setOverwrite(PreferenceKeys key, String sValue) {
         RWValues.setOverwrite(key, sValue);
         bFeedsAreUnChanged = false;
+        m_snapshot = null;
     }
     public static <T extends Enum<T>> void setOverwrite(PreferenceKeys key, T eValue) {
         RWValues.setOverwrite(key, String.valueOf(eValue));
         bFeedsAreUnChanged = false;
+        m_snapshot = null;
     }
 
     public static boolean getMatchesFeedURLUnchanged() {
@@ -29,6 +29,12 @@ public enum URLsKeys {
     PostResult,
     /** an URL where intermediate match result should be posted to allowing for implementing e.g. livesore pages */
     LiveScoreUrl,
+    /** true if the LiveScoreUrl accepts JSON patches (RFC 6902) against the version it returned for the previous post */
+    LiveScorePatch,
+    /** e.g. http://192.168.1.10:8228 : a device in the venue collecting the live score of all courts. If specified live score is posted there in stead of to LiveScoreUrl */
+    LiveScoreAggregator,
+    /** secret shared by the LiveScoreAggregator and the devices posting to it. Without it the aggregator does not start */
+    LiveScoreAggregatorToken,
     /**
      * Should contain a value of enum PostDataPreference
      */
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.share;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * Creates a JSON Patch (RFC 6902) describing the changes between two versions of the json of a match,
+ * and applies such a patch (e.g. one received by the LiveScoreAggregator).
+ *
+ * Only 'add', 'remove' and 'replace' operations are generated and supported.
+ * Arrays are compared element by element: the score history of a match mainly grows at the end, which results in a few 'add' operations.
+ */
+class JsonPatch {
+
+    static final String CONTENT_TYPE = "application/json-patch+json";
+
+    private static final String OP    = "op";
+    private static final String PATH  = "path";
+    private static final String VALUE = "value";
+
+    private JsonPatch() {}
+
+    static JSONArray diff(JSONObject joFrom, JSONObject joTo) throws JSONException {
+        JSONArray aOperations = new JSONArray();
+        diff("", joFrom, joTo, aOperations);
+        return aOperations;
+    }
+
+    private static void diff(String sPath, Object oFrom, Object oTo, JSONArray aOperations) throws JSONException {
+        if ( (oFrom instanceof JSONObject) && (oTo instanceof JSONObject) ) {
+            JSONObject joFrom = (JSONObject) oFrom;
+            JSONObject joTo   = (JSONObject) oTo;
+            Iterator<String> itFrom = joFrom.keys();
+            while ( itFrom.hasNext() ) {
+                String sKey = itFrom.next();
+                String sKeyPath = sPath + "/" + escape(sKey);
+                if ( joTo.has(sKey) ) {
+                    diff(sKeyPath, joFrom.get(sKey), joTo.get(sKey), aOperations);
+                } else {
+                    addOperation(aOperations, "remove", sKeyPath, null);
+                }
+            }
+            Iterator<String> itTo = joTo.keys();
+            while ( itTo.hasNext() ) {
+                String sKey = itTo.next();
+                if ( joFrom.has(sKey) == false ) {
+                    addOperation(aOperations, "add", sPath + "/" + escape(sKey), joTo.get(sKey));
+                }
+            }
+        } else if ( (oFrom instanceof JSONArray) && (oTo instanceof JSONArray) ) {
+            JSONArray aFrom = (JSONArray) oFrom;
+            JSONArray aTo   = (JSONArray) oTo;
+            int iCommon = Math.min(aFrom.length(), aTo.length());
+            for ( int i = 0; i < iCommon; i++ ) {
+                diff(sPath + "/" + i, aFrom.get(i), aTo.get(i), aOperations);
+            }
+            for ( int i = iCommon; i < aTo.length(); i++ ) {
+                addOperation(aOperations, "add", sPath + "/-", aTo.get(i));
+            }
+            // remove from the end, so indexes of the remaining elements stay valid
+            for ( int i = aFrom.length() - 1; i >= iCommon; i-- ) {
+                addOperation(aOperations, "remove", sPath + "/" + i, null);
+            }
+        } else if ( isSameValue(oFrom, oTo) == false ) {
+            addOperation(aOperations, "replace", sPath, oTo);
+        }
+    }
+
+    /** Applies the operations to the json, modifying it. Throws an exception for an operation or path that is not supported. */
+    static void apply(JSONObject joTarget, JSONArray aOperations) throws JSONException {
+        for ( int i = 0; i < aOperations.length(); i++ ) {
+            JSONObject joOperation = aOperations.getJSONObject(i);
+            String sOp   = joOperation.getString(OP);
+            String sPath = joOperation.getString(PATH);
+
+            int iLastSlash = sPath.lastIndexOf('/');
+            if ( iLastSlash < 0 ) {
+                throw new JSONException("Unsupported path " + sPath);
+            }
+            Object oParent = getParent(joTarget, sPath.substring(0, iLastSlash));
+            String sKey    = unescape(sPath.substring(iLastSlash + 1));
+
+            if ( oParent instanceof JSONObject ) {
+                JSONObject joParent = (JSONObject) oParent;
+                if ( sOp.equals("remove") ) {
+                    joParent.remove(sKey);
+                } else {
+                    joParent.put(sKey, joOperation.get(VALUE));
+                }
+            } else if ( oParent instanceof JSONArray ) {
+                JSONArray aParent = (JSONArray) oParent;
+                int iIndex = sKey.equals("-") ? aParent.length() : Integer.parseInt(sKey);
+                if ( sOp.equals("remove") ) {
+                    aParent.remove(iIndex);
+                } else if ( sOp.equals("add") && (iIndex < aParent.length()) ) {
+                    // insert: shift the remaining elements
+                    for ( int j = aParent.length(); j > iIndex; j-- ) {
+                        aParent.put(j, aParent.get(j - 1));
+                    }
+                    aParent.put(iIndex, joOperation.get(VALUE));
+                } else {
+                    aParent.put(iIndex, joOperation.get(VALUE));
+                }
+            } else {
+                throw new JSONException("No object or array at " + sPath);
+            }
+        }
+    }
+
+    private static Object getParent(JSONObject joRoot, String sPath) throws JSONException {
+        Object o = joRoot;
+        if ( sPath.isEmpty() ) {
+            return o;
+        }
+        for ( String sToken : sPath.substring(1).split("/", -1) ) {
+            String sKey = unescape(sToken);
+            if ( o instanceof JSONObject ) {
+                o = ((JSONObject) o).get(sKey);
+            } else if ( o instanceof JSONArray ) {
+                o = ((JSONArray) o).get(Integer.parseInt(sKey));
+            } else {
+                throw new JSONException("No object or array at " + sPath);
+            }
+        }
+        return o;
+    }
+
+    private static boolean isSameValue(Object oFrom, Object oTo) {
+        if ( oFrom.getClass().equals(oTo.getClass()) == false ) {
+            return false;
+        }
+        return String.valueOf(oFrom).equals(String.valueOf(oTo));
+    }
+
+    private static void addOperation(JSONArray aOperations, String sOp, String sPath, Object oValue) throws JSONException {
+        JSONObject joOperation = new JSONObject();
+        joOperation.put(OP  , sOp);
+        joOperation.put(PATH, sPath);
+        if ( oValue != null ) {
+            joOperation.put(VALUE, oValue);
+        }
+        aOperations.put(joOperation);
+    }
+
+    /** RFC 6901 */
+    private static String escape(String sKey) {
+        return sKey.replace("~", "~0").replace("/", "~1");
+    }
+    private static String unescape(String sToken) {
+        return sToken.replace("~1", "/").replace("~0", "~");
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.share;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import com.doubleyellow.scoreboard.URLFeedTask;
+import com.doubleyellow.scoreboard.prefs.PreferenceValues;
+import com.doubleyellow.scoreboard.prefs.URLsKeys;
+import com.doubleyellow.util.StringUtil;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets one device in a venue collect the live score of the matches on all courts.
+ *
+ * - devices scoring a match post the json of their match to http://[this device]:[port]/court/[court]?token=[token], see MatchModelPoster.
+ *   The token is shared by all devices of the venue via the feed configuration: posts without it are refused.
+ *   The response holds a 'version', so next updates can be posted as a JSON patch with If-Match: [version] (see LiveScorePublisher)
+ * - GET / returns a page with the live score of all courts, updated via server-sent events from /events
+ * - GET /scores.json returns the json of all courts
+ * - the json of all courts is posted to the LiveScoreUrl of the active feed of this device, at most once per second.
+ *   This replaces an upload per court by a single upload for the venue
+ * - the server only listens on the LAN address of the device, and limits the number of connections, courts and live score pages
+ */
+public class LiveScoreAggregator
+{
+    private static final String TAG = "SB." + LiveScoreAggregator.class.getSimpleName();
+
+    public  static final int    DEFAULT_PORT = 8228;
+
+    private static final String PATH_COURT   = "/court/";
+    private static final String PATH_EVENTS  = "/events";
+    private static final String PATH_SCORES  = "/scores.json";
+    private static final String PARAM_TOKEN  = "token";
+
+    private static final String KEY_COURTS   = "courts";
+    private static final String KEY_COURT    = "court";
+    private static final String KEY_MATCH    = "match";
+    private static final String KEY_UPDATED  = "updated";
+
+    private static final int    MAX_LINE_LENGTH   = 8 * 1024;
+    private static final int    MAX_BODY_LENGTH   = 1024 * 1024;
+    private static final int    SOCKET_TIMEOUT_MS = 10 * 1000;
+    private static final long   UPSTREAM_INTERVAL_MS = 1000;
+    private static final long   KEEPALIVE_MS      = 15 * 1000;
+
+    /** threads handling requests. Each open live score page occupies one */
+    private static final int    MAX_CONNECTIONS   = 16;
+    private static final int    MAX_EVENT_STREAMS = 8;
+    private static final int    MAX_COURTS        = 32;
+    /** events not yet written to a live score page: if it gets full the page is considered stalled and is disconnected */
+    private static final int    MAX_EVENTS_QUEUED = 64;
+
+    private static final int    VERSION_MISMATCH  = -1;
+    private static final int    TOO_MANY_COURTS   = -2;
+
+    private static final String CHARSET = "UTF-8";
+
+    /** URL a device scoring the match on the given court should post its live score to */
+    public static String getCourtURL(String sAggregatorURL, String sCourt, String sToken) {
+        String sBase = sAggregatorURL.endsWith("/") ? sAggregatorURL.substring(0, sAggregatorURL.length() - 1) : sAggregatorURL;
+        try {
+            return sBase + PATH_COURT + URLEncoder.encode(sCourt, CHARSET) + "?" + PARAM_TOKEN + "=" + URLEncoder.encode(StringUtil.isEmpty(sToken) ? "" : sToken, CHARSET);
+        } catch (IOException e) {
+            return sBase + PATH_COURT + sCourt + "?" + PARAM_TOKEN + "=" + sToken;
+        }
+    }
+
+    private static LiveScoreAggregator m_instance = null;
+
+    /**
+     * @param sToken posts of court devices must have this token. Without a token the aggregator is not started.
+     */
+    public static synchronized void start(Context context, int iPort, String sToken) {
+        if ( StringUtil.isEmpty(sToken) ) {
+            Log.w(TAG, "Not started: no " + URLsKeys.LiveScoreAggregatorToken + " configured");
+            stop();
+            return;
+        }
+        InetAddress address = getLanAddress();
+        if ( address == null ) {
+            Log.w(TAG, "Not started: no LAN address");
+            stop();
+            return;
+        }
+        if ( m_instance != null ) {
+            if (  (m_instance.m_serverSocket.getLocalPort() == iPort)
+               && address.equals(m_instance.m_serverSocket.getInetAddress())
+               && sToken.equals(m_instance.m_sToken) ) {
+                return;
+            }
+            stop();
+        }
+        try {
+            m_instance = new LiveScoreAggregator(context, address, iPort, sToken);
+            Log.i(TAG, "Listening on " + address.getHostAddress() + ":" + iPort);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not listen on " + address.getHostAddress() + ":" + iPort, e);
+        }
+    }
+
+    public static synchronized void stop() {
+        if ( m_instance == null ) { return; }
+        m_instance.close();
+        m_instance = null;
+    }
+
+    public static synchronized boolean isRunning() {
+        return m_instance != null;
+    }
+
+    /** IPv4 address of the device in the local network, preferably that of the wifi interface */
+    private static InetAddress getLanAddress() {
+        InetAddress found = null;
+        try {
+            for ( NetworkInterface nif : Collections.list(NetworkInterface.getNetworkInterfaces()) ) {
+                if ( (nif.isUp() == false) || nif.isLoopback() || nif.isVirtual() ) { continue; }
+                for ( InetAddress address : Collections.list(nif.getInetAddresses()) ) {
+                    if ( (address instanceof Inet4Address) && address.isSiteLocalAddress() ) {
+                        if ( nif.getName().startsWith("wlan") ) {
+                            return address;
+                        }
+                        if ( found == null ) {
+                            found = address;
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not determine LAN address", e);
+        }
+        return found;
+    }
+
+    private static class Court {
+        JSONObject joMatch  = null;
+        int        iVersion = 0;
+        long       lUpdated = 0;
+    }
+
+    /** A live score page listening for server-sent events. Events are written by the thread that handled the request */
+    private static class EventStream {
+        final Socket                socket;
+        final BlockingQueue<String> queue = new ArrayBlockingQueue<>(MAX_EVENTS_QUEUED);
+        EventStream(Socket socket) {
+            this.socket = socket;
+        }
+        /** Never blocks. Returns false if the page does not keep up */
+        boolean offer(String sEvent) {
+            return queue.offer(sEvent);
+        }
+        void close() {
+            try {
+                socket.close(); // also ends a write blocked on a stalled page
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private final Context            m_appContext;
+    private final String             m_sToken;
+    private final ServerSocket       m_serverSocket;
+    private final Thread             m_acceptThread;
+    private final ThreadPoolExecutor m_pool;
+    /** the main looper is never used: it may not wait for the lock on this */
+    private final HandlerThread      m_upstreamThread;
+    private final Handler            m_upstreamHandler;
+
+    /** not guarded: close() iterates it without taking the lock */
+    private final List<EventStream>  m_lEventStreams  = new CopyOnWriteArrayList<>();
+
+    /** guarded by this */
+    private final Map<String, Court> m_mCourts        = new TreeMap<>();
+    private       boolean            m_bUpstreamScheduled = false;
+
+    private LiveScoreAggregator(Context context, InetAddress address, int iPort, String sToken) throws IOException {
+        m_appContext   = context.getApplicationContext();
+        m_sToken       = sToken;
+        m_serverSocket = new ServerSocket(iPort, MAX_CONNECTIONS, address);
+        m_pool         = new ThreadPoolExecutor(MAX_CONNECTIONS, MAX_CONNECTIONS, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(MAX_CONNECTIONS));
+
+        m_upstreamThread = new HandlerThread(TAG);
+        m_upstreamThread.start();
+        m_upstreamHandler = new Handler(m_upstreamThread.getLooper());
+
+        m_acceptThread = new Thread(new Runnable() {
+            @Override public void run() {
+                accept();
+            }
+        }, TAG);
+        m_acceptThread.start();
+    }
+
+    private void close() {
+        try {
+            m_serverSocket.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Closing server socket", e);
+        }
+        for ( EventStream stream : m_lEventStreams ) {
+            stream.close();
+        }
+        m_lEventStreams.clear();
+        m_upstreamHandler.removeCallbacks(m_publishUpstream);
+        m_upstreamThread.quitSafely();
+        m_pool.shutdownNow();
+    }
+
+    private void accept() {
+        while ( m_serverSocket.isClosed() == false ) {
+            Socket socket = null;
+            try {
+                socket = m_serverSocket.accept();
+                final Socket fSocket = socket;
+                m_pool.execute(new Runnable() {
+                    @Override public void run() {
+                        handle(fSocket);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                Log.w(TAG, "Too many connections: refusing " + socket.getInetAddress());
+                try {
+                    socket.close();
+                } catch (IOException e2) {
+                    // ignore
+                }
+            } catch (IOException e) {
+                if ( m_serverSocket.isClosed() == false ) {
+                    Log.w(TAG, "Accepting connection failed", e);
+                }
+            }
+        }
+    }
+
+    //---------------------------------------------------------
+    // HTTP
+    //---------------------------------------------------------
+
+    private void handle(Socket socket) {
+        try {
+            socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+            InputStream  in  = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+
+            String sRequestLine = readLine(in);
+            if ( StringUtil.isEmpty(sRequestLine) ) { return; }
+            String[] saRequest = sRequestLine.split(" ");
+            if ( saRequest.length < 2 ) {
+                respond(out, 400, "text/plain", "Bad request");
+                return;
+            }
+            String sMethod = saRequest[0];
+            String sPath   = saRequest[1];
+            String sQuery  = "";
+            int iQuery = sPath.indexOf('?');
+            if ( iQuery >= 0 ) {
+                sQuery = sPath.substring(iQuery + 1);
+                sPath  = sPath.substring(0, iQuery);
+            }
+
+            Map<String, String> mHeaders = new HashMap<>();
+            String sHeader;
+            while ( StringUtil.isNotEmpty(sHeader = readLine(in)) ) {
+                int iColon = sHeader.indexOf(':');
+                if ( iColon > 0 ) {
+                    mHeaders.put(sHeader.substring(0, iColon).trim().toLowerCase(Locale.US), sHeader.substring(iColon + 1).trim());
+                }
+            }
+
+            if ( sMethod.equals("POST") && sPath.startsWith(PATH_COURT) ) {
+                if ( isValidToken(getParameter(sQuery, PARAM_TOKEN)) == false ) {
+                    Log.w(TAG, "Post with invalid token from " + socket.getInetAddress());
+                    respond(out, 403, "text/plain", "Invalid token");
+                    return;
+                }
+                int iLength = Integer.parseInt(StringUtil.isEmpty(mHeaders.get("content-length")) ? "0" : mHeaders.get("content-length"));
+                if ( (iLength <= 0) || (iLength > MAX_BODY_LENGTH) ) {
+                    respond(out, 413, "text/plain", "Invalid length " + iLength);
+                    return;
+                }
+                String sBody   = new String(readFully(in, iLength), CHARSET);
+                String sCourt  = URLDecoder.decode(sPath.substring(PATH_COURT.length()), CHARSET);
+                String sType   = mHeaders.get("content-type");
+                boolean bPatch = (sType != null) && sType.startsWith(JsonPatch.CONTENT_TYPE);
+                int iVersion = receive(sCourt, sBody, bPatch, mHeaders.get("if-match"));
+                if ( iVersion == VERSION_MISMATCH ) {
+                    // patch against unknown version: the poster will post the complete json
+                    respond(out, 412, "text/plain", "Version mismatch");
+                } else if ( iVersion == TOO_MANY_COURTS ) {
+                    respond(out, 503, "text/plain", "Too many courts");
+                } else {
+                    respond(out, 200, "text/plain", "version=" + iVersion);
+                }
+            } else if ( sMethod.equals("GET") && sPath.equals("/") ) {
+                respond(out, 200, "text/html; charset=utf-8", PAGE);
+            } else if ( sMethod.equals("GET") && sPath.equals(PATH_SCORES) ) {
+                respond(out, 200, "application/json", getCombinedJson());
+            } else if ( sMethod.equals("GET") && sPath.equals(PATH_EVENTS) ) {
+                if ( m_lEventStreams.size() >= MAX_EVENT_STREAMS ) {
+                    respond(out, 503, "text/plain", "Too many live score pages");
+                    return;
+                }
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/event-stream\r\nCache-Control: no-cache\r\nConnection: keep-alive\r\n\r\n").getBytes(CHARSET));
+                out.flush();
+                EventStream stream = new EventStream(socket);
+                synchronized ( this ) {
+                    for ( String sCourt : m_mCourts.keySet() ) {
+                        String sEvent = toEvent(sCourt, m_mCourts.get(sCourt));
+                        if ( sEvent != null ) {
+                            stream.offer(sEvent);
+                        }
+                    }
+                    m_lEventStreams.add(stream);
+                }
+                try {
+                    writeEvents(stream, out);
+                } finally {
+                    m_lEventStreams.remove(stream);
+                }
+            } else {
+                respond(out, 404, "text/plain", "Not found");
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Handling request failed: " + e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private boolean isValidToken(String sToken) {
+        if ( StringUtil.isEmpty(sToken) ) {
+            return false;
+        }
+        try {
+            return MessageDigest.isEqual(m_sToken.getBytes(CHARSET), sToken.getBytes(CHARSET));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String getParameter(String sQuery, String sName) throws IOException {
+        for ( String sParam : sQuery.split("&") ) {
+            int iIs = sParam.indexOf('=');
+            if ( (iIs > 0) && sParam.substring(0, iIs).equals(sName) ) {
+                return URLDecoder.decode(sParam.substring(iIs + 1), CHARSET);
+            }
+        }
+        return null;
+    }
+
+    /** Writes the events queued for the page until it is closed. Runs on the thread that handled the request, so never while holding the lock */
+    private void writeEvents(EventStream stream, OutputStream out) {
+        try {
+            while ( stream.socket.isClosed() == false ) {
+                String sEvent = stream.queue.poll(KEEPALIVE_MS, TimeUnit.MILLISECONDS);
+                if ( sEvent == null ) {
+                    // comment line: detects pages that were closed
+                    sEvent = ":\n\n";
+                }
+                out.write(sEvent.getBytes(CHARSET));
+                out.flush();
+            }
+        } catch (Exception e) {
+            // page closed, stalled or aggregator stopped
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ( (c = in.read()) != -1 ) {
+            if ( c == '\n' ) { break; }
+            if ( c != '\r' ) { sb.append((char) c); }
+            if ( sb.length() > MAX_LINE_LENGTH ) {
+                throw new IOException("Line too long");
+            }
+        }
+        if ( (c == -1) && (sb.length() == 0) ) {
+            return null;
+        }
+        return sb.toString();
+    }
+
+    private static byte[] readFully(InputStream in, int iLength) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(iLength);
+        byte[] buffer = new byte[8 * 1024];
+        int iRemaining = iLength;
+        while ( iRemaining > 0 ) {
+            int iRead = in.read(buffer, 0, Math.min(buffer.length, iRemaining));
+            if ( iRead == -1 ) {
+                throw new IOException(String.format("Body incomplete (%d of %d)", iLength - iRemaining, iLength));
+            }
+            baos.write(buffer, 0, iRead);
+            iRemaining -= iRead;
+        }
+        return baos.toByteArray();
+    }
+
+    private static void respond(OutputStream out, int iStatus, String sContentType, String sBody) throws IOException {
+        byte[] baBody = sBody.getBytes(CHARSET);
+        String sHead = String.format(Locale.US, "HTTP/1.1 %d %s\r\nContent-Type: %s\r\nContent-Length: %d\r\nAccess-Control-Allow-Origin: *\r\nConnection: close\r\n\r\n"
+                , iStatus, (iStatus == 200) ? "OK" : "Error", sContentType, baBody.length);
+        out.write(sHead.getBytes(CHARSET));
+        out.write(baBody);
+        out.flush();
+    }
+
+    //---------------------------------------------------------
+    // Courts
+    //---------------------------------------------------------
+
+    /** Returns the new version of the json of the court, or VERSION_MISMATCH if a patch could not be applied */
+    private synchronized int receive(String sCourt, String sBody, boolean bPatch, String sIfMatch) throws JSONException {
+        Court court = m_mCourts.get(sCourt);
+        if ( court == null ) {
+            if ( m_mCourts.size() >= MAX_COURTS ) {
+                Log.w(TAG, "Too many courts: ignoring " + sCourt);
+                return TOO_MANY_COURTS;
+            }
+            court = new Court();
+            m_mCourts.put(sCourt, court);
+        }
+        if ( bPatch ) {
+            if ( (court.joMatch == null) || (String.valueOf(court.iVersion).equals(sIfMatch) == false) ) {
+                return VERSION_MISMATCH;
+            }
+            try {
+                JsonPatch.apply(court.joMatch, new JSONArray(sBody));
+            } catch (Exception e) {
+                Log.w(TAG, String.format("Could not apply patch for court %s: %s", sCourt, e));
+                court.joMatch = null; // possibly partly applied: require the complete json
+                return VERSION_MISMATCH;
+            }
+        } else {
+            court.joMatch = new JSONObject(sBody);
+        }
+        court.iVersion++;
+        court.lUpdated = System.currentTimeMillis();
+
+        broadcast(sCourt, court);
+        if ( m_bUpstreamScheduled == false ) {
+            m_bUpstreamScheduled = true;
+            m_upstreamHandler.postDelayed(m_publishUpstream, UPSTREAM_INTERVAL_MS);
+        }
+        return court.iVersion;
+    }
+
+    /** guarded by this: events of a court are queued in the order of their versions. Only queues, the pages are written to by their own thread */
+    private void broadcast(String sCourt, Court court) throws JSONException {
+        String sEvent = toEvent(sCourt, court);
+        if ( sEvent == null ) { return; }
+        for ( EventStream stream : m_lEventStreams ) {
+            if ( stream.offer(sEvent) == false ) {
+                Log.w(TAG, "Live score page not keeping up: disconnecting " + stream.socket.getInetAddress());
+                m_lEventStreams.remove(stream);
+                stream.close();
+            }
+        }
+    }
+
+    private static String toEvent(String sCourt, Court court) throws JSONException {
+        if ( court.joMatch == null ) { return null; }
+        return "data: " + toJson(sCourt, court).toString() + "\n\n";
+    }
+
+    private static JSONObject toJson(String sCourt, Court court) throws JSONException {
+        JSONObject joCourt = new JSONObject();
+        joCourt.put(KEY_COURT  , sCourt);
+        joCourt.put(KEY_UPDATED, court.lUpdated);
+        joCourt.put(KEY_MATCH  , court.joMatch);
+        return joCourt;
+    }
+
+    private synchronized String getCombinedJson() throws JSONException {
+        JSONArray aCourts = new JSONArray();
+        for ( String sCourt : m_mCourts.keySet() ) {
+            Court court = m_mCourts.get(sCourt);
+            if ( court.joMatch == null ) { continue; }
+            aCourts.put(toJson(sCourt, court));
+        }
+        JSONObject joRoot = new JSONObject();
+        joRoot.put(KEY_COURTS, aCourts);
+        return joRoot.toString();
+    }
+
+    /** Invoked on the upstream thread: LiveScorePublisher coalesces with a post to the same URL still in progress */
+    private final Runnable m_publishUpstream = new Runnable() {
+        @Override public void run() {
+            String sJson;
+            synchronized ( LiveScoreAggregator.this ) {
+                m_bUpstreamScheduled = false;
+                try {
+                    sJson = getCombinedJson();
+                } catch (JSONException e) {
+                    Log.w(TAG, "Could not create combined json", e);
+                    return;
+                }
+            }
+            String sUpstreamURL = PreferenceValues.getPostLiveScoreToURL(m_appContext);
+            if ( StringUtil.isEmpty(sUpstreamURL) ) {
+                return;
+            }
+            sUpstreamURL = URLFeedTask.prefixWithBaseIfRequired(sUpstreamURL);
+            LiveScorePublisher.publish(m_appContext, sUpstreamURL, sJson, null, PreferenceValues.postLiveScoreAsPatch(m_appContext));
+        }
+    };
+
+    /** Live score page: reads all courts once, then updates a court as soon as its score changes */
+    private static final String PAGE =
+            "<!DOCTYPE html><html><head><meta charset='utf-8'><meta name='viewport' content='width=device-width,initial-scale=1'>" +
+            "<title>Live scores</title>" +
+            "<style>body{font-family:sans-serif;background:#000;color:#fff;margin:0}table{width:100%;border-collapse:collapse}" +
+            "td,th{padding:.4em;border-bottom:1px solid #444;text-align:left}td.s{font-size:1.6em;text-align:right}</style></head>" +
+            "<body><table><thead><tr><th>Court</th><th>Players</th><th>Games</th><th></th></tr></thead><tbody id='c'></tbody></table>" +
+            "<script>" +
+            "var rows={};" +
+            "function t(s){return s==null?'':String(s).replace(/[&<>]/g,function(x){return{'&':'&amp;','<':'&lt;','>':'&gt;'}[x];});}" +
+            "function show(c){var m=c.match||{},p=m.players||{},r=rows[c.court];" +
+            " if(!r){r=document.createElement('tr');rows[c.court]=r;var b=document.getElementById('c');" +
+            "  var k=Object.keys(rows).sort();b.insertBefore(r,rows[k[k.indexOf(c.court)+1]]||null);}" +
+            " r.innerHTML='<td>'+t(c.court)+'</td><td>'+t(p.A)+'<br>'+t(p.B)+'</td><td>'+t(m.gamescores)+'</td><td class=s>'+t(m.result)+'</td>';}" +
+            "fetch('" + PATH_SCORES + "').then(function(r){return r.json();}).then(function(j){j." + KEY_COURTS + ".forEach(show);});" +
+            "new EventSource('" + PATH_EVENTS + "').onmessage=function(e){show(JSON.parse(e.data));};" +
+            "</script></body></html>";
+}
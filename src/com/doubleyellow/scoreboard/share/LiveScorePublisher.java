@@ -0,0 +1,402 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.share;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.doubleyellow.android.task.URLTask;
+import com.doubleyellow.android.util.ContentReceiver;
+import com.doubleyellow.util.FileUtil;
+import com.doubleyellow.util.MapUtil;
+import com.doubleyellow.util.Params;
+import com.doubleyellow.util.StringUtil;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Posts live score updates of a match to an URL.
+ *
+ * - at most one post per URL is in progress: updates coming in meanwhile are coalesced, only the latest is posted next
+ * - failed posts are retried with an increasing delay, or as soon as the network becomes available again.
+ *   Posts rejected by the server (4xx, except 408 and 429) are not retried.
+ * - the latest not yet posted update per URL is kept in an 'outbox' file, so it is posted after the app is restarted.
+ *   The file is written on a background thread, at most once per OUTBOX_WRITE_DELAY_MS.
+ *
+ * Used by MatchModelPoster for all posts not explicitly triggered by the user.
+ */
+public class LiveScorePublisher {
+
+    private static final String TAG = "SB." + LiveScorePublisher.class.getSimpleName();
+
+    private static final String OUTBOX_DIR       = "outbox";
+    private static final String OUTBOX_EXTENSION = ".post";
+
+    private static final long   RETRY_DELAY_MIN_MS    = 2000;
+    private static final long   RETRY_DELAY_MAX_MS    = 60 * 1000;
+    private static final long   OUTBOX_WRITE_DELAY_MS = 1000;
+
+    private static final String HEADER_IF_MATCH  = "If-Match";
+    private static final String RESPONSE_VERSION = "version";
+
+    /** Returned by a server if the If-Match header of a patch does not match the version it holds */
+    private static final int    HTTP_CONFLICT            = 409;
+    private static final int    HTTP_PRECONDITION_FAILED = 412;
+    /** Client errors that are worth retrying */
+    private static final int    HTTP_REQUEST_TIMEOUT     = 408;
+    private static final int    HTTP_TOO_MANY_REQUESTS   = 429;
+    /** URLTask passes on the text of the exception HttpURLConnection throws for a failed post, e.g. 'Server returned HTTP response code: 412 for URL: ...' */
+    private static final Pattern P_HTTP_STATUS = Pattern.compile("response code: (\\d{3})");
+
+    private static class Endpoint {
+        final String    sURL;
+        final File      fOutbox;
+        String          sJsonPending     = null;
+        ContentReceiver receiverPending  = null;
+        boolean         bInFlight        = false;
+        int             iFailedAttempts  = 0;
+
+        /** Only if the server is known to accept JSON patches */
+        boolean         bAllowPatch      = false;
+        /** last json the server acknowledged, and the version the server gave it: base for the next patch */
+        String          sAckedJson       = null;
+        String          sAckedVersion    = null;
+
+        Endpoint(String sURL, File fOutbox) {
+            this.sURL    = sURL;
+            this.fOutbox = fOutbox;
+        }
+    }
+
+    private static final Map<String, Endpoint> m_mEndpoints     = new HashMap<>();
+    private static final Handler               m_handler        = new Handler(Looper.getMainLooper());
+    /** reads and writes the outbox files */
+    private static       Handler               m_outboxHandler  = null;
+    private static       File                  m_outboxDir      = null;
+    private static       Context               m_appContext     = null;
+
+    /** Queue the json to be posted to the URL. Replaces the json of an earlier call that has not been posted yet. */
+    public static synchronized void publish(Context context, String sURL, String sJson, ContentReceiver receiver) {
+        publish(context, sURL, sJson, receiver, false);
+    }
+
+    /**
+     * @param bAllowPatch if true and the server returned a 'version' for the previous json, only a JSON patch against that version is posted.
+     *                    It is send with header If-Match: [version]. If the server rejects it because it holds another version (409 or 412), the complete json is posted instead.
+     *                    Other failures are retried like any other failed post.
+     */
+    public static synchronized void publish(Context context, String sURL, String sJson, ContentReceiver receiver, boolean bAllowPatch) {
+        init(context);
+        Endpoint endpoint = getEndpoint(sURL);
+        endpoint.bAllowPatch     = bAllowPatch;
+        endpoint.sJsonPending    = sJson;
+        endpoint.receiverPending = receiver;
+        saveOutbox(endpoint);
+        if ( endpoint.iFailedAttempts == 0 ) {
+            schedule(endpoint, 0);
+        } else {
+            // wait for the retry already scheduled: it will post this latest update
+        }
+    }
+
+    /** Post updates that could not be posted before the app was stopped, oldest first */
+    public static synchronized void flushOutbox(Context context) {
+        init(context);
+        m_outboxHandler.post(new Runnable() {
+            @Override public void run() {
+                readOutbox();
+            }
+        });
+    }
+
+    /** Invoked on the outbox thread */
+    private static void readOutbox() {
+        File[] files = getOutboxDir().listFiles();
+        if ( (files == null) || (files.length == 0) ) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override public int compare(File f1, File f2) {
+                return Long.compare(f1.lastModified(), f2.lastModified());
+            }
+        });
+        for ( File f : files ) {
+            try {
+                String sContent = FileUtil.readFileAsString(f);
+                int iNewLine = sContent.indexOf('\n');
+                if ( iNewLine <= 0 ) {
+                    f.delete();
+                    continue;
+                }
+                String sURL = sContent.substring(0, iNewLine);
+                synchronized ( LiveScorePublisher.class ) {
+                    Endpoint endpoint = getEndpoint(sURL);
+                    if ( endpoint.sJsonPending == null ) {
+                        endpoint.sJsonPending = sContent.substring(iNewLine + 1);
+                        Log.i(TAG, "Posting from outbox to " + sURL);
+                        schedule(endpoint, 0);
+                    }
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Could not read " + f, e);
+                f.delete();
+            }
+        }
+    }
+
+    private static void init(Context context) {
+        if ( m_appContext != null ) {
+            return;
+        }
+        m_appContext = context.getApplicationContext();
+        m_outboxDir  = new File(m_appContext.getFilesDir(), OUTBOX_DIR);
+
+        HandlerThread outboxThread = new HandlerThread(LiveScorePublisher.class.getSimpleName());
+        outboxThread.start();
+        m_outboxHandler = new Handler(outboxThread.getLooper());
+
+        // retry immediately if the network becomes available again
+        ConnectivityManager cm = (ConnectivityManager) m_appContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if ( cm == null ) {
+            return;
+        }
+        NetworkRequest request = new NetworkRequest.Builder().addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET).build();
+        try {
+            cm.registerNetworkCallback(request, new ConnectivityManager.NetworkCallback() {
+                @Override public void onAvailable(Network network) {
+                    retryFailed();
+                }
+            });
+        } catch (SecurityException e) {
+            Log.w(TAG, "Could not listen for network changes", e);
+        }
+    }
+
+    /** Invoked on the outbox thread */
+    private static File getOutboxDir() {
+        if ( m_outboxDir.exists() == false ) {
+            m_outboxDir.mkdirs();
+        }
+        return m_outboxDir;
+    }
+
+    private static Endpoint getEndpoint(String sURL) {
+        Endpoint endpoint = m_mEndpoints.get(sURL);
+        if ( endpoint == null ) {
+            File fOutbox = new File(m_outboxDir, Integer.toHexString(sURL.hashCode()) + OUTBOX_EXTENSION);
+            endpoint = new Endpoint(sURL, fOutbox);
+            m_mEndpoints.put(sURL, endpoint);
+        }
+        return endpoint;
+    }
+
+    /**
+     * Writes the update pending for the endpoint to its outbox file, or deletes the file if nothing is pending.
+     * Calls within OUTBOX_WRITE_DELAY_MS are coalesced: only the state at the time of writing is written.
+     */
+    private static void saveOutbox(final Endpoint endpoint) {
+        // replaces a write scheduled earlier
+        m_outboxHandler.removeCallbacksAndMessages(endpoint);
+        m_outboxHandler.postAtTime(new Runnable() {
+            @Override public void run() {
+                writeOutbox(endpoint);
+            }
+        }, endpoint, SystemClock.uptimeMillis() + OUTBOX_WRITE_DELAY_MS);
+    }
+
+    /** Invoked on the outbox thread */
+    private static void writeOutbox(Endpoint endpoint) {
+        String sJson;
+        synchronized ( LiveScorePublisher.class ) {
+            sJson = endpoint.sJsonPending;
+        }
+        if ( sJson == null ) {
+            endpoint.fOutbox.delete();
+            return;
+        }
+        try {
+            getOutboxDir();
+            FileUtil.writeTo(endpoint.fOutbox, endpoint.sURL + "\n" + sJson);
+        } catch (Exception e) {
+            Log.w(TAG, "Could not write outbox " + endpoint.fOutbox, e);
+        }
+    }
+
+    private static synchronized void retryFailed() {
+        for ( Endpoint endpoint : m_mEndpoints.values() ) {
+            if ( endpoint.iFailedAttempts > 0 ) {
+                endpoint.iFailedAttempts = 0;
+                schedule(endpoint, 0);
+            }
+        }
+    }
+
+    private static void schedule(final Endpoint endpoint, long lDelayMs) {
+        if ( endpoint.bInFlight ) {
+            // will be picked up when the post in progress finishes
+            return;
+        }
+        // replaces a retry scheduled earlier
+        m_handler.removeCallbacksAndMessages(endpoint);
+        m_handler.postAtTime(new Runnable() {
+            @Override public void run() {
+                postNext(endpoint);
+            }
+        }, endpoint, SystemClock.uptimeMillis() + lDelayMs);
+    }
+
+    private static synchronized void postNext(final Endpoint endpoint) {
+        if ( endpoint.bInFlight || (endpoint.sJsonPending == null) ) {
+            return;
+        }
+        final String          sJson    = endpoint.sJsonPending;
+        final ContentReceiver receiver = endpoint.receiverPending;
+        endpoint.bInFlight = true;
+
+        MatchModelPoster.PostTask postTask = new MatchModelPoster.PostTask(m_appContext, endpoint.sURL);
+        String sBody = getPatch(endpoint, sJson);
+        final boolean bAsPatch = (sBody != null);
+        if ( bAsPatch ) {
+            postTask.setHeader(MatchModelPoster.C_Http_Content_Type, JsonPatch.CONTENT_TYPE);
+            postTask.setHeader(HEADER_IF_MATCH, endpoint.sAckedVersion);
+        } else {
+            sBody = sJson;
+            postTask.setHeader(MatchModelPoster.C_Http_Content_Type, MatchModelPoster.C_Application_Json);
+        }
+        postTask.setContentReceiver(new ContentReceiver() {
+            @Override public void receive(String sContent, FetchResult result, long lCacheAge, String sLastSuccessfulContent, String sUrl) {
+                onPosted(endpoint, sJson, bAsPatch, result, sContent);
+                if ( receiver != null ) {
+                    receiver.receive(sContent, result, lCacheAge, sLastSuccessfulContent, sUrl);
+                }
+            }
+        });
+        postTask.execute(URLTask.__BODY__, sBody);
+    }
+
+    /** Returns null if the complete json should be posted */
+    private static String getPatch(Endpoint endpoint, String sJson) {
+        if ( (endpoint.bAllowPatch == false) || (endpoint.sAckedJson == null) || StringUtil.isEmpty(endpoint.sAckedVersion) ) {
+            return null;
+        }
+        try {
+            String sPatch = JsonPatch.diff(new JSONObject(endpoint.sAckedJson), new JSONObject(sJson)).toString();
+            if ( sPatch.length() >= sJson.length() ) {
+                return null;
+            }
+            return sPatch;
+        } catch (JSONException e) {
+            Log.w(TAG, "Could not create patch", e);
+            return null;
+        }
+    }
+
+    private static synchronized void onPosted(Endpoint endpoint, String sJsonPosted, boolean bAsPatch, ContentReceiver.FetchResult result, String sContent) {
+        endpoint.bInFlight = false;
+        boolean bNewerPending = (endpoint.sJsonPending != sJsonPosted); // identity: a new publish() replaced it
+        if ( result.equals(ContentReceiver.FetchResult.OK) ) {
+            endpoint.iFailedAttempts = 0;
+            rememberAcknowledged(endpoint, sJsonPosted, sContent);
+            if ( bNewerPending ) {
+                schedule(endpoint, 0);
+            } else {
+                endpoint.sJsonPending    = null;
+                endpoint.receiverPending = null;
+                saveOutbox(endpoint);
+            }
+        } else if ( bAsPatch && isVersionMismatch(getHttpStatus(result, sContent)) ) {
+            // the server has another version than the one the patch was created against: post the complete json
+            Log.w(TAG, String.format("Posting patch to %s rejected (%s). Falling back to complete json", endpoint.sURL, sContent));
+            endpoint.sAckedJson    = null;
+            endpoint.sAckedVersion = null;
+            schedule(endpoint, 0);
+        } else if ( isPermanentFailure(getHttpStatus(result, sContent)) ) {
+            // posting the same json again will not help
+            Log.w(TAG, String.format("Posting to %s rejected (%s). Not retrying", endpoint.sURL, sContent));
+            endpoint.iFailedAttempts = 0;
+            if ( bNewerPending ) {
+                schedule(endpoint, 0);
+            } else {
+                endpoint.sJsonPending    = null;
+                endpoint.receiverPending = null;
+                saveOutbox(endpoint);
+            }
+        } else {
+            endpoint.iFailedAttempts++;
+            long lDelay = Math.min(RETRY_DELAY_MAX_MS, RETRY_DELAY_MIN_MS << Math.min(endpoint.iFailedAttempts - 1, 10));
+            Log.w(TAG, String.format("Posting to %s failed (%s, attempt %d). Retry in %d ms", endpoint.sURL, result, endpoint.iFailedAttempts, lDelay));
+            // only the receiver of an update not yet posted needs to know the outcome of posting it
+            endpoint.receiverPending = bNewerPending ? endpoint.receiverPending : null;
+            schedule(endpoint, lDelay);
+        }
+    }
+
+    private static boolean isVersionMismatch(int iHttpStatus) {
+        return (iHttpStatus == HTTP_CONFLICT) || (iHttpStatus == HTTP_PRECONDITION_FAILED);
+    }
+
+    private static boolean isPermanentFailure(int iHttpStatus) {
+        if ( (iHttpStatus == HTTP_REQUEST_TIMEOUT) || (iHttpStatus == HTTP_TOO_MANY_REQUESTS) ) {
+            return false;
+        }
+        return (iHttpStatus >= 400) && (iHttpStatus < 500);
+    }
+
+    /** Returns 0 if the HTTP status of a failed post can not be determined, e.g. because there was no network */
+    static int getHttpStatus(ContentReceiver.FetchResult result, String sContent) {
+        if ( ContentReceiver.FetchResult.FileNotFound.equals(result) ) {
+            return 404;
+        }
+        if ( sContent == null ) {
+            return 0;
+        }
+        Matcher m = P_HTTP_STATUS.matcher(sContent);
+        return m.find() ? Integer.parseInt(m.group(1)) : 0;
+    }
+
+    /** A server supporting patches returns the version of the document it now holds */
+    private static void rememberAcknowledged(Endpoint endpoint, String sJsonPosted, String sContent) {
+        if ( endpoint.bAllowPatch == false ) {
+            return;
+        }
+        String sVersion = null;
+        Params mReturnValues = MapUtil.parseToMap(sContent, Params.class);
+        if ( MapUtil.isNotEmpty(mReturnValues) ) {
+            sVersion = mReturnValues.getOptionalString(RESPONSE_VERSION, null);
+        }
+        endpoint.sAckedVersion = sVersion;
+        endpoint.sAckedJson    = StringUtil.isEmpty(sVersion) ? null : sJsonPosted;
+    }
+}
@@ -111,6 +111,16 @@ public class MatchModelPoster implements ContentReceiver
 
             String sJson = matchModel.toJsonString(context, oSettings, oTimerInfo);
 
+            if ( bFromMenu == false ) {
+                String sAggregatorUrl = PreferenceValues.getLiveScoreAggregatorURL(context);
+                if ( StringUtil.isNotEmpty(sAggregatorUrl) ) {
+                    // a device in the venue collects the live score of all courts and uploads it for all of them
+                    String sCourt = StringUtil.isNotEmpty(matchModel.getCourt()) ? matchModel.getCourt() : sName;
+                    LiveScorePublisher.publish(context, LiveScoreAggregator.getCourtURL(sAggregatorUrl, sCourt, PreferenceValues.getLiveScoreAggregatorToken(context)), sJson, this, true);
+                    return;
+                }
+            }
+
             // post to server hardcoded affiliated with the app
             final String baseURL = Brand.getBaseURL();
             if ( bFromMenu == false ) {
@@ -121,23 +131,25 @@ public class MatchModelPoster implements ContentReceiver
 
                     sThirdPartyUrl = URLFeedTask.prefixWithBaseIfRequired(sThirdPartyUrl); // only for own demo feed: in that case it probably is a relative URL
 
-                    PostTask postTask = new PostTask(context, sThirdPartyUrl);
-                    postTask.setContentReceiver(this);
-                    postTask.setHeader(C_Http_Content_Type, C_Application_Json);
-                    postTask.execute(URLTask.__BODY__, sJson);
+                    LiveScorePublisher.publish(context, sThirdPartyUrl, sJson, this, PreferenceValues.postLiveScoreAsPatch(context));
                 }
             }
             final String sURL = baseURL + "/store/" + sName;
 
-            PostTask postTask = new PostTask(context, sURL);
-            postTask.setContentReceiver(this);
-
             LockState lsRestore = matchModel.getLockState();
             if ( matchModel.matchHasEnded() ) {
                 matchModel.setLockState(LockState.SharedEndedMatch);
             }
-            postTask.setHeader(C_Http_Content_Type, C_Application_Json);
-            postTask.execute(URLTask.__BODY__, sJson);
+            if ( bFromMenu ) {
+                // user is waiting for the result: post right away
+                PostTask postTask = new PostTask(context, sURL);
+                postTask.setContentReceiver(this);
+                postTask.setHeader(C_Http_Content_Type, C_Application_Json);
+                postTask.execute(URLTask.__BODY__, sJson);
+            } else {
+                // typically for livescore: coalesced with other updates of the same match
+                LiveScorePublisher.publish(context, sURL, sJson, this);
+            }
             matchModel.setLockState(lsRestore);
         }
     }
@@ -234,8 +246,8 @@ public class MatchModelPoster implements ContentReceiver
         return PreferenceValues.isConfiguredForLiveScore(m_context);
     }
 
-    private class PostTask extends URLTask {
-        public PostTask(Context context, String sURL) {
+    static class PostTask extends URLTask {
+        PostTask(Context context, String sURL) {
             super(context, sURL, URLTask.POST, null);
         }
         @Override public String getBaseUrl(Context context) { return ""; }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.doubleyellow.scoreboard.share;
+
+import com.doubleyellow.scoreboard.model.Model;
+import com.doubleyellow.scoreboard.model.Player;
+import com.doubleyellow.util.Enums;
+import com.doubleyellow.util.ListUtil;
+import com.doubleyellow.util.MapUtil;
+import com.doubleyellow.util.Params;
+import com.doubleyellow.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tallies matches, games and points won per club over a number of matches.
+ *
+ * Each match is added once, e.g. right after it is read from file: only the values needed for the tallies are kept.
+ * Clubs that were not specified for some matches are corrected once all matches are added (see getClubCorrections()).
+ *
+ * Used by ResultSender for the summary of a team match.
+ */
+public class ResultAggregator
+{
+    /** Matches, games and points won by a club */
+    public static class Tally {
+        private int iMatchesPlayed = 0;
+        private int iMatchesWon    = 0;
+        private int iGamesWon      = 0;
+        private int iPointsWon     = 0;
+
+        public int getMatchesPlayed() { return iMatchesPlayed; }
+        public int getMatchesWon()    { return iMatchesWon; }
+        public int getGamesWon()      { return iGamesWon; }
+        public int getPointsWon()     { return iPointsWon; }
+    }
+
+    /** Values of a single match */
+    private static class MatchResult {
+        final String   sKey;
+        final String[] saClub      = new String[2];
+        final int[]    iaGamesWon  = new int[2];
+        final int[]    iaPointsWon = new int[2];
+        final Player   winner;
+
+        MatchResult(String sKey, Model m) {
+            this.sKey   = sKey;
+            this.winner = m.isPossibleMatchVictoryFor();
+            Map<Player, Integer> gamesWon = m.getGamesWon();
+            List<Map<Player, Integer>> gameScores = m.getGameScoresIncludingInProgress();
+            for ( Player p: Player.values() ) {
+                int i = p.ordinal();
+                saClub    [i] = m.getClub(p);
+                iaGamesWon[i] = MapUtil.getInt(gamesWon, p, 0);
+                for ( Map<Player, Integer> mGameScore : gameScores ) {
+                    iaPointsWon[i] += MapUtil.getInt(mGameScore, p, 0);
+                }
+            }
+        }
+    }
+
+    private final String m_sHome;
+    private final String m_sAway;
+
+    private final List<MatchResult>   m_lMatches       = new ArrayList<>();
+    private final Map<String, String> m_mMatchDates     = new LinkedHashMap<>();
+    private final Map<String, String> m_mMatchEvents    = new HashMap<>();
+    private final Map<String, String> m_mMatchDivisions = new HashMap<>();
+
+    /** corrected clubs, with key 'key + A|B', determined when first required */
+    private Params m_clubCorrections = null;
+
+    /**
+     * @param sHome label to use as club for player A if no club was specified, typically R.string.Home
+     * @param sAway label to use as club for player B if no club was specified, typically R.string.Away
+     */
+    public ResultAggregator(String sHome, String sAway) {
+        m_sHome = sHome;
+        m_sAway = sAway;
+    }
+
+    /**
+     * Add a match. The model is not referenced afterwards, so a temporary model can be re-used for the next match.
+     * @param sKey unique for the match, e.g. the file name
+     */
+    public void add(String sKey, Model m) {
+        m_lMatches.add(new MatchResult(sKey, m));
+        m_mMatchDates    .put(m.getMatchDateYYYYMMDD_DASH(), "1");
+        m_mMatchEvents   .put(m.getEventName()    .toLowerCase(), m.getEventName());
+        m_mMatchDivisions.put(m.getEventDivision().toLowerCase(), m.getEventDivision());
+        m_clubCorrections = null;
+    }
+
+    public int size() {
+        return m_lMatches.size();
+    }
+
+    /** Dates (yyyy-MM-dd) of the matches, in the order they were first encountered */
+    public Map<String, String> getMatchDates() {
+        return m_mMatchDates;
+    }
+    /** Event names of the matches, with key the lowercase event name */
+    public Map<String, String> getMatchEvents() {
+        return m_mMatchEvents;
+    }
+    /** Divisions of the matches, with key the lowercase division */
+    public Map<String, String> getMatchDivisions() {
+        return m_mMatchDivisions;
+    }
+
+    /** Tally per club, in the order the clubs were first encountered. Clubs are corrected first, see getClubCorrections() */
+    public Map<String, Tally> getClubTallies() {
+        Params clubCorrections = getClubCorrections();
+        Map<String, Tally> mClub2Tally = new LinkedHashMap<>();
+        for ( MatchResult match: m_lMatches ) {
+            for ( Player p: Player.values() ) {
+                String sClub = clubCorrections.getOptionalString(match.sKey + "__" + p, match.saClub[p.ordinal()]);
+                if ( StringUtil.isEmpty(sClub) ) { continue; }
+                add(mClub2Tally, sClub, match, p);
+            }
+        }
+        return mClub2Tally;
+    }
+
+    private static void add(Map<String, Tally> mTallies, String sKey, MatchResult match, Player p) {
+        Tally tally = mTallies.get(sKey);
+        if ( tally == null ) {
+            tally = new Tally();
+            mTallies.put(sKey, tally);
+        }
+        int i = p.ordinal();
+        tally.iMatchesPlayed++;
+        if ( p.equals(match.winner) ) {
+            tally.iMatchesWon++;
+        }
+        tally.iGamesWon  += match.iaGamesWon [i];
+        tally.iPointsWon += match.iaPointsWon[i];
+    }
+
+    /**
+     * Get a map with key 'key + A|B' and value 'clubname' for all matches.
+     * Make corrections for matches where no clubs are specified.
+     */
+    public Params getClubCorrections() {
+        if ( m_clubCorrections != null ) {
+            return m_clubCorrections;
+        }
+        final String sREHomeOrAway = "(" + m_sHome + "|" + m_sAway + ")";
+
+        Params mHAClubs = new Params();
+
+        Params pClubCountCI       = new Params();
+        Params mPlayer2ClubsNoHA  = new Params();
+
+        for ( MatchResult match: m_lMatches ) {
+            for(Player p: Player.values() ) {
+                String sClub = match.saClub[p.ordinal()];
+                if ( StringUtil.isEmpty(sClub) ) {
+                    sClub = p.equals(Player.A) ? m_sHome : m_sAway;
+                } else {
+                    mPlayer2ClubsNoHA.addToList(p, sClub.toLowerCase(), true);
+                }
+                mHAClubs.put(match.sKey + "__" + p, sClub);
+                pClubCountCI.increaseCounter(sClub.toLowerCase());
+            }
+        }
+
+        Params pClubCountCI_NoHA = MapUtil.filterKeys(pClubCountCI, sREHomeOrAway, Enums.Match.Remove);
+
+        if ( MapUtil.size(pClubCountCI) != 2 ) {
+            // we need some corrections
+            Params pClubsSpecifiedInEachMatch   = MapUtil.filterValues(pClubCountCI_NoHA, "" + ListUtil.size(m_lMatches), Enums.Match.Keep);
+            Params pClubsSpecifiedInSomeMatches = pClubCountCI.clone(); MapUtil.removeAll(pClubsSpecifiedInSomeMatches, pClubsSpecifiedInEachMatch);
+
+            String sClubSpecifiedInAll  = (String) (MapUtil.size(pClubsSpecifiedInEachMatch  )==1?pClubsSpecifiedInEachMatch  .keySet().iterator().next():null);
+            String sClubSpecifiedInSome = (String) (MapUtil.size(pClubsSpecifiedInSomeMatches)==1?pClubsSpecifiedInSomeMatches.keySet().iterator().next():null);
+
+            for ( MatchResult match: m_lMatches ) {
+                String sClubA = mHAClubs.getRequiredString(match.sKey + "__" + Player.A);
+                String sClubB = mHAClubs.getRequiredString(match.sKey + "__" + Player.B);
+                if ( sClubSpecifiedInAll!=null && sClubSpecifiedInSome!=null) {
+                    // one club is specified in all, one club specified but not in all
+                    if ( sClubA.matches(sREHomeOrAway) ) {
+                        // sClubB must be club specified in all
+                        mHAClubs.put(match.sKey + "__" + Player.A, sClubSpecifiedInSome);
+                    }
+                    if ( sClubB.matches(sREHomeOrAway) ) {
+                        // sClubA must be club specified in all
+                        mHAClubs.put(match.sKey + "__" + Player.B, sClubSpecifiedInSome);
+                    }
+                } else {
+                    // both clubs specified but neither of them for all matches
+                    if ( sClubA.matches(sREHomeOrAway) ) {
+                        // correct A to be a club specified as A in another match
+                        List<String> list = mPlayer2ClubsNoHA.getList(Player.A, null, false);
+                        if ( ListUtil.isNotEmpty(list) ) {
+                            mHAClubs.put(match.sKey + "__" + Player.A, list.get(0));
+                        }
+                    }
+                    if ( sClubB.matches(sREHomeOrAway) ) {
+                        // correct B to be a club specified as B in another match
+                        List<String> list = mPlayer2ClubsNoHA.getList(Player.B, null, false);
+                        if ( ListUtil.isNotEmpty(list) ) {
+                            mHAClubs.put(match.sKey + "__" + Player.B, list.get(0));
+                        }
+                    }
+                }
+            }
+        }
+        m_clubCorrections = mHAClubs;
+        return mHAClubs;
+    }
+}
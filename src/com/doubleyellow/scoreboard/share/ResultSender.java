@@ -239,116 +239,12 @@ public class ResultSender {
     }
 
     /**
-     * Get a map with key 'filename + A|B' and value 'clubname' for files.
-     * Make corrections for matches where no clubs are specified.
+     * Summary of the selected matches, typically of a team match: each file is parsed only once.
      */
-    private static Params getClubCorrections(List<File> lSelected, Context context) {
-        final String sHome = context.getString(R.string.Home);
-        final String sAway = context.getString(R.string.Away);
-        final String sREHomeOrAway = "(" + sHome + "|" + sAway + ")";
-
-        Params mHAClubs = new Params();
-
-        Params pClubCountCI       = new Params();
-        Params pClubCI2CSVariants = new Params();
-        Params mPlayer2ClubsNoHA  = new Params();
-
-        for(File fS: lSelected) {
-            Model m = ModelFactory.getTemp("Parsing persisted JSON files");
-            try {
-                m.fromJsonString(fS);
-            } catch (Exception e) {
-                continue;
-            }
-            for(Player p: Player.values() ) {
-                String sClub = m.getClub(p);
-                if ( StringUtil.isEmpty(sClub) ) {
-                    sClub = p.equals(Player.A) ? sHome : sAway;
-                } else {
-                    mPlayer2ClubsNoHA.addToList(p, sClub.toLowerCase(), true);
-                }
-                mHAClubs.put(fS.getName() + "__" + p, sClub);
-                pClubCountCI.increaseCounter(sClub.toLowerCase());
-                pClubCI2CSVariants.addToList(sClub.toLowerCase(), sClub, true);
-            }
-        }
-
-        Params pClubCountCI_NoHA = MapUtil.filterKeys(pClubCountCI, sREHomeOrAway, Enums.Match.Remove);
-
-        if ( MapUtil.size(pClubCountCI) == 2 ) {
-            // clubs always (keys are real names) or never (keys are home/away) entered
-            switch (MapUtil.size(pClubCountCI_NoHA)) {
-                case 0:
-                    // no clubs specified in any of the matches
-                    break;
-                case 2:
-                    // clubs always consistently specified
-                    break;
-                case 1:
-                    // one club consistently specified
-                    break;
-            }
-        } else {
-            // we need some corrections
-            Params pClubsSpecifiedInEachMatch   = MapUtil.filterValues(pClubCountCI_NoHA, "" + ListUtil.size(lSelected), Enums.Match.Keep);
-            Params pClubsSpecifiedInSomeMatches = pClubCountCI.clone(); MapUtil.removeAll(pClubsSpecifiedInSomeMatches, pClubsSpecifiedInEachMatch);
-
-            String sClubSpecifiedInAll  = (String) (MapUtil.size(pClubsSpecifiedInEachMatch  )==1?pClubsSpecifiedInEachMatch  .keySet().iterator().next():null);
-            String sClubSpecifiedInSome = (String) (MapUtil.size(pClubsSpecifiedInSomeMatches)==1?pClubsSpecifiedInSomeMatches.keySet().iterator().next():null);
-
-            for(File fS: lSelected) {
-                if ( fS == null || fS.exists() == false ) {
-                    continue;
-                }
-                String sClubA = mHAClubs.getRequiredString(fS.getName() + "__" + Player.A);
-                String sClubB = mHAClubs.getRequiredString(fS.getName() + "__" + Player.B);
-                if ( sClubSpecifiedInAll!=null && sClubSpecifiedInSome!=null) {
-                    // one club is specified in all, one club specified but not in all
-                    if ( sClubA.matches(sREHomeOrAway) ) {
-                        // sClubB must be club specified in all
-                        sClubA = sClubSpecifiedInSome;
-                        mHAClubs.put(fS.getName() + "__" + Player.A, sClubA);
-                    }
-                    if ( sClubB.matches(sREHomeOrAway) ) {
-                        // sClubA must be club specified in all
-                        sClubB = sClubSpecifiedInSome;
-                        mHAClubs.put(fS.getName() + "__" + Player.B, sClubB);
-                    }
-                } else {
-                    // both clubs specified but neither of them for all matches
-                    if ( sClubA.matches(sREHomeOrAway) ) {
-                        // correct A to be a club specified as A in another match
-                        List<String> list = mPlayer2ClubsNoHA.getList(Player.A, null, false);
-                        if ( ListUtil.isNotEmpty(list) ) {
-                            sClubA = list.get(0);
-                            mHAClubs.put(fS.getName() + "__" + Player.A, sClubA);
-                        }
-                    }
-                    if ( sClubB.matches(sREHomeOrAway) ) {
-                        // correct B to be a club specified as B in another match
-                        List<String> list = mPlayer2ClubsNoHA.getList(Player.B, null, false);
-                        if ( ListUtil.isNotEmpty(list) ) {
-                            sClubB = list.get(0);
-                            mHAClubs.put(fS.getName() + "__" + Player.B, sClubB);
-                        }
-                    }
-                }
-            }
-        }
-
-        return mHAClubs;
-    }
     public static String getMatchesSummary(List<File> lSelected, Context context) {
-        Params clubCorrections = getClubCorrections(lSelected, context);
-        List<String> lClubs = new ArrayList<>();
-        TreeMap<String, Integer> mClub2MatchesWon = new TreeMap<>();
-        TreeMap<String, Integer> mClub2GamesWon   = new TreeMap<>();
-        TreeMap<String, Integer> mClub2PointsWon  = new TreeMap<>();
-        Map<String, String> mMatchDates           = new HashMap<>();
-        Map<String, String> mMatchEvents          = new HashMap<>();
-        Map<String, String> mMatchDivisions       = new HashMap<>();
-        StringBuilder       sbMatchLinks          = new StringBuilder();
-        StringBuilder sb = new StringBuilder();
+        ResultAggregator aggregator   = new ResultAggregator(context.getString(R.string.Home), context.getString(R.string.Away));
+        StringBuilder    sbMatchLinks = new StringBuilder();
+        StringBuilder    sb           = new StringBuilder();
         for (File fS : lSelected) {
             if (fS == null || fS.exists() == false) {
                 continue;
@@ -364,35 +260,7 @@ public class ResultSender {
             sb.append("\n");
             sb.append("\n");
 
-            Player winner = m.isPossibleMatchVictoryFor();
-            if ( winner != null ) {
-                String sClubWinner = m.getClub(winner);
-                       sClubWinner = clubCorrections.getOptionalString(fS.getName() + "__" + winner, sClubWinner);
-                String sClubLoser  = m.getClub(winner.getOther());
-                       sClubLoser  = clubCorrections.getOptionalString(fS.getName() + "__" + winner.getOther(), sClubLoser);
-                if ( StringUtil.isNotEmpty(sClubWinner) ) {
-                    MapUtil.increaseCounter(mClub2MatchesWon, sClubWinner);
-                    MapUtil.increaseCounter(mClub2MatchesWon, sClubLoser, 0);
-                }
-            }
-            Map<Player, Integer> gamesWon = m.getGamesWon();
-            List<Map<Player, Integer>> gameScores = m.getGameScoresIncludingInProgress();
-            for (Player p : Player.values()) {
-                String sClub = m.getClub(p);
-                sClub = clubCorrections.getOptionalString(fS.getName() + "__" + p, sClub);
-                if (StringUtil.isNotEmpty(sClub)) {
-                    if (lClubs.contains(sClub) == false) {
-                        lClubs.add(sClub);
-                    }
-                    MapUtil.increaseCounter(mClub2GamesWon, sClub, gamesWon.get(p));
-                    for (Map<Player, Integer> mGameScore : gameScores) {
-                        MapUtil.increaseCounter(mClub2PointsWon, sClub, mGameScore.get(p));
-                    }
-                }
-            }
-            mMatchDates    .put(m.getMatchDateYYYYMMDD_DASH(), "1");
-            mMatchEvents   .put(m.getEventName()    .toLowerCase(), m.getEventName());
-            mMatchDivisions.put(m.getEventDivision().toLowerCase(), m.getEventDivision());
+            aggregator.add(fS.getName(), m);
 
             String shareURL = m.getShareURL();
             if ( false && StringUtil.isNotEmpty(shareURL) ) {
@@ -409,7 +277,13 @@ public class ResultSender {
                 }
             }
         }
-        Log.d(TAG, "== clubCorrections: \n" + clubCorrections.toString());
+        Map<String, ResultAggregator.Tally> mClub2Tally     = aggregator.getClubTallies();
+        List<String>                        lClubs          = new ArrayList<>(mClub2Tally.keySet());
+        Map<String, String>                 mMatchDates     = aggregator.getMatchDates();
+        Map<String, String>                 mMatchEvents    = aggregator.getMatchEvents();
+        Map<String, String>                 mMatchDivisions = aggregator.getMatchDivisions();
+
+        Log.d(TAG, "== clubCorrections: \n" + aggregator.getClubCorrections().toString());
         Log.d(TAG, "== mMatchDates    : \n" + MapUtil.toNiceString(mMatchDates));
         Log.d(TAG, "== mMatchEvents   : \n" + MapUtil.toNiceString(mMatchEvents));
         Log.d(TAG, "== mMatchDivisions: \n" + MapUtil.toNiceString(mMatchDivisions));
@@ -426,9 +300,9 @@ public class ResultSender {
                        sP = StringUtil.capitalize( PreferenceValues.getOAString(context, R.string.points    ) );
 
                 sbClubResult.append(ListUtil.join(lClubs, " vs "));
-                sbClubResult.append("\n").append(sM).append(": ").append(joinPoints(lClubs, mClub2MatchesWon));
-                sbClubResult.append("\n").append(sG).append(": ").append(joinPoints(lClubs, mClub2GamesWon));
-                sbClubResult.append("\n").append(sP).append(": ").append(joinPoints(lClubs, mClub2PointsWon));
+                sbClubResult.append("\n").append(sM).append(": ").append(mClub2Tally.get(lClubs.get(0)).getMatchesWon()).append("/").append(mClub2Tally.get(lClubs.get(1)).getMatchesWon());
+                sbClubResult.append("\n").append(sG).append(": ").append(mClub2Tally.get(lClubs.get(0)).getGamesWon  ()).append("/").append(mClub2Tally.get(lClubs.get(1)).getGamesWon  ());
+                sbClubResult.append("\n").append(sP).append(": ").append(mClub2Tally.get(lClubs.get(0)).getPointsWon ()).append("/").append(mClub2Tally.get(lClubs.get(1)).getPointsWon ());
             } else {
                 // clubs do not match
             }
@@ -479,10 +353,6 @@ public class ResultSender {
         return sResult.trim();
     }
 
-    private static String joinPoints(List<String> lClubs, TreeMap<String, Integer> mClubToNumber) {
-        return mClubToNumber.get(lClubs.get(0)) + "/" + mClubToNumber.get(lClubs.get(1));
-    }
-
     public void sendToPackage(Context ctx, String packageName, String sMsg) {
 
         PackageManager pm=ctx.getPackageManager();
@@ -17,7 +17,6 @@
 package com.doubleyellow.scoreboard.speech;
 
 import android.content.Context;
-import android.content.res.Resources;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.CountDownTimer;
@@ -56,6 +55,11 @@ public class Speak
     private Context      m_context;
     private Locale       m_locale;
     private int          m_iStatus = TextToSpeech.STOPPED;
+    private float        m_fPitch  = 1.0f;
+    private float        m_fRate   = 1.0f;
+
+    /** Fixed parts of announcements, pre-synthesized for the current locale and voice */
+    private SpeechClipCache m_clipCache = null;
 
     private static final int I_DELAY_START            = 500;
     private              int m_iDelayBetweenTwoPieces = 500;
@@ -121,6 +125,10 @@ public class Speak
 
     /** invoked to free up resources */
     public void stop() {
+        if ( m_clipCache != null ) {
+            m_clipCache.release();
+            m_clipCache = null;
+        }
         if ( m_textToSpeech != null ) {
             m_textToSpeech.stop();
             m_textToSpeech.shutdown();
@@ -158,6 +166,7 @@ public class Speak
                     if ( sVoice != null ) {
                         setVoice(sVoice);
                     }
+                    prepareClips();
 
 /*
                     Feature feature = PreferenceValues.useOfficialAnnouncementsFeature(m_context);
@@ -182,12 +191,20 @@ public class Speak
 
         @Override public void onDone(String utteranceId) {
             Log.d(TAG, "onDone with " + utteranceId);
+            if ( utteranceId.startsWith(SpeechClipCache.UTTERANCE_PREFIX) ) {
+                onClipSynthesized(utteranceId, true);
+                return;
+            }
             //Looper.prepare(); // Only one Looper may be created per thread
             speakNext(utteranceId);
         }
 
         @Override public void onError(String utteranceId) {
             Log.d(TAG, "onError with " + utteranceId);
+            if ( utteranceId.startsWith(SpeechClipCache.UTTERANCE_PREFIX) ) {
+                onClipSynthesized(utteranceId, false);
+                return;
+            }
             speakNext(utteranceId);
         }
 
@@ -198,6 +215,58 @@ public class Speak
         }
     };
 
+    /** a clip has finished playing: continue with the next piece, as if it was spoken by the TextToSpeech engine */
+    private final SpeechClipCache.Listener onClipDoneListener = new SpeechClipCache.Listener() {
+        @Override public void onClipDone(String sUtteranceId) {
+            onUtteranceProgressListener.onDone(sUtteranceId);
+        }
+    };
+
+    private void onClipSynthesized(String sUtteranceId, boolean bSuccess) {
+        SpeechClipCache clipCache = m_clipCache;
+        if ( clipCache != null ) {
+            clipCache.onSynthesized(sUtteranceId, bSuccess);
+        }
+    }
+
+    /** (re)synthesize the fixed parts of announcements in the background, for the current locale, voice, rate and pitch */
+    private void prepareClips() {
+        if ( isStarted() == false ) { return; }
+        if ( m_locale    == null  ) { return; }
+
+        Voice  voice     = m_textToSpeech.getVoice();
+        String sVoiceKey = m_locale + "|" + (voice == null ? "" : voice.getName()) + "|" + m_fRate + "|" + m_fPitch;
+        if ( m_clipCache == null ) {
+            m_clipCache = new SpeechClipCache(m_context, m_textToSpeech, onClipDoneListener);
+        }
+        m_clipCache.prepare(sVoiceKey, getFixedTexts());
+    }
+
+    /** texts used by score(), handout(), gameBall() and setTimerMessage() that do not contain e.g. player names */
+    private List<String> getFixedTexts() {
+        List<String> lTexts = new ArrayList<>();
+        for ( int i = 0; i <= 40; i++ ) {
+            lTexts.add(String.valueOf(i));
+        }
+        int[] iaResIds = { R.string.oa_love
+                         , R.string.oa_deuce
+                         , R.string.oa_golden_point
+                         , R.string.sb_advantage
+                         , R.string.oa_game
+                         , R.string.oa_handout
+                         , R.string.sb_service_over
+                         , Brand.getGameSetBallPoint_ResourceId()
+                         , R.string.oa_set_ball
+                         , R.string.oa_matchball
+                         , R.string.oa_time
+                         };
+        for ( int iResId : iaResIds ) {
+            lTexts.add(getResourceString(iResId));
+        }
+        lTexts.add(getResourceString(R.string.oa_n_all__or__n_equal, 1).replaceAll("[0-9]+", "").trim());
+        return lTexts;
+    }
+
     /*
     m_textToSpeech.addSpeech("40", m_context.getPackageName(), R.raw.speak_40_german);
     if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.S ) {
@@ -215,13 +284,18 @@ public class Speak
         aLocales[1] = PreferenceValues.getDeviceLocale(m_context);
         aLocales[2] = Locale.ENGLISH;
         setOneOfLocales(aLocales);
+        prepareClips();
     }
 
     public void setPitch(float fSpeechPitch) {
+        m_fPitch = fSpeechPitch;
         m_textToSpeech.setPitch(fSpeechPitch);
+        prepareClips();
     }
     public void setSpeechRate(float fSpeechRate) {
+        m_fRate = fSpeechRate;
         m_textToSpeech.setSpeechRate(fSpeechRate);
+        prepareClips();
     }
     public void setPauseBetweenParts(int iPauseInMS) {
         m_iDelayBetweenTwoPieces = iPauseInMS;
@@ -342,6 +416,8 @@ public class Speak
             int SuccessOfError = m_textToSpeech.setVoice(voice);
             if ( SuccessOfError == TextToSpeech.ERROR ) {
                 Toast.makeText(m_context, "Could not set voice " + sName, Toast.LENGTH_SHORT).show();
+            } else {
+                prepareClips();
             }
         }
     }
@@ -619,9 +695,8 @@ public class Speak
 
     /** get text from correct locale */
     private String getResourceString(int p, Object ... args) {
-        p = PreferenceValues.getSportSpecificSuffixedResId(m_context, p); // e.g. for Squash Game=Satz, but for TennisPadel Game=Spiel. Hence we have oa_game=Game and Satz and oa_game__TennisPadel=Game and Spiel
-        Resources resources = PreferenceValues.newResources(m_context.getResources(), m_locale);
-        return resources.getString(p, args);
+        // e.g. for Squash Game=Satz, but for TennisPadel Game=Spiel. Hence we have oa_game=Game and Satz and oa_game__TennisPadel=Game and Spiel
+        return PreferenceValues.getAnnouncementStrings(m_context, m_locale).getSportSpecificString(p, args);
     }
     private String x_GamesTo_y(int iGamesLeader, int iGamesTrailer, int iResIdGameOrSet, int iResIdGamesOrSets, Context ctx) {
         return iGamesLeader
@@ -648,6 +723,11 @@ public class Speak
     private int m_iErrorCount = 0;
     private void speak(String sText, SpeechType type) {
         try {
+            SpeechClipCache clipCache = m_clipCache;
+            if ( (clipCache != null) && clipCache.play(sText, type.toString()) ) {
+                m_iErrorCount = 0;
+                return;
+            }
             if ( Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP /* 21 */ ) {
                 Bundle bundle = new Bundle();
                 bundle.putFloat(TextToSpeech.Engine.KEY_PARAM_VOLUME, 1.0f); // between 0 and 1
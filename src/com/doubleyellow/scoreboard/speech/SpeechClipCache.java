@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.speech;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.MediaMetadataRetriever;
+import android.media.SoundPool;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.speech.tts.TextToSpeech;
+import android.util.Log;
+
+import com.doubleyellow.util.StringUtil;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Audio of the fixed texts of score announcements (numbers, 'love', 'all', game ball, handout...), synthesized to files in advance.
+ *
+ * - clips are synthesized one at a time with TextToSpeech.synthesizeToFile(), only while nothing is being spoken
+ * - clips are stored per locale, voice, speech rate and pitch in the cache dir, so they are re-used after a restart of the app
+ * - clips are played with a SoundPool, that keeps the decoded audio in memory
+ *
+ * Player names and other texts without a clip are still spoken by the TextToSpeech engine.
+ */
+class SpeechClipCache
+{
+    private static final String TAG = "SB." + SpeechClipCache.class.getSimpleName();
+
+    /** Utterance id of a clip being synthesized starts with this prefix */
+    static final String UTTERANCE_PREFIX = "clip:";
+
+    private static final String DIR            = "speech";
+    private static final String EXTENSION      = ".wav";
+    private static final int    MAX_VOICE_DIRS = 3;
+    private static final long   RETRY_WHILE_SPEAKING_MS = 1000;
+    private static final long   DURATION_UNKNOWN_MS     = 1000;
+
+    /** Invoked on a background thread when a clip has finished playing */
+    interface Listener {
+        void onClipDone(String sUtteranceId);
+    }
+
+    private static class Clip {
+        final String sText;
+        final File   file;
+        int          iSoundId    = 0;
+        long         lDurationMs = DURATION_UNKNOWN_MS;
+        boolean      bLoaded     = false;
+        Clip(String sText, File file) {
+            this.sText = sText;
+            this.file  = file;
+        }
+    }
+
+    private final Context       m_context;
+    private final TextToSpeech  m_textToSpeech;
+    private final Listener      m_listener;
+    private final SoundPool     m_soundPool;
+    private final HandlerThread m_thread;
+    private final Handler       m_handler;
+
+    /** guarded by this */
+    private String               m_sVoiceKey       = null;
+    private File                 m_dir             = null;
+    private Map<String, Clip>    m_mText2Clip      = new HashMap<>();
+    private Map<Integer, Clip>   m_mSoundId2Clip   = new HashMap<>();
+    private final Deque<Clip>    m_dqToSynthesize  = new ArrayDeque<>();
+    private Clip                 m_clipSynthesizing = null;
+
+    SpeechClipCache(Context context, TextToSpeech textToSpeech, Listener listener) {
+        m_context      = context.getApplicationContext();
+        m_textToSpeech = textToSpeech;
+        m_listener     = listener;
+
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_MEDIA)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                .build();
+        m_soundPool = new SoundPool.Builder().setMaxStreams(2).setAudioAttributes(attributes).build();
+        m_soundPool.setOnLoadCompleteListener(new SoundPool.OnLoadCompleteListener() {
+            @Override public void onLoadComplete(SoundPool soundPool, int iSoundId, int iStatus) {
+                onLoaded(iSoundId, iStatus == 0);
+            }
+        });
+
+        m_thread = new HandlerThread(SpeechClipCache.class.getSimpleName());
+        m_thread.start();
+        m_handler = new Handler(m_thread.getLooper());
+    }
+
+    void release() {
+        m_handler.removeCallbacksAndMessages(null);
+        m_thread.quitSafely();
+        m_soundPool.release();
+    }
+
+    /**
+     * Ensures there are clips for the texts in the given voice.
+     * @param sVoiceKey identifies locale, voice, rate and pitch: if it changes all clips are replaced
+     */
+    synchronized void prepare(String sVoiceKey, Collection<String> lTexts) {
+        if ( sVoiceKey.equals(m_sVoiceKey) == false ) {
+            for ( Clip clip : m_mText2Clip.values() ) {
+                if ( clip.iSoundId != 0 ) {
+                    m_soundPool.unload(clip.iSoundId);
+                }
+            }
+            m_mText2Clip      = new HashMap<>();
+            m_mSoundId2Clip   = new HashMap<>();
+            m_dqToSynthesize.clear();
+            m_clipSynthesizing = null;
+
+            m_sVoiceKey = sVoiceKey;
+            File dirAll = new File(m_context.getCacheDir(), DIR);
+            m_dir = new File(dirAll, StringUtil.md5hash(sVoiceKey));
+            m_dir.mkdirs();
+            m_dir.setLastModified(System.currentTimeMillis());
+            deleteOldVoices(dirAll);
+        }
+        for ( String sText : lTexts ) {
+            if ( StringUtil.isEmpty(sText) || m_mText2Clip.containsKey(sText) ) { continue; }
+            Clip clip = new Clip(sText, new File(m_dir, StringUtil.md5hash(sText) + EXTENSION));
+            m_mText2Clip.put(sText, clip);
+            if ( clip.file.length() > 0 ) {
+                load(clip);
+            } else {
+                m_dqToSynthesize.addLast(clip);
+            }
+        }
+        m_handler.post(m_synthesizeNext);
+    }
+
+    /** Returns false if there is no clip (yet) for the text: it should be spoken by the TextToSpeech engine */
+    synchronized boolean play(String sText, final String sUtteranceId) {
+        Clip clip = m_mText2Clip.get(sText);
+        if ( (clip == null) || (clip.bLoaded == false) ) {
+            return false;
+        }
+        int iStreamId = m_soundPool.play(clip.iSoundId, 1.0f, 1.0f, 1, 0, 1.0f);
+        if ( iStreamId == 0 ) {
+            return false;
+        }
+        m_handler.postDelayed(new Runnable() {
+            @Override public void run() {
+                m_listener.onClipDone(sUtteranceId);
+            }
+        }, clip.lDurationMs);
+        return true;
+    }
+
+    /** To be invoked from the UtteranceProgressListener for utterance ids starting with UTTERANCE_PREFIX */
+    synchronized void onSynthesized(String sUtteranceId, boolean bSuccess) {
+        Clip clip = m_clipSynthesizing;
+        if ( (clip == null) || sUtteranceId.equals(UTTERANCE_PREFIX + clip.file.getName()) == false ) {
+            // voice changed while synthesizing
+            return;
+        }
+        m_clipSynthesizing = null;
+        if ( bSuccess && (clip.file.length() > 0) ) {
+            load(clip);
+        } else {
+            Log.w(TAG, "Could not synthesize " + clip.sText);
+            clip.file.delete();
+        }
+        m_handler.post(m_synthesizeNext);
+    }
+
+    private final Runnable m_synthesizeNext = new Runnable() {
+        @Override public void run() {
+            synchronized ( SpeechClipCache.this ) {
+                if ( (m_clipSynthesizing != null) || m_dqToSynthesize.isEmpty() ) { return; }
+                if ( m_textToSpeech.isSpeaking() ) {
+                    // do not delay announcements: try again later
+                    m_handler.postDelayed(this, RETRY_WHILE_SPEAKING_MS);
+                    return;
+                }
+                Clip clip = m_dqToSynthesize.removeFirst();
+                int iResult = m_textToSpeech.synthesizeToFile(clip.sText, null, clip.file, UTTERANCE_PREFIX + clip.file.getName());
+                if ( iResult == TextToSpeech.SUCCESS ) {
+                    m_clipSynthesizing = clip;
+                } else {
+                    Log.w(TAG, "Could not start synthesizing " + clip.sText);
+                    m_handler.post(this);
+                }
+            }
+        }
+    };
+
+    /** guarded by this */
+    private void load(Clip clip) {
+        clip.lDurationMs = getDuration(clip.file);
+        clip.iSoundId    = m_soundPool.load(clip.file.getAbsolutePath(), 1);
+        m_mSoundId2Clip.put(clip.iSoundId, clip);
+    }
+
+    private synchronized void onLoaded(int iSoundId, boolean bSuccess) {
+        Clip clip = m_mSoundId2Clip.get(iSoundId);
+        if ( clip == null ) { return; }
+        clip.bLoaded = bSuccess;
+        if ( bSuccess == false ) {
+            Log.w(TAG, "Could not load clip for " + clip.sText);
+            clip.file.delete();
+        }
+    }
+
+    private static long getDuration(File file) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(file.getAbsolutePath());
+            String sDuration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            return StringUtil.isEmpty(sDuration) ? DURATION_UNKNOWN_MS : Long.parseLong(sDuration);
+        } catch (Exception e) {
+            Log.w(TAG, "Could not determine duration of " + file + " : " + e);
+            return DURATION_UNKNOWN_MS;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    /** Keep the clips of the voices used most recently */
+    private static void deleteOldVoices(File dirAll) {
+        File[] dirs = dirAll.listFiles();
+        if ( (dirs == null) || (dirs.length <= MAX_VOICE_DIRS) ) { return; }
+        Arrays.sort(dirs, new Comparator<File>() {
+            @Override public int compare(File f1, File f2) {
+                return Long.compare(f2.lastModified(), f1.lastModified());
+            }
+        });
+        for ( int i = MAX_VOICE_DIRS; i < dirs.length; i++ ) {
+            File[] files = dirs[i].listFiles();
+            if ( files != null ) {
+                for ( File f : files ) {
+                    f.delete();
+                }
+            }
+            dirs[i].delete();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Counts durations in buckets of 1, 2, 4, ... 2048 ms and more.
+ * Recording does not allocate, so it can be done for every event.
+ */
+public class LatencyHistogram
+{
+    private static final int NR_OF_BUCKETS = 13; // last one for everything above 2048 ms
+
+    private final String m_sName;
+    private final long[] m_laCounts = new long[NR_OF_BUCKETS];
+    private       long   m_lCount   = 0;
+    private       long   m_lTotalMs = 0;
+    private       long   m_lMaxMs   = 0;
+
+    public LatencyHistogram(String sName) {
+        m_sName = sName;
+    }
+
+    public synchronized void record(long lMs) {
+        if ( lMs < 0 ) { lMs = 0; }
+        m_laCounts[getBucket(lMs)]++;
+        m_lCount++;
+        m_lTotalMs += lMs;
+        m_lMaxMs    = Math.max(m_lMaxMs, lMs);
+    }
+
+    public synchronized long getCount() {
+        return m_lCount;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(m_laCounts, 0);
+        m_lCount   = 0;
+        m_lTotalMs = 0;
+        m_lMaxMs   = 0;
+    }
+
+    /** Upper bound of the bucket holding the given percentile (0-100), or -1 if nothing was recorded */
+    public synchronized long getPercentileUpperBoundMs(int iPercentile) {
+        if ( m_lCount == 0 ) { return -1; }
+        long lNeeded = Math.max(1, (m_lCount * iPercentile + 99) / 100);
+        long lSeen   = 0;
+        for ( int b = 0; b < NR_OF_BUCKETS; b++ ) {
+            lSeen += m_laCounts[b];
+            if ( lSeen >= lNeeded ) {
+                return (b == NR_OF_BUCKETS - 1) ? m_lMaxMs : getUpperBoundMs(b);
+            }
+        }
+        return m_lMaxMs;
+    }
+
+    private static int getBucket(long lMs) {
+        int b = 0;
+        while ( (b < NR_OF_BUCKETS - 1) && (lMs > getUpperBoundMs(b)) ) {
+            b++;
+        }
+        return b;
+    }
+    private static long getUpperBoundMs(int iBucket) {
+        return 1L << iBucket;
+    }
+
+    /** Summary line followed by a line per non empty bucket */
+    @Override public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%s: n=%d", m_sName, m_lCount));
+        if ( m_lCount == 0 ) {
+            return sb.toString();
+        }
+        sb.append(String.format(Locale.US, ", avg=%d ms, p50<=%d ms, p90<=%d ms, max=%d ms"
+                , m_lTotalMs / m_lCount, getPercentileUpperBoundMs(50), getPercentileUpperBoundMs(90), m_lMaxMs));
+        for ( int b = 0; b < NR_OF_BUCKETS; b++ ) {
+            if ( m_laCounts[b] == 0 ) { continue; }
+            String sBucket = (b == NR_OF_BUCKETS - 1) ? ("> " + getUpperBoundMs(b - 1)) : ("<= " + getUpperBoundMs(b));
+            sb.append(String.format(Locale.US, "\n%8s ms : %d", sBucket, m_laCounts[b]));
+        }
+        return sb.toString();
+    }
+}
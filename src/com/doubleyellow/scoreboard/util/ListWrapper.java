@@ -39,6 +39,12 @@ public class ListWrapper<E> extends ArrayList<E>
     public ListWrapper(Collection<? extends E> c) {
         super(c);
     }
+    /** Same elements, name and logging */
+    public ListWrapper(ListWrapper<? extends E> other) {
+        super(other);
+        m_sName = other.m_sName;
+        m_bLog  = other.m_bLog;
+    }
     public ListWrapper setName(String s) {
         m_sName = s;
         return this;
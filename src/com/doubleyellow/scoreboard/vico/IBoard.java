@@ -322,7 +322,7 @@ public class IBoard implements TimerViewContainer
         Chronometer tvMatchTime = (Chronometer) findViewById(R.id.sb_match_duration);
         if ( tvMatchTime == null ) { return; }
 
-        boolean bShowMatchTimer = PreferenceValues.showMatchDuration(context, isPresentation());
+        boolean bShowMatchTimer = PreferenceValues.getSnapshot(context).showMatchDuration(isPresentation());
         setVisibility(tvMatchTime, bShowMatchTimer?View.VISIBLE:View.GONE);
 
         if ( bShowMatchTimer ) {
@@ -380,7 +380,7 @@ public class IBoard implements TimerViewContainer
 
         // TODO: hide during first set since it has the same value as match duration
 
-        boolean bShowSetTimer = PreferenceValues.showMatchDuration(context, isPresentation());
+        boolean bShowSetTimer = PreferenceValues.getSnapshot(context).showMatchDuration(isPresentation());
         tvSetTime.setVisibility(bShowSetTimer?View.VISIBLE:View.GONE);
 
         if ( bShowSetTimer ) {
@@ -462,7 +462,7 @@ public class IBoard implements TimerViewContainer
         Chronometer tvGameTime = (Chronometer) findViewById(R.id.sb_game_duration);
         if ( tvGameTime == null ) { return; }
 
-        boolean bShowGameTimer = PreferenceValues.showLastGameDuration(context, isPresentation());
+        boolean bShowGameTimer = PreferenceValues.getSnapshot(context).showLastGameDuration(isPresentation());
         tvGameTime.setVisibility(bShowGameTimer?View.VISIBLE:View.GONE);
         int iGameNrZeroBased = matchModel.getNrOfFinishedGames();
 
@@ -587,14 +587,14 @@ public class IBoard implements TimerViewContainer
 
     private void castSendChronosFunction(String sFunc, long lDurationInSecs, boolean bStartTimer, String sFormat, String sDisplayValue)
     {
-        boolean bShow = PreferenceValues.showMatchDuration(context, true);
+        boolean bShow = PreferenceValues.getSnapshot(context).showMatchDuration(true);
 
         //String sCharML = getOAString(context, R.string.oa_match_firstletter);
         if ( sFunc.equals(ICastHelper.SetChrono_update) ) {
-            bShow = PreferenceValues.showLastGameDuration(context, true);
+            bShow = PreferenceValues.getSnapshot(context).showLastGameDuration(true);
             //sCharML = getOAString(context, R.string.oa_set_firstletter_GSM);
         } else if (sFunc.equals(ICastHelper.GameChrono_update)) {
-            bShow = PreferenceValues.showLastGameDuration(context, true);
+            bShow = PreferenceValues.getSnapshot(context).showLastGameDuration(true);
             //sCharML = getOAString(context, R.string.oa_game_firstletter);
         }
 
@@ -624,8 +624,8 @@ public class IBoard implements TimerViewContainer
         int iReceiveId = m_player2serverSideId.get(player);
         ServeButton btnSide = ( ServeButton ) findViewById(iReceiveId);
         if ( btnSide == null ) { return; }
-        int iTransparencyNonServer = PreferenceValues.getServeButtonTransparencyNonServer(context);
-        EnumSet<ShowPlayerColorOn> showPlayerColorOn = PreferenceValues.showPlayerColorOn(context);
+        int iTransparencyNonServer = PreferenceValues.getSnapshot(context).getServeButtonTransparencyNonServer();
+        EnumSet<ShowPlayerColorOn> showPlayerColorOn = PreferenceValues.getSnapshot(context).showPlayerColorOn();
         if ( showPlayerColorOn.contains(ShowPlayerColorOn.ServeSideButton) ) {
             if ( StringUtil.hasNonEmpty(matchModel.getColor(Player.A), matchModel.getColor(Player.B)) ) {
                 iTransparencyNonServer = 0;
@@ -655,8 +655,8 @@ public class IBoard implements TimerViewContainer
         int iServeId = m_player2serverSideId.get(player);
         ServeButton btnSide = ( ServeButton ) findViewById(iServeId);
         if ( btnSide == null ) { return; }
-        int iTransparencyNonServer = PreferenceValues.getServeButtonTransparencyNonServer(context);
-        EnumSet<ShowPlayerColorOn> showPlayerColorOn = PreferenceValues.showPlayerColorOn(context);
+        int iTransparencyNonServer = PreferenceValues.getSnapshot(context).getServeButtonTransparencyNonServer();
+        EnumSet<ShowPlayerColorOn> showPlayerColorOn = PreferenceValues.getSnapshot(context).showPlayerColorOn();
         if ( showPlayerColorOn.contains(ShowPlayerColorOn.ServeSideButton) ) {
             if ( StringUtil.hasNonEmpty(matchModel.getColor(Player.A), matchModel.getColor(Player.B)) ) {
                 iTransparencyNonServer = 0;
@@ -708,7 +708,7 @@ public class IBoard implements TimerViewContainer
     /** update the old fashioned paper scoring sheet */
     public void updateScoreHistory(boolean bOnlyAddLast)
     {
-        if ( PreferenceValues.showScoringHistoryInMainScreen(context, isPresentation()) == false ) { return; }
+        if ( PreferenceValues.getSnapshot(context).showScoringHistoryInMainScreen(isPresentation()) == false ) { return; }
 
         GameHistoryView currentGameScoreLines = (GameHistoryView) findViewById(R.id.scorehistorytable);
         if ( currentGameScoreLines == null) { return; }
@@ -723,7 +723,7 @@ public class IBoard implements TimerViewContainer
     }
 
     public void toggleGameScoreView() {
-        GameScoresAppearance appearance = PreferenceValues.getGameScoresAppearance(context);
+        GameScoresAppearance appearance = PreferenceValues.getSnapshot(context).getGameScoresAppearance();
                              appearance = ListUtil.getNextEnum(appearance);
         PreferenceValues.setEnum(PreferenceKeys.gameScoresAppearance, context, appearance);
         setGameScoreView(appearance);
@@ -956,7 +956,7 @@ public class IBoard implements TimerViewContainer
         return null;
     }
     public void initGameScoreView() {
-        GameScoresAppearance appearance = PreferenceValues.getGameScoresAppearance(context);
+        GameScoresAppearance appearance = PreferenceValues.getSnapshot(context).getGameScoresAppearance();
         setGameScoreView(appearance);
     }
     private void setGameScoreView(GameScoresAppearance appearance) {
@@ -1098,7 +1098,7 @@ public class IBoard implements TimerViewContainer
         return doGameBallColorSwitch(Player.values(), false);
     }
     private boolean doGameBallColorSwitch(Player[] players, boolean bHasGameBall) {
-        if ( PreferenceValues.indicateGameBall(context) == false ) {
+        if ( PreferenceValues.getSnapshot(context).indicateGameBall() == false ) {
             return false;
         }
         if ( StringUtil.hasNonEmpty(matchModel.getColor(Player.A), matchModel.getColor(Player.B) ) ) {
@@ -1400,7 +1400,7 @@ public class IBoard implements TimerViewContainer
         }
     }
     public void showBLEInfoMessage(String sMsg, int iMessageDurationSecs) {
-        boolean bShow = PreferenceValues.showFeedBackOnBLEButtonsPressedInfoMessages(context);
+        boolean bShow = PreferenceValues.getSnapshot(context).showFeedBackOnBLEButtonsPressedInfoMessages();
         if ( bShow ) {
             showInfoMessage(sMsg, iMessageDurationSecs);
         } else {
@@ -1482,7 +1482,7 @@ public class IBoard implements TimerViewContainer
             cmToLate.setVisibility(View.INVISIBLE);
         }
         boolean bUseAlreadyUpFor_Chrono = (presentation == false);
-        if ( (bUseAlreadyUpFor_Chrono == false) || (PreferenceValues.showTimeIsAlreadyUpFor_Chrono(context) == false) ) {
+        if ( (bUseAlreadyUpFor_Chrono == false) || (PreferenceValues.getSnapshot(context).showTimeIsAlreadyUpFor_Chrono() == false) ) {
             cmToLate = null;
         }
         sbTimerView = new SBTimerView(btnTimer, cmToLate, context, this);
@@ -1504,7 +1504,7 @@ public class IBoard implements TimerViewContainer
     public void updateFieldDivisionBasedOnScore() {
         if ( m_tvFieldDivision == null ) { return; }
 
-        boolean bShowFieldDivision = PreferenceValues.showFieldDivision(context, isPresentation());
+        boolean bShowFieldDivision = PreferenceValues.getSnapshot(context).showFieldDivision(isPresentation());
         if ( bShowFieldDivision == false ) {
             m_tvFieldDivision.setText("");
             m_tvFieldDivision.setVisibility(View.GONE);
@@ -1522,7 +1522,7 @@ public class IBoard implements TimerViewContainer
         m_tvFieldDivision.setText(sField);
         if ( StringUtil.isNotEmpty(sField) ) {
             m_tvFieldDivision.setVisibility(View.VISIBLE);
-            if ( PreferenceValues.hideFieldDivisionWhenGameInProgress(context) ) {
+            if ( PreferenceValues.getSnapshot(context).hideFieldDivisionWhenGameInProgress() ) {
                 m_tvFieldDivision.setVisibility(matchModel.gameHasStarted() ? View.INVISIBLE : View.VISIBLE);
             }
         } else {
@@ -1542,7 +1542,7 @@ public class IBoard implements TimerViewContainer
                     ivBrandLogo.setVisibility(View.GONE);
                     continue;
                 }
-                if ( PreferenceValues.showBrandLogo(context, isPresentation()) == false ) {
+                if ( PreferenceValues.getSnapshot(context).showBrandLogo(isPresentation()) == false ) {
                     // don't show logo on device for branded squore: it clutters with e.g. 'speak' button
                     ivBrandLogo.setVisibility(View.INVISIBLE);
                     continue;
@@ -1602,8 +1602,8 @@ public class IBoard implements TimerViewContainer
         if ( matchModel    == null ) { return; }
         final int brandLogoDrawableId = Brand.getLogoResId();
         if ( brandLogoDrawableId == 0 ) { return; }
-        if ( PreferenceValues.showBrandLogo( context, isPresentation() ) ) {
-            if ( PreferenceValues.hideBrandLogoWhenGameInProgress(context) ) {
+        if ( PreferenceValues.getSnapshot(context).showBrandLogo(isPresentation() ) ) {
+            if ( PreferenceValues.getSnapshot(context).hideBrandLogoWhenGameInProgress() ) {
                 m_ivBrandLogo.setVisibility(matchModel.gameHasStarted() ? View.INVISIBLE : View.VISIBLE);
             }
         }
@@ -1650,7 +1650,7 @@ public class IBoard implements TimerViewContainer
         }
     }
     public void updatePlayerCountry(Player p, String sCountry) {
-        EnumSet<ShowCountryAs> countryPref = PreferenceValues.showCountryAs(context);
+        EnumSet<ShowCountryAs> countryPref = PreferenceValues.getSnapshot(context).showCountryAs();
         View view = findViewById(m_player2nameId.get(p));
 
         boolean bShowAsTextAbbr = countryPref.contains(ShowCountryAs.AbbreviationAfterName);
@@ -1658,7 +1658,7 @@ public class IBoard implements TimerViewContainer
         boolean bShowOnDevice   = countryPref.contains(ShowCountryAs.FlagNextToNameOnDevice  ) && (isPresentation() == false);
         boolean bShowAsFlagPref = bShowOnCast || bShowOnDevice;
         boolean bHideBecauseSameCountry = false;
-        if ( PreferenceValues.hideFlagForSameCountry(context) && StringUtil.isNotEmpty(sCountry) ) {
+        if ( PreferenceValues.getSnapshot(context).hideFlagForSameCountry() && StringUtil.isNotEmpty(sCountry) ) {
             String sOtherCountry = matchModel.getCountry(p.getOther());
             bHideBecauseSameCountry = sCountry.equalsIgnoreCase(sOtherCountry);
         }
@@ -1683,7 +1683,7 @@ public class IBoard implements TimerViewContainer
         castSendFunction(ICastHelper.Country_update + "('" + p + "','" + (sCountry!=null?sCountry:"") + "'," + bSwapAAndB + ")");
     }
     public void updatePlayerAvatar(Player p, String sAvatar) {
-        EnumSet<ShowAvatarOn> avatarPref = PreferenceValues.showAvatarOn(context);
+        EnumSet<ShowAvatarOn> avatarPref = PreferenceValues.getSnapshot(context).showAvatarOn();
         boolean bShowOnCast   = avatarPref.contains(ShowAvatarOn.OnChromeCast) && (isPresentation() == true);
         boolean bShowOnDevice = avatarPref.contains(ShowAvatarOn.OnDevice    ) && (isPresentation() == false);
         boolean bShowAvatar   = bShowOnCast || bShowOnDevice;
@@ -1708,7 +1708,7 @@ public class IBoard implements TimerViewContainer
         castSendFunction(ICastHelper.Avatar_update + "('" + p + "','" + (sAvatar!=null?sAvatar:"") + "'," + bSwapAAndB + ")");
     }
     public void initPerPlayerColors(Player p, String sColor, String sColorPrev) {
-        EnumSet<ShowPlayerColorOn> colorOns = PreferenceValues.showPlayerColorOn(context);
+        EnumSet<ShowPlayerColorOn> colorOns = PreferenceValues.getSnapshot(context).showPlayerColorOn();
 
         Integer iPlayerColor = null;
         Integer iTxtColor    = null;
@@ -1719,7 +1719,7 @@ public class IBoard implements TimerViewContainer
                 return;
             }
             // switch color of text to black or white depending on chosen color
-            long lPreferWhiteOverBlackStrength = PreferenceValues.getPreferWhiteOverBlackThreshold(context);
+            long lPreferWhiteOverBlackStrength = PreferenceValues.getSnapshot(context).getPreferWhiteOverBlackThreshold();
             iTxtColor = ColorUtil.getBlackOrWhiteFor(sColor, lPreferWhiteOverBlackStrength);
 
             if ( p.equals(m_firstPlayerOnScreen) && ViewUtil.isLandscapeOrientation(context) ) {
@@ -1898,7 +1898,7 @@ public class IBoard implements TimerViewContainer
     }
 
     public boolean showGameBallMessage(boolean bVisible, Player[] pGameBallFor) {
-        if ( PreferenceValues.floatingMessageForGameBall(context, isPresentation()) == false ) {
+        if ( PreferenceValues.getSnapshot(context).floatingMessageForGameBall(isPresentation()) == false ) {
             if ( gameBallMessage != null ) { gameBallMessage.setHidden(true); } // e.g. preferences where changed
             return false;
         }
@@ -1960,7 +1960,7 @@ public class IBoard implements TimerViewContainer
             castSendChangeViewMessage("gameBallMessage", sMsg, ICastHelper.Property_Text);
         }
 
-        EnumSet<ShowPlayerColorOn> colorOns = PreferenceValues.showPlayerColorOn(context);
+        EnumSet<ShowPlayerColorOn> colorOns = PreferenceValues.getSnapshot(context).showPlayerColorOn();
         if ( colorOns.contains(ShowPlayerColorOn.GameBallMessage) ) {
             if ( pGameBallFor != null && pGameBallFor.length == 1) {
                 Player p = pGameBallFor[0];
@@ -2028,7 +2028,7 @@ public class IBoard implements TimerViewContainer
         if ( bHide == false ) {
             decisionMessages[fmIdx].setText(sMsg);
         }
-        EnumSet<ShowPlayerColorOn> colorOns = PreferenceValues.showPlayerColorOn(context);
+        EnumSet<ShowPlayerColorOn> colorOns = PreferenceValues.getSnapshot(context).showPlayerColorOn();
         if ( colorOns.contains(ShowPlayerColorOn.DecisionMessage) ) {
             if ( pDecisionFor != null ) {
                 String sColor = matchModel.getColor(pDecisionFor);
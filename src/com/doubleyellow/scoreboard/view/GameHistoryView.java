@@ -19,10 +19,13 @@ package com.doubleyellow.scoreboard.view;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import androidx.annotation.ColorInt;
+import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.util.Log;
-import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
@@ -46,6 +49,8 @@ import java.util.*;
  * - the main view to show the history of the game in progress
  * - instantiated multiple times in the MatchHistory scoreBoard to give the scoring history of an entire match.
  *
+ * The score lines are drawn by a single child view directly on a canvas, so adding a point does not add views.
+ *
  * @see MatchGameScoresView
  */
 public class GameHistoryView extends ScrollView
@@ -77,7 +82,7 @@ public class GameHistoryView extends ScrollView
 
     @Override public void setOnClickListener(OnClickListener l) {
         super.setOnClickListener(l);
-        tableLayout.setOnClickListener(l);
+        scoreSheet.setOnClickListener(l);
     }
 
     public void setScoreLines(List<ScoreLine> lScorelines, HandicapFormat handicapFormat, int iStartScoreA, int iStartScoreB) {
@@ -114,9 +119,6 @@ public class GameHistoryView extends ScrollView
         this.mGameEndScore = new HashMap<Player, Integer>(mGameEndScore);
     }
 
-    private final TableRow.LayoutParams  trLayoutParams = new TableRow .LayoutParams(TableRow.LayoutParams.WRAP_CONTENT, TableRow   .LayoutParams.WRAP_CONTENT);
-    private final ViewGroup.LayoutParams vgLayoutParams = new ViewGroup.LayoutParams(LayoutParams         .WRAP_CONTENT,             LayoutParams.WRAP_CONTENT);
-
     private boolean bAutoScrollDown = true;
     public void setAutoScrollDown(boolean b) {
         this.bAutoScrollDown = b;
@@ -125,58 +127,22 @@ public class GameHistoryView extends ScrollView
     public void update(boolean bOnlyAddLast)
     {
         if ( bOnlyAddLast ) {
-            if ( history.size() > 1 ) {
-                history = history.subList(history.size()-1, history.size());
+            if ( history.size() > 0 ) {
+                addScoreLine(history.get(history.size() - 1));
             }
         } else {
-            tableLayout.removeAllViews(); // start all over
+            scoreSheet.clear(m_scorelineLayout != null && m_scorelineLayout.hideServeSide() ? 2 : 4); // start all over
+            for (ScoreLine line: history) {
+                addScoreLine(line);
+            }
         }
+        scoreSheet.clearFooters();
 /*
         if (  MapUtil.isNotEmpty(this.mGameStandingBefore) ) {
             String sValue = MapUtil.getInt(this.mGameStandingBefore, Player.A, 0) + " - " + MapUtil.getInt(this.mGameStandingBefore, Player.B, 0);
             addRowInversedColors(sValue, Gravity.LEFT);
         }
 */
-        for (ScoreLine line: history)
-        {
-            TableRow tr = new TableRow(getContext());
-            tr.setBackgroundColor(backgroundColor);
-            tr.setLayoutParams(vgLayoutParams);
-
-            List<String> saScore = line.toStringList(getContext());
-            if ( (m_scorelineLayout != null) ) {
-                if ( m_scorelineLayout.hideServeSide() ) {
-                    saScore.remove(2);
-                    saScore.remove(0);
-                } else if ( m_scorelineLayout.swap34() ) {
-                    ScoreLine.swap(saScore, 3);
-                }
-            }
-            for(String sValue: saScore) {
-                TextView tv = new TextView(getContext());
-                if ( line.isCall() || line.isBrokenEquipment() ) {
-                    // little smaller because call is double letters YL, NL, ST, CW, CS, CG, CM
-                    tv.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSizePx * 2 / 3);
-                } else {
-                    tv.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSizePx);
-                    if ( this.handicapFormat.equals(HandicapFormat.None) == false ) {
-                        sValue = sValue.replaceAll("^-$", "."); // because there may be negative numbers, use dots
-                    }
-                    if ( sValue.length() == 1 ) {
-                        sValue = " " + sValue + " "; // single digit or dash: add spaces
-                    }
-                }
-                tv.setTextColor(textColor);
-                tv.setText(sValue);
-                tv.setGravity(Gravity.CENTER);
-              //tv.setLayoutParams(vgLayoutParams);
-                tv.setLayoutParams(trLayoutParams);
-                tr.addView(tv, trLayoutParams);
-            }
-
-            tableLayout.addView(tr, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT));
-        }
-
         if ( MapUtil.isNotEmpty(this.mGameEndScore) ) {
             String sValue = MapUtil.getInt(this.mGameEndScore, Player.A, 0) + " - " + MapUtil.getInt(this.mGameEndScore, Player.B, 0);
             addRowInversedColors(sValue, Gravity.START);
@@ -210,12 +176,41 @@ public class GameHistoryView extends ScrollView
             }
             addRowInversedColors(sTime, Gravity.END);
         }
+        scoreSheet.changed();
 
         if ( this.bAutoScrollDown ) {
             scrollDown();
         }
     }
 
+    private void addScoreLine(ScoreLine line) {
+        List<String> saScore = line.toStringList(getContext());
+        if ( (m_scorelineLayout != null) ) {
+            if ( m_scorelineLayout.hideServeSide() ) {
+                saScore.remove(2);
+                saScore.remove(0);
+            } else if ( m_scorelineLayout.swap34() ) {
+                ScoreLine.swap(saScore, 3);
+            }
+        }
+        // little smaller because call is double letters YL, NL, ST, CW, CS, CG, CM
+        boolean bSmall = line.isCall() || line.isBrokenEquipment();
+        if ( bSmall == false ) {
+            boolean bHandicap = this.handicapFormat.equals(HandicapFormat.None) == false;
+            for ( int i = 0; i < saScore.size(); i++ ) {
+                String sValue = saScore.get(i);
+                if ( bHandicap && sValue.equals("-") ) {
+                    sValue = "."; // because there may be negative numbers, use dots
+                }
+                if ( sValue.length() == 1 ) {
+                    sValue = " " + sValue + " "; // single digit or dash: add spaces
+                }
+                saScore.set(i, sValue);
+            }
+        }
+        scoreSheet.addRow(saScore, bSmall);
+    }
+
     public void scrollDown() {
         this.post(new Runnable() {
             @Override public void run() {
@@ -224,51 +219,24 @@ public class GameHistoryView extends ScrollView
         });
     }
 
-    private final LinearLayout.LayoutParams layoutParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT);
-
     private void addRow(String sValue, int iGravity) {
-        addRow(sValue, iGravity, backgroundColor, textColor);
+        scoreSheet.addFooter(sValue, iGravity, false);
     }
     private void addRowInversedColors(String sValue, int iGravity) {
-        addRow(sValue, iGravity, textColor, backgroundColor);
-    }
-
-    /**
-     * for adding headers and footers with
-     * - duration of game
-     * - final game score
-     */
-    private void addRow(String sValue, int iGravity, int iBgColor, int iTxtColor) {
-        TableRow.LayoutParams trTimingLayoutParams = new TableRow .LayoutParams(TableRow.LayoutParams.MATCH_PARENT, TableRow   .LayoutParams.WRAP_CONTENT);
-        trTimingLayoutParams.span = 4;
-
-        TableRow tr = new TableRow(getContext());
-        tr.setBackgroundColor(iBgColor);
-        tr.setLayoutParams(vgLayoutParams);
-
-        TextView tv = new TextView(getContext());
-        tv.setTextColor(iTxtColor);
-        tv.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSizePx);
-        tv.setText(sValue);
-        tv.setGravity(iGravity);
-        tv.setLayoutParams(trTimingLayoutParams);
-        tr.addView(tv, trTimingLayoutParams);
-
-        tableLayout.addView(tr, layoutParams);
+        scoreSheet.addFooter(sValue, iGravity, true);
     }
 
-    private TableLayout tableLayout = null;
+    private ScoreSheet scoreSheet = null;
     private void init(Context context, AttributeSet attrs) {
         setValuesFromXml(attrs);
         m_scorelineLayout = PreferenceValues.getScorelineLayout(context);
 
         super.setScrollBarStyle(SCROLLBARS_INSIDE_OVERLAY);
-        tableLayout = new TableLayout(context);
-        tableLayout.setGravity(Gravity.CENTER);
+        scoreSheet = new ScoreSheet(context);
         ViewGroup.LayoutParams layoutParams = new ViewGroup.LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-        this.addView(tableLayout, layoutParams);
+        this.addView(scoreSheet, layoutParams);
         if ( isInEditMode() ) {
-            initPreview(tableLayout);
+            initPreview();
             //throw new RuntimeException("Temp test");
         }
     }
@@ -298,7 +266,7 @@ public class GameHistoryView extends ScrollView
     public void setTextSizePx(int i) {
         if ( i != textSizePx) {
             textSizePx = i;
-            this.update(false);
+            scoreSheet.setTextSizePx(textSizePx);
         }
     }
 
@@ -307,13 +275,12 @@ public class GameHistoryView extends ScrollView
         textColor       = iColor;    // -137216
         textSizePx      = iTextSize==0?textSizePx:iTextSize;
 
-        update(false);
+        scoreSheet.setTextSizePx(textSizePx);
     }
 
     private int iNrOfPreviewLines = 10;
-    private void initPreview(TableLayout child) {
+    private void initPreview() {
         setAutoScrollDown(false);
-        tableLayout = child;
         history = new ArrayList<ScoreLine>();
         int[] iaScores = new int[] {0,0};
         Player pPrev = Player.A;
@@ -337,6 +304,193 @@ public class GameHistoryView extends ScrollView
     }
 
     public void setStretchAllColumns(boolean bValue) {
-        tableLayout.setStretchAllColumns(bValue); // not good for MatchHistory
+        scoreSheet.setStretchAllColumns(bValue); // not good for MatchHistory
+    }
+
+    /**
+     * Lays out the cells of the score lines in columns like a TableLayout would, and draws them on the canvas.
+     * Texts are stored per row as they are drawn, their widths are measured only once.
+     */
+    private class ScoreSheet extends View
+    {
+        private final TextPaint paint      = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        private final TextPaint paintSmall = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        private final Paint     paintBg    = new Paint();
+        private final Rect      rClip      = new Rect();
+
+        private final Map<String, Float> mTextWidth      = new HashMap<String, Float>();
+        private final Map<String, Float> mTextWidthSmall = new HashMap<String, Float>();
+
+        /** texts of the cells, iColumns per row */
+        private String[]  saCells      = new String[0];
+        private boolean[] baSmall      = new boolean[0];
+        private int       iRows        = 0;
+        private int       iColumns     = 4;
+        private float[]   faColWidth   = new float[iColumns];
+        private boolean   bStretch     = false;
+
+        private final List<String>  lFooters         = new ArrayList<String>();
+        private final List<Integer> lFooterGravity   = new ArrayList<Integer>();
+        private final List<Boolean> lFooterInversed  = new ArrayList<Boolean>();
+
+        ScoreSheet(Context context) {
+            super(context);
+            setTextSize(textSizePx);
+        }
+
+        private void setTextSize(int iTextSizePx) {
+            paint     .setTextSize(iTextSizePx);
+            paintSmall.setTextSize(iTextSizePx * 2 / 3);
+            mTextWidth     .clear();
+            mTextWidthSmall.clear();
+        }
+
+        void setTextSizePx(int iTextSizePx) {
+            setTextSize(iTextSizePx);
+            faColWidth = new float[iColumns];
+            for ( int r = 0; r < iRows; r++ ) {
+                updateColumnWidths(r);
+            }
+            changed();
+        }
+
+        void setStretchAllColumns(boolean bValue) {
+            if ( bStretch != bValue ) {
+                bStretch = bValue;
+                invalidate();
+            }
+        }
+
+        void clear(int iNrOfColumns) {
+            iRows      = 0;
+            iColumns   = iNrOfColumns;
+            faColWidth = new float[iColumns];
+            saCells    = new String[iColumns * 16];
+            baSmall    = new boolean[16];
+        }
+
+        void addRow(List<String> lCells, boolean bSmall) {
+            if ( iRows == baSmall.length ) {
+                int iCapacity = Math.max(16, iRows * 2);
+                saCells = Arrays.copyOf(saCells, iCapacity * iColumns);
+                baSmall = Arrays.copyOf(baSmall, iCapacity);
+            }
+            for ( int c = 0; c < iColumns; c++ ) {
+                saCells[iRows * iColumns + c] = c < lCells.size() ? lCells.get(c) : "";
+            }
+            baSmall[iRows] = bSmall;
+            updateColumnWidths(iRows);
+            iRows++;
+        }
+
+        void clearFooters() {
+            lFooters       .clear();
+            lFooterGravity .clear();
+            lFooterInversed.clear();
+        }
+
+        void addFooter(String sValue, int iGravity, boolean bInversed) {
+            lFooters       .add(sValue);
+            lFooterGravity .add(iGravity);
+            lFooterInversed.add(bInversed);
+        }
+
+        /** to be invoked after rows or footers were added */
+        void changed() {
+            requestLayout();
+            invalidate();
+        }
+
+        private void updateColumnWidths(int r) {
+            for ( int c = 0; c < iColumns; c++ ) {
+                faColWidth[c] = Math.max(faColWidth[c], getTextWidth(saCells[r * iColumns + c], baSmall[r]));
+            }
+        }
+
+        private float getTextWidth(String sText, boolean bSmall) {
+            Map<String, Float> mCache = bSmall ? mTextWidthSmall : mTextWidth;
+            Float fWidth = mCache.get(sText);
+            if ( fWidth == null ) {
+                fWidth = (bSmall ? paintSmall : paint).measureText(sText);
+                mCache.put(sText, fWidth);
+            }
+            return fWidth;
+        }
+
+        private int getRowHeight(TextPaint p) {
+            Paint.FontMetricsInt fm = p.getFontMetricsInt();
+            return fm.bottom - fm.top;
+        }
+
+        private float getColumnsWidth() {
+            float fWidth = 0;
+            for ( float f: faColWidth ) {
+                fWidth += f;
+            }
+            return fWidth;
+        }
+
+        @Override protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            float fWidth = getColumnsWidth();
+            for ( String sFooter: lFooters ) {
+                fWidth = Math.max(fWidth, getTextWidth(sFooter, false));
+            }
+            int iRowHeight      = getRowHeight(paint);
+            int iRowHeightSmall = getRowHeight(paintSmall);
+            int iHeight = lFooters.size() * iRowHeight;
+            for ( int r = 0; r < iRows; r++ ) {
+                iHeight += baSmall[r] ? iRowHeightSmall : iRowHeight;
+            }
+            int iWidth = (int) Math.ceil(fWidth) + getPaddingLeft() + getPaddingRight();
+            iHeight += getPaddingTop() + getPaddingBottom();
+            setMeasuredDimension(resolveSize(iWidth, widthMeasureSpec), resolveSize(iHeight, heightMeasureSpec));
+        }
+
+        @Override protected void onDraw(Canvas canvas) {
+            canvas.getClipBounds(rClip);
+            final int iLeft  = getPaddingLeft();
+            final int iRight = getWidth() - getPaddingRight();
+
+            float fExtraPerColumn = 0;
+            if ( bStretch && (iColumns > 0) ) {
+                fExtraPerColumn = Math.max(0, (iRight - iLeft - getColumnsWidth()) / iColumns);
+            }
+
+            paintBg.setColor(backgroundColor);
+            paint     .setColor(textColor);
+            paintSmall.setColor(textColor);
+
+            int iTop = getPaddingTop();
+            for ( int r = 0; r < iRows; r++ ) {
+                TextPaint p = baSmall[r] ? paintSmall : paint;
+                int iHeight = getRowHeight(p);
+                if ( iTop > rClip.bottom ) { break; }
+                if ( iTop + iHeight >= rClip.top ) {
+                    canvas.drawRect(iLeft, iTop, iRight, iTop + iHeight, paintBg);
+                    float fBaseLine = iTop - p.getFontMetricsInt().top;
+                    float x = iLeft;
+                    for ( int c = 0; c < iColumns; c++ ) {
+                        String sText = saCells[r * iColumns + c];
+                        float  fColWidth = faColWidth[c] + fExtraPerColumn;
+                        canvas.drawText(sText, x + (fColWidth - getTextWidth(sText, baSmall[r])) / 2, fBaseLine, p);
+                        x += fColWidth;
+                    }
+                }
+                iTop += iHeight;
+            }
+
+            int iHeight = getRowHeight(paint);
+            float fBaseLine = - paint.getFontMetricsInt().top;
+            for ( int f = 0; f < lFooters.size(); f++ ) {
+                String  sText     = lFooters.get(f);
+                boolean bInversed = lFooterInversed.get(f);
+                paintBg.setColor(bInversed ? textColor       : backgroundColor);
+                paint  .setColor(bInversed ? backgroundColor : textColor);
+                canvas.drawRect(iLeft, iTop, iRight, iTop + iHeight, paintBg);
+                float x = (lFooterGravity.get(f) == Gravity.END) ? iRight - getTextWidth(sText, false) : iLeft;
+                canvas.drawText(sText, x, iTop + fBaseLine, paint);
+                iTop += iHeight;
+            }
+        }
     }
 }
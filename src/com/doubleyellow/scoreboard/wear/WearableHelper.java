@@ -123,6 +123,10 @@ public class WearableHelper
     static final String BRAND_PATH              = "/" + Brand.brand;
     /** variables used to not SEND a message back while handling an INCOMING message */
     private static String m_sHandlingWearableMessageInProgress = null;
+    /** Invoked on the UI thread by the BTCommandDispatcher around executing a message received from the wearable */
+    public static void setHandlingMessageInProgress(String sMessage) {
+        m_sHandlingWearableMessageInProgress = sMessage;
+    }
 
     private MessageListener onMessageReceivedListener = null;
     private static class MessageListener implements MessageClient.OnMessageReceivedListener
@@ -142,9 +146,8 @@ public class WearableHelper
             Log.d(TAG, String.format("received reqid %d: %s", messageEvent.getRequestId() , sData));
 
             // received a message from the handheld-wearable counterpart: handle change here
-            m_sHandlingWearableMessageInProgress = sData;
-            m_scoreBoard.interpretReceivedMessageOnUiThread(sData, MessageSource.Wearable);
-            m_sHandlingWearableMessageInProgress = null;
+            // (the command is executed later, see setHandlingMessageInProgress())
+            m_scoreBoard.interpretReceivedMessage(sData, MessageSource.Wearable);
         }
     };
 
@@ -220,7 +223,7 @@ public class WearableHelper
         } else {
             if ( ViewUtil.isWearable(context) ) {
                 //pullOrPushMatchOverBluetoothWearable("Handheld");
-                //new SendMessageToWearableTask(context).execute(BRAND_PATH, BTMethods.openSuggestMatchSyncDialogOnOtherPaired.toString());
+                //getOutbox(context).send(BRAND_PATH, BTMethods.openSuggestMatchSyncDialogOnOtherPaired.toString());
             } else {
                 if ( START_APP_ON_WEAR ) {
                     openOrSuggestInstallOnWearDevices(context);
@@ -241,8 +244,7 @@ public class WearableHelper
     public boolean sendMessageToWearablesUnchecked(Context context, Object sMessage) {
         if ( m_bNoWearableSupport ) { return false; }
 
-        SendMessageToWearableTask task = new SendMessageToWearableTask(context);
-        task.myExecute(BRAND_PATH, sMessage);
+        getOutbox(context).send(BRAND_PATH, String.valueOf(sMessage));
         return true;
     }
     public boolean sendMessageToWearables(Context context, String sMessage) {
@@ -258,11 +260,29 @@ public class WearableHelper
             //Log.d(TAG, "App not running on both devices. Not sending: " + sMessage);
             return false;
         }
-        SendMessageToWearableTask task = new SendMessageToWearableTask(context);
-        task.myExecute(BRAND_PATH, sMessage);
+        getOutbox(context).send(BRAND_PATH, sMessage);
         return true;
     }
 
+    /** One outbox for the lifetime of this helper: queues messages and sends them to the paired device(s) in order */
+    private WearableOutbox m_outbox = null;
+    private WearableOutbox getOutbox(Context context) {
+        if ( m_outbox == null ) {
+            m_outbox = new WearableOutbox(context);
+        }
+        return m_outbox;
+    }
+    public String getOutboxStatistics() {
+        if ( m_outbox == null ) { return null; }
+        return m_outbox.getStatistics();
+    }
+    public void onDestroy() {
+        if ( m_outbox == null ) { return; }
+        Log.d(TAG, "Outbox: " + m_outbox.getStatistics());
+        m_outbox.quit();
+        m_outbox = null;
+    }
+
 /*
     private static boolean m_bAttemptToStartOnWearableDone = false;
     private void openOrSuggestInstallOnWearDevices(Context context) {
@@ -298,9 +318,10 @@ public class WearableHelper
             sMarketURL = "market://details" + "?id=com.doubleyellow." + Brand.brand.toString().toLowerCase();
         }
 
-        if ( SendMessageToWearableTask.lastNodeId != null ) {
+        String sLastNodeId = (m_outbox == null) ? null : m_outbox.getLastNodeId();
+        if ( sLastNodeId != null ) {
             Intent intent = new Intent(Intent.ACTION_VIEW).addCategory(Intent.CATEGORY_BROWSABLE).setData(Uri.parse(sMarketURL));
-            RemoteIntent.startRemoteActivity(context, intent, mResultReceiver, SendMessageToWearableTask.lastNodeId);
+            RemoteIntent.startRemoteActivity(context, intent, mResultReceiver, sLastNodeId);
             return true;
         } else {
             //SendIntentToWearableTask task = new SendIntentToWearableTask(context, mResultReceiver);
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2020  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.wear;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.doubleyellow.scoreboard.util.LatencyHistogram;
+import com.doubleyellow.util.ListUtil;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.android.gms.wearable.MessageClient;
+import com.google.android.gms.wearable.Node;
+import com.google.android.gms.wearable.NodeClient;
+import com.google.android.gms.wearable.Wearable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sends messages to the paired device(s) from a single background thread.
+ *
+ * - messages queued while a previous send is still in progress are send to each node as one message, separated by a newline.
+ *   The receiving end splits them again (see BTCommandDispatcher). Files (prefixed with their length) are always send on their own.
+ * - the list of connected nodes is cached for a while instead of being requested for every message
+ */
+class WearableOutbox
+{
+    private static final String TAG = "SB." + WearableOutbox.class.getSimpleName();
+
+    private static final long NODES_CACHE_TTL_MS = 30 * 1000;
+
+    private static class Pending {
+        final String sPath;
+        final String sMessage;
+        final long   lQueuedAt;
+        Pending(String sPath, String sMessage) {
+            this.sPath     = sPath;
+            this.sMessage  = sMessage;
+            this.lQueuedAt = SystemClock.uptimeMillis();
+        }
+        boolean isFile() {
+            int iColon = sMessage.indexOf(':');
+            if ( iColon <= 0 ) { return false; }
+            for ( int i = 0; i < iColon; i++ ) {
+                char c = sMessage.charAt(i);
+                if ( (c < '0') || (c > '9') ) { return false; }
+            }
+            return true;
+        }
+    }
+
+    private final MessageClient m_messageClient;
+    private final NodeClient    m_nodeClient;
+    private final HandlerThread m_thread;
+    private final Handler       m_handler;
+
+    /** guarded by itself */
+    private final Deque<Pending> m_dqPending = new ArrayDeque<>();
+    private       boolean        m_bDrainPosted = false;
+    private       int            m_iMaxQueueDepth = 0;
+
+    /** only accessed on the outbox thread */
+    private List<Node> m_lNodes            = null;
+    private long       m_lNodesRetrievedAt = 0;
+
+    private volatile String m_sLastNodeId = null;
+
+    /** time between queueing a message and the paired device having accepted it */
+    private final LatencyHistogram m_sendLatency = new LatencyHistogram("Wearable send");
+
+    WearableOutbox(Context ctx) {
+        Context appCtx  = ctx.getApplicationContext();
+        m_messageClient = Wearable.getMessageClient(appCtx);
+        m_nodeClient    = Wearable.getNodeClient(appCtx);
+        m_thread        = new HandlerThread(WearableOutbox.class.getSimpleName());
+        m_thread.start();
+        m_handler       = new Handler(m_thread.getLooper());
+    }
+
+    void send(String sPath, String sMessage) {
+        synchronized ( m_dqPending ) {
+            m_dqPending.addLast(new Pending(sPath, sMessage));
+            m_iMaxQueueDepth = Math.max(m_iMaxQueueDepth, m_dqPending.size());
+            if ( m_bDrainPosted ) { return; }
+            m_bDrainPosted = true;
+        }
+        m_handler.post(m_drain);
+    }
+
+    void quit() {
+        m_thread.quitSafely();
+    }
+
+    /** Id of the node a message was last successfully send to, or null */
+    String getLastNodeId() {
+        return m_sLastNodeId;
+    }
+
+    int getQueueDepth() {
+        synchronized ( m_dqPending ) {
+            return m_dqPending.size();
+        }
+    }
+
+    String getStatistics() {
+        int iMaxQueueDepth;
+        synchronized ( m_dqPending ) {
+            iMaxQueueDepth = m_iMaxQueueDepth;
+        }
+        return String.format(Locale.US, "queue depth=%d, max=%d\n%s", getQueueDepth(), iMaxQueueDepth, m_sendLatency);
+    }
+
+    private final Runnable m_drain = new Runnable() {
+        @Override public void run() {
+            List<Pending> lBatch = new ArrayList<>();
+            synchronized ( m_dqPending ) {
+                lBatch.addAll(m_dqPending);
+                m_dqPending.clear();
+                m_bDrainPosted = false;
+            }
+            if ( lBatch.size() > 1 ) {
+                Log.d(TAG, "Sending batch of " + lBatch.size() + " messages");
+            }
+
+            List<Node> nodes = getConnectedNodes();
+            if ( ListUtil.isEmpty(nodes) ) { return; }
+
+            // combine consecutive commands with the same path into one message
+            int iFrom = 0;
+            while ( iFrom < lBatch.size() ) {
+                Pending first = lBatch.get(iFrom);
+                StringBuilder sb = new StringBuilder(first.sMessage);
+                int iTo = iFrom + 1;
+                if ( first.isFile() == false ) {
+                    while ( iTo < lBatch.size() && lBatch.get(iTo).sPath.equals(first.sPath) && (lBatch.get(iTo).isFile() == false) ) {
+                        sb.append("\n").append(lBatch.get(iTo).sMessage);
+                        iTo++;
+                    }
+                }
+                sendToNodes(nodes, first.sPath, sb.toString(), lBatch.subList(iFrom, iTo));
+                iFrom = iTo;
+            }
+        }
+    };
+
+    private List<Node> getConnectedNodes() {
+        long lNow = SystemClock.uptimeMillis();
+        if ( (m_lNodes != null) && (lNow - m_lNodesRetrievedAt < NODES_CACHE_TTL_MS) ) {
+            return m_lNodes;
+        }
+        try {
+            Task<List<Node>> nodeListTask = m_nodeClient.getConnectedNodes();
+            m_lNodes            = Tasks.await(nodeListTask); // this throws exception if API not available
+            m_lNodesRetrievedAt = lNow;
+        } catch (Exception e) {
+            Log.w(TAG, "Retrieving nodes failed: " + e); // e.g. java.util.concurrent.ExecutionException: com.google.android.gms.common.api.ApiException: 17: API: Wearable.API is not available on this device. Connection failed with: ConnectionResult{statusCode=SERVICE_INVALID, resolution=null, message=null}
+            m_lNodes = null;
+        }
+        return m_lNodes;
+    }
+
+    private void sendToNodes(List<Node> nodes, String sPath, String sMessage, List<Pending> lSent) {
+        byte[] baMessage = sMessage.getBytes();
+
+        // start sending to all nodes before waiting for the first one to complete
+        List<Task<Integer>> lTasks = new ArrayList<>(nodes.size());
+        for ( Node node : nodes ) {
+            lTasks.add(m_messageClient.sendMessage(node.getId(), sPath, baMessage));
+        }
+        for ( int i = 0; i < nodes.size(); i++ ) {
+            try {
+                Integer requestId = Tasks.await(lTasks.get(i)); // just an (for every call increasing) integer. Same number as messageEvent.getRequestId() on receiving end
+                Log.v(TAG, String.format("send reqId %d : %s", requestId, sMessage));
+                m_sLastNodeId = nodes.get(i).getId();
+            } catch (Exception e) {
+                Log.w(TAG, "Sending to " + nodes.get(i).getId() + " failed: " + e);
+                m_lNodes = null; // node might have gone: retrieve the list again for the next message
+            }
+        }
+        long lNow = SystemClock.uptimeMillis();
+        for ( Pending p : lSent ) {
+            m_sendLatency.record(lNow - p.lQueuedAt);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017  Iddo Hoeve
+ *
+ * Squore is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.doubleyellow.scoreboard.feed;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that MatchStringTokenizer returns the same groups as the regular expressions in FeedMatchSelector it replaces.
+ *
+ * Lines are generated from pieces that occur in flat feeds, and from pieces that make the regex engine backtrack.
+ * Like the lines of a flat feed, they contain no line terminators (see MatchStringTokenizer).
+ */
+public class MatchStringTokenizerTest
+{
+    private static final Pattern pMatch     = Pattern.compile(FeedMatchSelector.sRegExpMatch);
+    private static final Pattern pOnePlayer = Pattern.compile(FeedMatchSelector.sRegExpOnePlayer);
+
+    private static final String[] PIECES = {
+            "a", "b", "Jan", "Li", "x y", " ", "  ", "\t", "-", " - ", ":", "/", "1", "12", "3"
+          , "(", "[", ")", "]", "(1)", "[2/3]", "(BEL)", "[My Club]", "(a-b)", "PM", "am", ",", "+"
+          , "Walkover", "walkover", "Retired", "Not played", "\u00e9", "_", "3-1", "11-9,"
+    };
+    private static final int iLines = 200000;
+
+    @Test
+    public void sameGroupsAsRegExpForFeedLines() {
+        String[] saLines = {
+                "Jan Rot - Na Li"
+              , "Jan Rot [1] (NED) - Na Li [3/4] (CHN) 11-9, 11-7, 11-5"
+              , "Sat 10:30 Jan Rot (NED) [SC Alkmaar] - Na Li (CHN): 3-1"
+              , "12/03 09:00 PM: Anne-Marie Smith [2] - Mo Khan Walkover"
+              , "Jan Rot (NED) - Na Li (CHN) Not played"
+              , "Kim Lee - Ann Ho 21-15, 19-21, 21-18 (court 2)"
+              , "Racket Lon - Lon Racket +21"
+              , "No opponent for this player"
+        };
+        for ( String sLine : saLines ) {
+            assertSameGroups(pMatch    , sLine, MatchStringTokenizer.tokenizeMatch (sLine));
+            assertSameGroups(pOnePlayer, sLine, MatchStringTokenizer.tokenizePlayer(sLine));
+        }
+    }
+
+    @Test
+    public void sameGroupsAsRegExpForGeneratedLines() {
+        Random random = new Random(20171);
+        for ( int i = 0; i < iLines; i++ ) {
+            StringBuilder sb = new StringBuilder();
+            int iPieces = 1 + random.nextInt(14);
+            for ( int p = 0; p < iPieces; p++ ) {
+                sb.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            String sLine = sb.toString();
+            assertSameGroups(pMatch    , sLine, MatchStringTokenizer.tokenizeMatch (sLine));
+            assertSameGroups(pOnePlayer, sLine, MatchStringTokenizer.tokenizePlayer(sLine));
+        }
+    }
+
+    @Test
+    public void emptyLine() {
+        assertNull(MatchStringTokenizer.tokenizeMatch (""));
+        assertNull(MatchStringTokenizer.tokenizePlayer(""));
+    }
+
+    private static void assertSameGroups(Pattern pattern, String sLine, String[] saGroups) {
+        Matcher m = pattern.matcher(sLine);
+        if ( m.find() == false ) {
+            assertNull(sLine, saGroups);
+            return;
+        }
+        String[] saExpected = new String[m.groupCount() + 1];
+        for ( int g = 0; g <= m.groupCount(); g++ ) {
+            saExpected[g] = m.group(g);
+        }
+        assertEquals(sLine, saExpected.length, saGroups == null ? -1 : saGroups.length);
+        assertArrayEquals(sLine, saExpected, saGroups);
+    }
+}